@@ -0,0 +1,65 @@
+package org.opentripplanner.ext.flex;
+
+import org.junit.Test;
+import org.opentripplanner.ext.flex.trip.UnscheduledTrip;
+import org.opentripplanner.graph_builder.DataImportIssueStore;
+import org.opentripplanner.model.FeedScopedId;
+import org.opentripplanner.model.FlexStopLocation;
+import org.opentripplanner.model.StopTime;
+import org.opentripplanner.model.Trip;
+import org.opentripplanner.routing.graph.Graph;
+import org.opentripplanner.routing.vertextype.IntersectionVertex;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class FlexTravelTimeMatrixModuleTest {
+
+  /** A trip within a zone with three street vertices, which gives at most 9 pairs. */
+  private final Graph graph = createGraph();
+
+  @Test
+  public void theMatrixIsBuiltIfTheEstimatedSizeIsWithinTheMaxSize() {
+    new FlexTravelTimeMatrixModule(9).buildGraph(
+        graph, new HashMap<>(), new DataImportIssueStore(false)
+    );
+    assertNotNull(graph.flexTravelTimeMatrix);
+    // The vertices are not connected, so each vertex only reaches itself
+    assertEquals(3, graph.flexTravelTimeMatrix.size());
+  }
+
+  @Test
+  public void theMatrixIsNotBuiltIfTheEstimatedSizeIsLargerThanTheMaxSize() {
+    new FlexTravelTimeMatrixModule(8).buildGraph(
+        graph, new HashMap<>(), new DataImportIssueStore(false)
+    );
+    assertNull(graph.flexTravelTimeMatrix);
+  }
+
+  private static Graph createGraph() {
+    Graph graph = new Graph();
+    FlexStopLocation zone = new FlexStopLocation(new FeedScopedId("F", "Z"));
+    for (int i = 0; i < 3; ++i) {
+      var vertex = new IntersectionVertex(graph, "V" + i, 10.0 + 0.01 * i, 60.0);
+      vertex.flexStopLocations = Set.of(zone);
+    }
+
+    Trip trip = new Trip(new FeedScopedId("F", "T"));
+    graph.flexTripsById.put(trip.getId(), new UnscheduledTrip(
+        trip, List.of(stopTime(trip, zone), stopTime(trip, zone))
+    ));
+    return graph;
+  }
+
+  private static StopTime stopTime(Trip trip, FlexStopLocation zone) {
+    StopTime stopTime = new StopTime();
+    stopTime.setTrip(trip);
+    stopTime.setStop(zone);
+    return stopTime;
+  }
+}
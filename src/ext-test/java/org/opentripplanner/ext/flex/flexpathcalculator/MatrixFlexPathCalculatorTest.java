@@ -0,0 +1,72 @@
+package org.opentripplanner.ext.flex.flexpathcalculator;
+
+import org.junit.Test;
+import org.opentripplanner.routing.graph.Graph;
+import org.opentripplanner.routing.graph.Vertex;
+import org.opentripplanner.routing.vertextype.IntersectionVertex;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class MatrixFlexPathCalculatorTest {
+
+  private final Graph graph = new Graph();
+  private final Vertex a = new IntersectionVertex(graph, "A", 10.0, 60.0);
+  private final Vertex b = new IntersectionVertex(graph, "B", 10.1, 60.0);
+  private final Vertex c = new IntersectionVertex(graph, "C", 10.2, 60.0);
+  private final Vertex outside = new IntersectionVertex(graph, "D", 10.3, 60.0);
+
+  private final FlexPath fallbackPath = new FlexPath(1, 1, () -> null);
+
+  private final FlexTravelTimeMatrix matrix = new FlexTravelTimeMatrix(
+      List.of(a, b, c),
+      Arrays.asList(
+          new FlexTravelTimeMatrix.Row(
+              new int[] { 0, 1, 2 },
+              new int[] { 0, 120, 180 },
+              new int[] { 0, 1000, 2000 }
+          ),
+          new FlexTravelTimeMatrix.Row(new int[] { 0 }, new int[] { 130 }, new int[] { 1100 }),
+          null
+      )
+  );
+
+  private final MatrixFlexPathCalculator subject = new MatrixFlexPathCalculator(
+      graph,
+      matrix,
+      (fromv, tov, fromStopIndex, toStopIndex) -> fallbackPath
+  );
+
+  @Test
+  public void pathsAreFoundInTheMatrix() {
+    assertPath(1000, 120, subject.calculateFlexPath(a, b, 0, 1));
+    assertPath(2000, 180, subject.calculateFlexPath(a, c, 0, 1));
+    assertPath(1100, 130, subject.calculateFlexPath(b, a, 0, 1));
+    assertEquals(4, matrix.size());
+  }
+
+  @Test
+  public void pathsNotInTheMatrixAreUnreachable() {
+    assertNull(subject.calculateFlexPath(b, c, 0, 1));
+    assertNull(subject.calculateFlexPath(c, a, 0, 1));
+  }
+
+  @Test
+  public void verticesOutsideTheMatrixUseTheFallback() {
+    assertSame(fallbackPath, subject.calculateFlexPath(a, outside, 0, 1));
+    assertSame(fallbackPath, subject.calculateFlexPath(outside, a, 0, 1));
+  }
+
+  private static FlexPath path(int distanceMeters, int durationSeconds) {
+    return new FlexPath(distanceMeters, durationSeconds, () -> null);
+  }
+
+  private static void assertPath(int distanceMeters, int durationSeconds, FlexPath path) {
+    assertEquals(distanceMeters, path.distanceMeters);
+    assertEquals(durationSeconds, path.durationSeconds);
+  }
+}
@@ -0,0 +1,114 @@
+package org.opentripplanner.ext.legacygraphqlapi.datafetchers;
+
+import static org.junit.Assert.assertEquals;
+
+import graphql.schema.DataFetcher;
+import graphql.schema.DataFetchingEnvironment;
+import graphql.schema.DataFetchingEnvironmentImpl;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+import org.dataloader.DataLoaderRegistry;
+import org.junit.Test;
+import org.opentripplanner.model.Agency;
+import org.opentripplanner.model.FeedScopedId;
+import org.opentripplanner.model.Route;
+import org.opentripplanner.model.Stop;
+import org.opentripplanner.routing.RoutingService;
+import org.opentripplanner.routing.alertpatch.EntitySelector;
+import org.opentripplanner.routing.alertpatch.TransitAlert;
+import org.opentripplanner.routing.graph.Graph;
+import org.opentripplanner.routing.impl.TransitAlertServiceImpl;
+import org.opentripplanner.routing.services.TransitAlertService;
+import org.opentripplanner.util.GraphQLDataLoaders;
+
+public class LegacyGraphQLAlertsTest {
+
+  private static final Agency AGENCY = new Agency(new FeedScopedId("F", "A1"), "Agency", "UTC");
+
+  private static final Route ROUTE = new Route(new FeedScopedId("F", "R1"));
+
+  private static final Stop STOP = Stop.stopForTest("S1", 60.0, 10.0);
+
+  private final Graph graph = new Graph() {
+    private final TransitAlertService transitAlertService = createTransitAlertService(this);
+
+    @Override
+    public TransitAlertService getTransitAlertService() {
+      return transitAlertService;
+    }
+  };
+
+  private final DataLoaderRegistry dataLoaders = GraphQLDataLoaders.createRegistry(
+      new RoutingService(graph),
+      Runnable::run
+  );
+
+  @Test
+  public void stopAlerts() throws Exception {
+    assertEquals(
+        List.of("Stop alert"),
+        alertIds(new LegacyGraphQLStopImpl().alerts(), STOP)
+    );
+    assertEquals(
+        List.of(),
+        alertIds(new LegacyGraphQLStopImpl().alerts(), Stop.stopForTest("S2", 60.0, 10.0))
+    );
+  }
+
+  @Test
+  public void routeAlerts() throws Exception {
+    assertEquals(
+        List.of("Route alert"),
+        alertIds(new LegacyGraphQLRouteImpl().alerts(), ROUTE)
+    );
+    assertEquals(
+        List.of(),
+        alertIds(new LegacyGraphQLRouteImpl().alerts(), new Route(new FeedScopedId("F", "R2")))
+    );
+  }
+
+  @Test
+  public void agencyAlerts() throws Exception {
+    assertEquals(
+        List.of("Agency alert"),
+        alertIds(new LegacyGraphQLAgencyImpl().alerts(), AGENCY)
+    );
+  }
+
+  private List<String> alertIds(
+      DataFetcher<CompletableFuture<Iterable<TransitAlert>>> dataFetcher,
+      Object source
+  ) throws Exception {
+    DataFetchingEnvironment environment = DataFetchingEnvironmentImpl
+        .newDataFetchingEnvironment()
+        .source(source)
+        .dataLoaderRegistry(dataLoaders)
+        .build();
+
+    CompletableFuture<Iterable<TransitAlert>> alerts = dataFetcher.get(environment);
+    dataLoaders.dispatchAll();
+
+    return StreamSupport.stream(alerts.get().spliterator(), false)
+        .map(TransitAlert::getId)
+        .collect(Collectors.toList());
+  }
+
+  private static TransitAlertService createTransitAlertService(Graph graph) {
+    TransitAlertService service = new TransitAlertServiceImpl(graph);
+    service.setAlerts(List.of(
+        alert("Stop alert", new EntitySelector.Stop(STOP.getId())),
+        alert("Route alert", new EntitySelector.Route(ROUTE.getId())),
+        alert("Agency alert", new EntitySelector.Agency(AGENCY.getId()))
+    ));
+    return service;
+  }
+
+  private static TransitAlert alert(String id, EntitySelector entity) {
+    TransitAlert alert = new TransitAlert();
+    alert.setId(id);
+    alert.addEntity(entity);
+    return alert;
+  }
+}
@@ -4,6 +4,7 @@ import com.google.common.collect.HashMultimap;
 import com.google.common.collect.Multimap;
 import org.opentripplanner.common.model.T2;
 import org.opentripplanner.ext.flex.flexpathcalculator.FlexPathCalculator;
+import org.opentripplanner.ext.flex.flexpathcalculator.MatrixFlexPathCalculator;
 import org.opentripplanner.ext.flex.flexpathcalculator.StreetFlexPathCalculator;
 import org.opentripplanner.ext.flex.template.FlexAccessTemplate;
 import org.opentripplanner.ext.flex.template.FlexEgressTemplate;
@@ -63,8 +64,8 @@ public class FlexRouter {
     this.streetAccesses = streetAccesses;
     this.streetEgresses = egressTransfers;
     this.flexIndex = graph.index.getFlexIndex();
-    this.accessFlexPathCalculator = new StreetFlexPathCalculator(graph, false);
-    this.egressFlexPathCalculator = new StreetFlexPathCalculator(graph, true);
+    this.accessFlexPathCalculator = createFlexPathCalculator(graph, false);
+    this.egressFlexPathCalculator = createFlexPathCalculator(graph, true);
 
     ZoneId tz = graph.getTimeZone().toZoneId();
     LocalDate searchDate = LocalDate.ofInstant(searchInstant, tz);
@@ -168,6 +169,20 @@ public class FlexRouter {
         .collect(Collectors.toList());;
   }
 
+  /**
+   * Use the driving times calculated when the graph was built if they are available, the paths
+   * which are not in the matrix are calculated with a street search. The matrix is calculated with
+   * forward searches, like the access searches. The egress searches are done in reverse from the
+   * destinations, so they do not use the matrix.
+   */
+  private static FlexPathCalculator createFlexPathCalculator(Graph graph, boolean reverseDirection) {
+    FlexPathCalculator streetCalculator = new StreetFlexPathCalculator(graph, reverseDirection);
+    if (reverseDirection || graph.flexTravelTimeMatrix == null) {
+      return streetCalculator;
+    }
+    return new MatrixFlexPathCalculator(graph, graph.flexTravelTimeMatrix, streetCalculator);
+  }
+
   private Stream<T2<NearbyStop, FlexTrip>> getClosestFlexTrips(Collection<NearbyStop> nearbyStops, boolean pickup) {
     // Find all trips reachable from the nearbyStops
     Stream<T2<NearbyStop, FlexTrip>> flexTripsReachableFromNearbyStops = nearbyStops
@@ -0,0 +1,228 @@
+package org.opentripplanner.ext.flex;
+
+import org.opentripplanner.ext.flex.flexpathcalculator.FlexPath;
+import org.opentripplanner.ext.flex.flexpathcalculator.FlexTravelTimeMatrix;
+import org.opentripplanner.ext.flex.flexpathcalculator.StreetFlexPathCalculator;
+import org.opentripplanner.ext.flex.trip.FlexTrip;
+import org.opentripplanner.graph_builder.DataImportIssueStore;
+import org.opentripplanner.graph_builder.services.GraphBuilderModule;
+import org.opentripplanner.model.FlexLocationGroup;
+import org.opentripplanner.model.FlexStopLocation;
+import org.opentripplanner.model.SimpleTransfer;
+import org.opentripplanner.model.StopLocation;
+import org.opentripplanner.routing.graph.Edge;
+import org.opentripplanner.routing.graph.Graph;
+import org.opentripplanner.routing.graph.Vertex;
+import org.opentripplanner.routing.vertextype.StreetVertex;
+import org.opentripplanner.routing.vertextype.TransitStopVertex;
+import org.opentripplanner.util.ProgressTracker;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Calculate the driving times and distances between all the vertices where a flex trip can be
+ * boarded or alighted, and the other vertices of the same trip. These are the vertices of the
+ * stops, the street vertices inside the flex locations and the vertices where the transfers from
+ * and to the flex locations start and end. The {@link FlexTravelTimeMatrix} is stored in the graph
+ * and used by the {@link FlexRouter} instead of a street search for each access request.
+ * <p>
+ * The number of pairs grows with the square of the number of vertices in the flex locations
+ * served by the same trips. If the estimated number of pairs is larger than the maximum size, the
+ * matrix is not built and all requests use the street search.
+ * <p>
+ * This module must run after the flex locations are linked to the streets, and after the transfers
+ * are generated.
+ */
+public class FlexTravelTimeMatrixModule implements GraphBuilderModule {
+
+  private static final Logger LOG = LoggerFactory.getLogger(FlexTravelTimeMatrixModule.class);
+
+  private final long maxSize;
+
+  /**
+   * @param maxSize the maximum number of origin and destination pairs in the matrix
+   */
+  public FlexTravelTimeMatrixModule(long maxSize) {
+    this.maxSize = maxSize;
+  }
+
+  @Override
+  public void buildGraph(
+      Graph graph, HashMap<Class<?>, Object> extra, DataImportIssueStore issueStore
+  ) {
+    if (graph.flexTripsById.isEmpty()) {
+      return;
+    }
+
+    Map<StopLocation, Set<Vertex>> verticesByLocation = findVerticesByLocation(graph);
+
+    // Many trips serve the same locations, the destinations of each vertex are the vertices of the
+    // distinct sets of trip vertices containing it
+    Set<Set<Vertex>> distinctTripVertices = new LinkedHashSet<>();
+    for (FlexTrip trip : graph.flexTripsById.values()) {
+      Set<Vertex> tripVertices = new LinkedHashSet<>();
+      for (StopLocation stop : trip.getStops()) {
+        if (stop instanceof FlexLocationGroup) {
+          for (StopLocation location : ((FlexLocationGroup) stop).getLocations()) {
+            tripVertices.addAll(verticesByLocation.getOrDefault(location, Set.of()));
+          }
+        }
+        else {
+          tripVertices.addAll(verticesByLocation.getOrDefault(stop, Set.of()));
+        }
+      }
+      distinctTripVertices.add(tripVertices);
+    }
+
+    Map<Vertex, List<Set<Vertex>>> tripVerticesByOrigin = new LinkedHashMap<>();
+    long estimatedSize = 0;
+    for (Set<Vertex> tripVertices : distinctTripVertices) {
+      for (Vertex vertex : tripVertices) {
+        tripVerticesByOrigin.computeIfAbsent(vertex, v -> new ArrayList<>()).add(tripVertices);
+      }
+      estimatedSize += (long) tripVertices.size() * tripVertices.size();
+    }
+
+    List<Vertex> origins = new ArrayList<>(tripVerticesByOrigin.keySet());
+
+    // The estimate is an upper bound, the destinations shared by several sets are counted twice
+    LOG.info(
+        "The flex travel time matrix has at most {} origin and destination pairs from {} vertices.",
+        estimatedSize,
+        origins.size()
+    );
+    if (estimatedSize > maxSize) {
+      LOG.warn(
+          "The flex travel time matrix is not built, the estimated number of pairs is larger than "
+              + "the maximum size {}. The flex driving times are found with a street search for "
+              + "each request.",
+          maxSize
+      );
+      return;
+    }
+
+    ProgressTracker progress = ProgressTracker.track(
+        "Calculate flex travel time matrix", 100, origins.size()
+    );
+    LOG.info(progress.startMessage());
+
+    Map<Vertex, Integer> indexByVertex = new HashMap<>();
+    for (Vertex origin : origins) {
+      indexByVertex.put(origin, indexByVertex.size());
+    }
+
+    // Only the durations and distances are kept, the paths found for each origin are dropped
+    // before the next origin is searched. The rows are in the same order as the origins.
+    List<FlexTravelTimeMatrix.Row> rows = origins
+        .parallelStream()
+        .map(origin -> {
+          Set<Vertex> destinations = new HashSet<>();
+          tripVerticesByOrigin.get(origin).forEach(destinations::addAll);
+          int[] sortedDestinations = destinations
+              .stream()
+              .mapToInt(indexByVertex::get)
+              .sorted()
+              .toArray();
+          var row = findRow(graph, origin, origins, sortedDestinations);
+          // Keep lambda! A method-ref would cause incorrect class and line number to be logged
+          progress.step(m -> LOG.info(m));
+          return row;
+        })
+        .collect(Collectors.toList());
+
+    graph.flexTravelTimeMatrix = new FlexTravelTimeMatrix(origins, rows);
+
+    LOG.info(progress.completeMessage());
+    LOG.info(
+        "Calculated {} flex travel times from {} vertices.",
+        graph.flexTravelTimeMatrix.size(),
+        origins.size()
+    );
+  }
+
+  @Override
+  public void checkInputs() {
+    // No inputs
+  }
+
+  private static Map<StopLocation, Set<Vertex>> findVerticesByLocation(Graph graph) {
+    Map<StopLocation, Set<Vertex>> verticesByLocation = new HashMap<>();
+
+    for (TransitStopVertex vertex : graph.getVerticesOfType(TransitStopVertex.class)) {
+      add(verticesByLocation, vertex.getStop(), vertex);
+    }
+    for (StreetVertex vertex : graph.getVerticesOfType(StreetVertex.class)) {
+      if (vertex.flexStopLocations != null) {
+        for (FlexStopLocation location : vertex.flexStopLocations) {
+          add(verticesByLocation, location, vertex);
+        }
+      }
+    }
+    // The flex templates use the first and last vertex of the transfers from and to a location
+    for (SimpleTransfer transfer : graph.transfersByStop.values()) {
+      List<Edge> edges = transfer.getEdges();
+      if (edges == null || edges.isEmpty()) { continue; }
+      if (transfer.from instanceof FlexStopLocation) {
+        add(verticesByLocation, transfer.from, edges.get(0).getFromVertex());
+      }
+      if (transfer.to instanceof FlexStopLocation) {
+        add(verticesByLocation, transfer.to, edges.get(edges.size() - 1).getToVertex());
+      }
+    }
+    return verticesByLocation;
+  }
+
+  private static void add(
+      Map<StopLocation, Set<Vertex>> verticesByLocation,
+      StopLocation location,
+      Vertex vertex
+  ) {
+    verticesByLocation.computeIfAbsent(location, l -> new LinkedHashSet<>()).add(vertex);
+  }
+
+  /**
+   * Find the durations and distances from the origin to the destinations. The calculator caches the
+   * shortest path tree of the first search from the origin, so all destinations are found with one
+   * search. A new calculator is used for each origin, so only one tree is kept at a time per
+   * thread.
+   *
+   * @param destinations the indexes of the destinations in the vertex list, in ascending order
+   */
+  private static FlexTravelTimeMatrix.Row findRow(
+      Graph graph,
+      Vertex origin,
+      List<Vertex> vertices,
+      int[] destinations
+  ) {
+    StreetFlexPathCalculator calculator = new StreetFlexPathCalculator(graph, false);
+    int[] reached = new int[destinations.length];
+    int[] durations = new int[destinations.length];
+    int[] distances = new int[destinations.length];
+    int size = 0;
+    for (int destination : destinations) {
+      FlexPath path = calculator.calculateFlexPath(origin, vertices.get(destination), 0, 0);
+      if (path != null) {
+        reached[size] = destination;
+        durations[size] = path.durationSeconds;
+        distances[size] = path.distanceMeters;
+        ++size;
+      }
+    }
+    return new FlexTravelTimeMatrix.Row(
+        Arrays.copyOf(reached, size),
+        Arrays.copyOf(durations, size),
+        Arrays.copyOf(distances, size)
+    );
+  }
+}
@@ -26,14 +26,17 @@ public class DirectFlexPathCalculator implements FlexPathCalculator {
       Vertex fromv, Vertex tov, int fromStopIndex, int toStopIndex
   ) {
     double distance = SphericalDistanceLibrary.distance(fromv.getCoordinate(), tov.getCoordinate());
-    LineString geometry = GeometryUtils.getGeometryFactory().createLineString(
-        new Coordinate[] {fromv.getCoordinate(), tov.getCoordinate()}
-    );
 
     return new FlexPath(
         (int) distance,
         (int) (distance / flexSpeed) + DIRECT_EXTRA_TIME,
-        geometry
+        () -> createGeometry(fromv, tov)
+    );
+  }
+
+  static LineString createGeometry(Vertex fromv, Vertex tov) {
+    return GeometryUtils.getGeometryFactory().createLineString(
+        new Coordinate[] {fromv.getCoordinate(), tov.getCoordinate()}
     );
   }
 }
@@ -2,18 +2,32 @@ package org.opentripplanner.ext.flex.flexpathcalculator;
 
 import org.locationtech.jts.geom.LineString;
 
+import java.util.function.Supplier;
+
 /**
  * This class contains the results from a FlexPathCalculator.
+ * <p>
+ * The geometry is only needed for the itineraries returned to the user, so it is created the
+ * first time it is requested.
  */
 public class FlexPath {
 
-  public int distanceMeters;
-  public int durationSeconds;
-  public LineString geometry;
+  public final int distanceMeters;
+  public final int durationSeconds;
+  private Supplier<LineString> geometrySupplier;
+  private LineString geometry;
 
-  public FlexPath(int distanceMeters, int durationSeconds, LineString geometry) {
+  public FlexPath(int distanceMeters, int durationSeconds, Supplier<LineString> geometrySupplier) {
     this.distanceMeters = distanceMeters;
     this.durationSeconds = durationSeconds;
-    this.geometry = geometry;
+    this.geometrySupplier = geometrySupplier;
+  }
+
+  public LineString getGeometry() {
+    if (geometry == null) {
+      geometry = geometrySupplier.get();
+      geometrySupplier = null;
+    }
+    return geometry;
   }
 }
@@ -0,0 +1,106 @@
+package org.opentripplanner.ext.flex.flexpathcalculator;
+
+import org.opentripplanner.routing.graph.Vertex;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The driving durations and distances between the vertices used by flex trips, calculated when the
+ * graph is built. Each row holds the destinations reachable from one origin vertex, sorted by
+ * vertex number, with the duration and distance to each destination in parallel arrays.
+ * <p>
+ * This class is THREAD SAFE, it is not modified after construction.
+ */
+public class FlexTravelTimeMatrix implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  private static final int[] EMPTY = new int[0];
+
+  private final Map<Vertex, Integer> numberByVertex = new HashMap<>();
+
+  private final int[][] destinations;
+
+  private final int[][] durations;
+
+  private final int[][] distances;
+
+  /**
+   * @param vertices all vertices of the matrix, both origins and destinations, without duplicates
+   * @param rows     the row of each vertex, in the same order as the vertices, {@code null} if no
+   *                 destinations are reachable. The destinations are indexes in the vertex list.
+   */
+  public FlexTravelTimeMatrix(List<Vertex> vertices, List<Row> rows) {
+    for (Vertex vertex : vertices) {
+      numberByVertex.put(vertex, numberByVertex.size());
+    }
+    int size = vertices.size();
+    this.destinations = new int[size][];
+    this.durations = new int[size][];
+    this.distances = new int[size][];
+
+    for (int i = 0; i < size; ++i) {
+      Row row = rows.get(i);
+      if (row == null) {
+        destinations[i] = durations[i] = distances[i] = EMPTY;
+      }
+      else {
+        destinations[i] = row.destinations;
+        durations[i] = row.durations;
+        distances[i] = row.distances;
+      }
+    }
+  }
+
+  /** Return {@code true} if the paths from the origin to the destination are in the matrix. */
+  public boolean contains(Vertex origin, Vertex destination) {
+    return numberByVertex.containsKey(origin) && numberByVertex.containsKey(destination);
+  }
+
+  /**
+   * The index of the destination in the row of the origin, or a negative number if the
+   * destination is not reachable within the duration limit of the matrix.
+   */
+  int indexOf(Vertex origin, Vertex destination) {
+    return Arrays.binarySearch(
+        destinations[numberByVertex.get(origin)],
+        numberByVertex.get(destination)
+    );
+  }
+
+  int durationSeconds(Vertex origin, int index) {
+    return durations[numberByVertex.get(origin)][index];
+  }
+
+  int distanceMeters(Vertex origin, int index) {
+    return distances[numberByVertex.get(origin)][index];
+  }
+
+  /** The number of origin and destination pairs with a path. */
+  public int size() {
+    return Arrays.stream(destinations).mapToInt(row -> row.length).sum();
+  }
+
+  /**
+   * The destinations reachable from one origin, with the duration and distance to each destination
+   * in parallel arrays. The destinations are the indexes of the vertices, in ascending order.
+   */
+  public static class Row {
+
+    private final int[] destinations;
+
+    private final int[] durations;
+
+    private final int[] distances;
+
+    public Row(int[] destinations, int[] durations, int[] distances) {
+      this.destinations = destinations;
+      this.durations = durations;
+      this.distances = distances;
+    }
+  }
+}
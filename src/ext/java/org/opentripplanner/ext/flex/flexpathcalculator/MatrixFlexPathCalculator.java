@@ -0,0 +1,76 @@
+package org.opentripplanner.ext.flex.flexpathcalculator;
+
+import org.locationtech.jts.geom.LineString;
+import org.opentripplanner.routing.algorithm.astar.AStar;
+import org.opentripplanner.routing.algorithm.astar.strategies.DurationSkipEdgeStrategy;
+import org.opentripplanner.routing.api.request.RoutingRequest;
+import org.opentripplanner.routing.core.TraverseMode;
+import org.opentripplanner.routing.graph.Graph;
+import org.opentripplanner.routing.graph.Vertex;
+import org.opentripplanner.routing.spt.DominanceFunction;
+import org.opentripplanner.routing.spt.GraphPath;
+import org.opentripplanner.routing.spt.ShortestPathTree;
+
+/**
+ * MatrixFlexPathCalculator looks up the driving times and distances in the
+ * {@link FlexTravelTimeMatrix} calculated when the graph was built, instead of searching the street
+ * network for each request. The matrix is built with forward searches, so this replaces a forward
+ * {@link StreetFlexPathCalculator} only.
+ *
+ * The geometry of a path is only needed for the itineraries which are returned, so it is found
+ * with a search from the origin to the destination the first time it is requested. Paths between
+ * vertices which are not in the matrix are calculated by the fallback calculator.
+ */
+public class MatrixFlexPathCalculator implements FlexPathCalculator {
+
+  private final Graph graph;
+  private final FlexTravelTimeMatrix matrix;
+  private final FlexPathCalculator fallback;
+
+  public MatrixFlexPathCalculator(
+      Graph graph,
+      FlexTravelTimeMatrix matrix,
+      FlexPathCalculator fallback
+  ) {
+    this.graph = graph;
+    this.matrix = matrix;
+    this.fallback = fallback;
+  }
+
+  @Override
+  public FlexPath calculateFlexPath(Vertex fromv, Vertex tov, int fromStopIndex, int toStopIndex) {
+    if (!matrix.contains(fromv, tov)) {
+      return fallback.calculateFlexPath(fromv, tov, fromStopIndex, toStopIndex);
+    }
+
+    int index = matrix.indexOf(fromv, tov);
+    if (index < 0) {
+      return null;
+    }
+
+    return new FlexPath(
+        matrix.distanceMeters(fromv, index),
+        matrix.durationSeconds(fromv, index),
+        () -> createGeometry(fromv, tov)
+    );
+  }
+
+  private LineString createGeometry(Vertex fromv, Vertex tov) {
+    RoutingRequest routingRequest = new RoutingRequest(TraverseMode.CAR);
+    routingRequest.setRoutingContext(graph, fromv, tov);
+    routingRequest.dominanceFunction = new DominanceFunction.EarliestArrival();
+    AStar search = new AStar();
+    search.setSkipEdgeStrategy(
+        new DurationSkipEdgeStrategy(StreetFlexPathCalculator.MAX_FLEX_TRIP_DURATION_SECONDS)
+    );
+    ShortestPathTree spt = search.getShortestPathTree(routingRequest);
+    routingRequest.cleanup();
+
+    GraphPath path = spt.getPath(tov, false);
+    // The street network is the same as when the matrix was built, so this should not happen
+    if (path == null) {
+      return DirectFlexPathCalculator.createGeometry(fromv, tov);
+    }
+    return path.getGeometry();
+  }
+}
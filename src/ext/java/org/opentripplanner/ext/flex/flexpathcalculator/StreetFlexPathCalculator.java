@@ -1,6 +1,5 @@
 package org.opentripplanner.ext.flex.flexpathcalculator;
 
-import org.locationtech.jts.geom.LineString;
 import org.opentripplanner.routing.algorithm.astar.AStar;
 import org.opentripplanner.routing.algorithm.astar.strategies.DurationSkipEdgeStrategy;
 import org.opentripplanner.routing.algorithm.astar.strategies.TrivialRemainingWeightHeuristic;
@@ -32,7 +31,7 @@ import java.util.Map;
  */
 public class StreetFlexPathCalculator implements FlexPathCalculator {
 
-  private static final long MAX_FLEX_TRIP_DURATION_SECONDS = Duration.ofMinutes(45).toSeconds();
+  static final long MAX_FLEX_TRIP_DURATION_SECONDS = Duration.ofMinutes(45).toSeconds();
 
   private final Graph graph;
   private final Map<Vertex, ShortestPathTree> cache = new HashMap<>();
@@ -66,9 +65,8 @@ public class StreetFlexPathCalculator implements FlexPathCalculator {
 
     int distance = (int) path.getDistanceMeters();
     int duration = path.getDuration();
-    LineString geometry = path.getGeometry();
 
-    return new FlexPath(distance, duration, geometry);
+    return new FlexPath(distance, duration, path::getGeometry);
   }
 
   private ShortestPathTree routeToMany(Vertex vertex) {
@@ -5,6 +5,7 @@ import graphql.ExecutionResult;
 import org.opentripplanner.api.json.GraphQLResponseSerializer;
 import org.opentripplanner.standalone.server.OTPServer;
 import org.opentripplanner.standalone.server.Router;
+import org.opentripplanner.util.GraphQLDocumentCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -60,7 +61,10 @@ public class LegacyGraphQLAPI {
       @HeaderParam("OTPMaxResolves") @DefaultValue("1000000") int maxResolves,
       @Context HttpHeaders headers
   ) {
-    if (queryParameters == null || !queryParameters.containsKey("query")) {
+    Map<String, Object> extensions = extensions(queryParameters);
+    if (queryParameters == null || !(
+        queryParameters.containsKey("query") || GraphQLDocumentCache.hasPersistedQuery(extensions)
+    )) {
       LOG.debug("No query found in body");
       return Response
           .status(Response.Status.BAD_REQUEST)
@@ -99,6 +103,7 @@ public class LegacyGraphQLAPI {
         query,
         router,
         variables,
+        extensions,
         operationName,
         maxResolves,
         timeout,
@@ -123,6 +128,7 @@ public class LegacyGraphQLAPI {
         router,
         null,
         null,
+        null,
         maxResolves,
         timeout,
         locale);
@@ -164,10 +170,12 @@ public class LegacyGraphQLAPI {
         variables = null;
       }
       String operationName = (String) query.getOrDefault("operationName", null);
+      Map<String, Object> extensions = extensions(query);
 
       futures.add(() -> LegacyGraphQLIndex.getGraphQLExecutionResult((String) query.get("query"),
           router,
           variables,
+          extensions,
           operationName,
           maxResolves,
           timeout,
@@ -183,4 +191,12 @@ public class LegacyGraphQLAPI {
       throw new RuntimeException(e);
     }
   }
+
+  /** The request extensions, used to send the hash of a persisted query instead of the query. */
+  private static Map<String, Object> extensions(Map<String, Object> queryParameters) {
+    if (queryParameters != null && queryParameters.get("extensions") instanceof Map) {
+      return (Map) queryParameters.get("extensions");
+    }
+    return null;
+  }
 }
@@ -1,6 +1,9 @@
 package org.opentripplanner.ext.legacygraphqlapi;
 
 import com.google.api.client.util.Charsets;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
 import com.google.common.io.Resources;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import graphql.ExecutionInput;
@@ -18,6 +21,8 @@ import org.opentripplanner.api.json.GraphQLResponseSerializer;
 import org.opentripplanner.ext.legacygraphqlapi.datafetchers.*;
 import org.opentripplanner.routing.RoutingService;
 import org.opentripplanner.standalone.server.Router;
+import org.opentripplanner.util.GraphQLDataLoaders;
+import org.opentripplanner.util.GraphQLDocumentCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -36,8 +41,27 @@ class LegacyGraphQLIndex {
 
   static final Logger LOG = LoggerFactory.getLogger(LegacyGraphQLIndex.class);
 
+  /** The maximum number of parsed queries, and of different OTPMaxResolves values, to keep. */
+  static private final int MAX_CACHED_DOCUMENTS = 1000;
+
+  static private final int MAX_CACHED_GRAPHQL_INSTANCES = 10;
+
   static private final GraphQLSchema indexSchema = buildSchema();
 
+  static private final GraphQLDocumentCache documentCache = new GraphQLDocumentCache(
+      "legacygraphqlapi",
+      MAX_CACHED_DOCUMENTS
+  );
+
+  /**
+   * The GraphQL instances are reused between requests, the only difference is the maximum number
+   * of resolves, which is almost always the default value.
+   */
+  static private final LoadingCache<Integer, GraphQL> graphQLByMaxResolves = CacheBuilder
+      .newBuilder()
+      .maximumSize(MAX_CACHED_GRAPHQL_INSTANCES)
+      .build(CacheLoader.from(LegacyGraphQLIndex::createGraphQL));
+
   static final ExecutorService threadPool = Executors.newCachedThreadPool(new ThreadFactoryBuilder()
       .setNameFormat("GraphQLExecutor-%d")
       .build());
@@ -97,30 +121,49 @@ class LegacyGraphQLIndex {
     return null;
   }
 
-  static ExecutionResult getGraphQLExecutionResult(
-      String query, Router router, Map<String, Object> variables, String operationName,
-      int maxResolves, int timeoutMs, Locale locale
-  ) {
+  static private GraphQL createGraphQL(int maxResolves) {
     MaxQueryComplexityInstrumentation instrumentation = new MaxQueryComplexityInstrumentation(
         maxResolves);
-    GraphQL graphQL = GraphQL.newGraphQL(indexSchema).instrumentation(instrumentation).build();
+    return GraphQL
+        .newGraphQL(indexSchema)
+        .instrumentation(instrumentation)
+        .preparsedDocumentProvider(documentCache.forMaxResolves(maxResolves))
+        .build();
+  }
+
+  /**
+   * @param query      the query text, or {@code null} if the extensions contain the hash of a
+   *                   persisted query
+   * @param extensions the request extensions, may be {@code null}
+   */
+  static ExecutionResult getGraphQLExecutionResult(
+      String query, Router router, Map<String, Object> variables, Map<String, Object> extensions,
+      String operationName, int maxResolves, int timeoutMs, Locale locale
+  ) {
+    GraphQL graphQL = graphQLByMaxResolves.getUnchecked(maxResolves);
 
     if (variables == null) {
       variables = new HashMap<>();
     }
+    if (extensions == null) {
+      extensions = new HashMap<>();
+    }
 
+    RoutingService routingService = new RoutingService(router.graph);
     LegacyGraphQLRequestContext requestContext = new LegacyGraphQLRequestContext(
         router,
-        new RoutingService(router.graph)
+        routingService
     );
 
     ExecutionInput executionInput = ExecutionInput
         .newExecutionInput()
-        .query(query)
+        .query(GraphQLDocumentCache.queryOrPersistedQueryMarker(query))
         .operationName(operationName)
         .context(requestContext)
         .root(router)
         .variables(variables)
+        .extensions(extensions)
+        .dataLoaderRegistry(GraphQLDataLoaders.createRegistry(routingService, threadPool))
         .locale(locale)
         .build();
     try {
@@ -131,13 +174,14 @@ class LegacyGraphQLIndex {
   }
 
   static Response getGraphQLResponse(
-      String query, Router router, Map<String, Object> variables, String operationName,
-      int maxResolves, int timeoutMs, Locale locale
+      String query, Router router, Map<String, Object> variables, Map<String, Object> extensions,
+      String operationName, int maxResolves, int timeoutMs, Locale locale
   ) {
     ExecutionResult executionResult = getGraphQLExecutionResult(
         query,
         router,
         variables,
+        extensions,
         operationName,
         maxResolves,
         timeoutMs,
@@ -9,10 +9,12 @@ import org.opentripplanner.ext.legacygraphqlapi.generated.LegacyGraphQLDataFetch
 import org.opentripplanner.model.Agency;
 import org.opentripplanner.model.Route;
 import org.opentripplanner.routing.RoutingService;
+import org.opentripplanner.routing.alertpatch.EntitySelector;
 import org.opentripplanner.routing.alertpatch.TransitAlert;
+import org.opentripplanner.util.GraphQLDataLoaders;
 
 import java.util.Collections;
-import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 public class LegacyGraphQLAgencyImpl implements LegacyGraphQLDataFetchers.LegacyGraphQLAgency {
@@ -69,9 +71,10 @@ public class LegacyGraphQLAgencyImpl implements LegacyGraphQLDataFetchers.Legacy
   }
 
   @Override
-  //TODO
-  public DataFetcher<Iterable<TransitAlert>> alerts() {
-    return environment -> List.of();
+  public DataFetcher<CompletableFuture<Iterable<TransitAlert>>> alerts() {
+    return environment -> GraphQLDataLoaders
+        .alerts(environment, new EntitySelector.Agency(getSource(environment).getId()))
+        .thenApply(alerts -> alerts);
   }
 
   private RoutingService getRoutingService(DataFetchingEnvironment environment) {
@@ -10,10 +10,12 @@ import org.opentripplanner.model.Route;
 import org.opentripplanner.model.Trip;
 import org.opentripplanner.model.TripPattern;
 import org.opentripplanner.routing.RoutingService;
+import org.opentripplanner.routing.alertpatch.EntitySelector;
 import org.opentripplanner.routing.alertpatch.TransitAlert;
+import org.opentripplanner.util.GraphQLDataLoaders;
 
 import java.util.Collection;
-import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 public class LegacyGraphQLRouteImpl implements LegacyGraphQLDataFetchers.LegacyGraphQLRoute {
@@ -116,10 +118,11 @@ public class LegacyGraphQLRouteImpl implements LegacyGraphQLDataFetchers.LegacyG
         .collect(Collectors.toSet());
   }
 
-  //TODO
   @Override
-  public DataFetcher<Iterable<TransitAlert>> alerts() {
-    return environment -> List.of();
+  public DataFetcher<CompletableFuture<Iterable<TransitAlert>>> alerts() {
+    return environment -> GraphQLDataLoaders
+        .alerts(environment, new EntitySelector.Route(getSource(environment).getId()))
+        .thenApply(alerts -> alerts);
   }
 
   private RoutingService getRoutingService(DataFetchingEnvironment environment) {
@@ -16,10 +16,12 @@ import org.opentripplanner.model.TripPattern;
 import org.opentripplanner.model.TripTimeOnDate;
 import org.opentripplanner.model.calendar.ServiceDate;
 import org.opentripplanner.routing.RoutingService;
+import org.opentripplanner.routing.alertpatch.EntitySelector;
 import org.opentripplanner.routing.alertpatch.TransitAlert;
 import org.opentripplanner.routing.graph.Edge;
 import org.opentripplanner.routing.graphfinder.NearbyStop;
 import org.opentripplanner.routing.stoptimes.ArrivalDeparture;
+import org.opentripplanner.util.GraphQLDataLoaders;
 
 import java.text.ParseException;
 import java.util.ArrayList;
@@ -27,9 +29,9 @@ import java.util.Collection;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Function;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 public class LegacyGraphQLStopImpl implements LegacyGraphQLDataFetchers.LegacyGraphQLStop {
 
@@ -211,10 +213,10 @@ public class LegacyGraphQLStopImpl implements LegacyGraphQLDataFetchers.LegacyGr
   }
 
   @Override
-  public DataFetcher<Iterable<TripPattern>> patterns() {
+  public DataFetcher<CompletableFuture<Iterable<TripPattern>>> patterns() {
     return environment -> getValue(
         environment,
-        stop -> getRoutingService(environment).getPatternsForStop(stop, true),
+        stop -> GraphQLDataLoaders.patternsForStop(environment, stop).thenApply(patterns -> patterns),
         station -> null
     );
   }
@@ -288,16 +290,16 @@ public class LegacyGraphQLStopImpl implements LegacyGraphQLDataFetchers.LegacyGr
   }
 
   @Override
-  public DataFetcher<Iterable<StopTimesInPattern>> stoptimesForPatterns() {
+  public DataFetcher<CompletableFuture<Iterable<StopTimesInPattern>>> stoptimesForPatterns() {
     return environment -> {
-      RoutingService routingService = getRoutingService(environment);
       var args = new LegacyGraphQLTypes.LegacyGraphQLStopStoptimesForPatternsArgs(environment.getArguments());
 
       // TODO: use args.getLegacyGraphQLOmitCanceled()
 
-      Function<Stop, List<StopTimesInPattern>> stopTFunction = stop ->
-          routingService.stopTimesForStop(
-              stop,
+      Function<Collection<Stop>, CompletableFuture<List<StopTimesInPattern>>> stopsTFunction = stops ->
+          GraphQLDataLoaders.stopTimesForStops(
+              environment,
+              stops,
               args.getLegacyGraphQLStartTime(),
               args.getLegacyGraphQLTimeRange(),
               args.getLegacyGraphQLNumberOfDepartures(),
@@ -305,57 +307,60 @@ public class LegacyGraphQLStopImpl implements LegacyGraphQLDataFetchers.LegacyGr
               false
           );
 
-      return getValue(
+      CompletableFuture<List<StopTimesInPattern>> stopTimes = getValue(
           environment,
-          stopTFunction,
-          station -> station
-              .getChildStops()
-              .stream()
-              .map(stopTFunction)
-              .flatMap(Collection::stream)
-              .collect(Collectors.toList())
+          stop -> stopsTFunction.apply(List.of(stop)),
+          station -> stopsTFunction.apply(station.getChildStops())
       );
+      return stopTimes == null ? null : stopTimes.thenApply(stoptimesWithPattern -> stoptimesWithPattern);
     };
   }
 
   @Override
-  public DataFetcher<Iterable<TripTimeOnDate>> stoptimesWithoutPatterns() {
+  public DataFetcher<CompletableFuture<Iterable<TripTimeOnDate>>> stoptimesWithoutPatterns() {
     return environment -> {
-      RoutingService routingService = getRoutingService(environment);
       var args = new LegacyGraphQLTypes.LegacyGraphQLStopStoptimesForPatternsArgs(environment.getArguments());
 
       // TODO: use args.getLegacyGraphQLOmitCanceled()
 
-      Function<Stop, Stream<StopTimesInPattern>> stopTFunction = stop ->
-          routingService.stopTimesForStop(
-              stop,
+      Function<Collection<Stop>, CompletableFuture<List<StopTimesInPattern>>> stopsTFunction = stops ->
+          GraphQLDataLoaders.stopTimesForStops(
+              environment,
+              stops,
               args.getLegacyGraphQLStartTime(),
               args.getLegacyGraphQLTimeRange(),
               args.getLegacyGraphQLNumberOfDepartures(),
               args.getLegacyGraphQLOmitNonPickups() ? ArrivalDeparture.DEPARTURES : ArrivalDeparture.BOTH,
               false
-          ).stream();
+          );
 
-      Stream<StopTimesInPattern> stream = getValue(
+      CompletableFuture<List<StopTimesInPattern>> stopTimes = getValue(
           environment,
-          stopTFunction,
-          station -> station
-              .getChildStops()
-              .stream()
-              .flatMap(stopTFunction)
+          stop -> stopsTFunction.apply(List.of(stop)),
+          station -> stopsTFunction.apply(station.getChildStops())
       );
+      if (stopTimes == null) { return null; }
 
-      return stream.flatMap(stoptimesWithPattern -> stoptimesWithPattern.times.stream())
+      return stopTimes.thenApply(stoptimesWithPatterns -> stoptimesWithPatterns
+          .stream()
+          .flatMap(stoptimesWithPattern -> stoptimesWithPattern.times.stream())
           .sorted(Comparator.comparing(t -> t.getServiceDay() + t.getRealtimeDeparture()))
           .limit(args.getLegacyGraphQLNumberOfDepartures())
-          .collect(Collectors.toList());
+          .collect(Collectors.toList()));
     };
   }
 
-  // TODO
   @Override
-  public DataFetcher<Iterable<TransitAlert>> alerts() {
-    return environment -> List.of();
+  public DataFetcher<CompletableFuture<Iterable<TransitAlert>>> alerts() {
+    return environment -> getValue(
+        environment,
+        stop -> GraphQLDataLoaders
+            .alerts(environment, new EntitySelector.Stop(stop.getId()))
+            .thenApply(alerts -> alerts),
+        station -> GraphQLDataLoaders
+            .alerts(environment, new EntitySelector.Stop(station.getId()))
+            .thenApply(alerts -> alerts)
+    );
   }
 
   private RoutingService getRoutingService(DataFetchingEnvironment environment) {
@@ -34,6 +34,7 @@ import org.opentripplanner.model.Trip;
 import org.opentripplanner.model.SystemNotice;
 import graphql.schema.TypeResolver;
 import graphql.schema.DataFetcher;
+import java.util.concurrent.CompletableFuture;
 
 public class LegacyGraphQLDataFetchers {
 
@@ -60,7 +61,7 @@ public class LegacyGraphQLDataFetchers {
 
         public DataFetcher<Iterable<Route>> routes();
 
-        public DataFetcher<Iterable<TransitAlert>> alerts();
+        public DataFetcher<CompletableFuture<Iterable<TransitAlert>>> alerts();
     }
 
     /**
@@ -671,7 +672,7 @@ public class LegacyGraphQLDataFetchers {
 
         public DataFetcher<Iterable<Trip>> trips();
 
-        public DataFetcher<Iterable<TransitAlert>> alerts();
+        public DataFetcher<CompletableFuture<Iterable<TransitAlert>>> alerts();
     }
 
     /**
@@ -743,17 +744,17 @@ public class LegacyGraphQLDataFetchers {
 
         public DataFetcher<Iterable<Route>> routes();
 
-        public DataFetcher<Iterable<TripPattern>> patterns();
+        public DataFetcher<CompletableFuture<Iterable<TripPattern>>> patterns();
 
         public DataFetcher<Iterable<NearbyStop>> transfers();
 
         public DataFetcher<Iterable<StopTimesInPattern>> stoptimesForServiceDate();
 
-        public DataFetcher<Iterable<StopTimesInPattern>> stoptimesForPatterns();
+        public DataFetcher<CompletableFuture<Iterable<StopTimesInPattern>>> stoptimesForPatterns();
 
-        public DataFetcher<Iterable<TripTimeOnDate>> stoptimesWithoutPatterns();
+        public DataFetcher<CompletableFuture<Iterable<TripTimeOnDate>>> stoptimesWithoutPatterns();
 
-        public DataFetcher<Iterable<TransitAlert>> alerts();
+        public DataFetcher<CompletableFuture<Iterable<TransitAlert>>> alerts();
     }
 
     public interface LegacyGraphQLStopAtDistance {
@@ -0,0 +1,43 @@
+// Changes the return type of the data fetchers of the fields which are batched with data loaders
+// to a CompletableFuture. The java-resolvers plugin can only map the types, not single fields.
+//
+// Usage: node batched-fields.js LegacyGraphQLDataFetchers.java
+
+const fs = require('fs');
+
+const BATCHED_FIELDS = {
+  LegacyGraphQLAgency: ['alerts'],
+  LegacyGraphQLRoute: ['alerts'],
+  LegacyGraphQLStop: ['patterns', 'stoptimesForPatterns', 'stoptimesWithoutPatterns', 'alerts'],
+};
+
+const IMPORT = 'import java.util.concurrent.CompletableFuture;';
+
+const file = process.argv[2];
+let code = fs.readFileSync(file, 'utf8');
+
+for (const [type, fields] of Object.entries(BATCHED_FIELDS)) {
+  const start = code.indexOf(`public interface ${type} {`);
+  if (start < 0) {
+    throw new Error(`Interface ${type} not found in ${file}`);
+  }
+  const end = code.indexOf('\n    }\n', start);
+  let body = code.substring(start, end);
+  for (const field of fields) {
+    const fetcher = new RegExp(`public DataFetcher<(.+)> ${field}\\(\\);`);
+    const match = body.match(fetcher);
+    if (!match) {
+      throw new Error(`Field ${type}.${field} not found in ${file}`);
+    }
+    if (!match[1].startsWith('CompletableFuture<')) {
+      body = body.replace(fetcher, `public DataFetcher<CompletableFuture<$1>> ${field}();`);
+    }
+  }
+  code = code.substring(0, start) + body + code.substring(end);
+}
+
+if (!code.includes(IMPORT)) {
+  code = code.replace('import graphql.schema.DataFetcher;', `import graphql.schema.DataFetcher;\n${IMPORT}`);
+}
+
+fs.writeFileSync(file, code);
@@ -1,5 +1,8 @@
 package org.opentripplanner.ext.readiness_endpoint;
 
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import io.prometheus.client.exporter.common.TextFormat;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.opentripplanner.standalone.server.OTPServer;
@@ -38,6 +41,9 @@ public class ActuatorAPI {
             + "    },\n"
             + "    \"health\" : {\n"
             + "      \"href\" : \"/actuator/health\"\n"
+            + "    },\n"
+            + "    \"prometheus\" : {\n"
+            + "      \"href\" : \"/actuator/prometheus\"\n"
             + "    } "
             + "\n}" )
             .type("application/json").build();
@@ -68,4 +74,29 @@ public class ActuatorAPI {
             + "\n}" )
             .type("application/json").build();
     }
+
+    /**
+     * Return the routing and updater metrics in the Prometheus text format. The OpenMetrics
+     * format is returned if requested in the Accept header.
+     */
+    @GET
+    @Path("/prometheus")
+    @Produces({TextFormat.CONTENT_TYPE_004, TextFormat.CONTENT_TYPE_OPENMETRICS_100})
+    public Response prometheus(@HeaderParam("Accept") @DefaultValue("*/*") String acceptHeader) {
+        String contentType = acceptHeader.contains("application/openmetrics-text")
+            ? TextFormat.CONTENT_TYPE_OPENMETRICS_100
+            : TextFormat.CONTENT_TYPE_004;
+
+        PrometheusMeterRegistry registry = Metrics.globalRegistry.getRegistries()
+            .stream()
+            .filter(PrometheusMeterRegistry.class::isInstance)
+            .map(PrometheusMeterRegistry.class::cast)
+            .findFirst()
+            .orElseThrow(() -> new WebApplicationException(Response.Status.NOT_FOUND));
+
+        return Response.status(Response.Status.OK)
+            .entity(registry.scrape(contentType))
+            .type(contentType)
+            .build();
+    }
 }
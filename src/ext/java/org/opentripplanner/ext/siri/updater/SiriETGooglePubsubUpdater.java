@@ -20,10 +20,14 @@ import org.opentripplanner.ext.siri.SiriTimetableSnapshotSource;
 import org.opentripplanner.routing.graph.Graph;
 import org.opentripplanner.updater.GraphUpdater;
 import org.opentripplanner.updater.GraphUpdaterManager;
+import org.opentripplanner.updater.GraphWriterLane;
+import org.opentripplanner.updater.StreamingUpdateBatcher;
 import org.opentripplanner.util.HttpUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import uk.org.siri.siri20.EstimatedTimetableDeliveryStructure;
+import uk.org.siri.siri20.EstimatedVehicleJourney;
+import uk.org.siri.siri20.EstimatedVersionFrameStructure;
 import uk.org.siri.siri20.Siri;
 import uk.org.siri.www.siri.SiriType;
 
@@ -31,9 +35,12 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicLong;
 
 /**
@@ -57,9 +64,14 @@ import java.util.concurrent.atomic.AtomicLong;
  *   "type": "google-pubsub-siri-et-updater",
  *   "projectName":"project-1234",                                                      // Google Cloud project name
  *   "topicName": "protobuf.estimated_timetables",                                      // Google Cloud Pubsub topic
- *   "dataInitializationUrl": "http://server/realtime/protobuf/et"  // Optional URL used to initialize OTP with all existing data
+ *   "dataInitializationUrl": "http://server/realtime/protobuf/et",  // Optional URL used to initialize OTP with all existing data
+ *   "batchWindowMs": 1000,                                                            // Max time an update is buffered before it is applied
+ *   "maxBatchSize": 1000                                                              // Number of buffered updates applied without waiting
  * </pre>
  *
+ * The updates are applied in batches by a {@link StreamingUpdateBatcher}, keeping only the last
+ * update of each vehicle journey. A message is acked when the batch with its updates is applied.
+ *
  */
 public class SiriETGooglePubsubUpdater implements GraphUpdater {
 
@@ -97,6 +109,14 @@ public class SiriETGooglePubsubUpdater implements GraphUpdater {
     private final PushConfig pushConfig;
     private final String configRef;
 
+    private final int batchWindowMs;
+    private final int maxBatchSize;
+
+    /**
+     * Applies the estimated vehicle journeys in batches.
+     */
+    private StreamingUpdateBatcher<EstimatedVehicleJourney> batcher;
+
     private transient long startTime;
     private boolean primed;
 
@@ -109,6 +129,8 @@ public class SiriETGooglePubsubUpdater implements GraphUpdater {
         this.dataInitializationUrl = URI.create(config.getDataInitializationUrl());
         this.feedId = config.getFeedId();
         this.reconnectPeriodSec = config.getReconnectPeriodSec();
+        this.batchWindowMs = config.getBatchWindowMs();
+        this.maxBatchSize = config.getMaxBatchSize();
 
         // set subscriber
         String subscriptionId = System.getenv("HOSTNAME");
@@ -160,6 +182,17 @@ public class SiriETGooglePubsubUpdater implements GraphUpdater {
     @Override
     public void setGraphUpdaterManager(GraphUpdaterManager updaterManager) {
         this.updaterManager = updaterManager;
+        this.batcher = new StreamingUpdateBatcher<>(
+                configRef,
+                updaterManager,
+                GraphWriterLane.TIMETABLE,
+                batchWindowMs,
+                maxBatchSize,
+                SiriETGooglePubsubUpdater::journeyKey,
+                (journeys, fullDataset) -> graph -> snapshotSource.applyEstimatedTimetable(
+                        graph, feedId, fullDataset, List.of(createDelivery(journeys))
+                )
+        );
     }
 
     @Override
@@ -266,7 +299,8 @@ public class SiriETGooglePubsubUpdater implements GraphUpdater {
         return DurationFormatUtils.formatDuration((now() - startTime), "HH:mm:ss");
     }
 
-    private void initializeData(URI dataInitializationUrl, EstimatedTimetableMessageReceiver receiver) throws IOException {
+    private void initializeData(URI dataInitializationUrl, EstimatedTimetableMessageReceiver receiver)
+            throws IOException, InterruptedException {
         if (dataInitializationUrl != null) {
 
             LOG.info("Fetching initial data from " + dataInitializationUrl);
@@ -281,33 +315,78 @@ public class SiriETGooglePubsubUpdater implements GraphUpdater {
 
 
             final PubsubMessage message = PubsubMessage.newBuilder().setData(value).build();
-            receiver.receiveMessage(message, new AckReplyConsumer() {
-                @Override
-                public void ack() {
-
-                    primed = true;
-
-                    LOG.info("Pubsub updater initialized after {} ms: [messages: {},  updates: {}, total size: {}, time since startup: {}]",
-                            (System.currentTimeMillis() - t2),
-                            messageCounter.get(),
-                            updateCounter.get(),
-                            FileUtils.byteCountToDisplaySize(sizeCounter.get()),
-                            getTimeSinceStartupString()
-                    );
-                }
-
-                @Override
-                public void nack() {
+            // Wait until the initial data is applied
+            receiver.handleMessage(message).join();
+
+            primed = true;
+
+            LOG.info("Pubsub updater initialized after {} ms: [messages: {},  updates: {}, total size: {}, time since startup: {}]",
+                    (System.currentTimeMillis() - t2),
+                    messageCounter.get(),
+                    updateCounter.get(),
+                    FileUtils.byteCountToDisplaySize(sizeCounter.get()),
+                    getTimeSinceStartupString()
+            );
+        }
+    }
 
-                }
-            });
+    /**
+     * The key of a journey in the batches. A later update of the same journey replaces the
+     * buffered one.
+     */
+    private static Object journeyKey(EstimatedVehicleJourney journey) {
+        if (journey.getFramedVehicleJourneyRef() != null) {
+            return Arrays.asList(
+                    journey.getFramedVehicleJourneyRef().getDataFrameRef() != null
+                            ? journey.getFramedVehicleJourneyRef().getDataFrameRef().getValue()
+                            : null,
+                    journey.getFramedVehicleJourneyRef().getDatedVehicleJourneyRef()
+            );
+        } else if (journey.getDatedVehicleJourneyRef() != null) {
+            return List.of(journey.getDatedVehicleJourneyRef().getValue());
+        } else if (journey.getEstimatedVehicleJourneyCode() != null) {
+            return List.of(journey.getEstimatedVehicleJourneyCode());
         }
+        return null;
+    }
+
+    private static EstimatedTimetableDeliveryStructure createDelivery(List<EstimatedVehicleJourney> journeys) {
+        EstimatedVersionFrameStructure frame = new EstimatedVersionFrameStructure();
+        frame.getEstimatedVehicleJourneies().addAll(journeys);
+        EstimatedTimetableDeliveryStructure delivery = new EstimatedTimetableDeliveryStructure();
+        delivery.getEstimatedJourneyVersionFrames().add(frame);
+        return delivery;
     }
 
     class EstimatedTimetableMessageReceiver implements MessageReceiver {
         @Override
         public void receiveMessage(PubsubMessage message, AckReplyConsumer consumer) {
+            CompletableFuture<Void> applied;
+            try {
+                applied = handleMessage(message);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                consumer.nack();
+                return;
+            }
 
+            // Ack only after all work for the message is complete.
+            applied.whenComplete((result, error) -> {
+                if (error == null) {
+                    consumer.ack();
+                } else {
+                    consumer.nack();
+                }
+            });
+        }
+
+        /**
+         * Add the estimated vehicle journeys of the message to the next batch. Blocks while a batch
+         * is being applied and the buffer is full.
+         *
+         * @return a future completed when the journeys are applied
+         */
+        CompletableFuture<Void> handleMessage(PubsubMessage message) throws InterruptedException {
             Siri siri;
             try {
                 sizeCounter.addAndGet(message.getData().size());
@@ -340,13 +419,16 @@ public class SiriETGooglePubsubUpdater implements GraphUpdater {
                             getTimeSinceStartupString());
                 }
 
-                updaterManager.execute(graph -> {
-                    snapshotSource.applyEstimatedTimetable(graph, feedId, false, estimatedTimetableDeliveries);
-                });
+                List<EstimatedVehicleJourney> journeys = new ArrayList<>();
+                for (EstimatedTimetableDeliveryStructure delivery : estimatedTimetableDeliveries) {
+                    for (EstimatedVersionFrameStructure frame : delivery.getEstimatedJourneyVersionFrames()) {
+                        journeys.addAll(frame.getEstimatedVehicleJourneies());
+                    }
+                }
+                return batcher.add(journeys, false);
             }
 
-            // Ack only after all work for the message is complete.
-            consumer.ack();
+            return CompletableFuture.completedFuture(null);
         }
     }
 
@@ -9,6 +9,8 @@ public class SiriETGooglePubsubUpdaterParameters {
   private final String dataInitializationUrl;
   private final int reconnectPeriodSec;
   private final boolean purgeExpiredData;
+  private final int batchWindowMs;
+  private final int maxBatchSize;
 
   public SiriETGooglePubsubUpdaterParameters(
       String configRef,
@@ -18,7 +20,9 @@ public class SiriETGooglePubsubUpdaterParameters {
       String topicName,
       String dataInitializationUrl,
       int reconnectPeriodSec,
-      boolean purgeExpiredData
+      boolean purgeExpiredData,
+      int batchWindowMs,
+      int maxBatchSize
   ) {
     this.configRef = configRef;
     this.feedId = feedId;
@@ -28,6 +32,8 @@ public class SiriETGooglePubsubUpdaterParameters {
     this.dataInitializationUrl = dataInitializationUrl;
     this.reconnectPeriodSec = reconnectPeriodSec;
     this.purgeExpiredData = purgeExpiredData;
+    this.batchWindowMs = batchWindowMs;
+    this.maxBatchSize = maxBatchSize;
   }
 
   String getConfigRef() { return configRef; }
@@ -38,4 +44,6 @@ public class SiriETGooglePubsubUpdaterParameters {
   String getDataInitializationUrl() { return this.dataInitializationUrl; }
   boolean purgeExpiredData() { return this.purgeExpiredData; }
   int getReconnectPeriodSec() { return this.reconnectPeriodSec; }
+  int getBatchWindowMs() { return this.batchWindowMs; }
+  int getMaxBatchSize() { return this.maxBatchSize; }
 }
@@ -4,6 +4,7 @@ import org.apache.commons.lang3.BooleanUtils;
 import org.opentripplanner.ext.siri.SiriTimetableSnapshotSource;
 import org.opentripplanner.routing.graph.Graph;
 import org.opentripplanner.updater.GraphUpdaterManager;
+import org.opentripplanner.updater.GraphWriterLane;
 import org.opentripplanner.updater.PollingGraphUpdater;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -133,7 +134,7 @@ public class SiriETUpdater extends PollingGraphUpdater {
                 final boolean markPrimed = !moreData;
                 List<EstimatedTimetableDeliveryStructure> etds = serviceDelivery.getEstimatedTimetableDeliveries();
                 if (etds != null) {
-                    updaterManager.execute(graph -> {
+                    updaterManager.execute(GraphWriterLane.TIMETABLE, graph -> {
                         snapshotSource.applyEstimatedTimetable(graph, feedId, fullDataset, etds);
                         if (markPrimed) primed = true;
                     });
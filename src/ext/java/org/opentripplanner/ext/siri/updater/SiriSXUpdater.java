@@ -9,6 +9,7 @@ import org.opentripplanner.routing.graph.Graph;
 import org.opentripplanner.routing.impl.TransitAlertServiceImpl;
 import org.opentripplanner.routing.services.TransitAlertService;
 import org.opentripplanner.updater.GraphUpdaterManager;
+import org.opentripplanner.updater.GraphWriterLane;
 import org.opentripplanner.updater.PollingGraphUpdater;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -107,7 +108,8 @@ public class SiriSXUpdater extends PollingGraphUpdater {
                     moreData = BooleanUtils.isTrue(serviceDelivery.isMoreData());
                     final boolean markPrimed = !moreData;
                     if (serviceDelivery.getSituationExchangeDeliveries() != null) {
-                        updaterManager.execute(graph -> {
+                        // The alerts are matched using the index modified by the SIRI ET updates
+                        updaterManager.execute(GraphWriterLane.TIMETABLE, graph -> {
                             updateHandler.update(serviceDelivery);
                             if (markPrimed) primed = true;
                         });
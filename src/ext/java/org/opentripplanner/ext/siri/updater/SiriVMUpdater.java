@@ -6,6 +6,7 @@ import org.opentripplanner.ext.siri.SiriTimetableSnapshotSource;
 import org.opentripplanner.routing.RoutingService;
 import org.opentripplanner.routing.graph.Graph;
 import org.opentripplanner.updater.GraphUpdaterManager;
+import org.opentripplanner.updater.GraphWriterLane;
 import org.opentripplanner.updater.PollingGraphUpdater;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -149,7 +150,7 @@ public class SiriVMUpdater extends PollingGraphUpdater {
                 final boolean markPrimed = !moreData;
                 List<VehicleMonitoringDeliveryStructure> vmds = serviceDelivery.getVehicleMonitoringDeliveries();
                 if (vmds != null) {
-                    updaterManager.execute(graph -> {
+                    updaterManager.execute(GraphWriterLane.TIMETABLE, graph -> {
                         snapshotSource.applyVehicleMonitoring(graph, feedId, fullDataset, vmds);
                         if (markPrimed) primed = true;
                     });
@@ -10,6 +10,7 @@ import org.opentripplanner.routing.api.request.RoutingRequest;
 import org.opentripplanner.routing.graph.Graph;
 import org.opentripplanner.standalone.server.OTPServer;
 import org.opentripplanner.standalone.server.Router;
+import org.opentripplanner.util.GraphQLDocumentCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -42,10 +43,10 @@ public class TransmodelAPI {
 
     private static GqlUtil gqlUtil;
     private static GraphQLSchema schema;
+    private static TransmodelGraph index;
 
     private final Router router;
 
-    private final TransmodelGraph index;
     private final ObjectMapper deserializer = new ObjectMapper();
 
     /**
@@ -57,7 +58,6 @@ public class TransmodelAPI {
 
     public TransmodelAPI(@Context OTPServer otpServer) {
         this.router = otpServer.getRouter();
-        this.index = new TransmodelGraph(schema);
     }
 
     /**
@@ -75,6 +75,7 @@ public class TransmodelAPI {
         }
         gqlUtil = new GqlUtil(graph.getTimeZone());
         schema = TransmodelGraphQLSchema.create(defaultRoutingRequest, gqlUtil);
+        index = new TransmodelGraph(schema);
     }
 
     /**
@@ -90,7 +91,8 @@ public class TransmodelAPI {
     @Path("/graphql")
     @Consumes(MediaType.APPLICATION_JSON)
     public Response getGraphQL(HashMap<String, Object> queryParameters, @HeaderParam("OTPMaxResolves") @DefaultValue("1000000") int maxResolves) {
-        if (queryParameters==null || !queryParameters.containsKey("query")) {
+        Map<String, Object> extensions = extensions(queryParameters);
+        if (queryParameters==null || !(queryParameters.containsKey("query") || GraphQLDocumentCache.hasPersistedQuery(extensions))) {
             LOG.debug("No query found in body");
             throw new BadRequestException("No query found in body");
         }
@@ -110,14 +112,14 @@ public class TransmodelAPI {
         } else {
             variables = new HashMap<>();
         }
-        return index.getGraphQLResponse(query, router, variables, operationName, maxResolves);
+        return index.getGraphQLResponse(query, router, variables, extensions, operationName, maxResolves);
     }
 
     @POST
     @Path("/graphql")
     @Consumes("application/graphql")
     public Response getGraphQL(String query, @HeaderParam("OTPMaxResolves") @DefaultValue("1000000") int maxResolves) {
-        return index.getGraphQLResponse(query, router, null, null, maxResolves);
+        return index.getGraphQLResponse(query, router, null, null, null, maxResolves);
     }
 
     @POST
@@ -140,9 +142,10 @@ public class TransmodelAPI {
                 variables = null;
             }
             String operationName = (String) query.getOrDefault("operationName", null);
+            Map<String, Object> extensions = extensions(query);
 
             futures.add(() -> index.getGraphQLExecutionResult((String) query.get("query"), router,
-                    variables, operationName, maxResolves));
+                    variables, extensions, operationName, maxResolves));
         }
 
         try {
@@ -153,4 +156,12 @@ public class TransmodelAPI {
             throw new RuntimeException(e);
         }
     }
+
+    /** The request extensions, used to send the hash of a persisted query instead of the query. */
+    private static Map<String, Object> extensions(Map<String, Object> queryParameters) {
+        if (queryParameters != null && queryParameters.get("extensions") instanceof Map) {
+            return (Map) queryParameters.get("extensions");
+        }
+        return null;
+    }
 }
@@ -1,5 +1,8 @@
 package org.opentripplanner.ext.transmodelapi;
 
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import graphql.ExecutionInput;
 import graphql.ExecutionResult;
@@ -9,6 +12,8 @@ import graphql.schema.GraphQLSchema;
 import org.opentripplanner.api.json.GraphQLResponseSerializer;
 import org.opentripplanner.routing.RoutingService;
 import org.opentripplanner.standalone.server.Router;
+import org.opentripplanner.util.GraphQLDataLoaders;
+import org.opentripplanner.util.GraphQLDocumentCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -22,8 +27,21 @@ class TransmodelGraph {
 
     static final Logger LOG = LoggerFactory.getLogger(TransmodelGraph.class);
 
+    /** The maximum number of parsed queries, and of different OTPMaxResolves values, to keep. */
+    private static final int MAX_CACHED_DOCUMENTS = 1000;
+
+    private static final int MAX_CACHED_GRAPHQL_INSTANCES = 10;
+
     private final GraphQLSchema indexSchema;
 
+    private final GraphQLDocumentCache documentCache;
+
+    /**
+     * The GraphQL instances are reused between requests, the only difference is the maximum number
+     * of resolves, which is almost always the default value.
+     */
+    private final LoadingCache<Integer, GraphQL> graphQLByMaxResolves;
+
     final ExecutorService threadPool;
 
     TransmodelGraph(GraphQLSchema schema) {
@@ -31,37 +49,60 @@ class TransmodelGraph {
                 new ThreadFactoryBuilder().setNameFormat("GraphQLExecutor-%d").build()
         );
         this.indexSchema = schema;
+        this.documentCache = new GraphQLDocumentCache("transmodelapi", MAX_CACHED_DOCUMENTS);
+        this.graphQLByMaxResolves = CacheBuilder.newBuilder()
+                .maximumSize(MAX_CACHED_GRAPHQL_INSTANCES)
+                .build(CacheLoader.from(this::createGraphQL));
     }
 
+    private GraphQL createGraphQL(int maxResolves) {
+        MaxQueryComplexityInstrumentation instrumentation = new MaxQueryComplexityInstrumentation(maxResolves);
+        return GraphQL.newGraphQL(indexSchema)
+                .instrumentation(instrumentation)
+                .preparsedDocumentProvider(documentCache.forMaxResolves(maxResolves))
+                .build();
+    }
+
+    /**
+     * @param query      the query text, or {@code null} if the extensions contain the hash of a
+     *                   persisted query
+     * @param extensions the request extensions, may be {@code null}
+     */
     ExecutionResult getGraphQLExecutionResult(
             String query,
             Router router,
             Map<String, Object> variables,
+            Map<String, Object> extensions,
             String operationName,
             int maxResolves
     ) {
-        MaxQueryComplexityInstrumentation instrumentation = new MaxQueryComplexityInstrumentation(maxResolves);
-        GraphQL graphQL = GraphQL.newGraphQL(indexSchema).instrumentation(instrumentation).build();
+        GraphQL graphQL = graphQLByMaxResolves.getUnchecked(maxResolves);
 
         if (variables == null) {
             variables = new HashMap<>();
         }
+        if (extensions == null) {
+            extensions = new HashMap<>();
+        }
 
+        RoutingService routingService = new RoutingService(router.graph);
         TransmodelRequestContext transmodelRequestContext =
-            new TransmodelRequestContext(router, new RoutingService(router.graph));
+            new TransmodelRequestContext(router, routingService);
 
         ExecutionInput executionInput = ExecutionInput.newExecutionInput()
-                                                .query(query)
+                                                .query(GraphQLDocumentCache.queryOrPersistedQueryMarker(query))
                                                 .operationName(operationName)
                                                 .context(transmodelRequestContext)
                                                 .root(router)
                                                 .variables(variables)
+                                                .extensions(extensions)
+                                                .dataLoaderRegistry(GraphQLDataLoaders.createRegistry(routingService, threadPool))
                                                 .build();
         return graphQL.execute(executionInput);
     }
 
-    Response getGraphQLResponse(String query, Router router, Map<String, Object> variables, String operationName, int maxResolves) {
-        ExecutionResult result = getGraphQLExecutionResult(query, router, variables, operationName, maxResolves);
+    Response getGraphQLResponse(String query, Router router, Map<String, Object> variables, Map<String, Object> extensions, String operationName, int maxResolves) {
+        ExecutionResult result = getGraphQLExecutionResult(query, router, variables, extensions, operationName, maxResolves);
         return Response.status(Response.Status.OK).entity(GraphQLResponseSerializer.serialize(result)).build();
     }
 }
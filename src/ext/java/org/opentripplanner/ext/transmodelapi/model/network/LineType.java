@@ -15,6 +15,8 @@ import org.opentripplanner.ext.transmodelapi.support.GqlUtil;
 import org.opentripplanner.model.Route;
 import org.opentripplanner.model.Trip;
 import org.opentripplanner.model.TripPattern;
+import org.opentripplanner.routing.alertpatch.EntitySelector;
+import org.opentripplanner.util.GraphQLDataLoaders;
 import org.opentripplanner.util.OTPFeature;
 
 import java.util.Collection;
@@ -155,8 +157,10 @@ public class LineType {
                     .description("Get all situations active for the line.")
                     .type(new GraphQLNonNull(new GraphQLList(ptSituationElementType)))
                 .dataFetcher(environment -> {
-                  return GqlUtil.getRoutingService(environment).getTransitAlertService().getRouteAlerts(
-                      environment.getSource());
+                  Route route = environment.getSource();
+                  return GraphQLDataLoaders.alerts(
+                      environment, new EntitySelector.Route(route.getId())
+                  );
                 })
                 .build())
             .field(GraphQLFieldDefinition.newFieldDefinition()
@@ -20,7 +20,9 @@ import org.opentripplanner.model.Station;
 import org.opentripplanner.model.Stop;
 import org.opentripplanner.model.TransitMode;
 import org.opentripplanner.model.TripTimeOnDate;
+import org.opentripplanner.routing.alertpatch.EntitySelector;
 import org.opentripplanner.routing.stoptimes.ArrivalDeparture;
+import org.opentripplanner.util.GraphQLDataLoaders;
 
 public class QuayType {
 
@@ -97,12 +99,13 @@ public class QuayType {
                     .description("List of lines servicing this quay")
                     .type(new GraphQLNonNull(new GraphQLList(new GraphQLNonNull(lineType))))
                     .dataFetcher(environment -> {
-                      return GqlUtil.getRoutingService(environment)
-                          .getPatternsForStop(environment.getSource(),true)
+                      return GraphQLDataLoaders
+                          .patternsForStop(environment, environment.getSource())
+                          .thenApply(patterns -> patterns
                               .stream()
                               .map(pattern -> pattern.getRoute())
                               .distinct()
-                              .collect(Collectors.toList());
+                              .collect(Collectors.toList()));
                     })
                     .build())
             .field(GraphQLFieldDefinition.newFieldDefinition()
@@ -110,9 +113,7 @@ public class QuayType {
                     .description("List of journey patterns servicing this quay")
                     .type(new GraphQLNonNull(new GraphQLList(journeyPatternType)))
                     .dataFetcher(environment -> {
-                      return GqlUtil
-                          .getRoutingService(environment)
-                          .getPatternsForStop(environment.getSource(), true);
+                      return GraphQLDataLoaders.patternsForStop(environment, environment.getSource());
                     })
                     .build())
             .field(GraphQLFieldDefinition.newFieldDefinition()
@@ -214,8 +215,9 @@ public class QuayType {
                     .description("Get all situations active for the quay.")
                     .type(new GraphQLNonNull(new GraphQLList(ptSituationElementType)))
                 .dataFetcher(env -> {
-                  return GqlUtil.getRoutingService(env).getTransitAlertService()
-                      .getStopAlerts(((Stop)env.getSource()).getId());
+                  return GraphQLDataLoaders.alerts(
+                      env, new EntitySelector.Stop(((Stop)env.getSource()).getId())
+                  );
                 })
                     .build())
 //                .field(GraphQLFieldDefinition.newFieldDefinition()
@@ -1,8 +1,11 @@
 package org.opentripplanner.common.geometry;
 
 import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.CoordinateSequence;
+import org.locationtech.jts.geom.CoordinateSequences;
 import org.locationtech.jts.geom.GeometryFactory;
 import org.locationtech.jts.geom.LineString;
+import org.locationtech.jts.geom.impl.PackedCoordinateSequence;
 
 /**
  * Compact line string. To optimize storage, we use the following tricks:
@@ -163,4 +166,41 @@ public final class CompactLineString {
         LineString lineString = uncompactLineString(0.0, 0.0, 0.0, 0.0, packedCoords, reverse);
         return GeometryUtils.removeStartEndCoordinatesFromLineString(lineString);
     }
+
+    /**
+     * Same as {@link #uncompactLineString(double, double, double, double, byte[], boolean)}, but
+     * returns the coordinates packed in a single array instead of creating a LineString and a
+     * Coordinate for each point. The coordinates are ordered from A to B.
+     */
+    public static CoordinateSequence uncompactCoordinates(double xa, double ya, double xb, double yb,
+            byte[] packedCoords, boolean reverse) {
+        int[] coords = DlugoszVarLenIntPacker.unpack(packedCoords);
+        int size = coords == null ? 2 : (coords.length / 2) + 2;
+        double[] c = new double[size * 2];
+        double x0 = reverse ? xb : xa;
+        double y0 = reverse ? yb : ya;
+        double x1 = reverse ? xa : xb;
+        double y1 = reverse ? ya : yb;
+        c[0] = x0;
+        c[1] = y0;
+        if (coords != null) {
+            int oix = (int) Math.round(x0 * FIXED_FLOAT_MULT);
+            int oiy = (int) Math.round(y0 * FIXED_FLOAT_MULT);
+            for (int i = 1; i < size - 1; i++) {
+                int ix = oix + coords[(i - 1) * 2];
+                int iy = oiy + coords[(i - 1) * 2 + 1];
+                c[i * 2] = ix / FIXED_FLOAT_MULT;
+                c[i * 2 + 1] = iy / FIXED_FLOAT_MULT;
+                oix = ix;
+                oiy = iy;
+            }
+        }
+        c[size * 2 - 2] = x1;
+        c[size * 2 - 1] = y1;
+        CoordinateSequence out = new PackedCoordinateSequence.Double(c, 2, 0);
+        if (reverse) {
+            CoordinateSequences.reverse(out);
+        }
+        return out;
+    }
 }
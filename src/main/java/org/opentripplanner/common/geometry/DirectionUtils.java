@@ -3,6 +3,7 @@ package org.opentripplanner.common.geometry;
 import org.apache.commons.math3.util.FastMath;
 
 import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.CoordinateSequence;
 import org.locationtech.jts.geom.Geometry;
 import org.locationtech.jts.geom.LineString;
 import org.locationtech.jts.geom.MultiLineString;
@@ -18,10 +19,18 @@ public class DirectionUtils {
      * Returns the approximate azimuth from coordinate A to B in decimal degrees clockwise from North,
      * in the range (-180° to +180°). The computation is exact for small delta between A and B.
      */
-    public static synchronized double getAzimuth(Coordinate a, Coordinate b) {
-        double cosLat = FastMath.cos(FastMath.toRadians((a.y + b.y) / 2.0)); 
-        double dY = (b.y - a.y); // in degrees, we do not care about the units
-        double dX = (b.x - a.x) * cosLat; // same
+    public static double getAzimuth(Coordinate a, Coordinate b) {
+        return getAzimuth(a.x, a.y, b.x, b.y);
+    }
+
+    /**
+     * Same as {@link #getAzimuth(Coordinate, Coordinate)}, with the coordinates given as x (lon)
+     * and y (lat) values.
+     */
+    public static double getAzimuth(double ax, double ay, double bx, double by) {
+        double cosLat = FastMath.cos(FastMath.toRadians((ay + by) / 2.0));
+        double dY = (by - ay); // in degrees, we do not care about the units
+        double dX = (bx - ax) * cosLat; // same
         if (Math.abs(dX) < 1e-10 && Math.abs(dY) < 1e-10) {
             return 180;
         }
@@ -34,7 +43,7 @@ public class DirectionUtils {
      * in the range (-PI, PI).
      * @param geometry a LineString or a MultiLineString
      */
-    public static synchronized double getLastAngle(Geometry geometry) {
+    public static double getLastAngle(Geometry geometry) {
         LineString line;
         if (geometry instanceof MultiLineString) {
             line = (LineString) geometry.getGeometryN(geometry.getNumGeometries() - 1);
@@ -42,16 +51,25 @@ public class DirectionUtils {
             assert geometry instanceof LineString;
             line = (LineString) geometry;
         }
-        int numPoints = line.getNumPoints();
-        Coordinate coord0 = line.getCoordinateN(numPoints - 2);
-        Coordinate coord1 = line.getCoordinateN(numPoints - 1);
+        return getLastAngle(line.getCoordinateSequence());
+    }
+
+    /**
+     * Computes the angle of the last segment of a line in radians clockwise from North in the range
+     * (-PI, PI). Segments shorter than 10 meters are extended with the previous points.
+     * @param coordinates the points of the line, at least two
+     */
+    public static double getLastAngle(CoordinateSequence coordinates) {
+        int numPoints = coordinates.size();
+        int i0 = numPoints - 2;
+        int i1 = numPoints - 1;
         int i = numPoints - 3;
-        int minDistance = 10;  // Meters        
-        while (SphericalDistanceLibrary.fastDistance(coord0, coord1) < minDistance && i >= 0) {
-            coord0 = line.getCoordinateN(i--);
+        int minDistance = 10;  // Meters
+        while (distance(coordinates, i0, i1) < minDistance && i >= 0) {
+            i0 = i--;
         }
 
-        double az = getAzimuth(coord0, coord1);
+        double az = getAzimuth(coordinates, i0, i1);
         return az * Math.PI / 180;
     }
 
@@ -60,7 +78,7 @@ public class DirectionUtils {
      * in the range (-PI, PI).
      * @param geometry a LineString or a MultiLineString
      */
-    public static synchronized double getFirstAngle(Geometry geometry) {
+    public static double getFirstAngle(Geometry geometry) {
         LineString line;
         if (geometry instanceof MultiLineString) {
             line = (LineString) geometry.getGeometryN(0);
@@ -68,18 +86,36 @@ public class DirectionUtils {
             assert geometry instanceof LineString;
             line = (LineString) geometry;
         }
+        return getFirstAngle(line.getCoordinateSequence());
+    }
 
-        Coordinate coord0 = line.getCoordinateN(0);
-        Coordinate coord1 = line.getCoordinateN(1);
+    /**
+     * Computes the angle of the first segment of a line in radians clockwise from North in the range
+     * (-PI, PI). Segments shorter than 10 meters are extended with the following points.
+     * @param coordinates the points of the line, at least two
+     */
+    public static double getFirstAngle(CoordinateSequence coordinates) {
+        int i0 = 0;
+        int i1 = 1;
         int i = 2;
-        int minDistance = 10;  // Meters 
-        while (SphericalDistanceLibrary.fastDistance(coord0, coord1) < minDistance
-                && i < line.getNumPoints()) {
-            coord1 = line.getCoordinateN(i++);
+        int minDistance = 10;  // Meters
+        while (distance(coordinates, i0, i1) < minDistance && i < coordinates.size()) {
+            i1 = i++;
         }
 
-        double az = getAzimuth(coord0, coord1);
+        double az = getAzimuth(coordinates, i0, i1);
         return az * Math.PI / 180;
     }
 
+    private static double getAzimuth(CoordinateSequence coordinates, int a, int b) {
+        return getAzimuth(
+            coordinates.getX(a), coordinates.getY(a), coordinates.getX(b), coordinates.getY(b)
+        );
+    }
+
+    private static double distance(CoordinateSequence coordinates, int a, int b) {
+        return SphericalDistanceLibrary.fastDistance(
+            coordinates.getY(a), coordinates.getX(a), coordinates.getY(b), coordinates.getX(b)
+        );
+    }
 }
@@ -14,6 +14,7 @@ import java.util.List;
 import org.opentripplanner.datastore.CompositeDataSource;
 import org.opentripplanner.datastore.DataSource;
 import org.opentripplanner.ext.flex.FlexLocationsToStreetEdgesMapper;
+import org.opentripplanner.ext.flex.FlexTravelTimeMatrixModule;
 import org.opentripplanner.ext.transferanalyzer.DirectTransferAnalyzer;
 import org.opentripplanner.graph_builder.model.GtfsBundle;
 import org.opentripplanner.graph_builder.module.DirectTransferGenerator;
@@ -218,6 +219,10 @@ public class GraphBuilder implements Runnable {
                 // This module will use streets or straight line distance depending on whether OSM data is found in the graph.
                 graphBuilder.addModule(new DirectTransferGenerator(config.maxTransferDurationSeconds));
             }
+            // The flex travel times use the transfers from and to the flex locations
+            if (OTPFeature.FlexRouting.isOn() && config.flexTravelTimeMatrix) {
+                graphBuilder.addModule(new FlexTravelTimeMatrixModule(config.flexTravelTimeMatrixMaxSize));
+            }
             // Analyze routing between stops to generate report
             if (OTPFeature.TransferAnalyzer.isOn()) {
                 graphBuilder.addModule(new DirectTransferAnalyzer(
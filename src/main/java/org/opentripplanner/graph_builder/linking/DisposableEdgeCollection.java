@@ -1,5 +1,6 @@
 package org.opentripplanner.graph_builder.linking;
 
+import org.opentripplanner.routing.edgetype.TemporaryEdge;
 import org.opentripplanner.routing.graph.Edge;
 import org.opentripplanner.routing.graph.Graph;
 import org.opentripplanner.routing.graph.Vertex;
@@ -12,6 +13,11 @@ import java.util.Set;
 /**
  * This class is used to keep track of temporary edges added to the graph, so that they can be
  * removed from the graph when no longer needed.
+ * <p>
+ * Temporary edges created for a single request are only connected to the temporary vertices of the
+ * request, and are found from the permanent and realtime vertices through the
+ * {@link org.opentripplanner.routing.core.RoutingContext}. Temporary edges with the realtime scope
+ * are shared by all requests, and are added to the permanent and realtime vertices.
  */
 public class DisposableEdgeCollection {
 
@@ -31,9 +37,16 @@ public class DisposableEdgeCollection {
   }
 
   public void addEdge(Edge edge) {
+    if (scope == Scope.REALTIME && edge instanceof TemporaryEdge) {
+      edge.connectToSharedVertices();
+    }
     this.edges.add(edge);
   }
 
+  public Set<Edge> getEdges() {
+    return edges;
+  }
+
   /**
    * Removes all the edges in this collection from the graph.
    */
@@ -45,6 +58,10 @@ public class DisposableEdgeCollection {
     }
     Collection<Vertex> vertices = new ArrayList<>();
     for (Edge e : edges) {
+      if (scope != Scope.REALTIME && e instanceof TemporaryEdge) {
+        // Only connected to the temporary vertices, which are garbage collected with the edge
+        continue;
+      }
       vertices.add(e.getFromVertex());
       vertices.add(e.getToVertex());
       graph.removeEdge(e);
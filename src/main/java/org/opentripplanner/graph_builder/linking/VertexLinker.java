@@ -426,6 +426,7 @@ public class VertexLinker {
           direction == LinkingDirection.OUTGOING
       );
       tsv.setWheelchairAccessible(originalEdge.isWheelchairAccessible());
+      tsv.setRealtime(scope == Scope.REALTIME);
       v = tsv;
     }
     else {
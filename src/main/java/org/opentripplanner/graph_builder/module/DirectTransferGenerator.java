@@ -1,6 +1,5 @@
 package org.opentripplanner.graph_builder.module;
 
-import com.google.common.collect.Iterables;
 import org.opentripplanner.graph_builder.DataImportIssueStore;
 import org.opentripplanner.graph_builder.issues.StopNotLinkedForTransfers;
 import org.opentripplanner.graph_builder.services.GraphBuilderModule;
@@ -17,9 +16,13 @@ import org.opentripplanner.util.ProgressTracker;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.Collectors;
 
 /**
  * {@link org.opentripplanner.graph_builder.services.GraphBuilderModule} module that links up the stops of a transit
@@ -60,62 +63,59 @@ public class DirectTransferGenerator implements GraphBuilderModule {
         }
 
         /* The linker will use streets if they are available, or straight-line distance otherwise. */
-        NearbyStopFinder nearbyStopFinder = new NearbyStopFinder(graph, radiusByDurationInSeconds);
-        if (nearbyStopFinder.useStreets) {
+        if (graph.hasStreets) {
             LOG.info("Creating direct transfer edges between stops using the street network from OSM...");
         } else {
             LOG.info("Creating direct transfer edges between stops using straight line distance (not streets)...");
         }
 
-        Iterable<TransitStopVertex> stops = graph.getVerticesOfType(TransitStopVertex.class);
+        List<TransitStopVertex> stops = graph.getVerticesOfType(TransitStopVertex.class);
 
         ProgressTracker progress = ProgressTracker.track(
-                "Create transfer edges", 1000, Iterables.size(stops)
+                "Create transfer edges", 1000, stops.size()
         );
         int nTransfersTotal = 0;
         int nLinkableStops = 0;
 
         RoutingRequest streetRequest = Transfer.prepareTransferRoutingRequest(new RoutingRequest());
 
-        // This could be multi-threaded, in which case we'd need to be careful about the lifecycle of NearbyStopFinder instances.
-        for (TransitStopVertex ts0 : stops) {
-            Stop stop = ts0.getStop();
-            LOG.debug("Linking stop '{}' {}", stop, ts0);
-
-            /* Make transfers to each nearby stop that is the closest stop on some trip pattern. */
-            int n = 0;
-            for (NearbyStop sd : nearbyStopFinder.findNearbyStopsConsideringPatterns(ts0, streetRequest, false)) {
-                // Skip the origin stop, loop transfers are not needed.
-                if (sd.stop == stop) { continue; }
-                graph.transfersByStop.put(
-                    stop,
-                    new SimpleTransfer(ts0.getStop(), sd.stop, sd.distance, sd.edges)
-                );
-                n += 1;
-            }
-            if (OTPFeature.FlexRouting.isOn()) {
-                // This code is for finding transfers from FlexStopLocations to Stops, transfers
-                // from Stops to FlexStopLocations and between Stops are already covered above.
-                for (NearbyStop sd : nearbyStopFinder.findNearbyStopsConsideringPatterns(ts0,  streetRequest, true)) {
-                    // Skip the origin stop, loop transfers are not needed.
-                    if (sd.stop == ts0.getStop()) { continue; }
-                    if (sd.stop instanceof Stop) { continue; }
-                    graph.transfersByStop.put(sd.stop,
-                        new SimpleTransfer(sd.stop, ts0.getStop(), sd.distance, sd.edges)
-                    );
-                    n += 1;
+        // The NearbyStopFinder holds the search state, so a worker thread borrows an instance from
+        // this pool for each stop. The pool is local, so the finders (and the graph they reference)
+        // are not kept by the common ForkJoin pool threads when this method returns.
+        Queue<NearbyStopFinder> nearbyStopFinders = new ConcurrentLinkedQueue<>();
+
+        // The transfers are found in parallel, the result list is in the same order as the stops
+        List<List<SimpleTransfer>> transfersPerStop = stops
+            .parallelStream()
+            .map(ts0 -> {
+                NearbyStopFinder nearbyStopFinder = nearbyStopFinders.poll();
+                if (nearbyStopFinder == null) {
+                    nearbyStopFinder = new NearbyStopFinder(graph, radiusByDurationInSeconds);
                 }
+                var transfers = findTransfers(ts0, nearbyStopFinder, streetRequest);
+                nearbyStopFinders.offer(nearbyStopFinder);
+                //Keep lambda! A method-ref would causes incorrect class and line number to be logged
+                //noinspection Convert2MethodRef
+                progress.step(m -> LOG.info(m));
+                return transfers;
+            })
+            .collect(Collectors.toList());
+
+        // Add the transfers to the graph in stop order, so the result is the same as a serial build
+        for (int i = 0; i < stops.size(); ++i) {
+            TransitStopVertex ts0 = stops.get(i);
+            List<SimpleTransfer> transfers = transfersPerStop.get(i);
+            for (SimpleTransfer transfer : transfers) {
+                graph.transfersByStop.put(transfer.from, transfer);
             }
-            LOG.debug("Linked stop {} to {} nearby stops on other patterns.", stop, n);
+            int n = transfers.size();
+            LOG.debug("Linked stop {} to {} nearby stops on other patterns.", ts0.getStop(), n);
             if (n == 0) {
                 issueStore.add(new StopNotLinkedForTransfers(ts0));
             }
             else {
                 nLinkableStops++;
             }
-            //Keep lambda! A method-ref would causes incorrect class and line number to be logged
-            //noinspection Convert2MethodRef
-            progress.step(m -> LOG.info(m));
             nTransfersTotal += n;
         }
         LOG.info(progress.completeMessage());
@@ -123,6 +123,40 @@ public class DirectTransferGenerator implements GraphBuilderModule {
         graph.hasDirectTransfers = true;
     }
 
+    /**
+     * Find the transfers from the given stop to each nearby stop that is the closest stop on some
+     * trip pattern. If flex routing is on, the transfers from nearby flex stop locations to the
+     * given stop are included as well.
+     */
+    private static List<SimpleTransfer> findTransfers(
+            TransitStopVertex ts0,
+            NearbyStopFinder nearbyStopFinder,
+            RoutingRequest streetRequest
+    ) {
+        Stop stop = ts0.getStop();
+        LOG.debug("Linking stop '{}' {}", stop, ts0);
+
+        List<SimpleTransfer> transfers = new ArrayList<>();
+
+        /* Make transfers to each nearby stop that is the closest stop on some trip pattern. */
+        for (NearbyStop sd : nearbyStopFinder.findNearbyStopsConsideringPatterns(ts0, streetRequest, false)) {
+            // Skip the origin stop, loop transfers are not needed.
+            if (sd.stop == stop) { continue; }
+            transfers.add(new SimpleTransfer(stop, sd.stop, sd.distance, sd.edges));
+        }
+        if (OTPFeature.FlexRouting.isOn()) {
+            // This code is for finding transfers from FlexStopLocations to Stops, transfers
+            // from Stops to FlexStopLocations and between Stops are already covered above.
+            for (NearbyStop sd : nearbyStopFinder.findNearbyStopsConsideringPatterns(ts0,  streetRequest, true)) {
+                // Skip the origin stop, loop transfers are not needed.
+                if (sd.stop == stop) { continue; }
+                if (sd.stop instanceof Stop) { continue; }
+                transfers.add(new SimpleTransfer(sd.stop, stop, sd.distance, sd.edges));
+            }
+        }
+        return transfers;
+    }
+
     @Override
     public void checkInputs() {
         // No inputs
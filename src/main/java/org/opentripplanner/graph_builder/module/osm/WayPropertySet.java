@@ -115,10 +115,11 @@ public class WayPropertySet {
         if (rightMixins.size() > 0) {
             applyMixins(result, rightMixins, true);
         }
-        if ((bestLeftScore == 0 || bestRightScore == 0)
+        if (LOG.isDebugEnabled()
+                && (bestLeftScore == 0 || bestRightScore == 0)
                 && (leftMixins.size() == 0 || rightMixins.size() == 0)) {
-            String all_tags = dumpTags(way);
-            LOG.debug("Used default permissions: " + all_tags);
+            // getTags() copies the packed tags into a new map, only do it when it is logged
+            LOG.debug("Used default permissions: " + dumpTags(way));
         }
         return result;
     }
@@ -46,6 +46,9 @@ public class Timetable implements Serializable {
      * Helps determine whether a particular pattern is worth searching for departures at a given time. 
      */
     private transient int minTime, maxTime;
+
+    /** The trip times sorted by time at each stop, created when first used. */
+    private transient volatile TimetableStopTimesIndex stopTimesIndex;
     
     /** Construct an empty Timetable. */
     public Timetable(TripPattern pattern) {
@@ -94,6 +97,7 @@ public class Timetable implements Serializable {
      */
     public void finish() {
         int nStops = pattern.getStopPattern().getSize();
+        stopTimesIndex = null;
 
         // Concatenate raw TripTimes and those referenced from FrequencyEntries
         List<TripTimes> allTripTimes = Lists.newArrayList(tripTimes);
@@ -114,6 +118,20 @@ public class Timetable implements Serializable {
         }
     }
 
+    /**
+     * The trip times of this timetable sorted by time at each stop. Must only be used when the
+     * timetable is not modified anymore, see {@link TimetableStopTimesIndex}.
+     */
+    public TimetableStopTimesIndex getStopTimesIndex() {
+        TimetableStopTimesIndex index = stopTimesIndex;
+        if (index == null) {
+            // Concurrent requests may both create the index, the result is the same
+            index = new TimetableStopTimesIndex(tripTimes, pattern.getStopPattern().getSize());
+            stopTimesIndex = index;
+        }
+        return index;
+    }
+
     /** @return the index of TripTimes for this trip ID in this particular Timetable */
     public int getTripIndex(FeedScopedId tripId) {
         int ret = 0;
@@ -155,9 +173,21 @@ public class Timetable implements Serializable {
      * @return old trip times of trip
      */
     public TripTimes setTripTimes(int tripIndex, TripTimes tt) {
+        stopTimesIndex = null;
         return tripTimes.set(tripIndex, tt);
     }
 
+    /**
+     * Remove trip times for trip given a trip index
+     *
+     * @param tripIndex trip index of trip
+     * @return removed trip times of trip
+     */
+    public TripTimes removeTripTimes(int tripIndex) {
+        stopTimesIndex = null;
+        return tripTimes.remove(tripIndex);
+    }
+
     /**
      * Apply the TripUpdate to the appropriate TripTimes from this Timetable. The existing TripTimes
      * must not be modified directly because they may be shared with the underlying
@@ -339,6 +369,7 @@ public class Timetable implements Serializable {
      * Here we don't know if it's a scheduled trip or a realtime-added trip.
      */
     public void addTripTimes(TripTimes tt) {
+        stopTimesIndex = null;
         tripTimes.add(tt);
     }
 
@@ -1,20 +1,22 @@
 package org.opentripplanner.model;
 
 import com.google.common.base.Preconditions;
-import com.google.common.collect.HashMultimap;
-import com.google.common.collect.SetMultimap;
 import org.opentripplanner.model.calendar.ServiceDate;
 import org.opentripplanner.routing.algorithm.raptor.transit.mappers.TransitLayerUpdater;
 import org.opentripplanner.routing.trippattern.TripTimes;
+import org.pcollections.HashTreePMap;
+import org.pcollections.HashTreePSet;
+import org.pcollections.PMap;
+import org.pcollections.PSet;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.ConcurrentModificationException;
-import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
+import java.util.List;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Set;
@@ -34,6 +36,11 @@ import java.util.TreeSet;
  *
  * At this point, only one writing thread at a time is supported.
  *
+ * The maps are persistent (immutable, structurally shared) maps. A commit shares them with the
+ * read-only snapshot instead of copying them, so the cost of a commit does not grow with the number
+ * of realtime updated trips. Each update of the buffer creates a new version of the map, leaving
+ * the versions held by committed snapshots unchanged.
+ *
  *  TODO OTP2 - Move this to package: org.opentripplanner.model
  *            - after ass Entur NeTEx PRs are merged.
  */
@@ -94,11 +101,10 @@ public class TimetableSnapshot {
      * we have an updated Timetable. The keys include both TripPatterns from the scheduled GTFS, and TripPatterns added
      * by realtime messages and tracked by the TripPatternCache. Note that the keys will not include all scheduled
      * TripPatterns, only those for which we've got an update.
-     * We use a HashMap rather than a Map so we can clone it. If this turns out to be slow/spacious we can use an array
-     * with integer pattern indexes. The SortedSet members are copy-on-write.
+     * The SortedSet members are copy-on-write.
      * FIXME: this could be made into a flat hashtable with compound keys.
      */
-    private HashMap<TripPattern, SortedSet<Timetable>> timetables = new HashMap();
+    private PMap<TripPattern, SortedSet<Timetable>> timetables = HashTreePMap.empty();
 
     /**
      * <p>
@@ -106,23 +112,28 @@ public class TimetableSnapshot {
      * service date as a result of a call to {@link #update(TripPattern, TripTimes, ServiceDate)}
      * with trip times of a trip that didn't exist yet in the trip pattern.
      * </p>
-     * <p>
-     * This is a HashMap and not a Map so the clone function is available.
-     * </p>
      * TODO clarify what it means to say "last" added trip pattern. There can be more than one? What happens to the older ones?
      */
-    private HashMap<TripIdAndServiceDate, TripPattern> lastAddedTripPattern = new HashMap<>();
+    private PMap<TripIdAndServiceDate, TripPattern> lastAddedTripPattern = HashTreePMap.empty();
+
+    /**
+     * All the trip patterns a trip was added to on a service date, not only the last one. A trip
+     * which is re-patterned by a later update is cancelled in the pattern it was added to before,
+     * and {@link #revertTrip(FeedScopedId, ServiceDate, TripPattern)} must remove it from all of
+     * them. This is only used by the buffer, it is not shared with the committed snapshots.
+     */
+    private PMap<TripIdAndServiceDate, PSet<TripPattern>> addedTripPatterns = HashTreePMap.empty();
 
     /**
      * This maps contains all of the new or updated TripPatterns added by realtime data indexed on
      * stop. This has to be kept in order for them to be included in the stop times api call on a
      * specific stop.
      *
-     * This is a SetMultimap, so that each pattern can only be added once.
+     * The values are sets, so that each pattern can only be added once.
      *
      * TODO Find a generic way to keep all realtime indexes.
      */
-    private SetMultimap<Stop, TripPattern> patternsForStop = HashMultimap.create();
+    private PMap<Stop, PSet<TripPattern>> patternsForStop = HashTreePMap.empty();
     
     /**
      * Boolean value indicating that timetable snapshot is read only if true. Once it is true, it shouldn't
@@ -194,28 +205,7 @@ public class TimetableSnapshot {
             throw new ConcurrentModificationException("This TimetableSnapshot is read-only.");
         }
         
-        Timetable tt = resolve(pattern, serviceDate);
-        // we need to perform the copy of Timetable here rather than in Timetable.update()
-        // to avoid repeatedly copying in case several updates are applied to the same timetable
-        if ( ! dirtyTimetables.contains(tt)) {
-            Timetable old = tt;
-            tt = new Timetable(tt, serviceDate);
-            SortedSet<Timetable> sortedTimetables = timetables.get(pattern);
-            if(sortedTimetables == null) {
-                sortedTimetables = new TreeSet<>(new SortedTimetableComparator());
-            } else {
-                SortedSet<Timetable> temp =
-                    new TreeSet<>(new SortedTimetableComparator());
-                temp.addAll(sortedTimetables);
-                sortedTimetables = temp;
-            }
-            if(old.getServiceDate() != null)
-                sortedTimetables.remove(old);
-            sortedTimetables.add(tt);
-            timetables.put(pattern, sortedTimetables);
-            dirtyTimetables.add(tt);
-            dirty = true;
-        }
+        Timetable tt = getWritableTimetable(pattern, serviceDate);
         
         // Assume all trips in a pattern are from the same feed, which should be the case.
         // Find trip index
@@ -226,7 +216,11 @@ public class TimetableSnapshot {
             // Remember this pattern for the added trip id and service date
             FeedScopedId tripId = updatedTripTimes.getTrip().getId();
             TripIdAndServiceDate tripIdAndServiceDate = new TripIdAndServiceDate(tripId, serviceDate);
-            lastAddedTripPattern.put(tripIdAndServiceDate, pattern);
+            lastAddedTripPattern = lastAddedTripPattern.plus(tripIdAndServiceDate, pattern);
+            addedTripPatterns = addedTripPatterns.plus(
+                tripIdAndServiceDate,
+                addedTripPatterns.getOrDefault(tripIdAndServiceDate, HashTreePSet.empty()).plus(pattern)
+            );
         } else {
             // Set updated trip times of trip
             tt.setTripTimes(tripIndex, updatedTripTimes);
@@ -240,9 +234,102 @@ public class TimetableSnapshot {
         return true;
     }
 
+    /**
+     * Revert the realtime updates of one trip on a service date, leaving the updates of the other
+     * trips untouched. The scheduled trip times are restored in the timetable of the scheduled
+     * pattern, and the trip is removed from all the patterns it was added to. Only the timetables
+     * containing the trip are marked dirty, unlike {@link #clear(String)}.
+     *
+     * @param tripId trip id
+     * @param serviceDate service day of the reverted updates
+     * @param scheduledPattern trip pattern of the trip in the scheduled data; null if the trip was
+     *                         added by realtime updates
+     * @return true if the snapshot changed as a result of the call
+     */
+    public boolean revertTrip(FeedScopedId tripId, ServiceDate serviceDate, TripPattern scheduledPattern) {
+        // Preconditions
+        Preconditions.checkNotNull(tripId);
+        Preconditions.checkNotNull(serviceDate);
+
+        if (readOnly) {
+            throw new ConcurrentModificationException("This TimetableSnapshot is read-only.");
+        }
+
+        boolean modified = false;
+
+        if (scheduledPattern != null) {
+            Timetable scheduledTimetable = scheduledPattern.getScheduledTimetable();
+            Timetable tt = resolve(scheduledPattern, serviceDate);
+            int scheduledIndex = scheduledTimetable.getTripIndex(tripId);
+            int tripIndex = tt.getTripIndex(tripId);
+            if (scheduledIndex != -1 && tripIndex != -1) {
+                TripTimes scheduledTripTimes = scheduledTimetable.getTripTimes(scheduledIndex);
+                if (tt.getTripTimes(tripIndex) != scheduledTripTimes) {
+                    // The copy keeps the order of the trips, so the index is still valid
+                    getWritableTimetable(scheduledPattern, serviceDate)
+                        .setTripTimes(tripIndex, scheduledTripTimes);
+                    modified = true;
+                }
+            }
+        }
+
+        TripIdAndServiceDate tripIdAndServiceDate = new TripIdAndServiceDate(tripId, serviceDate);
+        PSet<TripPattern> addedPatterns = addedTripPatterns.get(tripIdAndServiceDate);
+        if (addedPatterns != null) {
+            for (TripPattern addedPattern : addedPatterns) {
+                if (addedPattern == scheduledPattern) { continue; }
+                // The trip is still in the timetable of a pattern it was added to before it was
+                // re-patterned, as a cancelled trip
+                if (resolve(addedPattern, serviceDate).getTripIndex(tripId) != -1) {
+                    Timetable tt = getWritableTimetable(addedPattern, serviceDate);
+                    tt.removeTripTimes(tt.getTripIndex(tripId));
+                }
+            }
+            addedTripPatterns = addedTripPatterns.minus(tripIdAndServiceDate);
+        }
+        if (lastAddedTripPattern.containsKey(tripIdAndServiceDate)) {
+            lastAddedTripPattern = lastAddedTripPattern.minus(tripIdAndServiceDate);
+            dirty = true;
+            modified = true;
+        }
+
+        return modified;
+    }
+
+    /**
+     * Get the timetable of the pattern on the service date which may be modified by this
+     * snapshot. The resolved timetable is copied the first time it is modified after a commit, and
+     * the copy is marked dirty.
+     */
+    private Timetable getWritableTimetable(TripPattern pattern, ServiceDate serviceDate) {
+        Timetable tt = resolve(pattern, serviceDate);
+        // we need to perform the copy of Timetable here rather than in Timetable.update()
+        // to avoid repeatedly copying in case several updates are applied to the same timetable
+        if ( ! dirtyTimetables.contains(tt)) {
+            Timetable old = tt;
+            tt = new Timetable(tt, serviceDate);
+            SortedSet<Timetable> sortedTimetables = timetables.get(pattern);
+            if(sortedTimetables == null) {
+                sortedTimetables = new TreeSet<>(new SortedTimetableComparator());
+            } else {
+                SortedSet<Timetable> temp =
+                    new TreeSet<>(new SortedTimetableComparator());
+                temp.addAll(sortedTimetables);
+                sortedTimetables = temp;
+            }
+            if(old.getServiceDate() != null)
+                sortedTimetables.remove(old);
+            sortedTimetables.add(tt);
+            timetables = timetables.plus(pattern, sortedTimetables);
+            dirtyTimetables.add(tt);
+            dirty = true;
+        }
+        return tt;
+    }
+
     /**
      * This produces a small delay of typically around 50ms, which is almost entirely due to
-     * the indexing step. Cloning the map is much faster (2ms).
+     * the indexing step. The maps are shared with the new snapshot, not copied.
      * It is perhaps better to index timetables as they are changed to avoid experiencing all
      * this lag at once, but we want to avoid re-indexing when receiving multiple updates for
      * the same timetable in rapid succession. This compromise is expressed by the
@@ -254,7 +341,6 @@ public class TimetableSnapshot {
         return commit(null, false);
     }
 
-    @SuppressWarnings("unchecked")
     public TimetableSnapshot commit(TransitLayerUpdater transitLayerUpdater, boolean force) {
         if (readOnly) {
             throw new ConcurrentModificationException("This TimetableSnapshot is read-only.");
@@ -265,9 +351,8 @@ public class TimetableSnapshot {
         for (Timetable tt : dirtyTimetables) {
             tt.finish(); // summarize, index, etc. the new timetables
         }
-        ret.timetables = (HashMap<TripPattern, SortedSet<Timetable>>) this.timetables.clone();
-        ret.lastAddedTripPattern = (HashMap<TripIdAndServiceDate, TripPattern>)
-                this.lastAddedTripPattern.clone();
+        ret.timetables = this.timetables;
+        ret.lastAddedTripPattern = this.lastAddedTripPattern;
 
         if (transitLayerUpdater != null) {
             transitLayerUpdater.update(dirtyTimetables);
@@ -276,7 +361,7 @@ public class TimetableSnapshot {
         this.dirtyTimetables.clear();
         this.dirty = false;
 
-        ret.setPatternsForStop(HashMultimap.create(this.patternsForStop));
+        ret.patternsForStop = this.patternsForStop;
 
         ret.readOnly = true; // mark the snapshot as henceforth immutable
         return ret;
@@ -308,7 +393,14 @@ public class TimetableSnapshot {
      * @return true if the timetable changed as a result of the call
      */
     protected boolean clearTimetable(String feedId) {
-        return timetables.keySet().removeIf(tripPattern -> feedId.equals(tripPattern.getFeedId()));
+        List<TripPattern> toRemove = new ArrayList<>();
+        for (TripPattern tripPattern : timetables.keySet()) {
+            if (feedId.equals(tripPattern.getFeedId())) {
+                toRemove.add(tripPattern);
+            }
+        }
+        timetables = timetables.minusAll(toRemove);
+        return !toRemove.isEmpty();
     }
 
     /**
@@ -318,10 +410,15 @@ public class TimetableSnapshot {
      * @return true if the lastAddedTripPattern changed as a result of the call
      */
     protected boolean clearLastAddedTripPattern(String feedId) {
-        return lastAddedTripPattern.keySet().removeIf(
-            lastAddedTripPattern ->
-                feedId.equals(lastAddedTripPattern.getTripId().getFeedId())
-        );
+        List<TripIdAndServiceDate> toRemove = new ArrayList<>();
+        for (TripIdAndServiceDate tripIdAndServiceDate : lastAddedTripPattern.keySet()) {
+            if (feedId.equals(tripIdAndServiceDate.getTripId().getFeedId())) {
+                toRemove.add(tripIdAndServiceDate);
+            }
+        }
+        lastAddedTripPattern = lastAddedTripPattern.minusAll(toRemove);
+        addedTripPatterns = addedTripPatterns.minusAll(toRemove);
+        return !toRemove.isEmpty();
     }
 
     /**
@@ -333,35 +430,38 @@ public class TimetableSnapshot {
         }
 
         boolean modified = false;
-        for (Iterator<TripPattern> it = timetables.keySet().iterator(); it.hasNext();){
-            TripPattern pattern = it.next();
-            SortedSet<Timetable> sortedTimetables = timetables.get(pattern);
+        for (Entry<TripPattern, SortedSet<Timetable>> entry : timetables.entrySet()) {
+            TripPattern pattern = entry.getKey();
+            SortedSet<Timetable> sortedTimetables = entry.getValue();
             SortedSet<Timetable> toKeepTimetables =
                     new TreeSet<Timetable>(new SortedTimetableComparator());
             for(Timetable timetable : sortedTimetables) {
                 if(serviceDate.compareTo(timetable.getServiceDate()) < 0) {
                     toKeepTimetables.add(timetable);
-                } else {
-                    modified = true;
                 }
             }
 
+            if (toKeepTimetables.size() == sortedTimetables.size()) {
+                continue;
+            }
+            modified = true;
             if(toKeepTimetables.isEmpty()) {
-                it.remove();
+                timetables = timetables.minus(pattern);
             } else {
-                timetables.put(pattern, toKeepTimetables);
+                timetables = timetables.plus(pattern, toKeepTimetables);
             }
         }
         
         // Also remove last added trip pattern for days that are purged
-        for (Iterator<Entry<TripIdAndServiceDate, TripPattern>> iterator = lastAddedTripPattern
-                .entrySet().iterator(); iterator.hasNext();) {
-            TripIdAndServiceDate tripIdAndServiceDate = iterator.next().getKey();
+        List<TripIdAndServiceDate> toRemove = new ArrayList<>();
+        for (TripIdAndServiceDate tripIdAndServiceDate : lastAddedTripPattern.keySet()) {
             if (serviceDate.compareTo(tripIdAndServiceDate.getServiceDate()) >= 0) {
-                iterator.remove();
+                toRemove.add(tripIdAndServiceDate);
                 modified = true;
             }
         }
+        lastAddedTripPattern = lastAddedTripPattern.minusAll(toRemove);
+        addedTripPatterns = addedTripPatterns.minusAll(toRemove);
 
         return modified;
     }
@@ -391,16 +491,15 @@ public class TimetableSnapshot {
     private void addPatternToIndex(TripPattern tripPattern) {
         if (tripPattern.isCreatedByRealtimeUpdater()) {
             for (Stop stop: tripPattern.getStops()) {
-                patternsForStop.put(stop, tripPattern);
+                PSet<TripPattern> patterns = patternsForStop.getOrDefault(stop, HashTreePSet.empty());
+                if (!patterns.contains(tripPattern)) {
+                    patternsForStop = patternsForStop.plus(stop, patterns.plus(tripPattern));
+                }
             }
         }
     }
 
     public Collection<TripPattern> getPatternsForStop(Stop stop) {
-        return patternsForStop.get(stop);
-    }
-
-    public void setPatternsForStop(SetMultimap<Stop, TripPattern> patternsForStop) {
-        this.patternsForStop = patternsForStop;
+        return patternsForStop.getOrDefault(stop, HashTreePSet.empty());
     }
 }
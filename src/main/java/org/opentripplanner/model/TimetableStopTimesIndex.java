@@ -0,0 +1,131 @@
+package org.opentripplanner.model;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.ToIntFunction;
+import org.opentripplanner.routing.trippattern.TripTimes;
+
+/**
+ * The trip times of a {@link Timetable} sorted by departure and by arrival time at each stop in
+ * the pattern. This is used to find the next departures from a stop with a binary search, instead
+ * of checking every trip in the timetable. The times at a stop are sorted the first time they are
+ * used, since departure boards only ask for a small part of all stops.
+ * <p>
+ * The index must only be used with timetables which are not modified anymore: scheduled
+ * timetables and timetables in a committed {@link TimetableSnapshot}. A commit creates new
+ * timetables for the updated patterns only, so the index of all other timetables is kept.
+ * <p>
+ * THREAD SAFETY: The index is immutable, except for sorting the times at a stop when first used.
+ * Concurrent requests may both sort the same stop, the result is the same.
+ */
+public class TimetableStopTimesIndex {
+
+    private final TripTimes[] tripTimes;
+
+    private final AtomicReferenceArray<SortedStopTimes> departures;
+
+    private final AtomicReferenceArray<SortedStopTimes> arrivals;
+
+    TimetableStopTimesIndex(List<TripTimes> tripTimes, int numberOfStops) {
+        this.tripTimes = tripTimes.toArray(new TripTimes[0]);
+        this.departures = new AtomicReferenceArray<>(numberOfStops);
+        this.arrivals = new AtomicReferenceArray<>(numberOfStops);
+    }
+
+    /** The trip times sorted by departure time at the given stop position in the pattern. */
+    public SortedStopTimes departures(int stopIndex) {
+        SortedStopTimes times = departures.get(stopIndex);
+        if (times == null) {
+            times = new SortedStopTimes(tripTimes, stopIndex, t -> t.getDepartureTime(stopIndex));
+            departures.set(stopIndex, times);
+        }
+        return times;
+    }
+
+    /** The trip times sorted by arrival time at the given stop position in the pattern. */
+    public SortedStopTimes arrivals(int stopIndex) {
+        SortedStopTimes times = arrivals.get(stopIndex);
+        if (times == null) {
+            times = new SortedStopTimes(tripTimes, stopIndex, t -> t.getArrivalTime(stopIndex));
+            arrivals.set(stopIndex, times);
+        }
+        return times;
+    }
+
+    /**
+     * The trip times at one stop sorted by time. Trips with the same time are in timetable order.
+     */
+    public static class SortedStopTimes {
+
+        private final int[] times;
+
+        private final TripTimes[] tripTimes;
+
+        private final boolean cancelledStop;
+
+        private SortedStopTimes(
+                TripTimes[] timetable,
+                int stopIndex,
+                ToIntFunction<TripTimes> timeAtStop
+        ) {
+            int n = timetable.length;
+
+            // Sort the time and the timetable index packed into one long, to avoid boxing
+            long[] sorted = new long[n];
+            boolean cancelledStop = false;
+            for (int i = 0; i < n; ++i) {
+                sorted[i] = ((long) timeAtStop.applyAsInt(timetable[i]) << 32) | i;
+                cancelledStop |= timetable[i].isCancelledStop(stopIndex);
+            }
+            Arrays.sort(sorted);
+
+            this.times = new int[n];
+            this.tripTimes = new TripTimes[n];
+            for (int i = 0; i < n; ++i) {
+                times[i] = (int) (sorted[i] >> 32);
+                tripTimes[i] = timetable[(int) sorted[i]];
+            }
+            this.cancelledStop = cancelledStop;
+        }
+
+        public int size() {
+            return times.length;
+        }
+
+        public int time(int i) {
+            return times[i];
+        }
+
+        public TripTimes tripTimes(int i) {
+            return tripTimes[i];
+        }
+
+        /**
+         * Return {@code true} if the stop is cancelled for any of the trips. The realtime times of
+         * cancelled stops are not used, so the order of these trips may be different.
+         */
+        public boolean hasCancelledStop() {
+            return cancelledStop;
+        }
+
+        /**
+         * The index of the first trip at or after the given time, or {@link #size()} if all trips
+         * are before the time.
+         */
+        public int indexOfFirstAtOrAfter(int time) {
+            int low = 0;
+            int high = times.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (times[mid] < time) {
+                    low = mid + 1;
+                }
+                else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+}
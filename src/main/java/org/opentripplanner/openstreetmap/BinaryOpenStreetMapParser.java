@@ -7,7 +7,6 @@ import org.opentripplanner.openstreetmap.model.OSMNode;
 import org.opentripplanner.openstreetmap.model.OSMNodeRef;
 import org.opentripplanner.openstreetmap.model.OSMRelation;
 import org.opentripplanner.openstreetmap.model.OSMRelationMember;
-import org.opentripplanner.openstreetmap.model.OSMTag;
 import org.opentripplanner.openstreetmap.model.OSMWay;
 
 import java.util.HashMap;
@@ -61,10 +60,7 @@ public class BinaryOpenStreetMapParser extends BinaryParser {
                 String key = internalize(getStringById(i.getKeys(j)));
                 // if handler.retain_tag(key) // TODO: filter tags
                 String value = internalize(getStringById(i.getVals(j)));
-                OSMTag tag = new OSMTag();
-                tag.setK(key);
-                tag.setV(value);
-                tmp.addTag(tag);
+                tmp.addTag(key, value);
             }
 
             osmdb.addNode(tmp);
@@ -79,32 +75,26 @@ public class BinaryOpenStreetMapParser extends BinaryParser {
         if(parsePhase != OsmParserPhase.Nodes) { return; }
 
         for (int i = 0; i < nodes.getIdCount(); i++) {
-            OSMNode tmp = new OSMNode();
-
             long lat = nodes.getLat(i) + lastLat;
             lastLat = lat;
             long lon = nodes.getLon(i) + lastLon;
             lastLon = lon;
             long id = nodes.getId(i) + lastId;
             lastId = id;
-            double latf = parseLat(lat), lonf = parseLon(lon);
 
+            OSMNode tmp = new OSMNode();
             tmp.setId(id);
-            tmp.lat = latf;
-            tmp.lon = lonf;
+            tmp.lat = parseLat(lat);
+            tmp.lon = parseLon(lon);
 
             // If empty, assume that nothing here has keys or vals.
             if (nodes.getKeysValsCount() > 0) {
                 while (nodes.getKeysVals(j) != 0) {
                     int keyid = nodes.getKeysVals(j++);
                     int valid = nodes.getKeysVals(j++);
-
-                    OSMTag tag = new OSMTag();
                     String key = internalize(getStringById(keyid));
                     String value = internalize(getStringById(valid));
-                    tag.setK(key);
-                    tag.setV(value);
-                    tmp.addTag(tag);
+                    tmp.addTag(key, value);
                 }
                 j++; // Skip over the '0' delimiter.
             }
@@ -122,12 +112,9 @@ public class BinaryOpenStreetMapParser extends BinaryParser {
             tmp.setId(i.getId());
 
             for (int j = 0; j < i.getKeysCount(); j++) {
-                OSMTag tag = new OSMTag();
                 String key = internalize(getStringById(i.getKeys(j)));
                 String value = internalize(getStringById(i.getVals(j)));
-                tag.setK(key);
-                tag.setV(value);
-                tmp.addTag(tag);
+                tmp.addTag(key, value);
             }
 
             long lastId = 0;
@@ -152,12 +139,9 @@ public class BinaryOpenStreetMapParser extends BinaryParser {
             tmp.setId(i.getId());
 
             for (int j = 0; j < i.getKeysCount(); j++) {
-                OSMTag tag = new OSMTag();
                 String key = internalize(getStringById(i.getKeys(j)));
                 String value = internalize(getStringById(i.getVals(j)));
-                tag.setK(key);
-                tag.setV(value);
-                tmp.addTag(tag);
+                tmp.addTag(key, value);
             }
 
             long lastMid = 0;
@@ -1,6 +1,7 @@
 package org.opentripplanner.openstreetmap;
 
-import org.openstreetmap.osmosis.osmbinary.file.BlockInputStream;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.openstreetmap.osmosis.osmbinary.Fileformat;
 import org.opentripplanner.datastore.DataSource;
 import org.opentripplanner.datastore.FileType;
 import org.opentripplanner.datastore.file.FileDataSource;
@@ -13,18 +14,40 @@ import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * Parser for the OpenStreetMap PBF format. Parses files in three passes:
  * First the relations, then the ways, then the nodes are also loaded.
+ * <p>
+ * The blobs of the file are read on the calling thread, decompressed and decoded by a pool of
+ * threads, and added to the {@link OSMDatabase} in file order on the calling thread. The phases
+ * depend on each other, so the file is still read three times: the ways to keep depend on the
+ * relations and the nodes to keep depend on the ways. The first pass records which entity types
+ * each block contains, so the later passes skip the blocks without ways or nodes without
+ * decompressing them.
  */
 public class BinaryOpenStreetMapProvider {
     private static final Logger LOG = LoggerFactory.getLogger(BinaryOpenStreetMapProvider.class);
 
+    /** The number of blocks read ahead of the database for each decoder thread. */
+    private static final int BLOCKS_IN_PROGRESS_PER_THREAD = 4;
+
     private final DataSource source;
     private final boolean cacheDataImMem;
     private byte[] cachedBytes = null;
 
+    /** The phases with entities in each block of the file, indexed by block, set by the first pass */
+    private List<Set<OsmParserPhase>> phasesByBlock = null;
+
 
     /** For tests */
     public BinaryOpenStreetMapProvider(File file, boolean cacheDataImMem) {
@@ -37,34 +60,83 @@ public class BinaryOpenStreetMapProvider {
     }
 
     public void readOSM(OSMDatabase osmdb) {
+        int numberOfThreads = Runtime.getRuntime().availableProcessors();
+        ExecutorService decoders = Executors.newFixedThreadPool(
+            numberOfThreads,
+            new ThreadFactoryBuilder().setNameFormat("OsmDecoder-%d").setDaemon(true).build()
+        );
         try {
             BinaryOpenStreetMapParser parser = new BinaryOpenStreetMapParser(osmdb);
+            phasesByBlock = null;
+            int maxBlocksInProgress = numberOfThreads * BLOCKS_IN_PROGRESS_PER_THREAD;
 
-            parsePhase(parser, OsmParserPhase.Relations);
+            parsePhase(parser, OsmParserPhase.Relations, decoders, maxBlocksInProgress);
             osmdb.doneFirstPhaseRelations();
 
-            parsePhase(parser, OsmParserPhase.Ways);
+            parsePhase(parser, OsmParserPhase.Ways, decoders, maxBlocksInProgress);
             osmdb.doneSecondPhaseWays();
 
-            parsePhase(parser, OsmParserPhase.Nodes);
+            parsePhase(parser, OsmParserPhase.Nodes, decoders, maxBlocksInProgress);
             osmdb.doneThirdPhaseNodes();
         }
         catch (Exception ex) {
             throw new IllegalStateException("error loading OSM from path " + source.path(), ex);
         }
+        finally {
+            decoders.shutdownNow();
+        }
     }
 
-    private void parsePhase(BinaryOpenStreetMapParser parser, OsmParserPhase phase) throws IOException {
+    private void parsePhase(
+            BinaryOpenStreetMapParser parser,
+            OsmParserPhase phase,
+            ExecutorService decoders,
+            int maxBlocksInProgress
+    ) throws IOException, InterruptedException, ExecutionException {
         parser.setPhase(phase);
-        BlockInputStream in = null;
-        try {
-            in = new BlockInputStream(createInputStream(phase), parser);
-            in.process();
+        boolean firstPass = phasesByBlock == null;
+        List<Set<OsmParserPhase>> phases = firstPass ? new ArrayList<>() : phasesByBlock;
+        Deque<Future<PbfBlock>> inProgress = new ArrayDeque<>();
+
+        try (InputStream in = createInputStream(phase)) {
+            PbfBlobReader reader = new PbfBlobReader(in);
+            int blockIndex = 0;
+            Fileformat.BlobHeader header;
+
+            while ((header = reader.nextHeader()) != null) {
+                if (!firstPass && !phases.get(blockIndex).contains(phase)) {
+                    reader.skipBlob(header);
+                }
+                else {
+                    String type = header.getType();
+                    byte[] blob = reader.readBlob(header);
+                    inProgress.add(decoders.submit(() -> PbfBlock.decode(type, blob)));
+                }
+                ++blockIndex;
+
+                // Add the blocks to the database in file order, the parser is not thread-safe
+                while (inProgress.size() >= maxBlocksInProgress) {
+                    parseBlock(parser, inProgress.remove().get(), firstPass ? phases : null);
+                }
+            }
+            while (!inProgress.isEmpty()) {
+                parseBlock(parser, inProgress.remove().get(), firstPass ? phases : null);
+            }
         }
         finally {
-            // Close
-            try { if(in != null) { in.close(); } }
-            catch (Exception e) { LOG.error(e.getMessage(), e); }
+            inProgress.forEach(it -> it.cancel(true));
+        }
+        phasesByBlock = phases;
+    }
+
+    private static void parseBlock(
+            BinaryOpenStreetMapParser parser,
+            PbfBlock block,
+            List<Set<OsmParserPhase>> phases
+    ) {
+        block.parse(parser);
+        if (phases != null) {
+            phases.add(block.phases());
         }
     }
 
@@ -0,0 +1,73 @@
+package org.opentripplanner.openstreetmap;
+
+import org.openstreetmap.osmosis.osmbinary.Fileformat;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reads the blobs of an OpenStreetMap PBF file without decompressing or decoding them, so that the
+ * expensive part can be done in parallel, see {@link PbfBlock#decode(String, byte[])}. Each blob
+ * is preceded by the length of its header and a {@code BlobHeader} with the type and the size of
+ * the blob.
+ */
+class PbfBlobReader {
+
+    /** The max header and blob sizes in the PBF specification */
+    private static final int MAX_HEADER_SIZE = 64 * 1024;
+    private static final int MAX_BLOB_SIZE = 32 * 1024 * 1024;
+
+    private final DataInputStream in;
+
+    PbfBlobReader(InputStream in) {
+        this.in = new DataInputStream(in);
+    }
+
+    /**
+     * Read the header of the next blob, or return {@code null} at the end of the file. The blob
+     * must be read or skipped before the next header is read.
+     */
+    Fileformat.BlobHeader nextHeader() throws IOException {
+        int headerSize;
+        try {
+            headerSize = in.readInt();
+        }
+        catch (EOFException e) {
+            return null;
+        }
+        if (headerSize < 0 || headerSize > MAX_HEADER_SIZE) {
+            throw new IOException("Invalid PBF blob header size: " + headerSize);
+        }
+        byte[] header = new byte[headerSize];
+        in.readFully(header);
+        Fileformat.BlobHeader blobHeader = Fileformat.BlobHeader.parseFrom(header);
+
+        if (blobHeader.getDatasize() < 0 || blobHeader.getDatasize() > MAX_BLOB_SIZE) {
+            throw new IOException("Invalid PBF blob size: " + blobHeader.getDatasize());
+        }
+        return blobHeader;
+    }
+
+    byte[] readBlob(Fileformat.BlobHeader header) throws IOException {
+        byte[] blob = new byte[header.getDatasize()];
+        in.readFully(blob);
+        return blob;
+    }
+
+    void skipBlob(Fileformat.BlobHeader header) throws IOException {
+        int remaining = header.getDatasize();
+        while (remaining > 0) {
+            int skipped = in.skipBytes(remaining);
+            if (skipped == 0) {
+                // skipBytes may return 0 before the end of the stream, read one byte to check
+                if (in.read() < 0) {
+                    throw new EOFException("Unexpected end of PBF file");
+                }
+                skipped = 1;
+            }
+            remaining -= skipped;
+        }
+    }
+}
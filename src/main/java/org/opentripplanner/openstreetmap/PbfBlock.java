@@ -0,0 +1,101 @@
+package org.opentripplanner.openstreetmap;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.UnsafeByteOperations;
+import org.openstreetmap.osmosis.osmbinary.Fileformat;
+import org.openstreetmap.osmosis.osmbinary.Osmformat;
+
+import java.io.IOException;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * A decompressed and decoded block of an OpenStreetMap PBF file. Decoding does not depend on any
+ * other block, so blocks are decoded in parallel and then added to the OSM database in file
+ * order.
+ */
+class PbfBlock {
+
+    private static final String HEADER_TYPE = "OSMHeader";
+    private static final String DATA_TYPE = "OSMData";
+
+    private final Osmformat.HeaderBlock header;
+    private final Osmformat.PrimitiveBlock primitives;
+
+    private PbfBlock(Osmformat.HeaderBlock header, Osmformat.PrimitiveBlock primitives) {
+        this.header = header;
+        this.primitives = primitives;
+    }
+
+    /**
+     * Decompress and decode a blob read by the {@link PbfBlobReader}. Blobs of unknown types are
+     * returned as empty blocks.
+     */
+    static PbfBlock decode(String type, byte[] blob) throws IOException {
+        if (HEADER_TYPE.equals(type)) {
+            return new PbfBlock(Osmformat.HeaderBlock.parseFrom(decompress(blob)), null);
+        }
+        if (DATA_TYPE.equals(type)) {
+            return new PbfBlock(null, Osmformat.PrimitiveBlock.parseFrom(decompress(blob)));
+        }
+        return new PbfBlock(null, null);
+    }
+
+    /** Add the content of this block to the database, using the phase set on the parser. */
+    void parse(BinaryOpenStreetMapParser parser) {
+        if (header != null) {
+            parser.parse(header);
+        }
+        if (primitives != null) {
+            parser.parse(primitives);
+        }
+    }
+
+    /** The parser phases this block has entities for. */
+    Set<OsmParserPhase> phases() {
+        Set<OsmParserPhase> phases = EnumSet.noneOf(OsmParserPhase.class);
+        if (primitives == null) {
+            return phases;
+        }
+        for (Osmformat.PrimitiveGroup group : primitives.getPrimitivegroupList()) {
+            if (group.getNodesCount() > 0 || group.hasDense()) {
+                phases.add(OsmParserPhase.Nodes);
+            }
+            if (group.getWaysCount() > 0) {
+                phases.add(OsmParserPhase.Ways);
+            }
+            if (group.getRelationsCount() > 0) {
+                phases.add(OsmParserPhase.Relations);
+            }
+        }
+        return phases;
+    }
+
+    private static ByteString decompress(byte[] data) throws IOException {
+        Fileformat.Blob blob = Fileformat.Blob.parseFrom(data);
+        if (blob.hasRaw()) {
+            return blob.getRaw();
+        }
+        if (blob.hasZlibData()) {
+            Inflater inflater = new Inflater();
+            try {
+                inflater.setInput(blob.getZlibData().toByteArray());
+                byte[] raw = new byte[blob.getRawSize()];
+                int size = inflater.inflate(raw);
+                if (size != raw.length) {
+                    throw new IOException("Unexpected size of zlib data in PBF blob: " + size);
+                }
+                return UnsafeByteOperations.unsafeWrap(raw);
+            }
+            catch (DataFormatException e) {
+                throw new IOException("Invalid zlib data in PBF blob", e);
+            }
+            finally {
+                inflater.end();
+            }
+        }
+        throw new IOException("Unsupported PBF blob compression, only raw and zlib are supported");
+    }
+}
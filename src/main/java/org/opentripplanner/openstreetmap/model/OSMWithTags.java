@@ -1,6 +1,8 @@
 package org.opentripplanner.openstreetmap.model;
 
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 import org.opentripplanner.graph_builder.module.osm.TemplateLibrary;
@@ -14,8 +16,13 @@ import org.opentripplanner.util.TranslatedString;
 
 public class OSMWithTags {
 
-    /* To save memory this is only created when an entity actually has tags. */
-    private Map<String, String> tags;
+    /**
+     * The tags as key/value pairs: {@code [key0, value0, key1, value1, ...]}. Entities have few tags,
+     * so a linear search is as fast as a map lookup, and the array uses a fraction of the memory of
+     * a HashMap. The parser interns the strings, so equal keys and values share one instance. To
+     * save memory this is only created when an entity actually has tags.
+     */
+    private String[] tags;
 
     protected long id;
 
@@ -39,10 +46,7 @@ public class OSMWithTags {
      * Adds a tag.
      */
     public void addTag(OSMTag tag) {
-        if (tags == null)
-            tags = new HashMap<String, String>();
-
-        tags.put(tag.getK().toLowerCase(), tag.getV());
+        putTag(tag.getK().toLowerCase(), tag.getV());
     }
 
     /**
@@ -52,17 +56,51 @@ public class OSMWithTags {
         if (key == null || value == null)
             return;
 
-        if (tags == null)
-            tags = new HashMap<String, String>();
+        putTag(key.toLowerCase(), value);
+    }
+
+    private void putTag(String key, String value) {
+        int i = indexOfTag(key);
+        if (i >= 0) {
+            tags[i + 1] = value;
+            return;
+        }
+        if (tags == null) {
+            tags = new String[] { key, value };
+            return;
+        }
+        int n = tags.length;
+        tags = Arrays.copyOf(tags, n + 2);
+        tags[n] = key;
+        tags[n + 1] = value;
+    }
 
-        tags.put(key.toLowerCase(), value);
+    /** The index of the key in the tags array, or -1. The key must be in lower case. */
+    private int indexOfTag(String key) {
+        if (tags == null) {
+            return -1;
+        }
+        for (int i = 0; i < tags.length; i += 2) {
+            if (tags[i].equals(key)) {
+                return i;
+            }
+        }
+        return -1;
     }
 
     /**
-     * The tags of an entity.
+     * The tags of an entity, or {@code null} if the entity has no tags. This creates a new map, use
+     * {@link #getTag(String)} to look up a single tag.
      */
     public Map<String, String> getTags() {
-        return tags;
+        if (tags == null) {
+            return null;
+        }
+        Map<String, String> map = new LinkedHashMap<>();
+        for (int i = 0; i < tags.length; i += 2) {
+            map.put(tags[i], tags[i + 1]);
+        }
+        return map;
     }
 
     /**
@@ -70,7 +108,7 @@ public class OSMWithTags {
      */
     public boolean hasTag(String tag) {
         tag = tag.toLowerCase();
-        return tags != null && tags.containsKey(tag);
+        return indexOfTag(tag) >= 0;
     }
 
     /**
@@ -112,23 +150,18 @@ public class OSMWithTags {
 
     /** @return a tag's value, converted to lower case. */
     public String getTag(String tag) {
-        tag = tag.toLowerCase();
-        if (tags != null && tags.containsKey(tag)) {
-            return tags.get(tag);
-        }
-        return null;
+        int i = indexOfTag(tag.toLowerCase());
+        return i < 0 ? null : tags[i + 1];
     }
 
     /**
      * Checks is a tag contains the specified value.
      */
     public Boolean isTag(String tag, String value) {
-        tag = tag.toLowerCase();
-        if (tags != null && tags.containsKey(tag) && value != null) {
-            return value.equals(tags.get(tag));
+        if (value == null) {
+            return false;
         }
-
-        return false;
+        return value.equals(getTag(tag));
     }
 
     /**
@@ -136,30 +169,30 @@ public class OSMWithTags {
      * {@link org.opentripplanner.graph_builder.module.osm.OpenStreetMapModule}
      */
     public I18NString getAssumedName() {
-        if (tags.containsKey("name")) {
+        if (hasTag("name")) {
             return TranslatedString.getI18NString(TemplateLibrary.generateI18N("{name}", this));
         }
-        if (tags.containsKey("otp:route_name")) {
-            return new NonLocalizedString(tags.get("otp:route_name"));
+        if (hasTag("otp:route_name")) {
+            return new NonLocalizedString(getTag("otp:route_name"));
         }
         if (this.creativeName != null) {
             return this.creativeName;
         }
-        if (tags.containsKey("otp:route_ref")) {
-            return new NonLocalizedString(tags.get("otp:route_ref"));
+        if (hasTag("otp:route_ref")) {
+            return new NonLocalizedString(getTag("otp:route_ref"));
         }
-        if (tags.containsKey("ref")) {
-            return new NonLocalizedString(tags.get("ref"));
+        if (hasTag("ref")) {
+            return new NonLocalizedString(getTag("ref"));
         }
         return null;
     }
 
     public Map<String, String> getTagsByPrefix(String prefix) {
         Map<String, String> out = new HashMap<String, String>();
-        for (Map.Entry<String, String> entry : tags.entrySet()) {
-            String k = entry.getKey();
+        for (int i = 0; tags != null && i < tags.length; i += 2) {
+            String k = tags[i];
             if (k.equals(prefix) || k.startsWith(prefix + ":")) {
-                out.put(k, entry.getValue());
+                out.put(k, tags[i + 1]);
             }
         }
         if (out.isEmpty()) { return null; }
@@ -2,7 +2,9 @@ package org.opentripplanner.routing;
 
 import java.util.Calendar;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import lombok.experimental.Delegate;
 import org.opentripplanner.model.Stop;
 import org.opentripplanner.model.StopTimesInPattern;
@@ -86,6 +88,32 @@ public class RoutingService {
         );
     }
 
+    /**
+     * Fetch upcoming vehicle departures from many stops, in one call. This is the same as calling
+     * {@link #stopTimesForStop} for each stop, using the same TimetableSnapshot for all stops.
+     *
+     * @return the departures for each stop
+     */
+    public Map<Stop, List<StopTimesInPattern>> stopTimesForStops(
+            Collection<Stop> stops, long startTime, int timeRange, int numberOfDepartures, ArrivalDeparture arrivalDeparture, boolean includeCancelledTrips
+    ) {
+        TimetableSnapshot timetableSnapshot = lazyGetTimeTableSnapShot();
+        Map<Stop, List<StopTimesInPattern>> result = new HashMap<>();
+        for (Stop stop : stops) {
+            result.put(stop, StopTimesHelper.stopTimesForStop(
+                    this,
+                    timetableSnapshot,
+                    stop,
+                    startTime,
+                    timeRange,
+                    numberOfDepartures,
+                    arrivalDeparture,
+                    includeCancelledTrips
+            ));
+        }
+        return result;
+    }
+
     /**
      * Get a list of all trips that pass through a stop during a single ServiceDate. Useful when
      * creating complete stop timetables for a single day.
@@ -140,6 +168,22 @@ public class RoutingService {
         );
     }
 
+    /**
+     * Returns all the patterns for many stops, in one call. This is the same as calling
+     * {@link #getPatternsForStop(Stop, boolean)} for each stop, using the same TimetableSnapshot
+     * for all stops.
+     */
+    public Map<Stop, Collection<TripPattern>> getPatternsForStops(
+            Collection<Stop> stops, boolean includeRealtimeUpdates
+    ) {
+        TimetableSnapshot timetableSnapshot = includeRealtimeUpdates ? lazyGetTimeTableSnapShot() : null;
+        Map<Stop, Collection<TripPattern>> result = new HashMap<>();
+        for (Stop stop : stops) {
+            result.put(stop, graph.index.getPatternsForStop(stop, timetableSnapshot));
+        }
+        return result;
+    }
+
     /**
      * Get the most up-to-date timetable for the given TripPattern, as of right now. There should
      * probably be a less awkward way to do this that just gets the latest entry from the resolver
@@ -161,8 +205,9 @@ public class RoutingService {
      * Lazy-initialization of TimetableSnapshot
      *
      * @return The same TimetableSnapshot is returned throughout the lifecycle of this object.
+     * The GraphQL APIs may call this from several threads during one request.
      */
-    private TimetableSnapshot lazyGetTimeTableSnapShot() {
+    private synchronized TimetableSnapshot lazyGetTimeTableSnapShot() {
         if (this.timetableSnapshot == null) {
             timetableSnapshot = graph.getTimetableSnapshot();
         }
@@ -36,6 +36,7 @@ import org.opentripplanner.routing.api.response.RoutingResponse;
 import org.opentripplanner.routing.api.response.TripSearchMetadata;
 import org.opentripplanner.routing.error.RoutingValidationException;
 import org.opentripplanner.routing.framework.DebugTimingAggregator;
+import org.opentripplanner.routing.framework.RoutingPhaseExecutor;
 import org.opentripplanner.routing.graph.Graph;
 import org.opentripplanner.routing.graph.GraphIndex;
 import org.opentripplanner.routing.graph.Vertex;
@@ -82,6 +83,7 @@ public class RoutingWorker {
     public RoutingResponse route(Router router) {
         List<Itinerary> itineraries = new ArrayList<>();
         List<RoutingError> routingErrors = new ArrayList<>();
+        List<RoutingError> transitRoutingErrors = new ArrayList<>();
 
         // If no direct mode is set, then we set one.
         // See {@link FilterTransitWhenDirectModeIsEmpty}
@@ -89,17 +91,45 @@ public class RoutingWorker {
 
         this.debugTimingAggregator.finishedPrecalculating();
 
+        // The direct street routing, direct flex routing, trip pattern filtering and access/egress
+        // routing are independent of each other. They run in parallel if the executor is
+        // multi-threaded, if not they run in the order the results are retrieved below.
+        RoutingPhaseExecutor executor = router.routingPhaseExecutor;
+
+        RoutingPhaseExecutor.Phase<List<Itinerary>> directStreetRouting = executor.submit(
+                "Direct street routing",
+                () -> DirectStreetRouter.route(router, request),
+                List.of()
+        );
+
+        RoutingPhaseExecutor.Phase<List<Itinerary>> directFlexRouting = OTPFeature.FlexRouting.isOn()
+                ? executor.submit(
+                        "Direct flex routing",
+                        () -> DirectFlexRouter.route(router, request),
+                        List.of()
+                )
+                : null;
+
+        TransitRoutingPhases transitRouting = null;
+        try {
+            transitRouting = startTransitRouting(router, executor);
+        } catch (RoutingValidationException e) {
+            transitRoutingErrors.addAll(e.getRoutingErrors());
+        }
+
         // Direct street routing
         try {
-            itineraries.addAll(DirectStreetRouter.route(router, request));
+            itineraries.addAll(directStreetRouting.get());
+            addErrorIfTimedOut(directStreetRouting, null, routingErrors);
         } catch (RoutingValidationException e) {
             routingErrors.addAll(e.getRoutingErrors());
         }
 
         // Direct flex routing
-        if (OTPFeature.FlexRouting.isOn()) {
+        if (directFlexRouting != null) {
             try {
-                itineraries.addAll(DirectFlexRouter.route(router, request));
+                itineraries.addAll(directFlexRouting.get());
+                addErrorIfTimedOut(directFlexRouting, null, routingErrors);
             }
             catch (RoutingValidationException e) {
                 routingErrors.addAll(e.getRoutingErrors());
@@ -109,10 +139,13 @@ public class RoutingWorker {
         this.debugTimingAggregator.finishedDirectStreetRouter();
 
         // Transit routing
-        try {
-            itineraries.addAll(routeTransit(router));
-        } catch (RoutingValidationException e) {
-            routingErrors.addAll(e.getRoutingErrors());
+        routingErrors.addAll(transitRoutingErrors);
+        if (transitRouting != null) {
+            try {
+                itineraries.addAll(routeTransit(router, transitRouting));
+            } catch (RoutingValidationException e) {
+                routingErrors.addAll(e.getRoutingErrors());
+            }
         }
 
         this.debugTimingAggregator.finishedTransitRouter();
@@ -134,8 +167,14 @@ public class RoutingWorker {
         );
     }
 
-    private Collection<Itinerary> routeTransit(Router router) {
-        if (request.modes.transitModes.isEmpty()) { return Collections.emptyList(); }
+    /**
+     * Start the trip pattern filtering and the access and egress routing.
+     *
+     * @return {@code null} if no transit modes are requested.
+     */
+    @Nullable
+    private TransitRoutingPhases startTransitRouting(Router router, RoutingPhaseExecutor executor) {
+        if (request.modes.transitModes.isEmpty()) { return null; }
 
         if (!router.graph.transitFeedCovers(request.dateTime)) {
             throw new RoutingValidationException(List.of(
@@ -147,58 +186,76 @@ public class RoutingWorker {
             ? router.graph.getTransitLayer()
             : router.graph.getRealtimeTransitLayer();
 
-        RaptorRoutingRequestTransitData requestTransitDataProvider = createRequestTransitDataProvider(transitLayer, router.graph);
+        AccessEgressMapper accessEgressMapper = new AccessEgressMapper(transitLayer.getStopIndex());
 
-        this.debugTimingAggregator.finishedPatternFiltering();
+        return new TransitRoutingPhases(
+                transitLayer,
+                executor.submit(
+                        "Filtering tripPatterns",
+                        () -> createRequestTransitDataProvider(transitLayer, router.graph)
+                ),
+                executor.submit(
+                        "Access routing",
+                        () -> routeAccessEgress(router, accessEgressMapper, false),
+                        List.of()
+                ),
+                executor.submit(
+                        "Egress routing",
+                        () -> routeAccessEgress(router, accessEgressMapper, true),
+                        List.of()
+                )
+        );
+    }
 
-        AccessEgressMapper accessEgressMapper = new AccessEgressMapper(transitLayer.getStopIndex());
-        Collection<AccessEgress> accessList;
-        Collection<AccessEgress> egressList;
-
-        // Prepare access/egress lists
-        try (RoutingRequest accessRequest = request.getStreetSearchRequest(request.modes.accessMode)) {
-            accessRequest.setRoutingContext(router.graph);
-            accessRequest.allowKeepingRentedVehicleAtDestination = false;
-
-            Collection<NearbyStop> accessStops = AccessEgressRouter.streetSearch(
-                    accessRequest,
-                    request.modes.accessMode,
-                    false
-            );
-            accessList = accessEgressMapper.mapNearbyStops(accessStops, false);
+    private Collection<AccessEgress> routeAccessEgress(
+            Router router,
+            AccessEgressMapper accessEgressMapper,
+            boolean isEgress
+    ) {
+        StreetMode streetMode = isEgress ? request.modes.egressMode : request.modes.accessMode;
 
-            // Special handling of flex accesses
-            if (OTPFeature.FlexRouting.isOn() && request.modes.accessMode == StreetMode.FLEXIBLE) {
-                Collection<FlexAccessEgress> flexAccessList =
-                        FlexAccessEgressRouter.routeAccessEgress(
-                                accessRequest,
-                                false
-                        );
-                accessList.addAll(accessEgressMapper.mapFlexAccessEgresses(flexAccessList, false));
+        try (RoutingRequest streetRequest = request.getStreetSearchRequest(streetMode)) {
+            streetRequest.setRoutingContext(router.graph);
+            if (!isEgress) {
+                streetRequest.allowKeepingRentedVehicleAtDestination = false;
             }
-        }
 
-        try (RoutingRequest egressRequest = request.getStreetSearchRequest(request.modes.egressMode)) {
-            egressRequest.setRoutingContext(router.graph);
-
-            Collection<NearbyStop> egressStops = AccessEgressRouter.streetSearch(
-                    egressRequest,
-                    request.modes.egressMode,
-                    true
+            Collection<NearbyStop> nearbyStops = AccessEgressRouter.streetSearch(
+                    streetRequest,
+                    streetMode,
+                    isEgress
+            );
+            Collection<AccessEgress> results = accessEgressMapper.mapNearbyStops(
+                    nearbyStops,
+                    isEgress
             );
-            egressList = accessEgressMapper.mapNearbyStops(egressStops, true);
 
-            // Special handling of flex egresses
-            if (OTPFeature.FlexRouting.isOn() && request.modes.egressMode == StreetMode.FLEXIBLE) {
-                Collection<FlexAccessEgress> flexEgressList =
+            // Special handling of flex accesses and egresses
+            if (OTPFeature.FlexRouting.isOn() && streetMode == StreetMode.FLEXIBLE) {
+                Collection<FlexAccessEgress> flexAccessEgressList =
                         FlexAccessEgressRouter.routeAccessEgress(
-                                egressRequest,
-                                true
+                                streetRequest,
+                                isEgress
                         );
-                egressList.addAll(accessEgressMapper.mapFlexAccessEgresses(flexEgressList, true));
+                results.addAll(
+                        accessEgressMapper.mapFlexAccessEgresses(flexAccessEgressList, isEgress)
+                );
             }
+            return results;
         }
+    }
+
+    private Collection<Itinerary> routeTransit(Router router, TransitRoutingPhases phases) {
+        TransitLayer transitLayer = phases.transitLayer;
+
+        RaptorRoutingRequestTransitData requestTransitDataProvider = phases.transitData.get();
 
+        this.debugTimingAggregator.finishedPatternFiltering();
+
+        Collection<AccessEgress> accessList = phases.access.get();
+        Collection<AccessEgress> egressList = phases.egress.get();
+
+        verifyAccessEgressNotTimedOut(phases);
         verifyEgressAccess(accessList, egressList);
 
         List<Itinerary> itineraries = new ArrayList<>();
@@ -221,7 +278,7 @@ public class RoutingWorker {
 
         LOG.debug("Found {} transit itineraries", transitResponse.paths().size());
 
-        this.debugTimingAggregator.finishedRaptorSearch();
+        this.debugTimingAggregator.finishedRaptorSearch(transitResponse.statistics());
 
         Collection<Path<TripSchedule>> paths = transitResponse.paths();
 
@@ -305,6 +362,30 @@ public class RoutingWorker {
         return filterChain.filter(itineraries);
     }
 
+    private static void addErrorIfTimedOut(
+            RoutingPhaseExecutor.Phase<?> phase,
+            InputField inputField,
+            List<RoutingError> routingErrors
+    ) {
+        if (phase.isTimedOut()) {
+            routingErrors.add(new RoutingError(RoutingErrorCode.STREET_ROUTING_TIMEOUT, inputField));
+        }
+    }
+
+    /**
+     * An access or egress search which timed out has no results, report the timeout instead of
+     * {@link RoutingErrorCode#NO_STOPS_IN_RANGE}.
+     */
+    private static void verifyAccessEgressNotTimedOut(TransitRoutingPhases phases) {
+        List<RoutingError> routingErrors = new ArrayList<>();
+        addErrorIfTimedOut(phases.access, InputField.FROM_PLACE, routingErrors);
+        addErrorIfTimedOut(phases.egress, InputField.TO_PLACE, routingErrors);
+
+        if (!routingErrors.isEmpty()) {
+            throw new RoutingValidationException(routingErrors);
+        }
+    }
+
     private void verifyEgressAccess(
             Collection<?> access,
             Collection<?> egress
@@ -362,4 +443,27 @@ public class RoutingWorker {
             );
         }
     }
+
+    /**
+     * The phases needed before the Raptor search can start. These are started together with the
+     * direct street routing.
+     */
+    private static class TransitRoutingPhases {
+        private final TransitLayer transitLayer;
+        private final RoutingPhaseExecutor.Phase<RaptorRoutingRequestTransitData> transitData;
+        private final RoutingPhaseExecutor.Phase<Collection<AccessEgress>> access;
+        private final RoutingPhaseExecutor.Phase<Collection<AccessEgress>> egress;
+
+        private TransitRoutingPhases(
+                TransitLayer transitLayer,
+                RoutingPhaseExecutor.Phase<RaptorRoutingRequestTransitData> transitData,
+                RoutingPhaseExecutor.Phase<Collection<AccessEgress>> access,
+                RoutingPhaseExecutor.Phase<Collection<AccessEgress>> egress
+        ) {
+            this.transitLayer = transitLayer;
+            this.transitData = transitData;
+            this.access = access;
+            this.egress = egress;
+        }
+    }
 }
@@ -157,7 +157,9 @@ public class AStar {
 
         runState.nVisited += 1;
         
-        Collection<Edge> edges = runState.options.arriveBy ? runState.u_vertex.getIncoming() : runState.u_vertex.getOutgoing();
+        Collection<Edge> edges = runState.options.arriveBy
+                ? runState.rctx.getIncoming(runState.u_vertex)
+                : runState.rctx.getOutgoing(runState.u_vertex);
         for (Edge edge : edges) {
 
             if (skipEdgeStrategy != null &&
@@ -226,7 +228,17 @@ public class AStar {
 
                 break;
             }
-            
+
+            /*
+             * Terminate if the routing phase running the search is cancelled. The interrupt flag
+             * is left set, so the caller can see the search was not completed.
+             */
+            if (Thread.currentThread().isInterrupted()) {
+                LOG.debug("Search interrupted. origin={} target={}", runState.rctx.fromVertices, runState.rctx.toVertices);
+                runState.options.rctx.aborted = true;
+                break;
+            }
+
             /*
              * Get next best state and, if it hasn't already been dominated, add adjacent states to queue.
              * If it has been dominated, the iteration is over; don't bother checking for termination condition.
@@ -645,8 +645,7 @@ public abstract class GraphPathToItineraryMapper {
                                 // are usually caused by street splits
                                 continue;
                             }
-                            double altAngle = DirectionUtils.getFirstAngle(alternative
-                                    .getGeometry());
+                            double altAngle = getFirstAngle(alternative);
                             double altAngleDiff = getAbsoluteAngleDiff(altAngle, lastAngle);
                             if (angleDiff > Math.PI / 4 || altAngleDiff - angleDiff < Math.PI / 16) {
                                 shouldGenerateContinue = true;
@@ -670,8 +669,7 @@ public abstract class GraphPathToItineraryMapper {
                                 // are usually caused by street splits
                                 continue;
                             }
-                            double altAngle = DirectionUtils.getFirstAngle(alternative
-                                    .getGeometry());
+                            double altAngle = getFirstAngle(alternative);
                             double altAngleDiff = getAbsoluteAngleDiff(altAngle, lastAngle);
                             if (angleDiff > Math.PI / 4 || altAngleDiff - angleDiff < Math.PI / 16) {
                                 shouldGenerateContinue = true;
@@ -811,6 +809,17 @@ public abstract class GraphPathToItineraryMapper {
         return edge instanceof StreetEdge && (((StreetEdge)edge).getStreetClass() & StreetEdge.CLASS_LINK) == StreetEdge.CLASS_LINK;
     }
 
+    /**
+     * The angle of the first segment of the edge. Street edges compute it from their compact
+     * geometry, so the LineString is only created for other edges.
+     */
+    private static double getFirstAngle(Edge edge) {
+        if (edge instanceof StreetEdge) {
+            return ((StreetEdge) edge).getFirstAngle();
+        }
+        return DirectionUtils.getFirstAngle(edge.getGeometry());
+    }
+
     private static double getAbsoluteAngleDiff(double thisAngle, double lastAngle) {
         double angleDiff = thisAngle - lastAngle;
         if (angleDiff < 0) {
@@ -836,7 +845,7 @@ public abstract class GraphPathToItineraryMapper {
                 forwardState.getOptions().geoidElevation ? -graph.ellipsoidToGeoidDifference : 0);
         step.bogusName = en.hasBogusName();
         step.addStreetNotes(graph.streetNotesService.getNotes(forwardState));
-        step.angle = DirectionUtils.getFirstAngle(forwardState.getBackEdge().getGeometry());
+        step.angle = getFirstAngle(forwardState.getBackEdge());
         if (forwardState.getBackEdge() instanceof AreaEdge) {
             step.area = true;
         }
@@ -3,15 +3,9 @@ package org.opentripplanner.routing.algorithm.raptor.transit;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.Optional;
 import org.locationtech.jts.geom.Coordinate;
-import org.opentripplanner.routing.algorithm.raptor.transit.request.TransferWithDuration;
 import org.opentripplanner.routing.api.request.RoutingRequest;
-import org.opentripplanner.routing.core.State;
-import org.opentripplanner.routing.core.StateEditor;
 import org.opentripplanner.routing.graph.Edge;
-import org.opentripplanner.transit.raptor.api.transit.RaptorCostConverter;
-import org.opentripplanner.transit.raptor.api.transit.RaptorTransfer;
 
 public class Transfer {
     private final int toStop;
@@ -53,34 +47,6 @@ public class Transfer {
         return edges;
     }
 
-    public Optional<RaptorTransfer> asRaptorTransfer(RoutingRequest routingRequest) {
-        if (edges == null || edges.isEmpty()) {
-            int durationSeconds = (int) Math.ceil(distanceMeters / routingRequest.walkSpeed);
-            return Optional.of(new TransferWithDuration(
-                    this,
-                    durationSeconds,
-                    RaptorCostConverter.toRaptorCost((int) Math.ceil(durationSeconds * routingRequest.walkReluctance))
-            ));
-        }
-
-        StateEditor se = new StateEditor(routingRequest, edges.get(0).getFromVertex());
-        se.setTimeSeconds(0);
-
-        State s = se.makeState();
-        for (Edge e : edges) {
-            s = e.traverse(s);
-            if (s == null) {
-                return Optional.empty();
-            }
-        }
-
-        return Optional.of(new TransferWithDuration(
-            this,
-            (int) s.getElapsedTimeSeconds(),
-            RaptorCostConverter.toRaptorCost(s.getWeight())
-        ));
-    }
-
     public static RoutingRequest prepareTransferRoutingRequest(RoutingRequest request) {
         RoutingRequest transferRoutingRequest = request.getStreetSearchRequest(request.modes.transferMode);
         transferRoutingRequest.arriveBy = false;
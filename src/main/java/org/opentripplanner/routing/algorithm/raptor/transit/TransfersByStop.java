@@ -0,0 +1,122 @@
+package org.opentripplanner.routing.algorithm.raptor.transit;
+
+import gnu.trove.list.array.TIntArrayList;
+import java.util.ArrayList;
+import java.util.List;
+import javax.annotation.Nullable;
+import org.opentripplanner.routing.graph.Edge;
+
+/**
+ * The pre-calculated street transfers between stops, stored in a compressed sparse row layout. The
+ * transfers from stop {@code s} are the indexes {@code [offset(s), offset(s + 1))} in the
+ * to-stop and distance arrays. The street edges are only kept for transfers calculated with a
+ * street search, and the {@link Transfer} objects are created when needed, for example to map a
+ * transfer to an itinerary leg.
+ * <p>
+ * THREAD SAFETY: Instances are immutable and shared by all requests.
+ */
+public class TransfersByStop {
+
+    private final int[] offsets;
+    private final int[] toStops;
+    private final int[] distanceMeters;
+    private final List<List<Edge>> edges;
+
+    private TransfersByStop(
+            int[] offsets,
+            int[] toStops,
+            int[] distanceMeters,
+            List<List<Edge>> edges
+    ) {
+        this.offsets = offsets;
+        this.toStops = toStops;
+        this.distanceMeters = distanceMeters;
+        this.edges = edges;
+    }
+
+    public static Builder builder(int numberOfStops) {
+        return new Builder(numberOfStops);
+    }
+
+    public int numberOfStops() {
+        return offsets.length - 1;
+    }
+
+    /** The total number of transfers. */
+    public int size() {
+        return toStops.length;
+    }
+
+    /** The index of the first transfer from the given stop. */
+    public int offset(int fromStop) {
+        return offsets[fromStop];
+    }
+
+    public int toStop(int index) {
+        return toStops[index];
+    }
+
+    public int distanceMeters(int index) {
+        return distanceMeters[index];
+    }
+
+    /**
+     * The street edges of the transfer, or {@code null} if the transfer was not calculated using a
+     * street search. In that case the transfer cost is based on the distance only.
+     */
+    @Nullable
+    public List<Edge> edges(int index) {
+        return edges.get(index);
+    }
+
+    public Transfer transfer(int index) {
+        List<Edge> e = edges.get(index);
+        return e == null
+            ? new Transfer(toStops[index], distanceMeters[index])
+            : new Transfer(toStops[index], e);
+    }
+
+    /**
+     * Add the transfers ordered by from stop index. All transfers from a stop must be added before
+     * the transfers from the next stop.
+     */
+    public static class Builder {
+
+        private final int[] offsets;
+        private final TIntArrayList toStops = new TIntArrayList();
+        private final TIntArrayList distanceMeters = new TIntArrayList();
+        private final List<List<Edge>> edges = new ArrayList<>();
+        private int currentStop = 0;
+
+        private Builder(int numberOfStops) {
+            this.offsets = new int[numberOfStops + 1];
+        }
+
+        public Builder add(int fromStop, int toStop, int distanceMeters, @Nullable List<Edge> edges) {
+            if (fromStop < currentStop) {
+                throw new IllegalArgumentException(
+                    "Transfers must be added in from stop order: " + fromStop + " < " + currentStop
+                );
+            }
+            while (currentStop < fromStop) {
+                offsets[++currentStop] = toStops.size();
+            }
+            this.toStops.add(toStop);
+            this.distanceMeters.add(distanceMeters);
+            this.edges.add(edges == null || edges.isEmpty() ? null : edges);
+            return this;
+        }
+
+        public TransfersByStop build() {
+            while (currentStop < offsets.length - 1) {
+                offsets[++currentStop] = toStops.size();
+            }
+            return new TransfersByStop(
+                offsets,
+                toStops.toArray(),
+                distanceMeters.toArray(),
+                edges
+            );
+        }
+    }
+}
@@ -4,30 +4,52 @@ import java.time.LocalDate;
 import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.stream.Collectors;
 import javax.annotation.Nullable;
 import org.opentripplanner.model.Stop;
 import org.opentripplanner.model.transfer.TransferService;
+import org.opentripplanner.routing.algorithm.raptor.transit.request.ActiveTripPatterns;
 import org.opentripplanner.routing.algorithm.raptor.transit.request.RaptorRequestTransferCache;
+import org.opentripplanner.routing.algorithm.raptor.transit.request.RaptorRequestTripPatternCache;
+import org.opentripplanner.routing.algorithm.raptor.transit.request.RaptorTransferIndex;
+import org.opentripplanner.routing.algorithm.raptor.transit.request.TransitDataProviderFilter;
 import org.opentripplanner.routing.api.request.RoutingRequest;
-import org.opentripplanner.transit.raptor.api.transit.RaptorTransfer;
 
 public class TransitLayer {
 
   /**
    * Transit data required for routing, indexed by each local date(Graph TimeZone) it runs through.
    * A Trip "runs through" a date if any of its arrivals or departures is happening on that date.
+   * <p>
+   * Only the dates in the window starting today, and the dates updated in realtime, are kept
+   * here. Other dates are mapped when needed and kept in the {@link #tripPatternsForDateCache}.
    */
-  private final HashMap<LocalDate, List<TripPatternForDate>> tripPatternsRunningOnDate;
+  private final ConcurrentMap<LocalDate, List<TripPatternForDate>> tripPatternsRunningOnDate;
 
   /**
-   * Index of outer list is from stop index, inner list index has no specific meaning. To stop index
-   * is a field of the Transfer object.
+   * The scheduled trip patterns for the dates not in {@link #tripPatternsRunningOnDate}. Shared
+   * between copies of this instance.
    */
-  private final List<List<Transfer>> simpleTransfersByStopIndex;
+  private final TripPatternsRunningOnDateCache tripPatternsForDateCache;
+
+  /**
+   * The number of dates, starting today, kept in {@link #tripPatternsRunningOnDate}.
+   */
+  private final int windowDays;
+
+  /**
+   * The first date of the window. Past dates are removed when the date changes.
+   */
+  private volatile LocalDate windowStart;
+
+  /**
+   * The pre-calculated street transfers by from stop index.
+   */
+  private final TransfersByStop simpleTransfersByStopIndex;
 
   /**
    * Trip to trip transfers like with properties like guaranteedTransfer, staySeated and priority.
@@ -43,36 +65,56 @@ public class TransitLayer {
 
   private final RaptorRequestTransferCache transferCache;
 
+  private final RaptorRequestTripPatternCache tripPatternCache;
+
   /**
    * Makes a shallow copy of the TransitLayer, except for the tripPatternsForDate, where a shallow
-   * copy of the HashMap is made. This is sufficient, as the TransitLayerUpdater will replace
+   * copy of the map is made. This is sufficient, as the TransitLayerUpdater will replace
    * entire keys and their values in the map.
    */
   public TransitLayer(TransitLayer transitLayer) {
     this(
         transitLayer.tripPatternsRunningOnDate,
+        transitLayer.tripPatternsForDateCache,
+        transitLayer.windowStart,
+        transitLayer.windowDays,
         transitLayer.simpleTransfersByStopIndex,
         transitLayer.transferService,
         transitLayer.stopIndex,
         transitLayer.transitDataZoneId,
-        transitLayer.transferCache
+        transitLayer.transferCache,
+        transitLayer.tripPatternCache
     );
   }
 
+  /**
+   * @param tripPatternsRunningOnDate the trip patterns running on the dates in the window
+   * @param tripPatternsForDateCache  maps the trip patterns for dates outside the window
+   * @param windowStart               the first date in the window, normally today
+   * @param windowDays                the number of dates in the window
+   */
   public TransitLayer(
       Map<LocalDate, List<TripPatternForDate>> tripPatternsRunningOnDate,
-      List<List<Transfer>> simpleTransfers,
+      TripPatternsRunningOnDateCache tripPatternsForDateCache,
+      LocalDate windowStart,
+      int windowDays,
+      TransfersByStop simpleTransfers,
       TransferService transferService,
       StopIndexForRaptor stopIndex,
       ZoneId transitDataZoneId,
-      RaptorRequestTransferCache transferCache
+      RaptorRequestTransferCache transferCache,
+      RaptorRequestTripPatternCache tripPatternCache
   ) {
-    this.tripPatternsRunningOnDate = new HashMap<>(tripPatternsRunningOnDate);
+    this.tripPatternsRunningOnDate = new ConcurrentHashMap<>(tripPatternsRunningOnDate);
+    this.tripPatternsForDateCache = tripPatternsForDateCache;
+    this.windowStart = windowStart;
+    this.windowDays = windowDays;
     this.simpleTransfersByStopIndex = simpleTransfers;
     this.transferService = transferService;
     this.stopIndex = stopIndex;
     this.transitDataZoneId = transitDataZoneId;
     this.transferCache = transferCache;
+    this.tripPatternCache = tripPatternCache;
   }
 
   public int getIndexByStop(Stop stop) {
@@ -89,7 +131,7 @@ public class TransitLayer {
   }
 
   public Collection<TripPatternForDate> getTripPatternsForDate(LocalDate date) {
-    return tripPatternsRunningOnDate.getOrDefault(date, List.of());
+    return tripPatternsRunningOnDate(date);
   }
 
   /**
@@ -107,22 +149,18 @@ public class TransitLayer {
     return stopIndex.stopsByIndex.size();
   }
 
-  @Nullable
   public List<TripPatternForDate> getTripPatternsRunningOnDateCopy(LocalDate runningPeriodDate) {
-    List<TripPatternForDate> tripPatternForDate = tripPatternsRunningOnDate.get(runningPeriodDate);
-    return tripPatternForDate != null ? new ArrayList<>(tripPatternForDate) : null;
+    return new ArrayList<>(tripPatternsRunningOnDate(runningPeriodDate));
   }
 
-  @Nullable
   public List<TripPatternForDate> getTripPatternsStartingOnDateCopy(LocalDate date) {
-    List<TripPatternForDate> tripPatternsRunningOnDate = getTripPatternsRunningOnDateCopy(date);
-    return tripPatternsRunningOnDate != null ? tripPatternsRunningOnDate
+    return tripPatternsRunningOnDate(date)
         .stream()
         .filter(t -> t.getLocalDate().equals(date))
-        .collect(Collectors.toList()) : null;
+        .collect(Collectors.toList());
   }
 
-  public List<List<Transfer>> getSimpleTransferByStopIndex() {
+  public TransfersByStop getSimpleTransferByStopIndex() {
     return simpleTransfersByStopIndex;
   }
 
@@ -130,18 +168,74 @@ public class TransitLayer {
     return transferService;
   }
 
-  public List<List<RaptorTransfer>> getRaptorTransfersForRequest(RoutingRequest routingRequest) {
+  public RaptorTransferIndex getRaptorTransfersForRequest(RoutingRequest routingRequest) {
     return transferCache.get(simpleTransfersByStopIndex, routingRequest);
   }
 
+  /**
+   * Get the active trip patterns for each stop for the given search date and filter. The result
+   * is cached and shared between requests, and must not be modified.
+   */
+  public ActiveTripPatterns getActiveTripPatternsForRequest(
+      LocalDate searchDate,
+      int additionalFutureSearchDays,
+      TransitDataProviderFilter filter
+  ) {
+    return tripPatternCache.get(this, searchDate, additionalFutureSearchDays, filter);
+  }
+
+  /**
+   * Remove the cached request trip patterns for this instance. Call this when the instance is
+   * replaced by an updated copy, the cache is shared between copies.
+   */
+  public void invalidateTripPatternCache() {
+    tripPatternCache.invalidate(this);
+  }
+
   /**
    * Replaces all the TripPatternForDates for a single date. This is an atomic operation according
-   * to the HashMap implementation.
+   * to the ConcurrentMap implementation. Future dates outside the window are added, so that the
+   * realtime updates are kept until the date has passed. Past dates are not added, the window only
+   * removes them when it moves, and the copies of this instance would keep them forever.
    */
   public void replaceTripPatternsForDate(
       LocalDate date,
       List<TripPatternForDate> tripPatternForDates
   ) {
-    this.tripPatternsRunningOnDate.replace(date, tripPatternForDates);
+    moveWindow(LocalDate.now(transitDataZoneId));
+    if (date.isBefore(windowStart)) {
+      return;
+    }
+    this.tripPatternsRunningOnDate.put(date, tripPatternForDates);
+  }
+
+  /**
+   * Move the window to start at the given date, and remove all dates before it. This is done
+   * automatically when the date changes in the transit data time zone.
+   */
+  void moveWindow(LocalDate today) {
+    if (!today.isAfter(windowStart)) {
+      return;
+    }
+    windowStart = today;
+    tripPatternsRunningOnDate.keySet().removeIf(date -> date.isBefore(today));
+  }
+
+  private List<TripPatternForDate> tripPatternsRunningOnDate(LocalDate date) {
+    moveWindow(LocalDate.now(transitDataZoneId));
+
+    List<TripPatternForDate> tripPatternForDates = tripPatternsRunningOnDate.get(date);
+    if (tripPatternForDates != null) {
+      return tripPatternForDates;
+    }
+    tripPatternForDates = tripPatternsForDateCache.get(date);
+
+    // Dates entering the window when it moves are kept like the dates mapped at startup
+    LocalDate start = windowStart;
+    if (!date.isBefore(start) && date.isBefore(start.plusDays(windowDays))) {
+      var existing = tripPatternsRunningOnDate.putIfAbsent(date, tripPatternForDates);
+      return existing != null ? existing : tripPatternForDates;
+    }
+    return tripPatternForDates;
   }
 }
@@ -3,6 +3,13 @@ package org.opentripplanner.routing.algorithm.raptor.transit;
 import org.opentripplanner.model.StopTransferPriority;
 
 public interface TransitTuningParameters {
+
+  /** The default of {@link #transferCacheMaxMemoryMegabytes()}. */
+  int DEFAULT_TRANSFER_CACHE_MAX_MEMORY_MEGABYTES = 256;
+
+  /** The default of {@link #tripPatternCacheMaxSize()}. */
+  int DEFAULT_TRIP_PATTERN_CACHE_MAX_SIZE = 10;
+
   /**
    * These tuning parameters are typically used in unit tests. The values are:
    * <pre>
@@ -27,7 +34,17 @@ public interface TransitTuningParameters {
       throw new IllegalArgumentException("Unknown key: " + key);
     }
 
-    @Override public int transferCacheMaxSize() { return 5; }
+    @Override public int transferCacheMaxMemoryMegabytes() {
+      return DEFAULT_TRANSFER_CACHE_MAX_MEMORY_MEGABYTES;
+    }
+
+    @Override public int tripPatternCacheMaxSize() {
+      return DEFAULT_TRIP_PATTERN_CACHE_MAX_SIZE;
+    }
+
+    @Override public int transitLayerWindowDays() { return 2; }
+
+    @Override public int transitLayerDateCacheMaxSize() { return 10; }
   };
 
   /**
@@ -43,9 +60,32 @@ public interface TransitTuningParameters {
   Integer stopTransferCost(StopTransferPriority key);
 
   /**
-   * The maximum number of transfer RoutingRequests for which the pre-calculated transfers should be
-   * cached. If too small, the average request may be slower due to the required re-calculating. If
+   * The maximum memory in megabytes used to cache the pre-calculated transfers for distinct
+   * transfer RoutingRequests. The size of each entry depend on the number of transfers in the
+   * graph. If too small, the average request may be slower due to the required re-calculating. If
    * too large, more memory may be used than needed.
    */
-  int transferCacheMaxSize();
+  int transferCacheMaxMemoryMegabytes();
+
+  /**
+   * The maximum number of distinct search dates and request filters for which the active trip
+   * patterns per stop should be cached. If too small, the trip patterns are filtered and merged
+   * for more requests. If too large, more memory may be used than needed.
+   */
+  int tripPatternCacheMaxSize();
+
+  /**
+   * The number of dates, starting today, for which the trip patterns are mapped at startup and
+   * kept in memory. The window moves at midnight, and past dates are removed. Other dates are
+   * mapped when requested, see {@link #transitLayerDateCacheMaxSize()}. Memory use and startup
+   * time grow with the number of dates in the window.
+   */
+  int transitLayerWindowDays();
+
+  /**
+   * The maximum number of dates outside the {@link #transitLayerWindowDays()} to cache the
+   * trip patterns for. If too small, requests for these dates may be slower due to the required
+   * re-mapping. If too large, more memory may be used than needed.
+   */
+  int transitLayerDateCacheMaxSize();
 }
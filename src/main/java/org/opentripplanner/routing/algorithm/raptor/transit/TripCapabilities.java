@@ -0,0 +1,64 @@
+package org.opentripplanner.routing.algorithm.raptor.transit;
+
+import java.util.BitSet;
+import java.util.List;
+import org.opentripplanner.model.BikeAccess;
+import org.opentripplanner.model.Trip;
+import org.opentripplanner.routing.algorithm.raptor.transit.request.RoutingRequestTransitDataProviderFilter;
+import org.opentripplanner.routing.trippattern.TripTimes;
+
+/**
+ * The properties of the trips in a {@link TripPatternForDate} used to filter trips for a request.
+ * Each property is a bit set indexed by the position of the trip in
+ * {@link TripPatternForDate#tripTimes()}, so filtering a pattern is a few bit set operations
+ * instead of resolving the trip and route of each trip for every request.
+ * <p>
+ * THREAD SAFETY: Instances are shared between requests, the bit sets must not be modified.
+ */
+public final class TripCapabilities {
+
+    private final int numberOfTrips;
+    private final BitSet bikesAllowed;
+    private final BitSet wheelchairAccessible;
+    private final BitSet notCanceledOrReplaced;
+
+    private TripCapabilities(int numberOfTrips) {
+        this.numberOfTrips = numberOfTrips;
+        this.bikesAllowed = new BitSet(numberOfTrips);
+        this.wheelchairAccessible = new BitSet(numberOfTrips);
+        this.notCanceledOrReplaced = new BitSet(numberOfTrips);
+    }
+
+    static TripCapabilities of(List<TripTimes> tripTimes) {
+        TripCapabilities c = new TripCapabilities(tripTimes.size());
+        for (int i = 0; i < tripTimes.size(); ++i) {
+            Trip trip = tripTimes.get(i).getTrip();
+            if (RoutingRequestTransitDataProviderFilter.bikeAccessForTrip(trip) == BikeAccess.ALLOWED) {
+                c.bikesAllowed.set(i);
+            }
+            if (trip.getWheelchairAccessible() == 1) {
+                c.wheelchairAccessible.set(i);
+            }
+            if (!trip.getTripAlteration().isCanceledOrReplaced()) {
+                c.notCanceledOrReplaced.set(i);
+            }
+        }
+        return c;
+    }
+
+    public int numberOfTrips() {
+        return numberOfTrips;
+    }
+
+    public BitSet bikesAllowed() {
+        return bikesAllowed;
+    }
+
+    public BitSet wheelchairAccessible() {
+        return wheelchairAccessible;
+    }
+
+    public BitSet notCanceledOrReplaced() {
+        return notCanceledOrReplaced;
+    }
+}
@@ -7,9 +7,9 @@ import javax.annotation.Nullable;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
 import java.util.Objects;
-import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 /**
@@ -44,6 +44,12 @@ public class TripPatternForDate {
      */
     private final LocalDateTime endOfRunningPeriod;
 
+    /**
+     * The trip properties used to filter the trips for a request. Created when first needed and
+     * then shared by all requests, since most patterns are never filtered on trip properties.
+     */
+    private volatile TripCapabilities tripCapabilities;
+
     public TripPatternForDate(
         TripPatternWithRaptorStopIndexes tripPattern,
         List<TripTimes> tripTimes,
@@ -88,6 +94,16 @@ public class TripPatternForDate {
         return tripTimes.size();
     }
 
+    public TripCapabilities getTripCapabilities() {
+        TripCapabilities c = tripCapabilities;
+        if (c == null) {
+            // Concurrent requests may both create the capabilities, the result is the same
+            c = TripCapabilities.of(tripTimes);
+            tripCapabilities = c;
+        }
+        return c;
+    }
+
     public LocalDateTime getStartOfRunningPeriod() {
         return startOfRunningPeriod;
     }
@@ -118,16 +134,24 @@ public class TripPatternForDate {
             tripTimes.equals(that.tripTimes);
     }
 
+    /**
+     * Create a copy with only the trips in the given set, indexed by the position in
+     * {@link #tripTimes()}. If all trips are included {@code this} is returned, and no copy is made.
+     *
+     * @return {@code null} if no trips are included.
+     */
     @Nullable
-    public TripPatternForDate newWithFilteredTripTimes(Predicate<TripTimes> filter) {
-        List<TripTimes> filteredTripTimes = tripTimes
-            .stream()
-            .filter(filter)
-            .collect(Collectors.toList());
+    public TripPatternForDate newWithFilteredTripTimes(BitSet tripsToKeep) {
+        int size = tripsToKeep.cardinality();
 
-        if (filteredTripTimes.isEmpty()) { return null; }
+        if (size == 0) { return null; }
 
-        if (tripTimes.size() == filteredTripTimes.size()) { return this; }
+        if (tripTimes.size() == size) { return this; }
+
+        List<TripTimes> filteredTripTimes = new ArrayList<>(size);
+        for (int i = tripsToKeep.nextSetBit(0); i >= 0; i = tripsToKeep.nextSetBit(i + 1)) {
+            filteredTripTimes.add(tripTimes.get(i));
+        }
 
         return new TripPatternForDate(
             tripPattern,
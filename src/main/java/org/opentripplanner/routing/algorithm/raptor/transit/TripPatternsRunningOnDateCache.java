@@ -0,0 +1,41 @@
+package org.opentripplanner.routing.algorithm.raptor.transit;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Cache the scheduled TripPatternForDates running on dates outside the window of dates kept in
+ * the {@link TransitLayer}. The TripPatternForDates are mapped when a date is first requested,
+ * and the least recently used dates are removed when the cache is full.
+ * <p>
+ * The cache only contain scheduled data, so it is shared by the scheduled and the realtime
+ * transit layers. Realtime updates are added to the realtime transit layer itself.
+ * <p>
+ * THREAD SAFETY: The cached values are shared between requests and must not be modified.
+ */
+public class TripPatternsRunningOnDateCache {
+
+  private final LoadingCache<LocalDate, List<TripPatternForDate>> cache;
+
+  /**
+   * @param maximumSize the maximum number of dates to cache
+   * @param mapper      maps the scheduled TripPatternForDates running on a date, must be thread
+   *                    safe
+   */
+  public TripPatternsRunningOnDateCache(
+      int maximumSize,
+      Function<LocalDate, List<TripPatternForDate>> mapper
+  ) {
+    this.cache = CacheBuilder.newBuilder()
+        .maximumSize(maximumSize)
+        .build(CacheLoader.from(mapper::apply));
+  }
+
+  public List<TripPatternForDate> get(LocalDate date) {
+    return cache.getUnchecked(date);
+  }
+}
@@ -5,49 +5,40 @@ import org.opentripplanner.model.SimpleTransfer;
 import org.opentripplanner.model.Stop;
 import org.opentripplanner.model.StopLocation;
 import org.opentripplanner.routing.algorithm.raptor.transit.StopIndexForRaptor;
-import org.opentripplanner.routing.algorithm.raptor.transit.Transfer;
-
-import java.util.ArrayList;
-import java.util.List;
+import org.opentripplanner.routing.algorithm.raptor.transit.TransfersByStop;
+import org.opentripplanner.routing.graph.Edge;
 
 class TransfersMapper {
 
     /**
      * Copy pre-calculated transfers from the original graph
      */
-    static List<List<Transfer>> mapTransfers(
+    static TransfersByStop mapTransfers(
         StopIndexForRaptor stopIndex,
         Multimap<StopLocation, SimpleTransfer> transfersByStop
     ) {
-
-        List<List<Transfer>> transferByStopIndex = new ArrayList<>();
+        TransfersByStop.Builder builder = TransfersByStop.builder(stopIndex.stopsByIndex.size());
 
         for (int i = 0; i < stopIndex.stopsByIndex.size(); ++i) {
             Stop stop = stopIndex.stopsByIndex.get(i);
-            ArrayList<Transfer> list = new ArrayList<>();
-            transferByStopIndex.add(list);
 
             for (SimpleTransfer simpleTransfer : transfersByStop.get(stop)) {
                 if (simpleTransfer.to instanceof Stop) {
                     int toStopIndex = stopIndex.indexByStop.get(simpleTransfer.to);
-                    Transfer transfer;
                     if (simpleTransfer.getEdges() != null) {
-                        transfer = new Transfer(
-                            toStopIndex,
-                            simpleTransfer.getEdges()
-                        );
+                        int distanceMeters = (int) simpleTransfer.getEdges()
+                            .stream()
+                            .mapToDouble(Edge::getDistanceMeters)
+                            .sum();
+                        builder.add(i, toStopIndex, distanceMeters, simpleTransfer.getEdges());
                     }
                     else {
-                        transfer = new Transfer(
-                            toStopIndex,
-                            (int) Math.ceil(simpleTransfer.getDistanceMeters())
-                        );
+                        int distanceMeters = (int) Math.ceil(simpleTransfer.getDistanceMeters());
+                        builder.add(i, toStopIndex, distanceMeters, null);
                     }
-
-                    list.add(transfer);
                 }
             }
         }
-        return transferByStopIndex;
+        return builder.build();
     }
 }
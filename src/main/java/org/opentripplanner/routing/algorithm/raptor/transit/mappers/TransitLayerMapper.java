@@ -3,27 +3,24 @@ package org.opentripplanner.routing.algorithm.raptor.transit.mappers;
 import static org.opentripplanner.routing.algorithm.raptor.transit.mappers.TransfersMapper.mapTransfers;
 import static org.opentripplanner.routing.algorithm.raptor.transit.mappers.TripPatternMapper.mapOldTripPatternToRaptorTripPattern;
 
-import com.google.common.collect.ArrayListMultimap;
 import java.time.LocalDate;
-import java.util.ArrayList;
+import java.time.ZoneId;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.Comparator;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 import java.util.stream.Collectors;
 import org.opentripplanner.model.Timetable;
 import org.opentripplanner.model.TripPattern;
-import org.opentripplanner.model.calendar.ServiceDate;
 import org.opentripplanner.routing.algorithm.raptor.transit.StopIndexForRaptor;
-import org.opentripplanner.routing.algorithm.raptor.transit.Transfer;
+import org.opentripplanner.routing.algorithm.raptor.transit.TransfersByStop;
 import org.opentripplanner.routing.algorithm.raptor.transit.TransitLayer;
 import org.opentripplanner.routing.algorithm.raptor.transit.TransitTuningParameters;
 import org.opentripplanner.routing.algorithm.raptor.transit.TripPatternForDate;
+import org.opentripplanner.routing.algorithm.raptor.transit.TripPatternsRunningOnDateCache;
 import org.opentripplanner.routing.algorithm.raptor.transit.TripPatternWithRaptorStopIndexes;
 import org.opentripplanner.routing.algorithm.raptor.transit.request.RaptorRequestTransferCache;
+import org.opentripplanner.routing.algorithm.raptor.transit.request.RaptorRequestTripPatternCache;
 import org.opentripplanner.routing.graph.Graph;
 import org.opentripplanner.routing.trippattern.TripTimes;
 import org.opentripplanner.util.OTPFeature;
@@ -58,8 +55,9 @@ public class TransitLayerMapper {
     private TransitLayer map(TransitTuningParameters tuningParameters) {
         StopIndexForRaptor stopIndex;
         Map<TripPattern, TripPatternWithRaptorStopIndexes> newTripPatternForOld;
-        HashMap<LocalDate, List<TripPatternForDate>> tripPatternsByStopByDate;
-        List<List<Transfer>> transferByStopIndex;
+        TripPatternsRunningOnDateMapper tripPatternsRunningOnDateMapper;
+        Map<LocalDate, List<TripPatternForDate>> tripPatternsForWindow;
+        TransfersByStop transferByStopIndex;
 
         LOG.info("Mapping transitLayer from Graph...");
 
@@ -71,7 +69,26 @@ public class TransitLayerMapper {
                 allTripPatterns
         );
 
-        tripPatternsByStopByDate = mapTripPatterns(allTripPatterns, newTripPatternForOld);
+        tripPatternsRunningOnDateMapper = new TripPatternsRunningOnDateMapper(
+                graph.index.getServiceCodesRunningForDate(),
+                allTripPatterns,
+                newTripPatternForOld
+        );
+
+        // Only the dates in the window are mapped now, other dates are mapped when needed
+        ZoneId zoneId = graph.getTimeZone().toZoneId();
+        LocalDate today = LocalDate.now(zoneId);
+        int windowDays = tuningParameters.transitLayerWindowDays();
+        tripPatternsForWindow = windowDays > 0
+                ? tripPatternsRunningOnDateMapper.map(today, today.plusDays(windowDays - 1))
+                : Map.of();
+
+        var tripPatternsForDateCache = new TripPatternsRunningOnDateCache(
+                tuningParameters.transitLayerDateCacheMaxSize(),
+                date -> tripPatternsRunningOnDateMapper
+                        .map(date, date)
+                        .getOrDefault(date, List.of())
+        );
 
         transferByStopIndex = mapTransfers(stopIndex, graph.transfersByStop);
 
@@ -82,68 +99,29 @@ public class TransitLayerMapper {
             );
         }
 
-        var transferCache = new RaptorRequestTransferCache(tuningParameters.transferCacheMaxSize());
+        var transferCache = new RaptorRequestTransferCache(
+                tuningParameters.transferCacheMaxMemoryMegabytes()
+        );
+        var tripPatternCache = new RaptorRequestTripPatternCache(
+                tuningParameters.tripPatternCacheMaxSize()
+        );
 
         LOG.info("Mapping complete.");
 
         return new TransitLayer(
-            tripPatternsByStopByDate,
+            tripPatternsForWindow,
+            tripPatternsForDateCache,
+            today,
+            windowDays,
             transferByStopIndex,
             graph.getTransferService(),
             stopIndex,
-            graph.getTimeZone().toZoneId(),
-            transferCache
+            zoneId,
+            transferCache,
+            tripPatternCache
         );
     }
 
-    /**
-     * Map pre-Raptor TripPatterns and Trips to the corresponding Raptor classes.
-     * <p>
-     * Part of this method runs IN PARALLEL.
-     * <p>
-     */
-    private HashMap<LocalDate, List<TripPatternForDate>> mapTripPatterns (
-            Collection<TripPattern> allTripPatterns,
-            Map<TripPattern, TripPatternWithRaptorStopIndexes> newTripPatternForOld
-    ) {
-        TripPatternForDateMapper tripPatternForDateMapper = new TripPatternForDateMapper(
-            graph.index.getServiceCodesRunningForDate(),
-            newTripPatternForOld
-        );
-
-        Set<ServiceDate> allServiceDates = graph.index.getServiceCodesRunningForDate().keySet();
-
-        List<TripPatternForDate> tripPatternForDates = Collections.synchronizedList(new ArrayList<>());
-
-        // THIS CODE RUNS IN PARALLEL
-        allServiceDates
-            .parallelStream()
-            .forEach(serviceDate -> {
-                // Create a List to hold the values for this iteration. The results are then added
-                // to the common synchronized list at the end.
-                List<TripPatternForDate> values = new ArrayList<>();
-
-                // This nested loop could be quite inefficient.
-                // Maybe determine in advance which patterns are running on each service and day.
-                for (org.opentripplanner.model.TripPattern oldTripPattern : allTripPatterns) {
-                    TripPatternForDate tripPatternForDate =
-                        tripPatternForDateMapper.map(
-                            oldTripPattern.getScheduledTimetable(),
-                            serviceDate
-                    );
-                    if (tripPatternForDate != null) {
-                        values.add(tripPatternForDate);
-                    }
-                }
-                if (!values.isEmpty()) {
-                    tripPatternForDates.addAll(values);
-                }
-            });
-        // END PARALLEL CODE
-
-        return keyByRunningPeriodDates(tripPatternForDates);
-    }
-
     // TODO We can save time by either pre-sorting these or use a sorting algorithm that is
     //      optimized for sorting nearly sorted list
     static List<TripTimes> getSortedTripTimes (Timetable timetable) {
@@ -151,29 +129,4 @@ public class TransitLayerMapper {
                 .sorted(Comparator.comparing(TripTimes::sortIndex))
                 .collect(Collectors.toList());
     }
-
-    /**
-     * Returns a map of TripPatternsForDate objects by their active dates.
-     */
-    private HashMap<LocalDate, List<TripPatternForDate>> keyByRunningPeriodDates(
-        List<TripPatternForDate> tripPatternForDates
-    ) {
-        // Create multimap by running period dates
-        ArrayListMultimap<LocalDate, TripPatternForDate> multiMap = ArrayListMultimap.create();
-        for (TripPatternForDate tripPatternForDate : tripPatternForDates) {
-            for (LocalDate date : tripPatternForDate.getRunningPeriodDates()) {
-                multiMap.put(date, tripPatternForDate);
-            }
-        }
-
-        // Convert to Map<LocalDate, List<TripPatternForDate>>
-        HashMap<LocalDate, List<TripPatternForDate>> result = new HashMap<>();
-        for (Map.Entry<LocalDate, Collection<TripPatternForDate>> entry : multiMap
-            .asMap()
-            .entrySet()) {
-            result.put(entry.getKey(), new ArrayList<>(entry.getValue()));
-        }
-
-        return result;
-    }
 }
@@ -59,7 +59,8 @@ public class TransitLayerUpdater {
 
     // Make a shallow copy of the realtime transit layer. Only the objects that are copied will be
     // changed during this update process.
-    TransitLayer realtimeTransitLayer = new TransitLayer(graph.getRealtimeTransitLayer());
+    TransitLayer oldRealtimeTransitLayer = graph.getRealtimeTransitLayer();
+    TransitLayer realtimeTransitLayer = new TransitLayer(oldRealtimeTransitLayer);
 
     // Map TripPatterns for this update to Raptor TripPatterns
     final Map<TripPattern, TripPatternWithRaptorStopIndexes> newTripPatternForOld =
@@ -152,6 +153,9 @@ public class TransitLayerUpdater {
     // guarantee that the reference is set after all the fields have been updated.
     graph.setRealtimeTransitLayer(realtimeTransitLayer);
 
+    // The trip patterns cached for requests on the old transit layer is no longer needed
+    oldRealtimeTransitLayer.invalidateTripPatternCache();
+
     LOG.debug(
         "UPDATING {} tripPatterns took {} ms",
         updatedTimetables.size(),
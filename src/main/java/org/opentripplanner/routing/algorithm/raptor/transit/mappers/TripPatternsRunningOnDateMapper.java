@@ -0,0 +1,165 @@
+package org.opentripplanner.routing.algorithm.raptor.transit.mappers;
+
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.Multimap;
+import gnu.trove.set.TIntSet;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.opentripplanner.model.TripPattern;
+import org.opentripplanner.model.calendar.ServiceDate;
+import org.opentripplanner.routing.algorithm.raptor.transit.TripPatternForDate;
+import org.opentripplanner.routing.algorithm.raptor.transit.TripPatternWithRaptorStopIndexes;
+import org.opentripplanner.routing.trippattern.TripTimes;
+
+/**
+ * Maps the scheduled TripPatterns to the TripPatternForDates running on a range of dates. A
+ * TripPatternForDate runs on all dates with a departure or arrival, so the service dates before
+ * the range are mapped to include trips running past midnight, and the service dates after the
+ * range are mapped if any trip departs before the start of its service day.
+ * <p>
+ * Only the patterns with at least one trip running on a service date are mapped for that date,
+ * instead of trying every pattern on every date.
+ * <p>
+ * This class is THREAD SAFE, the state is not modified after construction and the
+ * {@link TripPatternForDateMapper} is thread safe.
+ */
+class TripPatternsRunningOnDateMapper {
+
+    private static final int SECONDS_PER_DAY = 24 * 60 * 60;
+
+    private final Map<ServiceDate, TIntSet> serviceCodesRunningForDate;
+
+    private final TripPatternForDateMapper tripPatternForDateMapper;
+
+    private final Multimap<Integer, TripPattern> patternsByServiceCode = ArrayListMultimap.create();
+
+    /** Patterns without service codes are tried on every date. */
+    private final List<TripPattern> patternsWithoutServiceCodes = new ArrayList<>();
+
+    private final int maxDaysRunningAfterServiceDate;
+
+    private final int maxDaysRunningBeforeServiceDate;
+
+    /**
+     * @param serviceCodesRunningForDate - READ ONLY
+     * @param newTripPatternForOld       - READ ONLY
+     */
+    TripPatternsRunningOnDateMapper(
+            Map<ServiceDate, TIntSet> serviceCodesRunningForDate,
+            Collection<TripPattern> allTripPatterns,
+            Map<TripPattern, TripPatternWithRaptorStopIndexes> newTripPatternForOld
+    ) {
+        this.serviceCodesRunningForDate = Collections.unmodifiableMap(serviceCodesRunningForDate);
+        this.tripPatternForDateMapper = new TripPatternForDateMapper(
+                serviceCodesRunningForDate,
+                newTripPatternForOld
+        );
+
+        int maxArrivalTime = 0;
+        int minDepartureTime = 0;
+
+        for (TripPattern pattern : allTripPatterns) {
+            BitSet services = pattern.getServices();
+            if (services == null) {
+                patternsWithoutServiceCodes.add(pattern);
+            }
+            else {
+                services.stream().forEach(code -> patternsByServiceCode.put(code, pattern));
+            }
+            for (TripTimes tripTimes : pattern.getScheduledTimetable().getTripTimes()) {
+                maxArrivalTime = Math.max(
+                        maxArrivalTime,
+                        tripTimes.getArrivalTime(tripTimes.getNumStops() - 1)
+                );
+                minDepartureTime = Math.min(minDepartureTime, tripTimes.getDepartureTime(0));
+            }
+        }
+        this.maxDaysRunningAfterServiceDate = Math.floorDiv(maxArrivalTime, SECONDS_PER_DAY);
+        this.maxDaysRunningBeforeServiceDate = -Math.floorDiv(minDepartureTime, SECONDS_PER_DAY);
+    }
+
+    /**
+     * Map the TripPatternForDates running on the dates from {@code first} to {@code last},
+     * inclusive. Dates without any trips running are not part of the result.
+     * <p>
+     * Part of this method runs IN PARALLEL.
+     */
+    Map<LocalDate, List<TripPatternForDate>> map(LocalDate first, LocalDate last) {
+        List<LocalDate> serviceDates = first
+                .minusDays(maxDaysRunningAfterServiceDate)
+                .datesUntil(last.plusDays(maxDaysRunningBeforeServiceDate + 1))
+                .collect(Collectors.toList());
+
+        List<TripPatternForDate> tripPatternForDates = Collections.synchronizedList(new ArrayList<>());
+
+        // THIS CODE RUNS IN PARALLEL
+        serviceDates
+            .parallelStream()
+            .forEach(serviceDate -> {
+                // Map the values for this iteration into a separate list, the results are then
+                // added to the common synchronized list at the end.
+                List<TripPatternForDate> values = mapServiceDate(serviceDate);
+                if (!values.isEmpty()) {
+                    tripPatternForDates.addAll(values);
+                }
+            });
+        // END PARALLEL CODE
+
+        return keyByRunningPeriodDates(tripPatternForDates, first, last);
+    }
+
+    private List<TripPatternForDate> mapServiceDate(LocalDate date) {
+        ServiceDate serviceDate = new ServiceDate(date);
+        TIntSet serviceCodes = serviceCodesRunningForDate.get(serviceDate);
+        if (serviceCodes == null) {
+            return List.of();
+        }
+
+        Set<TripPattern> patterns = new HashSet<>(patternsWithoutServiceCodes);
+        serviceCodes.forEach(code -> {
+            patterns.addAll(patternsByServiceCode.get(code));
+            return true;
+        });
+
+        List<TripPatternForDate> values = new ArrayList<>();
+        for (TripPattern pattern : patterns) {
+            TripPatternForDate tripPatternForDate = tripPatternForDateMapper.map(
+                    pattern.getScheduledTimetable(),
+                    serviceDate
+            );
+            if (tripPatternForDate != null) {
+                values.add(tripPatternForDate);
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Returns a map of TripPatternsForDate objects by their active dates, limited to the dates
+     * from {@code first} to {@code last}.
+     */
+    private static Map<LocalDate, List<TripPatternForDate>> keyByRunningPeriodDates(
+            List<TripPatternForDate> tripPatternForDates,
+            LocalDate first,
+            LocalDate last
+    ) {
+        Map<LocalDate, List<TripPatternForDate>> result = new HashMap<>();
+        for (TripPatternForDate tripPatternForDate : tripPatternForDates) {
+            for (LocalDate date : tripPatternForDate.getRunningPeriodDates()) {
+                if (!date.isBefore(first) && !date.isAfter(last)) {
+                    result.computeIfAbsent(date, d -> new ArrayList<>()).add(tripPatternForDate);
+                }
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,71 @@
+package org.opentripplanner.routing.algorithm.raptor.transit.request;
+
+import gnu.trove.list.array.TIntArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import org.opentripplanner.model.FeedScopedId;
+
+/**
+ * The active trip patterns of a search. Each pattern is given a dense route index, ordered by
+ * pattern id, and the route indexes of the patterns visiting each stop are kept in an array per
+ * stop. This allows Raptor to mark the routes to search in a bit set instead of collecting the
+ * patterns in a hash set.
+ * <p>
+ * THREAD SAFETY: Instances are shared between requests and are immutable.
+ */
+public class ActiveTripPatterns {
+
+    private static final int[] EMPTY = new int[0];
+
+    private final TripPatternForDates[] patterns;
+
+    /** Route indexes by stop index, each array is sorted. */
+    private final int[][] routeIndexesByStop;
+
+    ActiveTripPatterns(List<TripPatternForDates> patterns, int numberOfStops) {
+        this.patterns = patterns.toArray(new TripPatternForDates[0]);
+        Arrays.sort(
+            this.patterns,
+            Comparator.comparing(
+                (TripPatternForDates p) -> p.getTripPattern().getId(),
+                Comparator.nullsFirst(Comparator.<FeedScopedId>naturalOrder())
+            )
+        );
+
+        TIntArrayList[] routesByStop = new TIntArrayList[numberOfStops];
+        for (int routeIndex = 0; routeIndex < this.patterns.length; ++routeIndex) {
+            for (int stop : this.patterns[routeIndex].getTripPattern().getStopIndexes()) {
+                if (routesByStop[stop] == null) {
+                    routesByStop[stop] = new TIntArrayList();
+                }
+                // A pattern may visit the same stop more than once
+                TIntArrayList routes = routesByStop[stop];
+                if (routes.isEmpty() || routes.get(routes.size() - 1) != routeIndex) {
+                    routes.add(routeIndex);
+                }
+            }
+        }
+        this.routeIndexesByStop = new int[numberOfStops][];
+        for (int stop = 0; stop < numberOfStops; ++stop) {
+            TIntArrayList routes = routesByStop[stop];
+            routeIndexesByStop[stop] = routes == null ? EMPTY : routes.toArray();
+        }
+    }
+
+    public int numberOfRoutes() {
+        return patterns.length;
+    }
+
+    public TripPatternForDates route(int routeIndex) {
+        return patterns[routeIndex];
+    }
+
+    /**
+     * The route indexes of the patterns visiting the given stop, in increasing order. The returned
+     * array must not be modified.
+     */
+    public int[] routeIndexesForStop(int stopIndex) {
+        return routeIndexesByStop[stopIndex];
+    }
+}
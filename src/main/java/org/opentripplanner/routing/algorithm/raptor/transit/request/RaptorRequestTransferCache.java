@@ -1,84 +1,70 @@
 package org.opentripplanner.routing.algorithm.raptor.transit.request;
 
-import static java.util.stream.Collectors.toList;
-import static java.util.stream.Collectors.toMap;
-
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.function.Function;
 import lombok.EqualsAndHashCode;
 import lombok.SneakyThrows;
 import org.opentripplanner.routing.algorithm.raptor.transit.Transfer;
+import org.opentripplanner.routing.algorithm.raptor.transit.TransfersByStop;
 import org.opentripplanner.routing.api.request.RoutingRequest;
 import org.opentripplanner.routing.api.request.StreetMode;
 import org.opentripplanner.routing.core.BicycleOptimizeType;
-import org.opentripplanner.transit.raptor.api.transit.RaptorTransfer;
 
+/**
+ * Cache the transfers with duration and cost for each distinct set of street parameters. The
+ * cache is limited by the estimated memory used by the entries, not the number of entries, since
+ * the size of an entry depend on the number of transfers in the graph.
+ */
 public class RaptorRequestTransferCache {
 
-    private final LoadingCache<CacheKey, List<List<RaptorTransfer>>> transferCache;
+    private final LoadingCache<CacheKey, RaptorTransferIndex> transferCache;
 
-    public RaptorRequestTransferCache(int maximumSize) {
+    public RaptorRequestTransferCache(int maxMemoryMegabytes) {
         transferCache = CacheBuilder.newBuilder()
-            .maximumSize(maximumSize)
+            .maximumWeight(1024L * maxMemoryMegabytes)
+            .weigher((CacheKey k, RaptorTransferIndex v) -> weightInKilobytes(v))
             .build(cacheLoader());
     }
 
     @SneakyThrows
-    public List<List<RaptorTransfer>> get(
-        List<List<Transfer>> transfersByStopIndex,
+    public RaptorTransferIndex get(
+        TransfersByStop transfersByStop,
         RoutingRequest routingRequest
     ) {
         return transferCache.get(new CacheKey(
-            transfersByStopIndex,
+            transfersByStop,
             routingRequest
         ));
     }
 
-    private CacheLoader<CacheKey, List<List<RaptorTransfer>>> cacheLoader() {
+    private CacheLoader<CacheKey, RaptorTransferIndex> cacheLoader() {
         return new CacheLoader<>() {
             @Override
-            public List<List<RaptorTransfer>> load(@javax.annotation.Nonnull CacheKey cacheKey) {
-                return createRaptorTransfersForRequest(
-                        cacheKey.transfersByStopIndex,
+            public RaptorTransferIndex load(@javax.annotation.Nonnull CacheKey cacheKey) {
+                return RaptorTransferIndex.create(
+                        cacheKey.transfersByStop,
                         cacheKey.routingRequest
                 );
             }
         };
     }
 
-    static List<List<RaptorTransfer>> createRaptorTransfersForRequest(
-        List<List<Transfer>> transfersByStopIndex,
-        RoutingRequest routingRequest
-    ) {
-        return transfersByStopIndex
-            .stream()
-            .map(t -> new ArrayList<>(t
-                .stream()
-                .flatMap(s -> s.asRaptorTransfer(routingRequest).stream())
-                .collect(toMap(
-                    RaptorTransfer::stop,
-                    Function.identity(),
-                    (a, b) -> a.generalizedCost() < b.generalizedCost() ? a : b
-                ))
-                .values()))
-            .collect(toList());
+    private static int weightInKilobytes(RaptorTransferIndex value) {
+        return (int) Math.min(Integer.MAX_VALUE, 1 + value.estimatedSizeInBytes() / 1024);
     }
 
     private static class CacheKey {
 
-        private final List<List<Transfer>> transfersByStopIndex;
+        private final TransfersByStop transfersByStop;
         private final RoutingRequest routingRequest;
         private final StreetRelevantOptions options;
 
         private CacheKey(
-                List<List<Transfer>> transfersByStopIndex,
+                TransfersByStop transfersByStop,
                 RoutingRequest routingRequest
         ) {
-            this.transfersByStopIndex = transfersByStopIndex;
+            this.transfersByStop = transfersByStop;
             this.routingRequest = routingRequest;
             this.options = new StreetRelevantOptions(routingRequest);
         }
@@ -88,15 +74,15 @@ public class RaptorRequestTransferCache {
             if (this == o) { return true; }
             if (o == null || getClass() != o.getClass()) { return false; }
             CacheKey cacheKey = (CacheKey) o;
-            // transfersByStopIndex is checked using == on purpose since the instance should not change
+            // transfersByStop is checked using == on purpose since the instance should not change
             // (there is only one instance per graph)
-            return transfersByStopIndex == cacheKey.transfersByStopIndex
+            return transfersByStop == cacheKey.transfersByStop
                 && options.equals(cacheKey.options);
         }
 
         @Override
         public int hashCode() {
-            // transfersByStopIndex is ignored on purpose since it should not change (there is only
+            // transfersByStop is ignored on purpose since it should not change (there is only
             // one instance per graph) and calculating the hashCode() would be expensive
             return options.hashCode();
         }
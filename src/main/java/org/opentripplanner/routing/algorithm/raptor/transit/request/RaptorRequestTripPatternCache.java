@@ -0,0 +1,107 @@
+package org.opentripplanner.routing.algorithm.raptor.transit.request;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import java.time.LocalDate;
+import java.util.Objects;
+import lombok.SneakyThrows;
+import org.opentripplanner.routing.algorithm.raptor.transit.TransitLayer;
+
+/**
+ * Cache the active trip patterns per stop for a search. Filtering, merging and indexing the trip
+ * patterns for the search days is expensive, and the result only depend on the transit layer, the
+ * search date, the number of additional search days and the request filter. Most requests use the
+ * default filter, so the result can be shared between requests.
+ * <p>
+ * The {@link TransitLayer} is part of the key and compared by identity. When the realtime transit
+ * layer is replaced the entries for the old instance should be removed using
+ * {@link #invalidate(TransitLayer)}.
+ * <p>
+ * THREAD SAFETY: The cached values are shared between requests and must not be modified.
+ */
+public class RaptorRequestTripPatternCache {
+
+    private final LoadingCache<CacheKey, ActiveTripPatterns> tripPatternCache;
+
+    public RaptorRequestTripPatternCache(int maximumSize) {
+        tripPatternCache = CacheBuilder.newBuilder()
+            .maximumSize(maximumSize)
+            .build(cacheLoader());
+    }
+
+    @SneakyThrows
+    public ActiveTripPatterns get(
+        TransitLayer transitLayer,
+        LocalDate searchDate,
+        int additionalFutureSearchDays,
+        TransitDataProviderFilter filter
+    ) {
+        return tripPatternCache.get(new CacheKey(
+            transitLayer,
+            searchDate,
+            additionalFutureSearchDays,
+            filter
+        ));
+    }
+
+    /**
+     * Remove all cached entries for the given transit layer.
+     */
+    public void invalidate(TransitLayer transitLayer) {
+        tripPatternCache.asMap().keySet().removeIf(key -> key.transitLayer == transitLayer);
+    }
+
+    private CacheLoader<CacheKey, ActiveTripPatterns> cacheLoader() {
+        return new CacheLoader<>() {
+            @Override
+            public ActiveTripPatterns load(@javax.annotation.Nonnull CacheKey key) {
+                return new RaptorRoutingRequestTransitDataCreator(key.transitLayer, key.searchDate)
+                    .createActiveTripPatterns(key.additionalFutureSearchDays, key.filter);
+            }
+        };
+    }
+
+    private static class CacheKey {
+
+        private final TransitLayer transitLayer;
+        private final LocalDate searchDate;
+        private final int additionalFutureSearchDays;
+        private final TransitDataProviderFilter filter;
+
+        private CacheKey(
+            TransitLayer transitLayer,
+            LocalDate searchDate,
+            int additionalFutureSearchDays,
+            TransitDataProviderFilter filter
+        ) {
+            this.transitLayer = transitLayer;
+            this.searchDate = searchDate;
+            this.additionalFutureSearchDays = additionalFutureSearchDays;
+            this.filter = filter;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) { return true; }
+            if (o == null || getClass() != o.getClass()) { return false; }
+            CacheKey cacheKey = (CacheKey) o;
+            // transitLayer is checked using == on purpose, a new instance is created for each
+            // realtime update
+            return transitLayer == cacheKey.transitLayer
+                && additionalFutureSearchDays == cacheKey.additionalFutureSearchDays
+                && searchDate.equals(cacheKey.searchDate)
+                && filter.equals(cacheKey.filter);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(
+                System.identityHashCode(transitLayer),
+                searchDate,
+                additionalFutureSearchDays,
+                filter
+            );
+        }
+    }
+}
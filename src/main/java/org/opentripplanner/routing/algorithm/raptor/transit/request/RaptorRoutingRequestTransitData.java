@@ -10,10 +10,10 @@ import org.opentripplanner.transit.raptor.api.transit.RaptorTransitDataProvider;
 
 import java.time.Instant;
 import java.time.ZonedDateTime;
-import java.util.HashSet;
+import java.util.BitSet;
 import java.util.Iterator;
-import java.util.List;
-import java.util.Set;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicReference;
 
 
 /**
@@ -26,14 +26,21 @@ public class RaptorRoutingRequestTransitData implements RaptorTransitDataProvide
   private final TransitLayer transitLayer;
 
   /**
-   * Active trip patterns by stop index
+   * Active trip patterns with route indexes by stop index
    */
-  private final List<List<TripPatternForDates>> activeTripPatternsPerStop;
+  private final ActiveTripPatterns activeTripPatterns;
+
+  /**
+   * An iterator not in use, kept to avoid creating a new one each round. The heuristic searches
+   * may run in parallel on the same transit data, so each caller takes the iterator, and gives it
+   * back when all routes are returned.
+   */
+  private final AtomicReference<RouteIterator> idleRouteIterator = new AtomicReference<>();
 
   /**
    * Transfers by stop index
    */
-  private final List<List<RaptorTransfer>> transfers;
+  private final RaptorTransferIndex transfers;
 
   private final ZonedDateTime startOfTime;
 
@@ -54,7 +61,8 @@ public class RaptorRoutingRequestTransitData implements RaptorTransitDataProvide
 
     this.transitLayer = transitLayer;
     this.startOfTime = creator.getSearchStartTime();
-    this.activeTripPatternsPerStop = creator.createTripPatternsPerStop(
+    this.activeTripPatterns = transitLayer.getActiveTripPatternsForRequest(
+        creator.getSearchDate(),
         additionalFutureSearchDays,
         filter
     );
@@ -67,19 +75,20 @@ public class RaptorRoutingRequestTransitData implements RaptorTransitDataProvide
    */
   @Override
   public Iterator<RaptorTransfer> getTransfers(int stopIndex) {
-    return transfers.get(stopIndex).iterator();
+    return transfers.getTransfers(stopIndex);
   }
 
   /**
-   * Gets all the unique trip patterns touching a set of stops
+   * Gets all the unique trip patterns touching a set of stops, ordered by route index
    */
   @Override
   public Iterator<? extends RaptorRoute<TripSchedule>> routeIterator(IntIterator stops) {
-    Set<RaptorRoute<TripSchedule>> activeTripPatternsForGivenStops = new HashSet<>();
-    while (stops.hasNext()) {
-      activeTripPatternsForGivenStops.addAll(activeTripPatternsPerStop.get(stops.next()));
+    RouteIterator it = idleRouteIterator.getAndSet(null);
+    if (it == null) {
+      it = new RouteIterator();
     }
-    return activeTripPatternsForGivenStops.iterator();
+    it.markRoutes(stops);
+    return it;
   }
 
   @Override
@@ -95,4 +104,49 @@ public class RaptorRoutingRequestTransitData implements RaptorTransitDataProvide
   public ZonedDateTime getStartOfTime() {
     return startOfTime;
   }
+
+  /**
+   * Iterate over the routes marked in a bit set. Each bit is cleared when the route is returned,
+   * so the bit set is empty when all routes are returned. The iterator is then given back to be
+   * reused, and must not be used by the caller after {@link #hasNext()} returns {@code false}.
+   */
+  private class RouteIterator implements Iterator<TripPatternForDates> {
+
+    private final BitSet markedRoutes = new BitSet(activeTripPatterns.numberOfRoutes());
+    private int next = -1;
+    private boolean inUse = false;
+
+    private void markRoutes(IntIterator stops) {
+      while (stops.hasNext()) {
+        for (int routeIndex : activeTripPatterns.routeIndexesForStop(stops.next())) {
+          markedRoutes.set(routeIndex);
+        }
+      }
+      next = markedRoutes.nextSetBit(0);
+      inUse = true;
+    }
+
+    @Override
+    public boolean hasNext() {
+      if (next >= 0) {
+        return true;
+      }
+      if (inUse) {
+        inUse = false;
+        idleRouteIterator.set(this);
+      }
+      return false;
+    }
+
+    @Override
+    public TripPatternForDates next() {
+      if (next < 0) {
+        throw new NoSuchElementException();
+      }
+      int routeIndex = next;
+      markedRoutes.clear(routeIndex);
+      next = markedRoutes.nextSetBit(routeIndex + 1);
+      return activeTripPatterns.route(routeIndex);
+    }
+  }
 }
@@ -12,7 +12,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 import org.opentripplanner.routing.algorithm.raptor.transit.TransitLayer;
 import org.opentripplanner.routing.algorithm.raptor.transit.TripPatternForDate;
 import org.opentripplanner.routing.algorithm.raptor.transit.TripPatternWithRaptorStopIndexes;
@@ -33,16 +32,28 @@ class RaptorRoutingRequestTransitDataCreator {
 
 
   RaptorRoutingRequestTransitDataCreator(TransitLayer transitLayer, Instant departureTime) {
+    this(transitLayer, searchDate(transitLayer, departureTime));
+  }
+
+  RaptorRoutingRequestTransitDataCreator(TransitLayer transitLayer, LocalDate departureDate) {
     this.transitLayer = transitLayer;
-    this.departureDate = LocalDate.ofInstant(departureTime, transitLayer.getTransitDataZoneId());
+    this.departureDate = departureDate;
     this.searchStartTime = DateMapper.asStartOfService(departureDate, transitLayer.getTransitDataZoneId());
   }
 
+  static LocalDate searchDate(TransitLayer transitLayer, Instant departureTime) {
+    return LocalDate.ofInstant(departureTime, transitLayer.getTransitDataZoneId());
+  }
+
   ZonedDateTime getSearchStartTime() {
     return searchStartTime;
   }
 
-  List<List<TripPatternForDates>> createTripPatternsPerStop(
+  LocalDate getSearchDate() {
+    return departureDate;
+  }
+
+  ActiveTripPatterns createActiveTripPatterns(
       int additionalFutureSearchDays,
       TransitDataProviderFilter filter
   ) {
@@ -54,7 +65,7 @@ class RaptorRoutingRequestTransitDataCreator {
 
     List<TripPatternForDates> tripPatternForDateList = merge(searchStartTime, tripPatternForDates);
 
-    return createTripPatternsPerStop(tripPatternForDateList, transitLayer.getStopCount());
+    return new ActiveTripPatterns(tripPatternForDateList, transitLayer.getStopCount());
   }
 
   private List<TripPatternForDate> getTripPatternsForDateRange(
@@ -119,22 +130,6 @@ class RaptorRoutingRequestTransitDataCreator {
     return combinedList;
   }
 
-  private static List<List<TripPatternForDates>> createTripPatternsPerStop(
-      List<TripPatternForDates> tripPatternsForDate, int numberOfStops
-  ) {
-    List<List<TripPatternForDates>> result = Stream
-        .generate(ArrayList<TripPatternForDates>::new)
-        .limit(numberOfStops)
-        .collect(Collectors.toList());
-
-    for (TripPatternForDates tripPatternForDateList : tripPatternsForDate) {
-      for (int i : tripPatternForDateList.getTripPattern().getStopIndexes()) {
-        result.get(i).add(tripPatternForDateList);
-      }
-    }
-    return result;
-  }
-
   private static List<TripPatternForDate> filterActiveTripPatterns(
       TransitLayer transitLayer,
       LocalDate date,
@@ -151,7 +146,7 @@ class RaptorRoutingRequestTransitDataCreator {
         .stream()
         .filter(filter::tripPatternPredicate)
         .filter(p -> firstDay || p.getStartOfRunningPeriod().toLocalDate().equals(date))
-        .map(p -> p.newWithFilteredTripTimes(filter::tripTimesPredicate))
+        .map(p -> p.newWithFilteredTripTimes(filter.filterAvailableTrips(p)))
         .filter(Objects::nonNull)
         .collect(Collectors.toList());
   }
@@ -0,0 +1,138 @@
+package org.opentripplanner.routing.algorithm.raptor.transit.request;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import org.opentripplanner.routing.algorithm.raptor.transit.TransfersByStop;
+import org.opentripplanner.routing.api.request.RoutingRequest;
+import org.opentripplanner.routing.core.State;
+import org.opentripplanner.routing.core.StateEditor;
+import org.opentripplanner.routing.graph.Edge;
+import org.opentripplanner.transit.raptor.api.transit.RaptorCostConverter;
+import org.opentripplanner.transit.raptor.api.transit.RaptorTransfer;
+
+/**
+ * The transfers with duration and cost for a given set of street parameters, in the same
+ * compressed sparse row layout as the {@link TransfersByStop} they are calculated from. If there
+ * are more than one transfer between two stops, only the one with the lowest cost is kept.
+ * <p>
+ * THREAD SAFETY: Instances are immutable and shared by requests with the same street parameters.
+ */
+public class RaptorTransferIndex {
+
+    private final int[] offsets;
+    private final RaptorTransfer[] transfers;
+
+    private RaptorTransferIndex(int[] offsets, RaptorTransfer[] transfers) {
+        this.offsets = offsets;
+        this.transfers = transfers;
+    }
+
+    static RaptorTransferIndex create(TransfersByStop transfersByStop, RoutingRequest request) {
+        int numberOfStops = transfersByStop.numberOfStops();
+        int[] offsets = new int[numberOfStops + 1];
+        TransferWithDuration[] result = new TransferWithDuration[transfersByStop.size()];
+        int size = 0;
+
+        // The position in the result of the transfer to each stop. Positions before the offset of
+        // the current from stop belong to previous stops, so the array is never reset.
+        int[] positionByToStop = new int[numberOfStops];
+        Arrays.fill(positionByToStop, -1);
+
+        for (int fromStop = 0; fromStop < numberOfStops; ++fromStop) {
+            offsets[fromStop] = size;
+            int end = transfersByStop.offset(fromStop + 1);
+
+            for (int i = transfersByStop.offset(fromStop); i < end; ++i) {
+                TransferWithDuration t = createTransfer(transfersByStop, i, request);
+                if (t == null) { continue; }
+
+                int pos = positionByToStop[t.stop()];
+                if (pos < offsets[fromStop]) {
+                    positionByToStop[t.stop()] = size;
+                    result[size++] = t;
+                }
+                else if (t.generalizedCost() < result[pos].generalizedCost()) {
+                    result[pos] = t;
+                }
+            }
+        }
+        offsets[numberOfStops] = size;
+        return new RaptorTransferIndex(offsets, Arrays.copyOf(result, size, RaptorTransfer[].class));
+    }
+
+    public Iterator<RaptorTransfer> getTransfers(int fromStop) {
+        return new TransferIterator(offsets[fromStop], offsets[fromStop + 1]);
+    }
+
+    /**
+     * An estimate of the memory used by this index, used to weigh the cache entries.
+     */
+    long estimatedSizeInBytes() {
+        // Offsets, array references and the transfer objects (header, 4 ints and a reference)
+        return 4L * offsets.length + 4L * transfers.length + 32L * transfers.length;
+    }
+
+    private static TransferWithDuration createTransfer(
+            TransfersByStop transfers,
+            int index,
+            RoutingRequest request
+    ) {
+        List<Edge> edges = transfers.edges(index);
+
+        if (edges == null) {
+            int durationSeconds = (int) Math.ceil(transfers.distanceMeters(index) / request.walkSpeed);
+            return new TransferWithDuration(
+                transfers,
+                index,
+                durationSeconds,
+                RaptorCostConverter.toRaptorCost(
+                    (int) Math.ceil(durationSeconds * request.walkReluctance)
+                )
+            );
+        }
+
+        StateEditor se = new StateEditor(request, edges.get(0).getFromVertex());
+        se.setTimeSeconds(0);
+
+        State s = se.makeState();
+        for (Edge e : edges) {
+            s = e.traverse(s);
+            if (s == null) {
+                return null;
+            }
+        }
+
+        return new TransferWithDuration(
+            transfers,
+            index,
+            (int) s.getElapsedTimeSeconds(),
+            RaptorCostConverter.toRaptorCost(s.getWeight())
+        );
+    }
+
+    private class TransferIterator implements Iterator<RaptorTransfer> {
+
+        private int next;
+        private final int end;
+
+        private TransferIterator(int start, int end) {
+            this.next = start;
+            this.end = end;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next < end;
+        }
+
+        @Override
+        public RaptorTransfer next() {
+            if (next >= end) {
+                throw new NoSuchElementException();
+            }
+            return transfers[next++];
+        }
+    }
+}
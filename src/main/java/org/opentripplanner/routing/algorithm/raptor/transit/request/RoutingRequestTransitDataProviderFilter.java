@@ -1,18 +1,26 @@
 package org.opentripplanner.routing.algorithm.raptor.transit.request;
 
+import lombok.EqualsAndHashCode;
 import org.opentripplanner.model.BikeAccess;
 import org.opentripplanner.model.FeedScopedId;
 import org.opentripplanner.model.TransitMode;
 import org.opentripplanner.model.Trip;
+import org.opentripplanner.routing.algorithm.raptor.transit.TripCapabilities;
 import org.opentripplanner.routing.algorithm.raptor.transit.TripPatternForDate;
 import org.opentripplanner.routing.api.request.RoutingRequest;
 import org.opentripplanner.routing.api.request.StreetMode;
 import org.opentripplanner.routing.graph.GraphIndex;
 import org.opentripplanner.routing.trippattern.TripTimes;
 
+import java.util.BitSet;
 import java.util.EnumSet;
 import java.util.Set;
 
+/**
+ * The filter implements equals and hashCode, filters with the same parameters produce the same
+ * result. This is used to cache the filtered trip patterns across requests.
+ */
+@EqualsAndHashCode
 public class RoutingRequestTransitDataProviderFilter implements TransitDataProviderFilter {
 
   private final boolean requireBikesAllowed;
@@ -76,7 +84,36 @@ public class RoutingRequestTransitDataProviderFilter implements TransitDataProvi
     return true;
   }
 
+  /**
+   * Same as {@link #tripTimesPredicate(TripTimes)}, but using the precomputed
+   * {@link TripCapabilities} of the pattern.
+   */
+  @Override
+  public BitSet filterAvailableTrips(TripPatternForDate tripPatternForDate) {
+    int numberOfTrips = tripPatternForDate.numberOfTripSchedules();
+    BitSet result = new BitSet(numberOfTrips);
+    result.set(0, numberOfTrips);
+
+    if (!(requireBikesAllowed || requireWheelchairAccessible || !includePlannedCancellations)) {
+      return result;
+    }
+
+    // Only the first required property is checked, as in the trip times predicate
+    TripCapabilities capabilities = tripPatternForDate.getTripCapabilities();
+    if (requireBikesAllowed) {
+      result.and(capabilities.bikesAllowed());
+    }
+    else if (requireWheelchairAccessible) {
+      result.and(capabilities.wheelchairAccessible());
+    }
+    else {
+      result.and(capabilities.notCanceledOrReplaced());
+    }
+    return result;
+  }
+
   private boolean routeIsNotBanned(TripPatternForDate tripPatternForDate) {
+    if (bannedRoutes.isEmpty()) { return true; }
     FeedScopedId routeId = tripPatternForDate.getTripPattern().getPattern().getRoute().getId();
     return !bannedRoutes.contains(routeId);
   }
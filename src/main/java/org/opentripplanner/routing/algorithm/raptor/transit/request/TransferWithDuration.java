@@ -1,28 +1,42 @@
 package org.opentripplanner.routing.algorithm.raptor.transit.request;
 
 import org.opentripplanner.routing.algorithm.raptor.transit.Transfer;
+import org.opentripplanner.routing.algorithm.raptor.transit.TransfersByStop;
 import org.opentripplanner.transit.raptor.api.transit.RaptorTransfer;
 
 public class TransferWithDuration implements RaptorTransfer {
 
+    private final int toStop;
     private final int durationSeconds;
     private final int cost;
 
-    private final Transfer transfer;
-
-    public TransferWithDuration(Transfer transfer, int durationSeconds, int cost) {
-        this.transfer = transfer;
+    private final TransfersByStop transfers;
+    private final int index;
+
+    public TransferWithDuration(
+            TransfersByStop transfers,
+            int index,
+            int durationSeconds,
+            int cost
+    ) {
+        this.transfers = transfers;
+        this.index = index;
+        this.toStop = transfers.toStop(index);
         this.durationSeconds = durationSeconds;
         this.cost = cost;
     }
 
+    /**
+     * The transfer with the street edges, created on each call. Only use this to map the transfer
+     * to an itinerary, not during the search.
+     */
     public Transfer transfer() {
-        return transfer;
+        return transfers.transfer(index);
     }
 
     @Override
     public int stop() {
-        return transfer.getToStop();
+        return toStop;
     }
 
     @Override
@@ -1,5 +1,7 @@
 package org.opentripplanner.routing.algorithm.raptor.transit.request;
 
+import java.util.BitSet;
+import java.util.List;
 import org.opentripplanner.routing.algorithm.raptor.transit.TripPatternForDate;
 import org.opentripplanner.routing.trippattern.TripTimes;
 
@@ -10,6 +12,10 @@ import org.opentripplanner.routing.trippattern.TripTimes;
  * {@link TripPatternForDate} and {@link TripTimes} are filtered based on the request parameters to
  * only included components which are allowed by the request. Such filters may included bike or
  * wheelchair accessibility, banned routes and transit modes.
+ * <p>
+ * The filtered result is cached and shared between requests with equal filters, see
+ * {@link RaptorRequestTripPatternCache}. Implementations should implement {@code equals()} and
+ * {@code hashCode()} for the cache to be effective.
  *
  * @see RoutingRequestTransitDataProviderFilter
  */
@@ -18,4 +24,20 @@ public interface TransitDataProviderFilter {
   boolean tripPatternPredicate(TripPatternForDate tripPatternForDate);
 
   boolean tripTimesPredicate(TripTimes tripTimes);
+
+  /**
+   * Return the trips of the given pattern accepted by the filter, indexed by the position of the
+   * trip in {@link TripPatternForDate#tripTimes()}. The default implementation evaluates the
+   * {@link #tripTimesPredicate(TripTimes)} for each trip.
+   */
+  default BitSet filterAvailableTrips(TripPatternForDate tripPatternForDate) {
+    List<TripTimes> tripTimes = tripPatternForDate.tripTimes();
+    BitSet result = new BitSet(tripTimes.size());
+    for (int i = 0; i < tripTimes.size(); ++i) {
+      if (tripTimesPredicate(tripTimes.get(i))) {
+        result.set(i);
+      }
+    }
+    return result;
+  }
 }
@@ -6,6 +6,7 @@ import org.opentripplanner.model.base.ToStringBuilder;
 import org.opentripplanner.routing.algorithm.raptor.transit.TripPatternForDate;
 import org.opentripplanner.routing.algorithm.raptor.transit.TripPatternWithRaptorStopIndexes;
 import org.opentripplanner.routing.algorithm.raptor.transit.TripSchedule;
+import org.opentripplanner.routing.trippattern.TripTimes;
 import org.opentripplanner.transit.raptor.api.transit.RaptorGuaranteedTransferProvider;
 import org.opentripplanner.transit.raptor.api.transit.RaptorRoute;
 import org.opentripplanner.transit.raptor.api.transit.RaptorTimeTable;
@@ -30,6 +31,14 @@ public class TripPatternForDates
 
     private final int numberOfTripSchedules;
 
+    /**
+     * The arrival and departure times for all trips, with the day offset applied. The times are
+     * stored in a column per stop position: {@code times[stopPos * nTrips + tripIndex]}, so
+     * the trip search scan continuous memory. This is created the first time it is needed, many
+     * patterns are never visited by Raptor.
+     */
+    private TimeTableColumns columns = null;
+
     TripPatternForDates(
             TripPatternWithRaptorStopIndexes tripPattern,
             List<TripPatternForDate> tripPatternForDates,
@@ -113,6 +122,16 @@ public class TripPatternForDates
         return numberOfTripSchedules;
     }
 
+    @Override
+    public int departureTime(int tripIndex, int stopPositionInPattern) {
+        return columns().departures[stopPositionInPattern * numberOfTripSchedules + tripIndex];
+    }
+
+    @Override
+    public int arrivalTime(int tripIndex, int stopPositionInPattern) {
+        return columns().arrivals[stopPositionInPattern * numberOfTripSchedules + tripIndex];
+    }
+
     @Override
     public String toString() {
         return ToStringBuilder.of(TripPatternForDates.class)
@@ -121,4 +140,46 @@ public class TripPatternForDates
                 .addNum("nTrips", numberOfTripSchedules)
                 .toString();
     }
+
+    private TimeTableColumns columns() {
+        // The columns are immutable and safely published using final fields, if two threads race
+        // to create them the result is the same - so no synchronization is needed.
+        TimeTableColumns c = columns;
+        if (c == null) {
+            c = new TimeTableColumns(
+                tripPatternForDates, offsets, numberOfStopsInPattern(), numberOfTripSchedules
+            );
+            columns = c;
+        }
+        return c;
+    }
+
+    private static final class TimeTableColumns {
+        private final int[] arrivals;
+        private final int[] departures;
+
+        private TimeTableColumns(
+                TripPatternForDate[] tripPatternForDates,
+                int[] offsets,
+                int nStops,
+                int nTrips
+        ) {
+            this.arrivals = new int[nStops * nTrips];
+            this.departures = new int[nStops * nTrips];
+
+            int tripIndex = 0;
+            for (int day = 0; day < tripPatternForDates.length; ++day) {
+                TripPatternForDate tripPatternForDate = tripPatternForDates[day];
+                int offset = offsets[day];
+                for (int i = 0; i < tripPatternForDate.numberOfTripSchedules(); ++i, ++tripIndex) {
+                    TripTimes tripTimes = tripPatternForDate.getTripTimes(i);
+                    for (int stopPos = 0; stopPos < nStops; ++stopPos) {
+                        int index = stopPos * nTrips + tripIndex;
+                        arrivals[index] = tripTimes.getArrivalTime(stopPos) + offset;
+                        departures[index] = tripTimes.getDepartureTime(stopPos) + offset;
+                    }
+                }
+            }
+        }
+    }
 }
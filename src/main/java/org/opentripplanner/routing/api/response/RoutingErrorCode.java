@@ -25,5 +25,12 @@ public enum RoutingErrorCode {
   /**
    * The location was found, but no stops could be found within the search radius.
    */
-  NO_STOPS_IN_RANGE
+  NO_STOPS_IN_RANGE,
+
+  /**
+   * A street search did not complete within the time limit and was cancelled, so the results of
+   * the search are missing. For an access or egress search the input field is the origin or
+   * destination.
+   */
+  STREET_ROUTING_TIMEOUT
 }
@@ -8,16 +8,19 @@ import org.opentripplanner.routing.api.request.RoutingRequest;
 import org.opentripplanner.routing.api.response.InputField;
 import org.opentripplanner.routing.api.response.RoutingError;
 import org.opentripplanner.routing.api.response.RoutingErrorCode;
+import org.opentripplanner.routing.edgetype.TemporaryEdge;
 import org.opentripplanner.routing.error.GraphNotFoundException;
 import org.opentripplanner.routing.error.RoutingValidationException;
 import org.opentripplanner.graph_builder.linking.DisposableEdgeCollection;
 import org.opentripplanner.routing.graph.Edge;
 import org.opentripplanner.routing.graph.Graph;
 import org.opentripplanner.routing.graph.Vertex;
+import org.opentripplanner.routing.vertextype.TemporaryVertex;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
@@ -47,6 +50,13 @@ public class RoutingContext implements Cloneable {
     public final Set<FeedScopedId> bannedRoutes;
 
     private final Set<DisposableEdgeCollection> tempEdges;
+
+    /**
+     * The temporary edges of this request connected to permanent or realtime vertices. Temporary
+     * edges are not added to these vertices, which are shared by all requests, so they are added
+     * to the edges of the shared vertices here.
+     */
+    private final OverlayGraph temporaryEdges = new OverlayGraph();
     
     // The back edge associated with the origin - i.e. continuing a previous search.
     // NOTE: not final so that it can be modified post-construction for testing.
@@ -143,6 +153,8 @@ public class RoutingContext implements Cloneable {
             }
         }
 
+        addTemporaryEdges();
+
         remainingWeightHeuristic = new EuclideanRemainingWeightHeuristic();
     }
     private RoutingContext(
@@ -163,6 +175,32 @@ public class RoutingContext implements Cloneable {
 
     /* INSTANCE METHODS */
 
+    /**
+     * The outgoing edges of the vertex, including the temporary edges of this request.
+     */
+    public Collection<Edge> getOutgoing(Vertex v) {
+        List<Edge> temporary = temporaryEdges.getOutgoing(v);
+        if (temporary.isEmpty()) {
+            return v.getOutgoing();
+        }
+        List<Edge> edges = new ArrayList<>(v.getOutgoing());
+        edges.addAll(temporary);
+        return edges;
+    }
+
+    /**
+     * The incoming edges of the vertex, including the temporary edges of this request.
+     */
+    public Collection<Edge> getIncoming(Vertex v) {
+        List<Edge> temporary = temporaryEdges.getIncoming(v);
+        if (temporary.isEmpty()) {
+            return v.getIncoming();
+        }
+        List<Edge> edges = new ArrayList<>(v.getIncoming());
+        edges.addAll(temporary);
+        return edges;
+    }
+
     public void checkIfVerticesFound() {
         List<RoutingError> routingErrors = new ArrayList<>();
 
@@ -185,6 +223,64 @@ public class RoutingContext implements Cloneable {
         }
     }
 
+    /**
+     * Find the temporary edges connected to the permanent or realtime vertices by traversing the
+     * temporary subgraph of the request from the origin and destination vertices, and add them to
+     * the overlay.
+     */
+    private void addTemporaryEdges() {
+        List<Vertex> todo = new ArrayList<>();
+        Set<Vertex> done = new HashSet<>();
+
+        addTemporaryVertices(fromVertices, todo);
+        addTemporaryVertices(toVertices, todo);
+        for (DisposableEdgeCollection collection : tempEdges) {
+            for (Edge e : collection.getEdges()) {
+                addTemporaryEdge(e, todo);
+            }
+        }
+
+        while (!todo.isEmpty()) {
+            Vertex current = todo.remove(todo.size() - 1);
+            if (!done.add(current)) { continue; }
+            for (Edge e : current.getOutgoing()) {
+                addTemporaryEdge(e, todo);
+            }
+            for (Edge e : current.getIncoming()) {
+                addTemporaryEdge(e, todo);
+            }
+        }
+    }
+
+    private void addTemporaryEdge(Edge e, List<Vertex> todo) {
+        if (!(e instanceof TemporaryEdge)) { return; }
+        Vertex from = e.getFromVertex();
+        Vertex to = e.getToVertex();
+
+        if (TemporaryVertex.isRequestVertex(from)) {
+            todo.add(from);
+        }
+        else if (!from.getOutgoing().contains(e)) {
+            temporaryEdges.addOutgoing(from, e);
+        }
+
+        if (TemporaryVertex.isRequestVertex(to)) {
+            todo.add(to);
+        }
+        else if (!to.getIncoming().contains(e)) {
+            temporaryEdges.addIncoming(to, e);
+        }
+    }
+
+    private static void addTemporaryVertices(Set<Vertex> vertices, List<Vertex> todo) {
+        if (vertices == null) { return; }
+        for (Vertex v : vertices) {
+            if (TemporaryVertex.isRequestVertex(v)) {
+                todo.add(v);
+            }
+        }
+    }
+
     /**
      * Tear down this routing context, removing any temporary edges from
      * the "permanent" graph objects. This enables all temporary objects
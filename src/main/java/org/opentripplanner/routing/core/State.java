@@ -493,10 +493,16 @@ public class State implements Cloneable {
         return time;
     }
 
+    /** The outgoing edges of the vertex, including the temporary edges of the request. */
+    private Collection<Edge> getOutgoing(Vertex v) {
+        RoutingContext rctx = getContext();
+        return rctx == null ? v.getOutgoing() : rctx.getOutgoing(v);
+    }
+
     public boolean multipleOptionsBefore() {
         boolean foundAlternatePaths = false;
         TraverseMode requestedMode = getNonTransitMode();
-        for (Edge out : backState.vertex.getOutgoing()) {
+        for (Edge out : getOutgoing(backState.vertex)) {
             if (out == backEdge) {
                 continue;
             }
@@ -518,7 +524,7 @@ public class State implements Cloneable {
             //now, from here, try a continuing path.
             Vertex tov = outState.getVertex();
             boolean found = false;
-            for (Edge out2 : tov.getOutgoing()) {
+            for (Edge out2 : getOutgoing(tov)) {
                 State outState2 = out2.traverse(outState);
                 if (outState2 != null && !Objects.equals(outState2.getBackMode(), requestedMode)) {
                     // walking a bike, so, not really an exit
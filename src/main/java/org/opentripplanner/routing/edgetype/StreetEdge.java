@@ -7,6 +7,7 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Locale;
 import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.CoordinateSequence;
 import org.locationtech.jts.geom.LineString;
 import org.opentripplanner.common.TurnRestriction;
 import org.opentripplanner.common.TurnRestrictionType;
@@ -618,6 +619,19 @@ public class StreetEdge extends Edge implements BikeWalkableEdge, Cloneable, Car
 		return CompactLineString.uncompactLineString(fromv.getLon(), fromv.getLat(), tov.getLon(), tov.getLat(), compactGeometry, isBack());
 	}
 
+	/**
+	 * The angle of the first segment of the geometry in radians clockwise from North, see
+	 * {@link DirectionUtils#getFirstAngle(CoordinateSequence)}. The angle is computed from the compact
+	 * geometry, without creating a LineString.
+	 */
+	public double getFirstAngle() {
+		return DirectionUtils.getFirstAngle(getCoordinates());
+	}
+
+	private CoordinateSequence getCoordinates() {
+		return CompactLineString.uncompactCoordinates(fromv.getLon(), fromv.getLat(), tov.getLon(), tov.getLat(), compactGeometry, isBack());
+	}
+
 	private void setGeometry(LineString geometry) {
 		this.compactGeometry = CompactLineString.compactLineString(fromv.getLon(), fromv.getLat(), tov.getLon(), tov.getLat(), isBack() ? (LineString)geometry.reverse() : geometry, isBack());
 	}
@@ -847,9 +861,9 @@ public class StreetEdge extends Edge implements BikeWalkableEdge, Cloneable, Car
             tempEdges.addEdge(e2);
         }
 
-        var splitEdges = new P2<>(e1, e2);
-        copyRestrictionsToSplitEdges(this, splitEdges, graph);
-        return splitEdges;
+        // The turn restrictions are not copied, the temporary partial edges use the restrictions of
+        // this edge. Copying them would modify the turn restrictions shared by all requests.
+        return new P2<>(e1, e2);
     }
 
     /**
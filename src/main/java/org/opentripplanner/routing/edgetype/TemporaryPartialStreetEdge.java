@@ -3,6 +3,7 @@ package org.opentripplanner.routing.edgetype;
 import org.locationtech.jts.geom.Coordinate;
 import org.locationtech.jts.geom.LineString;
 import org.opentripplanner.common.TurnRestriction;
+import org.opentripplanner.common.geometry.DirectionUtils;
 import org.opentripplanner.routing.graph.Edge;
 import org.opentripplanner.routing.graph.Graph;
 import org.opentripplanner.routing.util.ElevationUtils;
@@ -63,6 +64,14 @@ final public class TemporaryPartialStreetEdge extends StreetWithElevationEdge im
         return geometry;
     }
 
+    /**
+     * Use the stored geometry, the vertices of a temporary edge may be gone when it is disposed.
+     */
+    @Override
+    public double getFirstAngle() {
+        return DirectionUtils.getFirstAngle(geometry);
+    }
+
     /**
      * Partial edges are always partial.
      */
@@ -1,20 +1,35 @@
 package org.opentripplanner.routing.framework;
 
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 import javax.annotation.Nullable;
 import org.opentripplanner.api.resource.DebugOutput;
 import org.opentripplanner.api.resource.TransitTimingOutput;
+import org.opentripplanner.transit.raptor.api.response.RaptorSearchStatistics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * Keeps account of timing information within the different parts of the routing process, and is
- * responsible of logging that information.
+ * responsible of logging that information. The timings are also recorded as metrics in the
+ * {@link MeterRegistry}, the debug log and the {@link DebugOutput} are only created if debug
+ * logging is enabled.
  */
 public class DebugTimingAggregator {
   private static final Logger LOG = LoggerFactory.getLogger(DebugTimingAggregator.class);
 
+  private static final long NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+  /** The meters of the global registry are shared by all requests. */
+  private static final Meters GLOBAL_METERS = new Meters(Metrics.globalRegistry);
+
+  private final Meters meters;
+
   private long startedCalculating;
   private long finishedPrecalculating;
   private long finishedDirectStreetRouter;
@@ -41,30 +56,38 @@ public class DebugTimingAggregator {
 
   private final List<String> messages = new ArrayList<>();
 
+  /** Record the metrics in the global registry. */
+  public DebugTimingAggregator() {
+    this.meters = GLOBAL_METERS;
+  }
+
+  public DebugTimingAggregator(MeterRegistry registry) {
+    this.meters = new Meters(registry);
+  }
+
   /**
    * Record the time when we first began calculating a path for this request. Note that timings will not
    * include network and server request queue overhead, which is what we want.
    */
   public void startedCalculating() {
-    if(notEnabled) { return; }
-    startedCalculating = System.currentTimeMillis();
+    startedCalculating = System.nanoTime();
   }
 
   /**
    * Record the time when the worker initialization is done, and the direct street router starts.
    */
   public void finishedPrecalculating() {
-    if(notEnabled) { return; }
-    finishedPrecalculating = System.currentTimeMillis();
+    finishedPrecalculating = System.nanoTime();
     precalculationTime = finishedPrecalculating - startedCalculating;
-    log("┌  Routing initialization", directStreetRouterTime);
+    record(meters.precalculationTimer, precalculationTime);
+    log("┌  Routing initialization", precalculationTime);
   }
 
   /** Record the time when we finished the direct street router search. */
   public void finishedDirectStreetRouter() {
-    if(notEnabled) { return; }
-    finishedDirectStreetRouter = System.currentTimeMillis();
+    finishedDirectStreetRouter = System.nanoTime();
     directStreetRouterTime = finishedDirectStreetRouter - finishedPrecalculating;
+    record(meters.directStreetRouterTimer, directStreetRouterTime);
     log("├  Direct street routing", directStreetRouterTime);
   }
 
@@ -72,9 +95,9 @@ public class DebugTimingAggregator {
    * Record the time when we are finished with the creation of the raptor data models.
    */
   public void finishedPatternFiltering() {
-    if(notEnabled) { return; }
-    finishedPatternFiltering = System.currentTimeMillis();
+    finishedPatternFiltering = System.nanoTime();
     tripPatternFilterTime = finishedPatternFiltering - finishedDirectStreetRouter;
+    record(meters.tripPatternFilterTimer, tripPatternFilterTime);
     log("│┌ Filtering tripPatterns", tripPatternFilterTime);
   }
 
@@ -82,19 +105,26 @@ public class DebugTimingAggregator {
    * Record the time when we are finished with the access and egress routing.
    */
   public void finishedAccessEgress() {
-    if(notEnabled) { return; }
-    finishedAccessEgress = System.currentTimeMillis();
+    finishedAccessEgress = System.nanoTime();
     accessEgressTime = finishedAccessEgress - finishedPatternFiltering;
+    record(meters.accessEgressTimer, accessEgressTime);
     log("│├ Access/egress routing", accessEgressTime);
   }
 
   /**
-   * Record the time when we are finished with the raptor search.
+   * Record the time when we are finished with the raptor search, and the search counters.
    */
-  public void finishedRaptorSearch() {
-    if(notEnabled) { return; }
-    finishedRaptorSearch = System.currentTimeMillis();
+  public void finishedRaptorSearch(RaptorSearchStatistics statistics) {
+    finishedRaptorSearch = System.nanoTime();
     raptorSearchTime = finishedRaptorSearch - finishedAccessEgress;
+    record(meters.raptorSearchTimer, raptorSearchTime);
+    meters.raptorIterations.record(statistics.iterations());
+    meters.raptorRounds.record(statistics.rounds());
+    meters.raptorStopArrivals.record(statistics.stopArrivals());
+    // Only the multi-criteria search collects the pareto set size
+    if (statistics.maxStopArrivalsParetoSetSize() != RaptorSearchStatistics.NOT_SET) {
+      meters.raptorMaxParetoSetSize.record(statistics.maxStopArrivalsParetoSetSize());
+    }
     log("│├ Main routing", raptorSearchTime);
   }
 
@@ -102,16 +132,16 @@ public class DebugTimingAggregator {
    * Record the time when we have created internal itinerary objects from the raptor responses.
    */
   public void finishedItineraryCreation() {
-    if(notEnabled) { return; }
-    itineraryCreationTime = System.currentTimeMillis() - finishedRaptorSearch;
+    itineraryCreationTime = System.nanoTime() - finishedRaptorSearch;
+    record(meters.itineraryCreationTimer, itineraryCreationTime);
     log("│├ Creating itineraries", itineraryCreationTime);
   }
 
   /** Record the time when we finished the tranist router search */
   public void finishedTransitRouter() {
-    if(notEnabled) { return; }
-    finishedTransitRouter = System.currentTimeMillis();
+    finishedTransitRouter = System.nanoTime();
     transitRouterTime = finishedTransitRouter - finishedDirectStreetRouter;
+    record(meters.transitRouterTimer, transitRouterTime);
 
     if (finishedPatternFiltering > 0) {
       log("├┴ Transit routing total", transitRouterTime);
@@ -122,9 +152,9 @@ public class DebugTimingAggregator {
 
   /** Record the time when we finished filtering the paths for this request. */
   public void finishedFiltering() {
-    if(notEnabled) { return; }
-    finishedFiltering = System.currentTimeMillis();
+    finishedFiltering = System.nanoTime();
     filteringTime = finishedFiltering - finishedTransitRouter;
+    record(meters.filteringTimer, filteringTime);
     log("├  Filtering itineraries", filteringTime);
   }
 
@@ -132,9 +162,11 @@ public class DebugTimingAggregator {
   @SuppressWarnings("Convert2MethodRef")
   @Nullable
   public DebugOutput finishedRendering() {
-    if(notEnabled) { return null; }
-    finishedRendering = System.currentTimeMillis();
+    finishedRendering = System.nanoTime();
     renderingTime = finishedRendering - finishedFiltering;
+    record(meters.renderingTimer, renderingTime);
+    record(meters.requestTotalTimer, finishedRendering - startedCalculating);
+    if(notEnabled) { return null; }
     log("├  Converting model objects", renderingTime);
     log("┴  Request total", finishedRendering - startedCalculating);
     messages.forEach(m -> LOG.debug(m));
@@ -146,22 +178,77 @@ public class DebugTimingAggregator {
     long totalTime = finishedRendering - startedCalculating;
 
     return new DebugOutput(
-        precalculationTime,
-        directStreetRouterTime,
-        transitRouterTime,
-        filteringTime,
-        renderingTime,
-        totalTime,
+        millis(precalculationTime),
+        millis(directStreetRouterTime),
+        millis(transitRouterTime),
+        millis(filteringTime),
+        millis(renderingTime),
+        millis(totalTime),
         new TransitTimingOutput(
-            tripPatternFilterTime,
-            accessEgressTime,
-            raptorSearchTime,
-            itineraryCreationTime
+            millis(tripPatternFilterTime),
+            millis(accessEgressTime),
+            millis(raptorSearchTime),
+            millis(itineraryCreationTime)
         )
     );
   }
 
-  private void log(String msg, long millis) {
-    messages.add(String.format("%-30s: %5s ms", msg, millis));
+  private void log(String msg, long nanos) {
+    if(notEnabled) { return; }
+    messages.add(String.format("%-30s: %5s ms", msg, millis(nanos)));
+  }
+
+  private static long millis(long nanos) {
+    return nanos / NANOS_PER_MILLI;
+  }
+
+  private static void record(Timer timer, long nanos) {
+    timer.record(nanos, TimeUnit.NANOSECONDS);
+  }
+
+  /** The meters for all the routing phases and Raptor search counters. */
+  private static class Meters {
+
+    private final Timer precalculationTimer;
+    private final Timer directStreetRouterTimer;
+    private final Timer tripPatternFilterTimer;
+    private final Timer accessEgressTimer;
+    private final Timer raptorSearchTimer;
+    private final Timer itineraryCreationTimer;
+    private final Timer transitRouterTimer;
+    private final Timer filteringTimer;
+    private final Timer renderingTimer;
+    private final Timer requestTotalTimer;
+
+    private final DistributionSummary raptorIterations;
+    private final DistributionSummary raptorRounds;
+    private final DistributionSummary raptorStopArrivals;
+    private final DistributionSummary raptorMaxParetoSetSize;
+
+    private Meters(MeterRegistry registry) {
+      precalculationTimer = timer(registry, "routing.precalculation");
+      directStreetRouterTimer = timer(registry, "routing.direct.street");
+      tripPatternFilterTimer = timer(registry, "routing.transit.pattern.filtering");
+      accessEgressTimer = timer(registry, "routing.transit.access.egress");
+      raptorSearchTimer = timer(registry, "routing.transit.raptor");
+      itineraryCreationTimer = timer(registry, "routing.transit.itinerary.creation");
+      transitRouterTimer = timer(registry, "routing.transit");
+      filteringTimer = timer(registry, "routing.filtering");
+      renderingTimer = timer(registry, "routing.rendering");
+      requestTotalTimer = timer(registry, "routing.total");
+
+      raptorIterations = summary(registry, "routing.raptor.iterations");
+      raptorRounds = summary(registry, "routing.raptor.rounds");
+      raptorStopArrivals = summary(registry, "routing.raptor.stop.arrivals");
+      raptorMaxParetoSetSize = summary(registry, "routing.raptor.pareto.set.size.max");
+    }
+
+    private static Timer timer(MeterRegistry registry, String name) {
+      return Timer.builder(name).publishPercentileHistogram().register(registry);
+    }
+
+    private static DistributionSummary summary(MeterRegistry registry, String name) {
+      return DistributionSummary.builder(name).register(registry);
+    }
   }
 }
@@ -0,0 +1,168 @@
+package org.opentripplanner.routing.framework;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import javax.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Run independent phases of a routing request, like the direct street search and the access and
+ * egress searches, in parallel. The phases are started with {@link #submit(String, Supplier)} and
+ * the result is retrieved with {@link Phase#get()}.
+ * <p>
+ * If the thread pool size is 0, no threads are created and each phase is run in the caller thread
+ * when the result is requested. Hence, the phases run in the order the results are retrieved.
+ * <p>
+ * The thread pool is shared by all requests, so under load a phase may not be started by the time
+ * its result is requested. A phase without a timeout is then run by the caller, instead of waiting
+ * for a free thread. For a phase with a timeout, the caller waits at most the phase timeout for the
+ * phase to start, and then for the phase to complete.
+ * <p>
+ * This class should have APPLICATION scope, it manages a thread pool shared by all requests.
+ */
+public class RoutingPhaseExecutor {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RoutingPhaseExecutor.class);
+
+    /** Run all phases in the caller thread. */
+    public static final RoutingPhaseExecutor SEQUENTIAL = new RoutingPhaseExecutor(0, 0);
+
+    private final ExecutorService threadPool;
+    private final long phaseTimeoutMillis;
+
+    /**
+     * @param threadPoolSize the total number of threads available across all requests, if 0 all
+     *                       phases run in the caller thread.
+     * @param phaseTimeoutSeconds the maximum time to wait for a phase with a timeout value to
+     *                            complete.
+     */
+    public RoutingPhaseExecutor(int threadPoolSize, double phaseTimeoutSeconds) {
+        this.threadPool = threadPoolSize > 0
+            ? Executors.newFixedThreadPool(
+                threadPoolSize,
+                new ThreadFactoryBuilder().setNameFormat("RoutingPhase-%d").setDaemon(true).build()
+            )
+            : null;
+        this.phaseTimeoutMillis = (long) (phaseTimeoutSeconds * 1000);
+    }
+
+    public boolean isMultiThreaded() {
+        return threadPool != null;
+    }
+
+    /**
+     * Start a phase without a timeout, the caller waits until the phase is complete.
+     */
+    public <T> Phase<T> submit(String name, Supplier<T> task) {
+        return submit(name, task, null);
+    }
+
+    /**
+     * Start a phase. If the phase does not complete within the phase timeout the
+     * {@code timeoutValue} is returned, and the phase is cancelled. The timeout is measured from
+     * the time the phase starts running. If the phase is not started within the phase timeout,
+     * because all threads are busy, it is cancelled and the {@code timeoutValue} is returned.
+     *
+     * @param timeoutValue the result to use if the phase times out, if {@code null} the caller
+     *                     waits until the phase is complete.
+     */
+    public <T> Phase<T> submit(String name, Supplier<T> task, @Nullable T timeoutValue) {
+        Phase<T> phase = new Phase<>(name, task, timeoutValue);
+        if (threadPool != null) {
+            threadPool.execute(phase.task);
+        }
+        return phase;
+    }
+
+    public void shutdown() {
+        if (threadPool != null) {
+            threadPool.shutdown();
+        }
+    }
+
+    public class Phase<T> {
+        private final String name;
+        private final FutureTask<T> task;
+        private final T timeoutValue;
+
+        /** Released when the phase starts running. */
+        private final CountDownLatch started = new CountDownLatch(1);
+        private volatile long startTimeNanos;
+        private volatile boolean timedOut = false;
+
+        private Phase(String name, Supplier<T> task, T timeoutValue) {
+            this.name = name;
+            this.task = new FutureTask<>(() -> {
+                startTimeNanos = System.nanoTime();
+                started.countDown();
+                return task.get();
+            });
+            this.timeoutValue = timeoutValue;
+        }
+
+        /**
+         * Wait for the phase to complete and return the result. Runtime exceptions thrown by the
+         * phase are rethrown in the caller thread.
+         */
+        public T get() {
+            if (timedOut) {
+                return timeoutValue;
+            }
+            try {
+                if (threadPool == null || timeoutValue == null || phaseTimeoutMillis <= 0) {
+                    // Run the phase in the caller thread if it is not started yet, because the
+                    // executor is single-threaded or all threads are busy. Running a FutureTask is
+                    // a no-op if another thread has started it.
+                    task.run();
+                    return task.get();
+                }
+                if (!started.await(phaseTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                    throw new TimeoutException();
+                }
+                long elapsedNanos = System.nanoTime() - startTimeNanos;
+                return task.get(
+                    TimeUnit.MILLISECONDS.toNanos(phaseTimeoutMillis) - elapsedNanos,
+                    TimeUnit.NANOSECONDS
+                );
+            }
+            catch (TimeoutException e) {
+                // Interrupts the thread running the phase, the street searches check the interrupt
+                // flag and stop
+                task.cancel(true);
+                timedOut = true;
+                LOG.warn("Routing phase '{}' timed out after {} ms.", name, phaseTimeoutMillis);
+                return timeoutValue;
+            }
+            catch (InterruptedException e) {
+                task.cancel(true);
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for: " + name, e);
+            }
+            catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                if (e.getCause() instanceof Error) {
+                    throw (Error) e.getCause();
+                }
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+
+        /**
+         * @return true if the phase did not complete within the phase timeout, in this case
+         * {@link #get()} returns the timeout value.
+         */
+        public boolean isTimedOut() {
+            return timedOut;
+        }
+    }
+}
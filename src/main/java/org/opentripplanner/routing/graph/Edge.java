@@ -4,6 +4,8 @@ import java.util.Objects;
 import org.locationtech.jts.geom.LineString;
 import org.opentripplanner.model.Trip;
 import org.opentripplanner.routing.core.State;
+import org.opentripplanner.routing.edgetype.TemporaryEdge;
+import org.opentripplanner.routing.vertextype.TemporaryVertex;
 
 import java.io.IOException;
 import java.io.ObjectInputStream;
@@ -31,8 +33,28 @@ public abstract class Edge implements Serializable {
         }
         this.fromv = v1;
         this.tov = v2;
-        fromv.addOutgoing(this);
-        tov.addIncoming(this);
+        if (this instanceof TemporaryEdge) {
+            // Temporary edges are only added to the temporary vertices of a request. Adding them to
+            // the permanent or realtime vertices, which are shared, would make them visible to all
+            // concurrent searches, instead they are looked up in the RoutingContext of the request
+            // they were created for.
+            if (TemporaryVertex.isRequestVertex(fromv)) { fromv.addOutgoing(this); }
+            if (TemporaryVertex.isRequestVertex(tov)) { tov.addIncoming(this); }
+        }
+        else {
+            fromv.addOutgoing(this);
+            tov.addIncoming(this);
+        }
+    }
+
+    /**
+     * Add a temporary edge to the permanent and realtime vertices it is connected to, so that it is
+     * visible to all searches. This is used for temporary edges which are shared by all requests,
+     * like the edges linking realtime vehicle rental stations to the street network.
+     */
+    public void connectToSharedVertices() {
+        if (!TemporaryVertex.isRequestVertex(fromv)) { fromv.addOutgoing(this); }
+        if (!TemporaryVertex.isRequestVertex(tov)) { tov.addIncoming(this); }
     }
 
     public Vertex getFromVertex() {
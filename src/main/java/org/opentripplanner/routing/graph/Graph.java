@@ -45,6 +45,7 @@ import org.opentripplanner.common.geometry.CompactElevationProfile;
 import org.opentripplanner.common.geometry.GraphUtils;
 import org.opentripplanner.common.geometry.SphericalDistanceLibrary;
 import org.opentripplanner.common.model.T2;
+import org.opentripplanner.ext.flex.flexpathcalculator.FlexTravelTimeMatrix;
 import org.opentripplanner.ext.flex.trip.FlexTrip;
 import org.opentripplanner.graph_builder.DataImportIssueStore;
 import org.opentripplanner.graph_builder.issues.NoFutureDates;
@@ -141,6 +142,9 @@ public class Graph implements Serializable {
     /* Ideally we could just get rid of vertex labels, but they're used in tests and graph building. */
     private final Map<String, Vertex> vertices = new ConcurrentHashMap<>();
 
+    /** The number of vertex indexes handed out, see {@link Vertex#getIndex()}. */
+    private int vertexIndexSize = 0;
+
     private transient CalendarService calendarService;
 
     private transient StreetVertexIndex streetIndex;
@@ -257,6 +261,12 @@ public class Graph implements Serializable {
 
     public Map<FeedScopedId, FlexTrip> flexTripsById = new HashMap<>();
 
+    /**
+     * Driving times between the vertices used by flex trips, if calculated when building. They are
+     * found with forward searches and only used by the flex access searches.
+     */
+    public FlexTravelTimeMatrix flexTravelTimeMatrix = null;
+
     /** The distance between elevation samples used in CompactElevationProfile. */
     private double distanceBetweenElevationSamples;
 
@@ -330,6 +340,10 @@ public class Graph implements Serializable {
      */
     public void addVertex(Vertex v) {
         Vertex old = vertices.put(v.getLabel(), v);
+        // A vertex added again keeps its index, so its states in indexed search trees stay valid
+        if (old != v) {
+            v.setIndex(nextVertexIndex());
+        }
         if (old != null) {
             if (old == v)
                 LOG.error("repeatedly added the same vertex: {}", v);
@@ -592,6 +606,18 @@ public class Graph implements Serializable {
         return vertices.size();
     }
 
+    /**
+     * All vertex indexes are less than this value. Removed vertices do not release their index,
+     * so this may be larger than the number of vertices.
+     */
+    public synchronized int getVertexIndexSize() {
+        return vertexIndexSize;
+    }
+
+    private synchronized int nextVertexIndex() {
+        return vertexIndexSize++;
+    }
+
     /**
      * Find the total number of edges in this Graph. There are assumed to be no Edges in an incoming edge list that are not in an outgoing edge list.
      * 
@@ -41,6 +41,12 @@ public abstract class Vertex implements Serializable, Cloneable {
     private final double x;
 
     private final double y;
+
+    /**
+     * A dense index assigned when the vertex is added to a graph, or -1 if the vertex is not part
+     * of a graph (temporary vertices). This allows searches to keep per-vertex state in arrays.
+     */
+    private int index = -1;
     
     private transient Edge[] incoming = new Edge[0];
 
@@ -227,6 +233,18 @@ public abstract class Vertex implements Serializable, Cloneable {
         return label;
     }
 
+    /**
+     * @return the index of this vertex in the graph, or -1 if the vertex is not added to a graph.
+     *         All indexes are less than {@link Graph#getVertexIndexSize()}.
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    void setIndex(int index) {
+        this.index = index;
+    }
+
     public Coordinate getCoordinate() {
         return new Coordinate(getX(), getY());
     }
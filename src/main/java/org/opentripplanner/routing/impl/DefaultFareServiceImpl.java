@@ -1,5 +1,7 @@
 package org.opentripplanner.routing.impl;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import org.opentripplanner.model.FareAttribute;
 import org.opentripplanner.model.FeedScopedId;
 import org.opentripplanner.routing.algorithm.raptor.transit.TransitLayer;
@@ -23,7 +25,9 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
 
 /** Holds information for doing the graph search on fares */
 class FareSearch {
@@ -53,8 +57,8 @@ class FareSearch {
 
 /** Holds fare and corresponding fareId */
 class FareAndId {
-    float fare;
-    FeedScopedId fareId;
+    final float fare;
+    final FeedScopedId fareId;
 
     FareAndId(float fare, FeedScopedId fareId) {
         this.fare = fare;
@@ -77,15 +81,33 @@ public class DefaultFareServiceImpl implements FareService {
 
     private static final Logger LOG = LoggerFactory.getLogger(DefaultFareServiceImpl.class);
 
+    /**
+     * The maximum number of ride sequences to keep the best fare for. The itineraries of a search
+     * share many rides, and every fare type checks the same sequences.
+     */
+    private static final int FARE_CACHE_MAX_SIZE = 10_000;
+
     /** For each fare type (regular, student, etc...) the collection of rules that apply. */
     protected Map<FareType, Collection<FareRuleSet>> fareRulesPerType;
 
+    /** For each fare type the rules in {@link #fareRulesPerType} indexed for faster lookup. */
+    private final Map<FareType, FareRuleIndex> fareRuleIndexPerType = new HashMap<>();
+
+    /**
+     * The best fare of ride sequences already calculated, shared between requests. This is
+     * created when first used, so it is not serialized with the graph.
+     */
+    private transient volatile Cache<FareCacheKey, FareAndId> fareCache;
+
     public DefaultFareServiceImpl() {
         fareRulesPerType = new HashMap<>();
     }
 
     public void addFareRules(FareType fareType, Collection<FareRuleSet> fareRules) {
-        fareRulesPerType.put(fareType, new ArrayList<>(fareRules));
+        Collection<FareRuleSet> rules = new ArrayList<>(fareRules);
+        fareRulesPerType.put(fareType, rules);
+        fareRuleIndexPerType.put(fareType, new FareRuleIndex(rules));
+        fareCache = null;
     }
 
     @Override
@@ -228,8 +250,40 @@ public class DefaultFareServiceImpl implements FareService {
         return getBestFareAndId(fareType, rides, fareRules).fare;
     }
 
+    /**
+     * Find the best fare for the rides. When the rules are the ones added for the fare type, only
+     * the rules in the index which can match are checked, and the result is cached. Subclasses
+     * may use other rules, these are all checked every time.
+     */
     private FareAndId getBestFareAndId(FareType fareType, List<Ride> rides,
             Collection<FareRuleSet> fareRules) {
+        FareRuleIndex index = fareRuleIndexPerType.get(fareType);
+        if (index == null || !index.isIndexOf(fareRules)) {
+            return findBestFareAndId(fareType, rides, fareRules, null);
+        }
+        try {
+            // The key must not depend on the list of rides, which is usually a view of a larger list
+            return fareCache().get(
+                    new FareCacheKey(fareType, List.copyOf(rides)),
+                    () -> findBestFareAndId(fareType, rides, fareRules, index)
+            );
+        }
+        catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private Cache<FareCacheKey, FareAndId> fareCache() {
+        Cache<FareCacheKey, FareAndId> cache = fareCache;
+        if (cache == null) {
+            cache = CacheBuilder.newBuilder().maximumSize(FARE_CACHE_MAX_SIZE).build();
+            fareCache = cache;
+        }
+        return cache;
+    }
+
+    private FareAndId findBestFareAndId(FareType fareType, List<Ride> rides,
+            Collection<FareRuleSet> fareRules, FareRuleIndex index) {
         Set<String> zones = new HashSet<>();
         Set<FeedScopedId> routes = new HashSet<>();
         Set<FeedScopedId> trips = new HashSet<>();
@@ -261,7 +315,11 @@ public class DefaultFareServiceImpl implements FareService {
         float bestFare = Float.POSITIVE_INFINITY;
         long tripTime = lastRideStartTime - startTime;
         long journeyTime = lastRideEndTime - startTime;
-        	
+
+        if (index != null) {
+            fareRules = index.candidates(feedId, firstRide.route, startZone, zones);
+        }
+
         // find the best fare that matches this set of rides
         for (FareRuleSet ruleSet : fareRules) {
             FareAttribute attribute = ruleSet.getFareAttribute();
@@ -318,4 +376,29 @@ public class DefaultFareServiceImpl implements FareService {
     	return fare.getPrice();
     }
 
-}
\ No newline at end of file
+    /** The fare type and the rides of a ride sequence, used to cache the best fare. */
+    private static class FareCacheKey {
+
+        private final FareType fareType;
+
+        private final List<Ride> rides;
+
+        private FareCacheKey(FareType fareType, List<Ride> rides) {
+            this.fareType = fareType;
+            this.rides = rides;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) { return true; }
+            if (o == null || getClass() != o.getClass()) { return false; }
+            FareCacheKey that = (FareCacheKey) o;
+            return fareType == that.fareType && rides.equals(that.rides);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(fareType, rides);
+        }
+    }
+}
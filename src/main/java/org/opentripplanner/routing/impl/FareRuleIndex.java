@@ -0,0 +1,157 @@
+package org.opentripplanner.routing.impl;
+
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ListMultimap;
+import org.opentripplanner.common.model.P2;
+import org.opentripplanner.model.FeedScopedId;
+import org.opentripplanner.routing.core.FareRuleSet;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The fare rules of one fare type, indexed by feed and by the condition each rule is most
+ * selective on: the routes, the origin zone or the contained zones. Only the rules which can
+ * possibly match a sequence of rides are returned as candidates, the caller must still check that
+ * they match. The candidates are returned in the original order of the rules, so the first of
+ * several rules with the same price is still chosen.
+ * <p>
+ * This class is THREAD SAFE, it is not modified after construction.
+ */
+class FareRuleIndex implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Collection<FareRuleSet> fareRules;
+
+    private final Map<String, FeedIndex> indexByFeed = new HashMap<>();
+
+    FareRuleIndex(Collection<FareRuleSet> fareRules) {
+        this.fareRules = fareRules;
+        int order = 0;
+        for (FareRuleSet rule : fareRules) {
+            String feedId = rule.getFareAttribute().getId().getFeedId();
+            indexByFeed.computeIfAbsent(feedId, f -> new FeedIndex()).add(new Entry(rule, order++));
+        }
+    }
+
+    /** Return {@code true} if this is the index of the given collection of fare rules. */
+    boolean isIndexOf(Collection<FareRuleSet> fareRules) {
+        return this.fareRules == fareRules;
+    }
+
+    /**
+     * The rules of the given feed which may match a sequence of rides starting in the given zone,
+     * on the given route and passing through the given zones.
+     */
+    List<FareRuleSet> candidates(
+            String feedId,
+            FeedScopedId firstRoute,
+            String startZone,
+            Set<String> zonesVisited
+    ) {
+        FeedIndex index = indexByFeed.get(feedId);
+        if (index == null) {
+            return List.of();
+        }
+        return merge(
+                index.byRoute.get(firstRoute),
+                index.byOriginZone.get(startZone),
+                index.byContainedZones.get(zonesVisited),
+                index.other
+        );
+    }
+
+    /** Merge lists of rules which are already in the original order. */
+    @SafeVarargs
+    private static List<FareRuleSet> merge(List<Entry>... lists) {
+        int size = 0;
+        for (List<Entry> list : lists) {
+            size += list.size();
+        }
+        List<FareRuleSet> result = new ArrayList<>(size);
+        int[] next = new int[lists.length];
+        while (result.size() < size) {
+            int first = -1;
+            for (int i = 0; i < lists.length; ++i) {
+                if (next[i] < lists[i].size() && (
+                        first < 0 || lists[i].get(next[i]).order < lists[first].get(next[first]).order
+                )) {
+                    first = i;
+                }
+            }
+            result.add(lists[first].get(next[first]++).rule);
+        }
+        return result;
+    }
+
+    private static class FeedIndex implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        /** Rules limited to a set of routes, indexed by each route. All rides must be on one. */
+        private final ListMultimap<FeedScopedId, Entry> byRoute = ArrayListMultimap.create();
+
+        /**
+         * Rules with origin/destination zones and no routes, indexed by the zone the first ride
+         * must start in. A pair without an origin matches rides starting in its destination zone.
+         */
+        private final ListMultimap<String, Entry> byOriginZone = ArrayListMultimap.create();
+
+        /** Rules with contained zones only, indexed by the exact set of zones. */
+        private final ListMultimap<Set<String>, Entry> byContainedZones = ArrayListMultimap.create();
+
+        /** Rules without route, zone or contains conditions. */
+        private final List<Entry> other = new ArrayList<>();
+
+        void add(Entry entry) {
+            FareRuleSet rule = entry.rule;
+            if (!rule.getRoutes().isEmpty()) {
+                for (FeedScopedId route : rule.getRoutes()) {
+                    byRoute.put(route, entry);
+                }
+            }
+            else if (!rule.getOriginDestinations().isEmpty()) {
+                for (String zone : originZones(rule)) {
+                    byOriginZone.put(zone, entry);
+                }
+            }
+            else if (!rule.getContains().isEmpty()) {
+                byContainedZones.put(rule.getContains(), entry);
+            }
+            else {
+                other.add(entry);
+            }
+        }
+
+        private static List<String> originZones(FareRuleSet rule) {
+            List<String> zones = new ArrayList<>();
+            for (P2<String> od : rule.getOriginDestinations()) {
+                String zone = od.first != null ? od.first : od.second;
+                if (!zones.contains(zone)) {
+                    zones.add(zone);
+                }
+            }
+            return zones;
+        }
+    }
+
+    private static class Entry implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final FareRuleSet rule;
+
+        private final int order;
+
+        private Entry(FareRuleSet rule, int order) {
+            this.rule = rule;
+            this.order = order;
+        }
+    }
+}
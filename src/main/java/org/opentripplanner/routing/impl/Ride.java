@@ -4,6 +4,7 @@ import org.opentripplanner.model.FeedScopedId;
 import org.opentripplanner.model.Stop;
 
 import java.util.HashSet;
+import java.util.Objects;
 import java.util.Set;
 
 /**
@@ -39,6 +40,33 @@ public class Ride {
         zones = new HashSet<String>();
     }
 
+    /**
+     * Rides are equal if all the fields used to calculate fares are equal, this is used to cache
+     * fares for the same rides in different itineraries.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) { return true; }
+        if (o == null || getClass() != o.getClass()) { return false; }
+        Ride that = (Ride) o;
+        return startTime == that.startTime
+                && endTime == that.endTime
+                && Objects.equals(agency, that.agency)
+                && Objects.equals(route, that.route)
+                && Objects.equals(trip, that.trip)
+                && Objects.equals(zones, that.zones)
+                && Objects.equals(startZone, that.startZone)
+                && Objects.equals(endZone, that.endZone)
+                && Objects.equals(classifier, that.classifier)
+                && Objects.equals(firstStop, that.firstStop)
+                && Objects.equals(lastStop, that.lastStop);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(route, trip, startTime, firstStop, lastStop);
+    }
+
     public String toString() {
         StringBuilder builder = new StringBuilder();
         builder.append("Ride");
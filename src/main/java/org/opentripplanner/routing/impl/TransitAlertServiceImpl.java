@@ -11,7 +11,9 @@ import org.opentripplanner.routing.graph.Graph;
 import org.opentripplanner.routing.services.TransitAlertService;
 
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -101,6 +103,19 @@ public class TransitAlertServiceImpl implements TransitAlertService {
         return alerts.get(new EntitySelector.TripPattern(pattern));
     }
 
+    @Override
+    public Map<EntitySelector, Collection<TransitAlert>> getAlerts(
+            Collection<EntitySelector> entities
+    ) {
+        // Read the alerts once, they may be replaced by an updater at any time
+        Multimap<EntitySelector, TransitAlert> alerts = this.alerts;
+        Map<EntitySelector, Collection<TransitAlert>> result = new HashMap<>();
+        for (EntitySelector entity : entities) {
+            result.put(entity, alerts.get(entity));
+        }
+        return result;
+    }
+
     @Override
     public void setAlerts(Collection<TransitAlert> alerts) {
         Multimap<EntitySelector, TransitAlert> newAlerts = HashMultimap.create();
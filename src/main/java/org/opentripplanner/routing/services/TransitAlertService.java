@@ -2,9 +2,12 @@ package org.opentripplanner.routing.services;
 
 import org.opentripplanner.model.FeedScopedId;
 import org.opentripplanner.model.calendar.ServiceDate;
+import org.opentripplanner.routing.alertpatch.EntitySelector;
 import org.opentripplanner.routing.alertpatch.TransitAlert;
 
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 
 public interface TransitAlertService {
 
@@ -27,4 +30,35 @@ public interface TransitAlertService {
     Collection<TransitAlert> getStopAndTripAlerts(FeedScopedId stop, FeedScopedId trip, ServiceDate serviceDate);
 
     Collection<TransitAlert> getTripPatternAlerts(FeedScopedId tripPattern);
+
+    /**
+     * Get the alerts for many entities in one call. Entities without alerts are mapped to an empty
+     * collection. Only the selectors of a single agency, stop, route, trip or trip pattern are
+     * supported.
+     */
+    default Map<EntitySelector, Collection<TransitAlert>> getAlerts(
+            Collection<EntitySelector> entities
+    ) {
+        Map<EntitySelector, Collection<TransitAlert>> result = new HashMap<>();
+        for (EntitySelector entity : entities) {
+            result.put(entity, getAlerts(entity));
+        }
+        return result;
+    }
+
+    private Collection<TransitAlert> getAlerts(EntitySelector entity) {
+        if (entity instanceof EntitySelector.Agency) {
+            return getAgencyAlerts(((EntitySelector.Agency) entity).agencyId);
+        } else if (entity instanceof EntitySelector.Stop) {
+            return getStopAlerts(((EntitySelector.Stop) entity).stopId);
+        } else if (entity instanceof EntitySelector.Route) {
+            return getRouteAlerts(((EntitySelector.Route) entity).routeId);
+        } else if (entity instanceof EntitySelector.Trip) {
+            EntitySelector.Trip trip = (EntitySelector.Trip) entity;
+            return getTripAlerts(trip.tripId, trip.serviceDate);
+        } else if (entity instanceof EntitySelector.TripPattern) {
+            return getTripPatternAlerts(((EntitySelector.TripPattern) entity).tripPatternId);
+        }
+        throw new IllegalArgumentException("Unsupported entity selector: " + entity);
+    }
 }
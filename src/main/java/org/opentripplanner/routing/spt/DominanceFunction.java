@@ -3,6 +3,7 @@ package org.opentripplanner.routing.spt;
 import java.io.Serializable;
 import java.util.Objects;
 import org.opentripplanner.routing.api.request.RoutingRequest;
+import org.opentripplanner.routing.core.RoutingContext;
 import org.opentripplanner.routing.core.State;
 import org.opentripplanner.routing.edgetype.StreetEdge;
 
@@ -112,9 +113,14 @@ public abstract class DominanceFunction implements Serializable {
 
     /**
      * Create a new shortest path tree using this function, considering whether it allows co-dominant States.
-     * MultiShortestPathTree is the general case -- it will work with both single- and multi-state functions.
+     * Both implementations work with single- and multi-state functions, but the
+     * {@link IndexedShortestPathTree} is faster when most vertices end up with a single state.
      */
      public ShortestPathTree getNewShortestPathTree(RoutingRequest routingRequest) {
+        RoutingContext rctx = routingRequest.rctx;
+        if (rctx != null && rctx.graph != null) {
+            return new IndexedShortestPathTree(routingRequest, this, rctx.graph.getVertexIndexSize());
+        }
         return new ShortestPathTree(routingRequest, this);
      }
 
@@ -152,6 +158,12 @@ public abstract class DominanceFunction implements Serializable {
     /** In this implementation the relation is not symmetric. There are sets of mutually co-dominant states. */
     public static class Pareto extends DominanceFunction {
 
+        /** Most vertices get several co-dominant states, so use the map based tree. */
+        @Override
+        public ShortestPathTree getNewShortestPathTree(RoutingRequest routingRequest) {
+            return new ShortestPathTree(routingRequest, this);
+        }
+
         @Override
         public boolean betterOrEqual (State a, State b) {
 
@@ -0,0 +1,254 @@
+package org.opentripplanner.routing.spt;
+
+import org.opentripplanner.routing.api.request.RoutingRequest;
+import org.opentripplanner.routing.core.State;
+import org.opentripplanner.routing.graph.Vertex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A ShortestPathTree storing the states in arrays indexed on {@link Vertex#getIndex()} instead of
+ * a map keyed on vertex. Hashing vertices is a large part of the cost of big street searches, like
+ * walk and bike access/egress searches.
+ * <p>
+ * Most vertices have a single non-dominated state, which is stored directly in a paged array. The
+ * pages are allocated on demand, so a small search on a large graph does not pay for an array
+ * covering all vertices. When a vertex gets more than one co-dominant state (different rental or
+ * parking states, turn restrictions) the states are moved to a list kept in a primitive
+ * open-addressing map keyed on vertex index.
+ * <p>
+ * Vertices without an index, like the temporary vertices created for a request, and vertices added
+ * to the graph after the tree was created, are handled by the map based {@link ShortestPathTree}.
+ */
+public class IndexedShortestPathTree extends ShortestPathTree {
+
+    private static final int PAGE_BITS = 10;
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;
+    private static final int PAGE_MASK = PAGE_SIZE - 1;
+
+    private final int vertexIndexSize;
+
+    /**
+     * The state of each vertex. If the vertex has more than one state, the states are found in
+     * {@link #multiStates} and the state in this array should not be used.
+     */
+    private final State[][] pages;
+
+    private final MultiStateMap multiStates = new MultiStateMap();
+
+    private int vertexCount = 0;
+
+    public IndexedShortestPathTree(
+            RoutingRequest options,
+            DominanceFunction dominanceFunction,
+            int vertexIndexSize
+    ) {
+        super(options, dominanceFunction);
+        this.vertexIndexSize = vertexIndexSize;
+        this.pages = new State[(vertexIndexSize + PAGE_MASK) >>> PAGE_BITS][];
+    }
+
+    @Override
+    public boolean add(State newState) {
+        int index = newState.getVertex().getIndex();
+        if (!isIndexed(index)) {
+            return super.add(newState);
+        }
+
+        State[] page = pages[index >>> PAGE_BITS];
+        if (page == null) {
+            page = new State[PAGE_SIZE];
+            pages[index >>> PAGE_BITS] = page;
+        }
+        int i = index & PAGE_MASK;
+        State oldState = page[i];
+
+        // if the vertex has no states, add one and return
+        if (oldState == null) {
+            page[i] = newState;
+            ++vertexCount;
+            return true;
+        }
+
+        List<State> states = multiStates.get(index);
+        if (states != null) {
+            return addToStates(states, newState);
+        }
+
+        // order is important, because in the case of a tie we want to reject the new state
+        if (dominanceFunction.betterOrEqualAndComparable(oldState, newState)) {
+            return false;
+        }
+        if (dominanceFunction.betterOrEqualAndComparable(newState, oldState)) {
+            page[i] = newState;
+            return true;
+        }
+
+        // the states are co-dominant, keep both
+        states = new ArrayList<>(2);
+        states.add(oldState);
+        states.add(newState);
+        multiStates.put(index, states);
+        return true;
+    }
+
+    @Override
+    public List<State> getStates(Vertex dest) {
+        int index = dest.getIndex();
+        if (!isIndexed(index)) {
+            return super.getStates(dest);
+        }
+        State state = stateAt(index);
+        if (state == null) {
+            return null;
+        }
+        List<State> states = multiStates.get(index);
+        return states == null ? List.of(state) : states;
+    }
+
+    @Override
+    public boolean visit(State state) {
+        int index = state.getVertex().getIndex();
+        if (!isIndexed(index)) {
+            return super.visit(state);
+        }
+        State s = stateAt(index);
+        if (s == null) {
+            return false;
+        }
+        List<State> states = multiStates.get(index);
+        if (states == null) {
+            return s == state;
+        }
+        for (State it : states) {
+            if (it == state) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public Set<Vertex> getVertices() {
+        Set<Vertex> vertices = new HashSet<>(super.getVertices());
+        for (State[] page : pages) {
+            if (page == null) { continue; }
+            for (State state : page) {
+                if (state != null) {
+                    vertices.add(state.getVertex());
+                }
+            }
+        }
+        return vertices;
+    }
+
+    @Override
+    public int getVertexCount() {
+        return vertexCount + super.getVertexCount();
+    }
+
+    @Override
+    public Collection<State> getAllStates() {
+        Collection<State> allStates = super.getAllStates();
+        for (int p = 0; p < pages.length; ++p) {
+            State[] page = pages[p];
+            if (page == null) { continue; }
+            for (int i = 0; i < PAGE_SIZE; ++i) {
+                if (page[i] == null) { continue; }
+                List<State> states = multiStates.get((p << PAGE_BITS) | i);
+                if (states == null) {
+                    allStates.add(page[i]);
+                }
+                else {
+                    allStates.addAll(states);
+                }
+            }
+        }
+        return allStates;
+    }
+
+    private boolean isIndexed(int index) {
+        return index >= 0 && index < vertexIndexSize;
+    }
+
+    private State stateAt(int index) {
+        State[] page = pages[index >>> PAGE_BITS];
+        return page == null ? null : page[index & PAGE_MASK];
+    }
+
+    /**
+     * Map from vertex index to the list of states, using open addressing with linear probing.
+     * Only vertices with more than one state are added, and they are never removed.
+     */
+    private static final class MultiStateMap {
+
+        private static final int EMPTY = -1;
+
+        private int[] keys = newKeys(16);
+        private Object[] values = new Object[16];
+        private int size = 0;
+
+        @SuppressWarnings("unchecked")
+        List<State> get(int key) {
+            if (size == 0) {
+                return null;
+            }
+            int mask = keys.length - 1;
+            for (int i = hash(key) & mask; keys[i] != EMPTY; i = (i + 1) & mask) {
+                if (keys[i] == key) {
+                    return (List<State>) values[i];
+                }
+            }
+            return null;
+        }
+
+        void put(int key, List<State> value) {
+            if (2 * (size + 1) > keys.length) {
+                resize(keys.length * 2);
+            }
+            int mask = keys.length - 1;
+            int i = hash(key) & mask;
+            while (keys[i] != EMPTY && keys[i] != key) {
+                i = (i + 1) & mask;
+            }
+            if (keys[i] == EMPTY) {
+                keys[i] = key;
+                ++size;
+            }
+            values[i] = value;
+        }
+
+        private void resize(int capacity) {
+            int[] oldKeys = keys;
+            Object[] oldValues = values;
+            keys = newKeys(capacity);
+            values = new Object[capacity];
+            int mask = capacity - 1;
+            for (int j = 0; j < oldKeys.length; ++j) {
+                if (oldKeys[j] == EMPTY) { continue; }
+                int i = hash(oldKeys[j]) & mask;
+                while (keys[i] != EMPTY) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = oldKeys[j];
+                values[i] = oldValues[j];
+            }
+        }
+
+        private static int[] newKeys(int capacity) {
+            int[] keys = new int[capacity];
+            Arrays.fill(keys, EMPTY);
+            return keys;
+        }
+
+        private static int hash(int key) {
+            int h = key * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+}
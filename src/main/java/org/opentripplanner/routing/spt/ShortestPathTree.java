@@ -22,6 +22,9 @@ import java.util.*;
  * Note that turn restrictions make all searches multi-state; however turn restrictions do not apply when walking.
  * The turn restriction handling is done in the base dominance function implementation, and applies to all subclasses.
  * It essentially splits each vertex into N vertices depending on the incoming edge being taken.
+ *
+ * The states are kept in a map keyed on vertex. See {@link IndexedShortestPathTree} for a faster
+ * implementation storing the states in arrays indexed on {@link Vertex#getIndex()}.
  */
 public class ShortestPathTree {
 
@@ -83,8 +86,9 @@ public class ShortestPathTree {
         Multiset<Integer> histogram = HashMultiset.create();
         int statesCount = 0;
         int maxSize = 0;
-        for (Map.Entry<Vertex, List<State>> kv : stateSets.entrySet()) {
-            List<State> states = kv.getValue();
+        int vertexCount = getVertexCount();
+        for (Vertex vertex : getVertices()) {
+            List<State> states = getStates(vertex);
             int size = states.size();
             histogram.add(size);
             statesCount += size;
@@ -92,9 +96,9 @@ public class ShortestPathTree {
                 maxSize = size;
             }
         }
-        LOG.info("SPT: vertices: " + stateSets.size() + " states: total: "
+        LOG.info("SPT: vertices: " + vertexCount + " states: total: "
                 + statesCount + " per vertex max: " + maxSize + " avg: "
-                + (statesCount * 1.0 / stateSets.size()));
+                + (statesCount * 1.0 / vertexCount));
         List<Integer> nStates = new ArrayList<Integer>(histogram.elementSet());
         Collections.sort(nStates);
         for (Integer nState : nStates) {
@@ -128,6 +132,16 @@ public class ShortestPathTree {
             return true;
         }
 
+        return addToStates(states, newState);
+    }
+
+    /**
+     * Add the new state to the list of states for a vertex, unless it is dominated by any of them.
+     * States dominated by the new state are removed from the list.
+     *
+     * @return {@code true} if the state was added
+     */
+    protected final boolean addToStates(List<State> states, State newState) {
         // if the vertex has any states that dominate the new state, don't add the state
         // if the new state dominates any old states, remove them
         Iterator<State> it = states.iterator();
@@ -155,7 +169,7 @@ public class ShortestPathTree {
      * @return a 'best' state at that vertex
      */
     public State getState(Vertex dest) {
-        Collection<State> states = stateSets.get(dest);
+        Collection<State> states = getStates(dest);
         if (states == null) {
             return null;
         }
@@ -231,7 +245,7 @@ public class ShortestPathTree {
     }
 
     public String toString() {
-        return "ShortestPathTree(" + this.stateSets.size() + " vertices)";
+        return "ShortestPathTree(" + getVertexCount() + " vertices)";
     }
 
 }
\ No newline at end of file
@@ -1,11 +1,14 @@
 package org.opentripplanner.routing.stoptimes;
 
 import com.google.common.collect.MinMaxPriorityQueue;
+import org.opentripplanner.model.FeedScopedId;
 import org.opentripplanner.model.PickDrop;
 import org.opentripplanner.model.Stop;
 import org.opentripplanner.model.StopTimesInPattern;
 import org.opentripplanner.model.Timetable;
 import org.opentripplanner.model.TimetableSnapshot;
+import org.opentripplanner.model.TimetableStopTimesIndex;
+import org.opentripplanner.model.TimetableStopTimesIndex.SortedStopTimes;
 import org.opentripplanner.model.TripPattern;
 import org.opentripplanner.model.TripTimeOnDate;
 import org.opentripplanner.model.calendar.ServiceDate;
@@ -17,12 +20,15 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Queue;
 import java.util.stream.Collectors;
 
 import static org.opentripplanner.routing.stoptimes.ArrivalDeparture.ARRIVALS;
+import static org.opentripplanner.routing.stoptimes.ArrivalDeparture.BOTH;
 import static org.opentripplanner.routing.stoptimes.ArrivalDeparture.DEPARTURES;
 
 public class StopTimesHelper {
@@ -57,6 +63,7 @@ public class StopTimesHelper {
     List<StopTimesInPattern> result = new ArrayList<>();
     Date date = new Date(startTime * 1000);
     ServiceDate[] serviceDates = {new ServiceDate(date).previous(), new ServiceDate(date), new ServiceDate(date).next()};
+    ServiceDays serviceDays = new ServiceDays(routingService);
 
     // TODO The following logic could probably be encapsulated in the TimetableSnapshot
     Collection<TripPattern> plannedPatterns = routingService.getPatternsForStop(stop, false);
@@ -91,7 +98,8 @@ public class StopTimesHelper {
           numberOfDepartures,
           arrivalDeparture,
           includeCancelledTrips,
-          serviceDates
+          serviceDates,
+          serviceDays
       );
 
       result.addAll(getStopTimesInPattern(pattern, pq));
@@ -111,7 +119,8 @@ public class StopTimesHelper {
           numberOfDepartures,
           arrivalDeparture,
           includeCancelledTrips,
-          serviceDates
+          serviceDates,
+          serviceDays
       );
 
       result.addAll(getStopTimesInPattern(pattern, pq));
@@ -148,6 +157,7 @@ public class StopTimesHelper {
       ArrivalDeparture arrivalDeparture
   ) {
     List<StopTimesInPattern> ret = new ArrayList<>();
+    ServiceDays serviceDays = new ServiceDays(routingService);
 
     Collection<TripPattern> patternsForStop = routingService.getPatternsForStop(stop, true);
     for (TripPattern pattern : patternsForStop) {
@@ -159,9 +169,7 @@ public class StopTimesHelper {
       } else {
         tt = pattern.getScheduledTimetable();
       }
-      ServiceDay sd = new ServiceDay(routingService.getServiceCodes(), serviceDate, routingService.getCalendarService(), pattern
-          .getRoute()
-          .getAgency().getId());
+      ServiceDay sd = serviceDays.get(serviceDate, pattern);
       int sidx = 0;
       for (Stop currStop : pattern.getStopPattern().getStops()) {
         if (currStop == stop) {
@@ -217,7 +225,8 @@ public class StopTimesHelper {
         numberOfDepartures,
         arrivalDeparture,
         false,
-        serviceDates
+        serviceDates,
+        new ServiceDays(routingService)
     );
 
     return new ArrayList<>(pq);
@@ -233,17 +242,17 @@ public class StopTimesHelper {
       int numberOfDepartures,
       ArrivalDeparture arrivalDeparture,
       boolean includeCancellations,
-      ServiceDate[] serviceDates
+      ServiceDate[] serviceDates,
+      ServiceDays serviceDays
   ) {
 
-    // The bounded priority Q is used to keep a sorted short list of trip times. We can not
-    // relay on the trip times to be in order because of real-time updates. This code can
-    // probably be optimized, and the trip search in the Raptor search does almost the same
-    // thing. This is no part of a routing request, but is a used frequently in some
-    // operation like Entur for "departure boards" (apps, widgets, screens on platforms, and
-    // hotel lobbies). Setting the numberOfDepartures and timeRange to a big number for a
-    // transit hub could result in a DOS attack, but there are probably other more effective
-    // ways to do it.
+    // The bounded priority Q is used to keep a sorted short list of trip times across service
+    // dates and stop positions. For each of them the trip times are found with a binary search
+    // in the timetable stop times index, which is sorted by the realtime times. This is not part
+    // of a routing request, but is used frequently in some operation like Entur for "departure
+    // boards" (apps, widgets, screens on platforms, and hotel lobbies). Setting the
+    // numberOfDepartures and timeRange to a big number for a transit hub could result in a DOS
+    // attack, but there are probably other more effective ways to do it.
     //
     // The {@link MinMaxPriorityQueue} is marked beta, but we do not have a god alternative.
     MinMaxPriorityQueue<TripTimeOnDate> pq = MinMaxPriorityQueue
@@ -254,9 +263,7 @@ public class StopTimesHelper {
 
     // Loop through all possible days
     for (ServiceDate serviceDate : serviceDates) {
-      ServiceDay sd = new ServiceDay(routingService.getServiceCodes(), serviceDate, routingService.getCalendarService(), pattern
-          .getRoute()
-          .getAgency().getId());
+      ServiceDay sd = serviceDays.get(serviceDate, pattern);
       Timetable timetable;
       if (timetableSnapshot != null) {
         timetable = timetableSnapshot.resolve(pattern, serviceDate);
@@ -265,6 +272,8 @@ public class StopTimesHelper {
       }
 
       int secondsSinceMidnight = sd.secondsSinceMidnight(startTime);
+      int endTime = secondsSinceMidnight + timeRange;
+      TimetableStopTimesIndex stopTimesIndex = timetable.getStopTimesIndex();
       int stopIndex = 0;
       for (Stop currStop : pattern.getStopPattern().getStops()) {
         if (currStop == stop) {
@@ -272,23 +281,45 @@ public class StopTimesHelper {
           if (skipByPickUpDropOff(pattern, arrivalDeparture, stopIndex)) { continue; }
           if (skipByStopCancellation(pattern, includeCancellations, stopIndex)) { continue; }
 
-          for (TripTimes tripTimes : timetable.getTripTimes()) {
-            if (!sd.serviceRunning(tripTimes.getServiceCode())) { continue; }
-            if (skipByTripCancellation(tripTimes, includeCancellations)) { continue; }
+          // ARRIVAL: Arrival time has to be within range
+          // DEPARTURES: Departure time has to be within range
+          // BOTH: Either arrival time or departure time has to be within range
+          if (arrivalDeparture != ARRIVALS) {
+            SortedStopTimes departures = stopTimesIndex.departures(stopIndex);
+
+            // The queue is ordered by departure time, so no later trip can be part of the result
+            // when enough trips are found. This is not the case if the realtime departure time of
+            // a cancelled stop is replaced by the scheduled time.
+            boolean inQueueOrder = arrivalDeparture == DEPARTURES
+                && !departures.hasCancelledStop()
+                && !isCancelledStop(pattern, stopIndex);
+            int found = 0;
+
+            for (int i = departures.indexOfFirstAtOrAfter(secondsSinceMidnight);
+                i < departures.size() && departures.time(i) <= endTime; ++i) {
+              TripTimes tripTimes = departures.tripTimes(i);
+              if (!sd.serviceRunning(tripTimes.getServiceCode())) { continue; }
+              if (skipByTripCancellation(tripTimes, includeCancellations)) { continue; }
 
-            boolean departureTimeInRange =
-                tripTimes.getDepartureTime(stopIndex) >= secondsSinceMidnight
-                    && tripTimes.getDepartureTime(stopIndex) <= secondsSinceMidnight + timeRange;
-
-            boolean arrivalTimeInRange =
-                tripTimes.getArrivalTime(stopIndex) >= secondsSinceMidnight
-                    && tripTimes.getArrivalTime(stopIndex) <= secondsSinceMidnight + timeRange;
-
-            // ARRIVAL: Arrival time has to be within range
-            // DEPARTURES: Departure time has to be within range
-            // BOTH: Either arrival time or departure time has to be within range
-            if ((arrivalDeparture != ARRIVALS && departureTimeInRange)
-                || (arrivalDeparture != DEPARTURES && arrivalTimeInRange)) {
+              pq.add(new TripTimeOnDate(tripTimes, stopIndex, pattern, sd));
+              if (inQueueOrder && ++found == numberOfDepartures) { break; }
+            }
+          }
+          if (arrivalDeparture != DEPARTURES) {
+            SortedStopTimes arrivals = stopTimesIndex.arrivals(stopIndex);
+
+            for (int i = arrivals.indexOfFirstAtOrAfter(secondsSinceMidnight);
+                i < arrivals.size() && arrivals.time(i) <= endTime; ++i) {
+              TripTimes tripTimes = arrivals.tripTimes(i);
+              if (!sd.serviceRunning(tripTimes.getServiceCode())) { continue; }
+              if (skipByTripCancellation(tripTimes, includeCancellations)) { continue; }
+
+              // BOTH: The trips departing within range are already added
+              int departureTime = tripTimes.getDepartureTime(stopIndex);
+              if (arrivalDeparture == BOTH
+                  && departureTime >= secondsSinceMidnight && departureTime <= endTime) {
+                continue;
+              }
               pq.add(new TripTimeOnDate(tripTimes, stopIndex, pattern, sd));
             }
           }
@@ -322,6 +353,11 @@ public class StopTimesHelper {
     return false;
   }
 
+  private static boolean isCancelledStop(TripPattern pattern, int stopIndex) {
+    return pattern.getStopPattern().getPickup(stopIndex) == PickDrop.CANCELLED
+        && pattern.getStopPattern().getDropoff(stopIndex) == PickDrop.CANCELLED;
+  }
+
   private static boolean skipByStopCancellation(
       TripPattern pattern, boolean includeCancelledTrips, int stopIndex
   ) {
@@ -330,4 +366,32 @@ public class StopTimesHelper {
 
     return (pickupCancelled || dropOffCancelled) && !includeCancelledTrips;
   }
+
+  /**
+   * The service days of a search by service date and agency. Creating a service day looks up the
+   * services running on the date, so it is done once for each agency instead of for each pattern.
+   */
+  private static class ServiceDays {
+
+    private final RoutingService routingService;
+    private final Map<ServiceDate, Map<FeedScopedId, ServiceDay>> serviceDays = new HashMap<>();
+
+    private ServiceDays(RoutingService routingService) {
+      this.routingService = routingService;
+    }
+
+    private ServiceDay get(ServiceDate serviceDate, TripPattern pattern) {
+      return serviceDays
+          .computeIfAbsent(serviceDate, d -> new HashMap<>())
+          .computeIfAbsent(
+              pattern.getRoute().getAgency().getId(),
+              agencyId -> new ServiceDay(
+                  routingService.getServiceCodes(),
+                  serviceDate,
+                  routingService.getCalendarService(),
+                  agencyId
+              )
+          );
+    }
+  }
 }
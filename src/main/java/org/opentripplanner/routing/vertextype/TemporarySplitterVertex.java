@@ -16,6 +16,8 @@ public class TemporarySplitterVertex extends SplitterVertex implements Temporary
 
     final private boolean endVertex;
 
+    private boolean realtime = false;
+
     public TemporarySplitterVertex(String label, double x, double y, StreetEdge streetEdge, boolean endVertex) {
         super(null, label, x, y, streetEdge);
         this.endVertex = endVertex;
@@ -39,6 +41,19 @@ public class TemporarySplitterVertex extends SplitterVertex implements Temporary
         return endVertex;
     }
 
+    @Override
+    public boolean isRealtime() {
+        return realtime;
+    }
+
+    /**
+     * Mark the vertex as shared by all requests. This must be done before any edges are connected
+     * to it.
+     */
+    public void setRealtime(boolean realtime) {
+        this.realtime = realtime;
+    }
+
     public boolean isWheelchairAccessible() {
         return wheelchairAccessible;
     }
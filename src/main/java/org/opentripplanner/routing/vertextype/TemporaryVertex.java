@@ -12,6 +12,23 @@ import org.opentripplanner.routing.graph.Vertex;
 public interface TemporaryVertex {
     boolean isEndVertex();
 
+    /**
+     * Return {@code true} if the vertex was created when linking realtime data, like a vehicle
+     * rental station, to the streets. These vertices are shared by all requests, like the vertices
+     * of the main graph.
+     */
+    default boolean isRealtime() {
+        return false;
+    }
+
+    /**
+     * Return {@code true} if the vertex is a temporary vertex created for a single request. The
+     * temporary edges of a request are only added to these vertices.
+     */
+    static boolean isRequestVertex(Vertex vertex) {
+        return vertex instanceof TemporaryVertex && !((TemporaryVertex) vertex).isRealtime();
+    }
+
     /**
      * This method traverse the subgraph of temporary vertices, and cuts that subgraph off from the
      * main graph at each point it encounters a non-temporary vertexes. OTP then holds no
@@ -93,11 +93,16 @@ class TemporaryVertexDispose {
      * @param incoming true if the edge is an incoming edge, false if it is an outgoing edge
      */
     private void removeEdgeFromMainGraphVertex(Vertex v, Edge connectedEdge, boolean incoming) {
+        // Temporary edges are usually not added to the main graph vertices, see Edge
         if(incoming) {
-            v.removeIncoming(connectedEdge);
+            if(v.getIncoming().contains(connectedEdge)) {
+                v.removeIncoming(connectedEdge);
+            }
         }
         else {
-            v.removeOutgoing(connectedEdge);
+            if(v.getOutgoing().contains(connectedEdge)) {
+                v.removeOutgoing(connectedEdge);
+            }
         }
     }
 
@@ -208,6 +208,18 @@ public class BuildConfig {
      */
     public final Boolean extraEdgesStopPlatformLink;
 
+    /**
+     * Calculate the driving times between the vertices used by flex trips when building the graph,
+     * instead of searching the street network for each flex access and egress.
+     */
+    public final boolean flexTravelTimeMatrix;
+
+    /**
+     * The maximum number of origin and destination pairs in the flex travel time matrix. The
+     * matrix is not built if the estimated number of pairs is larger.
+     */
+    public final long flexTravelTimeMatrixMaxSize;
+
     /**
      * The distance between elevation samples in meters. Defaults to 10m, the approximate resolution of 1/3
      * arc-second NED data. This should not be smaller than the horizontal resolution of the height data used.
@@ -325,6 +337,8 @@ public class BuildConfig {
         elevationUnitMultiplier = c.asDouble("elevationUnitMultiplier", 1);
         embedRouterConfig = c.asBoolean("embedRouterConfig", true);
         extraEdgesStopPlatformLink = c.asBoolean("extraEdgesStopPlatformLink", false);
+        flexTravelTimeMatrix = c.asBoolean("flexTravelTimeMatrix", false);
+        flexTravelTimeMatrixMaxSize = c.asLong("flexTravelTimeMatrixMaxSize", 10_000_000);
         includeEllipsoidToGeoidDifference = c.asBoolean("includeEllipsoidToGeoidDifference", false);
         pruningThresholdIslandWithStops = c.asInt("islandWithStopsMaxSize", 5);
         pruningThresholdIslandWithoutStops = c.asInt("islandWithoutStopsMaxSize", 40);
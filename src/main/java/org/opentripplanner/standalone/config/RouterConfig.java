@@ -19,6 +19,7 @@ import static org.opentripplanner.standalone.config.RoutingRequestMapper.mapRout
 public class RouterConfig implements Serializable {
 
     private static final double DEFAULT_STREET_ROUTING_TIMEOUT = 5.0;
+    private static final double DEFAULT_STREET_ROUTING_PHASE_TIMEOUT = 30.0;
     private static final Logger LOG = LoggerFactory.getLogger(RouterConfig.class);
 
     public static final RouterConfig DEFAULT = new RouterConfig(
@@ -33,6 +34,8 @@ public class RouterConfig implements Serializable {
     private final String requestLogFile;
     private final boolean transmodelApiHideFeedId;
     private final double streetRoutingTimeoutSeconds;
+    private final int streetRoutingThreadPoolSize;
+    private final double streetRoutingPhaseTimeoutSeconds;
     private final RoutingRequest routingRequestDefaults;
     private final TransitRoutingConfig transitConfig;
     private final UpdatersParameters updatersParameters;
@@ -47,6 +50,10 @@ public class RouterConfig implements Serializable {
         this.streetRoutingTimeoutSeconds = adapter.asDouble(
                 "streetRoutingTimeout", DEFAULT_STREET_ROUTING_TIMEOUT
         );
+        this.streetRoutingThreadPoolSize = adapter.asInt("streetRoutingThreadPoolSize", 0);
+        this.streetRoutingPhaseTimeoutSeconds = adapter.asDouble(
+                "streetRoutingPhaseTimeout", DEFAULT_STREET_ROUTING_PHASE_TIMEOUT
+        );
         this.transitConfig = new TransitRoutingConfig(adapter.path("transit"));
         this.routingRequestDefaults = mapRoutingRequest(adapter.path("routingDefaults"));
         this.updatersParameters = new UpdatersConfig(adapter);
@@ -88,6 +95,25 @@ public class RouterConfig implements Serializable {
         return streetRoutingTimeoutSeconds;
     }
 
+    /**
+     * The direct street search, the access and egress searches and the trip pattern filtering
+     * are independent of each other and can run in parallel. This is the total number of
+     * threads available for these phases across all requests. If 0, no extra threads are
+     * started and the phases run one after another in the request thread.
+     */
+    public int streetRoutingThreadPoolSize() {
+        return streetRoutingThreadPoolSize;
+    }
+
+    /**
+     * The maximum time to wait for a direct street or access/egress search running in parallel.
+     * If a search does not complete in time, it is cancelled and no results are used from it.
+     * This only apply if the {@link #streetRoutingThreadPoolSize()} is greater than 0.
+     */
+    public double streetRoutingPhaseTimeoutSeconds() {
+        return streetRoutingPhaseTimeoutSeconds;
+    }
+
     public boolean transmodelApiHideFeedId() { return transmodelApiHideFeedId; }
 
     public RoutingRequest routingRequestDefaults() {
@@ -5,6 +5,8 @@ import org.opentripplanner.model.StopTransferPriority;
 import org.opentripplanner.routing.algorithm.raptor.transit.TransitTuningParameters;
 import org.opentripplanner.transit.raptor.api.request.DynamicSearchWindowCoefficients;
 import org.opentripplanner.transit.raptor.api.request.RaptorTuningParameters;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * @see RaptorTuningParameters for documentaion of tuning parameters.
@@ -15,11 +17,16 @@ public final class TransitRoutingConfig
         TransitTuningParameters
 {
 
+    private static final Logger LOG = LoggerFactory.getLogger(TransitRoutingConfig.class);
+
     private final int maxNumberOfTransfers;
     private final int scheduledTripBinarySearchThreshold;
     private final int iterationDepartureStepInSeconds;
     private final int searchThreadPoolSize;
-    private final int transferCacheMaxSize;
+    private final int transferCacheMaxMemoryMegabytes;
+    private final int tripPatternCacheMaxSize;
+    private final int transitLayerWindowDays;
+    private final int transitLayerDateCacheMaxSize;
     private final Map<StopTransferPriority, Integer> stopTransferCost;
     private final DynamicSearchWindowCoefficients dynamicSearchWindowCoefficients;
 
@@ -51,9 +58,30 @@ public final class TransitRoutingConfig
             StopTransferPriority.class,
             NodeAdapter::asInt
         );
-        this.transferCacheMaxSize = c.asInt(
-                "transferCacheMaxSize",
-                25
+        if (c.exist("transferCacheMaxSize")) {
+            // Read the value, so the parameter is not reported as unused
+            c.asInt("transferCacheMaxSize", 0);
+            LOG.warn(
+                "The transit parameter 'transferCacheMaxSize' is deprecated and ignored, the "
+                + "transfer cache is limited by 'transferCacheMaxMemoryMegabytes' instead. Source: {}",
+                c.getSource()
+            );
+        }
+        this.transferCacheMaxMemoryMegabytes = c.asInt(
+                "transferCacheMaxMemoryMegabytes",
+                TransitTuningParameters.DEFAULT_TRANSFER_CACHE_MAX_MEMORY_MEGABYTES
+        );
+        this.tripPatternCacheMaxSize = c.asInt(
+                "tripPatternCacheMaxSize",
+                TransitTuningParameters.DEFAULT_TRIP_PATTERN_CACHE_MAX_SIZE
+        );
+        this.transitLayerWindowDays = c.asInt(
+                "transitLayerWindowDays",
+                8
+        );
+        this.transitLayerDateCacheMaxSize = c.asInt(
+                "transitLayerDateCacheMaxSize",
+                7
         );
     }
 
@@ -93,8 +121,23 @@ public final class TransitRoutingConfig
     }
 
     @Override
-    public int transferCacheMaxSize() {
-        return transferCacheMaxSize;
+    public int transferCacheMaxMemoryMegabytes() {
+        return transferCacheMaxMemoryMegabytes;
+    }
+
+    @Override
+    public int tripPatternCacheMaxSize() {
+        return tripPatternCacheMaxSize;
+    }
+
+    @Override
+    public int transitLayerWindowDays() {
+        return transitLayerWindowDays;
+    }
+
+    @Override
+    public int transitLayerDateCacheMaxSize() {
+        return transitLayerDateCacheMaxSize;
     }
 
     private static class DynamicSearchWindowConfig
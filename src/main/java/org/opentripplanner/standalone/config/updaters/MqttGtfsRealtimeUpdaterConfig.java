@@ -11,7 +11,9 @@ public class MqttGtfsRealtimeUpdaterConfig {
         c.asText("url"),
         c.asText("topic"),
         c.asInt("qos", 0),
-        c.asBoolean("fuzzyTripMatching", false)
+        c.asBoolean("fuzzyTripMatching", false),
+        c.asInt("batchWindowMs", 1000),
+        c.asInt("maxBatchSize", 1000)
     );
   }
 }
@@ -13,7 +13,9 @@ public class SiriETGooglePubsubUpdaterConfig {
         c.asText("topicName"),
         c.asText("dataInitializationUrl", null),
         c.asInt("reconnectPeriodSec", 30),
-        c.asBoolean("purgeExpiredData", false)
+        c.asBoolean("purgeExpiredData", false),
+        c.asInt("batchWindowMs", 1000),
+        c.asInt("maxBatchSize", 1000)
     );
   }
 }
@@ -9,7 +9,9 @@ public class WebsocketGtfsRealtimeUpdaterConfig {
         configRef,
         c.asText("feedId", null),
         c.asText("url", null),
-        c.asInt("reconnectPeriodSec", 60)
+        c.asInt("reconnectPeriodSec", 60),
+        c.asInt("batchWindowMs", 1000),
+        c.asInt("maxBatchSize", 1000)
     );
   }
 }
\ No newline at end of file
@@ -1,5 +1,8 @@
 package org.opentripplanner.standalone.configure;
 
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
 import org.opentripplanner.datastore.DataSource;
 import org.opentripplanner.datastore.OtpDataStore;
 import org.opentripplanner.datastore.configure.DataStoreFactory;
@@ -51,6 +54,7 @@ public class OTPAppConstruction {
     public OTPAppConstruction(CommandLineParameters commandLineParameters) {
         this.config = new OTPConfiguration(commandLineParameters);
         initializeOtpFeatures();
+        initializeMetrics();
     }
 
     /**
@@ -144,6 +148,17 @@ public class OTPAppConstruction {
         OTPFeature.logFeatureSetup();
     }
 
+    /**
+     * The metrics are always recorded in the global registry, but without any registry attached
+     * nothing is kept. Attach a Prometheus registry if the ActuatorAPI is enabled, it is scraped
+     * by the actuator prometheus endpoint.
+     */
+    private void initializeMetrics() {
+        if (OTPFeature.ActuatorAPI.isOn()) {
+            Metrics.addRegistry(new PrometheusMeterRegistry(PrometheusConfig.DEFAULT));
+        }
+    }
+
     private Application createApplication(Router router) {
         return new OTPApplication(server(router));
     }
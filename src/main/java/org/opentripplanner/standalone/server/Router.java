@@ -12,6 +12,7 @@ import org.opentripplanner.routing.algorithm.raptor.transit.TripSchedule;
 import org.opentripplanner.routing.algorithm.raptor.transit.mappers.TransitLayerMapper;
 import org.opentripplanner.routing.algorithm.raptor.transit.mappers.TransitLayerUpdater;
 import org.opentripplanner.routing.api.request.RoutingRequest;
+import org.opentripplanner.routing.framework.RoutingPhaseExecutor;
 import org.opentripplanner.routing.graph.Graph;
 import org.opentripplanner.standalone.config.RouterConfig;
 import org.opentripplanner.transit.raptor.rangeraptor.configure.RaptorConfig;
@@ -32,6 +33,7 @@ public class Router {
     public final Graph graph;
     public final RouterConfig routerConfig;
     public final RaptorConfig<TripSchedule> raptorConfig;
+    public final RoutingPhaseExecutor routingPhaseExecutor;
 
     /**
      *  Separate logger for incoming requests. This should be handled with a Logback logger
@@ -58,6 +60,10 @@ public class Router {
         this.graph = graph;
         this.routerConfig = routerConfig;
         this.raptorConfig = new RaptorConfig<>(routerConfig.raptorTuningParameters());
+        this.routingPhaseExecutor = new RoutingPhaseExecutor(
+            routerConfig.streetRoutingThreadPoolSize(),
+            routerConfig.streetRoutingPhaseTimeoutSeconds()
+        );
     }
 
     /*
@@ -123,6 +129,7 @@ public class Router {
     /** Shut down this router when evicted or (auto-)reloaded. Stop any real-time updater threads. */
     public void shutdown() {
         GraphUpdaterConfigurator.shutdownGraph(this.graph);
+        routingPhaseExecutor.shutdown();
     }
 
     /**
@@ -5,6 +5,7 @@ import org.opentripplanner.transit.raptor.api.request.RaptorRequest;
 import org.opentripplanner.transit.raptor.api.response.RaptorResponse;
 import org.opentripplanner.transit.raptor.api.transit.RaptorTransitDataProvider;
 import org.opentripplanner.transit.raptor.api.transit.RaptorTripSchedule;
+import org.opentripplanner.transit.raptor.api.view.Worker;
 import org.opentripplanner.transit.raptor.rangeraptor.configure.RaptorConfig;
 import org.opentripplanner.transit.raptor.service.HeuristicSearchTask;
 import org.opentripplanner.transit.raptor.service.RangeRaptorDynamicSearch;
@@ -58,8 +59,9 @@ public class RaptorService<T extends RaptorTripSchedule> {
 
     private RaptorResponse<T> routeUsingStdWorker(RaptorTransitDataProvider<T> transitData, RaptorRequest<T> request) {
         LOG.debug("Run query: {}", request);
-        Collection<Path<T>> paths = config.createStdWorker(transitData, request).route();
+        Worker<T> worker = config.createStdWorker(transitData, request);
+        Collection<Path<T>> paths = worker.route();
         LOG.debug("Result: {}", paths);
-        return new RaptorResponse<>(paths, request, request);
+        return new RaptorResponse<>(paths, request, request, worker.statistics());
     }
 }
@@ -20,15 +20,26 @@ public class RaptorResponse<T extends RaptorTripSchedule> {
     private final Collection<Path<T>> paths;
     private final RaptorRequest<T> requestOriginal;
     private final RaptorRequest<T> requestUsed;
+    private final RaptorSearchStatistics statistics;
 
     public RaptorResponse(
             Collection<Path<T>> paths,
             RaptorRequest<T> requestOriginal,
             RaptorRequest<T> requestUsed
+    ) {
+        this(paths, requestOriginal, requestUsed, RaptorSearchStatistics.EMPTY);
+    }
+
+    public RaptorResponse(
+            Collection<Path<T>> paths,
+            RaptorRequest<T> requestOriginal,
+            RaptorRequest<T> requestUsed,
+            RaptorSearchStatistics statistics
     ) {
         this.paths = paths;
         this.requestOriginal = requestOriginal;
         this.requestUsed = requestUsed;
+        this.statistics = statistics;
     }
 
     /**
@@ -56,12 +67,20 @@ public class RaptorResponse<T extends RaptorTripSchedule> {
         return requestUsed;
     }
 
+    /**
+     * Counters collected by the worker performing the main search.
+     */
+    public RaptorSearchStatistics statistics() {
+        return statistics;
+    }
+
     @Override
     public String toString() {
         return ToStringBuilder.of(RaptorResponse.class)
             .addObj("paths", paths)
             .addObj("requestOriginal", requestOriginal)
             .addObj("requestUsed", requestUsed)
+            .addObj("statistics", statistics)
             .toString();
     }
 }
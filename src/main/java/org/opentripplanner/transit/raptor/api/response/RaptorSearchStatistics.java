@@ -0,0 +1,66 @@
+package org.opentripplanner.transit.raptor.api.response;
+
+import org.opentripplanner.model.base.ToStringBuilder;
+
+/**
+ * Counters collected by the main worker during a Raptor search. These are used to monitor the
+ * search performance, not the heuristic searches. A worker not collecting a counter set it to 0,
+ * except the pareto set size which is {@link #NOT_SET} if it is not collected.
+ */
+public class RaptorSearchStatistics {
+
+    /** The value of a counter which is not collected by the worker. */
+    public static final int NOT_SET = -1;
+
+    public static final RaptorSearchStatistics EMPTY = new RaptorSearchStatistics(0, 0, 0, NOT_SET);
+
+    private final int iterations;
+    private final int rounds;
+    private final long stopArrivals;
+    private final int maxStopArrivalsParetoSetSize;
+
+    public RaptorSearchStatistics(
+            int iterations,
+            int rounds,
+            long stopArrivals,
+            int maxStopArrivalsParetoSetSize
+    ) {
+        this.iterations = iterations;
+        this.rounds = rounds;
+        this.stopArrivals = stopArrivals;
+        this.maxStopArrivalsParetoSetSize = maxStopArrivalsParetoSetSize;
+    }
+
+    /** The number of Range Raptor iterations, one for each departure minute in the search-window. */
+    public int iterations() {
+        return iterations;
+    }
+
+    /** The total number of rounds for all iterations. */
+    public int rounds() {
+        return rounds;
+    }
+
+    /** The number of stop arrivals accepted into the state. */
+    public long stopArrivals() {
+        return stopArrivals;
+    }
+
+    /**
+     * The largest size of any stop arrival pareto set during the search. This is only collected
+     * by the multi-criteria search, {@link #NOT_SET} otherwise.
+     */
+    public int maxStopArrivalsParetoSetSize() {
+        return maxStopArrivalsParetoSetSize;
+    }
+
+    @Override
+    public String toString() {
+        return ToStringBuilder.of(RaptorSearchStatistics.class)
+            .addNum("iterations", iterations)
+            .addNum("rounds", rounds)
+            .addNum("stopArrivals", stopArrivals)
+            .addNum("maxStopArrivalsParetoSetSize", maxStopArrivalsParetoSetSize)
+            .toString();
+    }
+}
@@ -24,4 +24,26 @@ public interface RaptorTimeTable<T extends RaptorTripSchedule> {
      * Number of trips in time-table.
      */
     int numberOfTripSchedules();
+
+    /**
+     * The departure time for the trip with the given index at the given stop position. This is
+     * the same as {@code getTripSchedule(tripIndex).departure(stopPositionInPattern)}, but the
+     * implementation can override this to avoid creating a trip schedule instance for each
+     * lookup. The trip search uses this to find the trip to board, and only retrieve the trip
+     * schedule for the trip found.
+     * <p/>
+     * This method needs to be FAST - it is in the most critical line of execution in Raptor.
+     */
+    default int departureTime(int tripIndex, int stopPositionInPattern) {
+        return getTripSchedule(tripIndex).departure(stopPositionInPattern);
+    }
+
+    /**
+     * The arrival time for the trip with the given index at the given stop position.
+     *
+     * @see #departureTime(int, int)
+     */
+    default int arrivalTime(int tripIndex, int stopPositionInPattern) {
+        return getTripSchedule(tripIndex).arrival(stopPositionInPattern);
+    }
 }
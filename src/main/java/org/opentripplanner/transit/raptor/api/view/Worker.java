@@ -2,6 +2,7 @@ package org.opentripplanner.transit.raptor.api.view;
 
 
 import org.opentripplanner.transit.raptor.api.path.Path;
+import org.opentripplanner.transit.raptor.api.response.RaptorSearchStatistics;
 import org.opentripplanner.transit.raptor.api.transit.RaptorTripSchedule;
 
 import java.util.Collection;
@@ -20,4 +21,12 @@ public interface Worker<T extends RaptorTripSchedule> {
      * the algorithm do not collect paths.
      */
     Collection<Path<T>> route();
+
+    /**
+     * Counters collected during the search, call this after {@link #route()}. Returns
+     * {@link RaptorSearchStatistics#EMPTY} by default.
+     */
+    default RaptorSearchStatistics statistics() {
+        return RaptorSearchStatistics.EMPTY;
+    }
 }
@@ -9,6 +9,7 @@ import java.util.Map;
 import java.util.function.Predicate;
 import javax.annotation.Nullable;
 import org.opentripplanner.transit.raptor.api.path.Path;
+import org.opentripplanner.transit.raptor.api.response.RaptorSearchStatistics;
 import org.opentripplanner.transit.raptor.api.transit.IntIterator;
 import org.opentripplanner.transit.raptor.api.transit.RaptorGuaranteedTransferProvider;
 import org.opentripplanner.transit.raptor.api.transit.RaptorRoute;
@@ -105,6 +106,10 @@ public final class RangeRaptorWorker<T extends RaptorTripSchedule> implements Wo
 
     private int earliestBoardTime;
 
+    private int numberOfIterations = 0;
+
+    private int numberOfRounds = 0;
+
 
     public RangeRaptorWorker(
             WorkerState<T> state,
@@ -159,6 +164,7 @@ public final class RangeRaptorWorker<T extends RaptorTripSchedule> implements Wo
                 // Run the raptor search for this particular iteration departure time
                 iterationDepartureTime = it.next();
                 lifeCycle.setupIteration(iterationDepartureTime);
+                ++numberOfIterations;
                 runRaptorForMinute();
                 inFirstIteration = false;
             }
@@ -166,6 +172,16 @@ public final class RangeRaptorWorker<T extends RaptorTripSchedule> implements Wo
         return state.extractPaths();
     }
 
+    @Override
+    public RaptorSearchStatistics statistics() {
+        return new RaptorSearchStatistics(
+                numberOfIterations,
+                numberOfRounds,
+                state.numberOfStopArrivals(),
+                state.maxStopArrivalsParetoSetSize()
+        );
+    }
+
     /**
      * Perform one minute of a RAPTOR search.
      */
@@ -174,6 +190,7 @@ public final class RangeRaptorWorker<T extends RaptorTripSchedule> implements Wo
 
         while (hasMoreRounds()) {
             lifeCycle.prepareForNextRound(roundTracker.nextRound());
+            ++numberOfRounds;
 
             // NB since we have transfer limiting not bothering to cut off search when there are no
             // more transfers as that will be rare and complicates the code
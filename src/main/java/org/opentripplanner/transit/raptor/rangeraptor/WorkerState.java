@@ -1,6 +1,7 @@
 package org.opentripplanner.transit.raptor.rangeraptor;
 
 import org.opentripplanner.transit.raptor.api.path.Path;
+import org.opentripplanner.transit.raptor.api.response.RaptorSearchStatistics;
 import org.opentripplanner.transit.raptor.api.transit.IntIterator;
 import org.opentripplanner.transit.raptor.api.transit.RaptorTransfer;
 import org.opentripplanner.transit.raptor.api.transit.RaptorTripSchedule;
@@ -57,4 +58,21 @@ public interface WorkerState<T extends RaptorTripSchedule> {
      * @return return all paths found in the search.
      */
     Collection<Path<T>> extractPaths();
+
+    /**
+     * The number of stop arrivals accepted into the state, used to monitor the search. This
+     * method is optional, returning 0 by default.
+     */
+    default long numberOfStopArrivals() {
+        return 0;
+    }
+
+    /**
+     * The largest size of any stop arrival pareto set during the search, used to monitor the
+     * search. This method is optional, returning {@link RaptorSearchStatistics#NOT_SET} by
+     * default.
+     */
+    default int maxStopArrivalsParetoSetSize() {
+        return RaptorSearchStatistics.NOT_SET;
+    }
 }
@@ -105,6 +105,16 @@ final public class McRangeRaptorWorkerState<T extends RaptorTripSchedule> implem
         }
     }
 
+    @Override
+    public long numberOfStopArrivals() {
+        return stops.numberOfStopArrivals();
+    }
+
+    @Override
+    public int maxStopArrivalsParetoSetSize() {
+        return stops.maxParetoSetSize();
+    }
+
     @Override
     public Collection<Path<T>> extractPaths() {
         stops.debugStateInfo();
@@ -33,6 +33,8 @@ public final class Stops<T extends RaptorTripSchedule> {
     private final BitSet touchedStops;
     private final DebugHandlerFactory<T> debugHandlerFactory;
     private final DebugStopArrivalsStatistics debugStats;
+    private long numberOfStopArrivals = 0;
+    private int maxParetoSetSize = 0;
 
     /**
      * Set the time at a transit index iff it is optimal. This sets both the best time and the transfer time
@@ -70,12 +72,25 @@ public final class Stops<T extends RaptorTripSchedule> {
     }
 
     void addStopArrival(AbstractStopArrival<T> arrival) {
-        boolean added = findOrCreateSet(arrival.stop()).add(arrival);
+        StopArrivalParetoSet<T> set = findOrCreateSet(arrival.stop());
+        boolean added = set.add(arrival);
         if (added) {
             touchedStops.set(arrival.stop());
+            ++numberOfStopArrivals;
+            // Dominated arrivals are removed from the set, so the size is tracked when it grows
+            maxParetoSetSize = Math.max(maxParetoSetSize, set.size());
         }
     }
 
+    long numberOfStopArrivals() {
+        return numberOfStopArrivals;
+    }
+
+    /** The largest size of any stop arrival pareto set during the search. */
+    int maxParetoSetSize() {
+        return maxParetoSetSize;
+    }
+
     void debugStateInfo() {
         debugStats.debugStatInfo(stops);
     }
@@ -53,6 +53,8 @@ public final class StdRangeRaptorWorkerState<T extends RaptorTripSchedule>
      */
     private final TransitCalculator<T> calculator;
 
+    private long numberOfStopArrivals = 0;
+
     /**
      * create a BestTimes Range Raptor State for given context.
      */
@@ -126,6 +128,7 @@ public final class StdRangeRaptorWorkerState<T extends RaptorTripSchedule>
         if (newOverallBestTime(stop, arrivalTime)) {
             bestTimes.setAccessStopTime(stop, arrivalTime, accessPath.stopReachedOnBoard());
             stopArrivalsState.setAccessTime(arrivalTime, accessPath);
+            ++numberOfStopArrivals;
         }
         else {
             stopArrivalsState.rejectAccessTime(arrivalTime, accessPath);
@@ -145,6 +148,7 @@ public final class StdRangeRaptorWorkerState<T extends RaptorTripSchedule>
             // transitTimes upper bounds bestTimes
             final boolean newBestOverall = newOverallBestTime(stop, arrivalTime);
             stopArrivalsState.setNewBestTransitTime(stop, arrivalTime, trip, boardStop, boardTime, newBestOverall);
+            ++numberOfStopArrivals;
         } else {
             stopArrivalsState.rejectNewBestTransitTime(stop, arrivalTime, trip, boardStop, boardTime);
         }
@@ -171,6 +175,11 @@ public final class StdRangeRaptorWorkerState<T extends RaptorTripSchedule>
         return stopArrivalsState.extractPaths();
     }
 
+    @Override
+    public long numberOfStopArrivals() {
+        return numberOfStopArrivals;
+    }
+
     private void transferToStop(int arrivalTimeTransit, int fromStop, RaptorTransfer transfer) {
         // Use the calculator to make sure the calculation is done correct for a normal
         // forward search and a reverse search.
@@ -184,6 +193,7 @@ public final class StdRangeRaptorWorkerState<T extends RaptorTripSchedule>
 
         if (newOverallBestTime(toStop, arrivalTime)) {
             stopArrivalsState.setNewBestTransferTime(fromStop, arrivalTime, transfer);
+            ++numberOfStopArrivals;
         } else {
             stopArrivalsState.rejectNewBestTransferTime(fromStop, arrivalTime, transfer);
         }
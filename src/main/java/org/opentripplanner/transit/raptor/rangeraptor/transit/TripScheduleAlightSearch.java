@@ -26,6 +26,8 @@ public final class
 TripScheduleAlightSearch<T extends RaptorTripSchedule>
         implements TripScheduleSearch<T>, RaptorTripScheduleBoardOrAlightEvent<T>
 {
+    private static final int NOT_SET = -1;
+
     private final int nTripsBinarySearchThreshold;
     private final RaptorTimeTable<T> timeTable;
     private final int nTrips;
@@ -34,7 +36,7 @@ TripScheduleAlightSearch<T extends RaptorTripSchedule>
     private int stopPositionInPattern;
 
     private T candidateTrip;
-    private int candidateTripIndex;
+    private int candidateTripIndex = NOT_SET;
 
     TripScheduleAlightSearch(int scheduledTripBinarySearchThreshold, RaptorTimeTable<T> timeTable) {
         this.nTripsBinarySearchThreshold = scheduledTripBinarySearchThreshold;
@@ -85,7 +87,7 @@ TripScheduleAlightSearch<T extends RaptorTripSchedule>
         this.latestAlightTime = latestAlightTime;
         this.stopPositionInPattern = stopPositionInPattern;
         this.candidateTrip = null;
-        this.candidateTripIndex = -1;
+        this.candidateTripIndex = NOT_SET;
 
         // No previous trip is found
         if (tripIndexLowerBound == UNBOUNDED_TRIP_INDEX) {
@@ -146,21 +148,18 @@ TripScheduleAlightSearch<T extends RaptorTripSchedule>
     @Nullable
     private RaptorTripScheduleBoardOrAlightEvent<T> findBoardingSearchForwardInTime(int tripIndexLowerBound) {
         for (int i = tripIndexLowerBound; i < nTrips;  ++i) {
-            T trip = timeTable.getTripSchedule(i);
-
-            final int arrival = trip.arrival(stopPositionInPattern);
+            final int arrival = timeTable.arrivalTime(i, stopPositionInPattern);
 
             if (arrival <= latestAlightTime) {
-                candidateTrip = trip;
                 candidateTripIndex = i;
             } else {
                 // this trip arrives too early. We can break out of the loop since
                 // trips are sorted by departure time (trips in given schedule)
                 // Trips passing another trip is not accounted for if both are in service.
-                return candidateTrip == null ? null : this;
+                return acceptCandidate();
             }
         }
-        return candidateTrip == null ? null : this;
+        return acceptCandidate();
     }
 
     /**
@@ -174,14 +173,11 @@ TripScheduleAlightSearch<T extends RaptorTripSchedule>
             final int tripIndexUpperBound
     ) {
         for (int i = tripIndexUpperBound-1; i >=0; --i) {
-            T trip = timeTable.getTripSchedule(i);
-
-            final int arrival = trip.arrival(stopPositionInPattern);
+            final int arrival = timeTable.arrivalTime(i, stopPositionInPattern);
 
             if (arrival <= latestAlightTime) {
-                candidateTrip = trip;
                 candidateTripIndex = i;
-                return this;
+                return acceptCandidate();
             }
         }
         return null;
@@ -204,9 +200,7 @@ TripScheduleAlightSearch<T extends RaptorTripSchedule>
         while (upper - lower > nTripsBinarySearchThreshold) {
             int m = (lower + upper) / 2;
 
-            RaptorTripSchedule trip = timeTable.getTripSchedule(m);
-
-            int arrival = trip.arrival(stopPositionInPattern);
+            int arrival = timeTable.arrivalTime(m, stopPositionInPattern);
 
             if (arrival <= latestAlightTime) {
                 lower = m;
@@ -217,4 +211,16 @@ TripScheduleAlightSearch<T extends RaptorTripSchedule>
         }
         return lower;
     }
+
+    /**
+     * The search only operate on the trip index and times, the trip schedule is fetched from the
+     * time-table when a trip is found - this avoids creating a trip schedule object for every
+     * trip inspected.
+     */
+    @Nullable
+    private RaptorTripScheduleBoardOrAlightEvent<T> acceptCandidate() {
+        if(candidateTripIndex == NOT_SET) { return null; }
+        candidateTrip = timeTable.getTripSchedule(candidateTripIndex);
+        return this;
+    }
 }
@@ -150,20 +150,18 @@ public final class TripScheduleBoardSearch<T extends RaptorTripSchedule>
     @Nullable
     private RaptorTripScheduleBoardOrAlightEvent<T> findBoardingBySteppingBackwardsInTime(int tripIndexUpperBound) {
         for (int i = tripIndexUpperBound-1; i >= 0; --i) {
-            T trip = timeTable.getTripSchedule(i);
-            final int boardTime = trip.departure(stopPositionInPattern);
+            final int boardTime = timeTable.departureTime(i, stopPositionInPattern);
 
             if (boardTime >= earliestBoardTime) {
-                candidateTrip = trip;
                 candidateTripIndex = i;
             } else {
                 // this trip arrives too early. We can break out of the loop since
                 // trips are sorted by departure time (trips in given schedule)
                 // Trips passing another trip is not accounted for if both are in service.
-                return candidateTrip == null ? null : this;
+                return acceptCandidate();
             }
         }
-        return candidateTrip == null ? null : this;
+        return acceptCandidate();
     }
 
     /**
@@ -175,13 +173,11 @@ public final class TripScheduleBoardSearch<T extends RaptorTripSchedule>
     @Nullable
     private RaptorTripScheduleBoardOrAlightEvent<T> findBoardingBySteppingForwardInTime(final int tripIndexLowerBound) {
         for (int i = tripIndexLowerBound; i < nTrips; ++i) {
-            T trip = timeTable.getTripSchedule(i);
-            final int boardTime = trip.departure(stopPositionInPattern);
+            final int boardTime = timeTable.departureTime(i, stopPositionInPattern);
 
             if (boardTime >= earliestBoardTime) {
-                candidateTrip = trip;
                 candidateTripIndex = i;
-                return this;
+                return acceptCandidate();
             }
         }
         return null;
@@ -202,9 +198,7 @@ public final class TripScheduleBoardSearch<T extends RaptorTripSchedule>
         while (upper - lower > nTripsBinarySearchThreshold) {
             int m = (lower + upper) / 2;
 
-            RaptorTripSchedule trip = timeTable.getTripSchedule(m);
-
-            int departure = trip.departure(stopPositionInPattern);
+            int departure = timeTable.departureTime(m, stopPositionInPattern);
 
             if (departure >= earliestBoardTime) {
                 upper = m;
@@ -215,4 +209,16 @@ public final class TripScheduleBoardSearch<T extends RaptorTripSchedule>
         }
         return upper == nTrips ? nTrips : upper + 1;
     }
+
+    /**
+     * The search only operate on the trip index and times, the trip schedule is fetched from the
+     * time-table when a trip is found - this avoids creating a trip schedule object for every
+     * trip inspected.
+     */
+    @Nullable
+    private RaptorTripScheduleBoardOrAlightEvent<T> acceptCandidate() {
+        if(candidateTripIndex == NOT_SET) { return null; }
+        candidateTrip = timeTable.getTripSchedule(candidateTripIndex);
+        return this;
+    }
 }
@@ -134,7 +134,7 @@ public class RangeRaptorDynamicSearch<T extends RaptorTripSchedule> {
         Collection<Path<T>> paths = worker.route();
 
         // create and return response
-        return new RaptorResponse<>(paths, originalRequest, mcRequest);
+        return new RaptorResponse<>(paths, originalRequest, mcRequest, worker.statistics());
     }
 
     private boolean isItPossibleToRunHeuristicsInParallel() {
@@ -2,12 +2,17 @@ package org.opentripplanner.updater;
 
 import com.google.common.collect.Maps;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
 import org.opentripplanner.routing.graph.Graph;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ExecutorService;
@@ -15,6 +20,7 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * This class is attached to the graph:
@@ -25,7 +31,8 @@ import java.util.concurrent.TimeUnit;
  * 
  * Each updater will run in its own thread. When changes to the graph have to be made by these
  * updaters, this should be done via the execute method of this manager to prevent race conditions
- * between graph write operations.
+ * between graph write operations. The write operations are partitioned into
+ * {@link GraphWriterLane}s, each with its own writer thread.
  * 
  */
 public class GraphUpdaterManager {
@@ -44,14 +51,12 @@ public class GraphUpdaterManager {
 
     /**
      * OTP's multi-version concurrency control model for graph updating allows simultaneous reads,
-     * but never simultaneous writes. We ensure this policy is respected by having a single writer
-     * thread, which sequentially executes all graph updater tasks. Each task is a runnable that is
-     * scheduled with the ExecutorService to run at regular intervals.
-     * FIXME: In reality we're not using scheduleAtFixedInterval.
-     *        We're scheduling for immediate execution from separate threads that sleep in a loop.
-     *        We should perhaps switch to having polling GraphUpdaters call scheduleAtFixedInterval.
+     * but never simultaneous writes to the same data structure. We ensure this policy is respected
+     * by having one writer thread per {@link GraphWriterLane}, which sequentially executes all graph
+     * updater tasks submitted to that lane. Tasks in different lanes modify different data
+     * structures and run concurrently.
      */
-    private ScheduledExecutorService scheduler;
+    private final Map<GraphWriterLane, WriterLane> writerLanes = new EnumMap<>(GraphWriterLane.class);
 
     /**
      * A pool of threads on which the updaters will run.
@@ -82,8 +87,11 @@ public class GraphUpdaterManager {
             routerId = DEFAULT_ROUTER_ID;
         
         threadFactory = new ThreadFactoryBuilder().setNameFormat("GraphUpdater-" + routerId + "-%d").build();
-        scheduler = Executors.newSingleThreadScheduledExecutor(threadFactory);
         updaterPool = Executors.newCachedThreadPool(threadFactory);
+
+        for (GraphWriterLane lane : GraphWriterLane.values()) {
+            writerLanes.put(lane, new WriterLane(routerId, lane));
+        }
     }
 
     public GraphUpdaterManager(Graph graph, List<GraphUpdater> updaters) {
@@ -115,16 +123,20 @@ public class GraphUpdaterManager {
         }
         updaterList.clear();
 
-        // Shutdown scheduler
-        scheduler.shutdownNow();
-        try {
-            boolean ok = scheduler.awaitTermination(30, TimeUnit.SECONDS);
-            if (!ok) {
-                LOG.warn("Timeout waiting for scheduled task to finish.");
+        // Shutdown graph writers
+        for (WriterLane lane : writerLanes.values()) {
+            lane.executor.shutdownNow();
+        }
+        for (WriterLane lane : writerLanes.values()) {
+            try {
+                boolean ok = lane.executor.awaitTermination(30, TimeUnit.SECONDS);
+                if (!ok) {
+                    LOG.warn("Timeout waiting for scheduled task to finish.");
+                }
+            } catch (InterruptedException e) {
+                // This should not happen
+                LOG.warn("Interrupted while waiting for scheduled task to finish.");
             }
-        } catch (InterruptedException e) {
-            // This should not happen
-            LOG.warn("Interrupted while waiting for scheduled task to finish.");
         }
     }
 
@@ -138,21 +150,26 @@ public class GraphUpdaterManager {
     }
 
     /**
-     * This is the method to use to modify the graph from the updaters. The runnables will be
-     * scheduled after each other, guaranteeing that only one of these runnables will be active at
-     * any time. If a particular GraphUpdater calls this method on more than one GraphWriterRunnable, they should be
-     * executed in the same order that GraphUpdater made the calls.
-     * 
-     * @param runnable is a graph writer runnable
+     * Modify the graph in the {@link GraphWriterLane#GRAPH} lane.
+     *
+     * @see #execute(GraphWriterLane, GraphWriterRunnable)
      */
     public void execute(GraphWriterRunnable runnable) {
-        scheduler.submit(() -> {
-            try {
-                runnable.run(graph);
-            } catch (Exception e) {
-                LOG.error("Error while running graph writer {}:", runnable.getClass().getName(), e);
-            }
-        });
+        execute(GraphWriterLane.GRAPH, runnable);
+    }
+
+    /**
+     * This is the method to use to modify the graph from the updaters. The runnables in a lane will
+     * be scheduled after each other, guaranteeing that only one of these runnables will be active
+     * in the lane at any time. If a particular GraphUpdater calls this method on more than one
+     * GraphWriterRunnable in the same lane, they are executed in the same order that GraphUpdater
+     * made the calls.
+     *
+     * @param lane the lane of the data structure modified by the runnable
+     * @param runnable is a graph writer runnable
+     */
+    public void execute(GraphWriterLane lane, GraphWriterRunnable runnable) {
+        writerLanes.get(lane).execute(runnable);
     }
 
     public int size() {
@@ -211,4 +228,60 @@ public class GraphUpdaterManager {
         }
         return waitingUpdaters;
     }
+
+    /**
+     * A single writer thread and the metrics for one {@link GraphWriterLane}.
+     */
+    private class WriterLane {
+
+        private final ScheduledExecutorService executor;
+
+        /** The number of graph writer tasks submitted, but not yet completed. */
+        private final AtomicInteger pendingTasks = new AtomicInteger();
+
+        /** The time a graph writer task waits in the queue before it starts. */
+        private final Timer taskQueueTimer;
+
+        /** The time it takes to run a graph writer task. */
+        private final Timer taskRunTimer;
+
+        private WriterLane(String routerId, GraphWriterLane lane) {
+            executor = Executors.newSingleThreadScheduledExecutor(
+                    new ThreadFactoryBuilder()
+                            .setNameFormat("GraphWriter-" + routerId + "-" + lane.laneName())
+                            .build()
+            );
+            Tags tags = Tags.of("lane", lane.laneName());
+            taskQueueTimer = Timer.builder("graph.updater.task.queue")
+                    .tags(tags)
+                    .publishPercentileHistogram()
+                    .register(Metrics.globalRegistry);
+            taskRunTimer = Timer.builder("graph.updater.task.run")
+                    .tags(tags)
+                    .publishPercentileHistogram()
+                    .register(Metrics.globalRegistry);
+            // The gauge only keeps a weak reference to the counter
+            Gauge.builder("graph.updater.task.pending", pendingTasks, AtomicInteger::get)
+                    .tags(tags)
+                    .register(Metrics.globalRegistry);
+        }
+
+        private void execute(GraphWriterRunnable runnable) {
+            long submitted = System.nanoTime();
+            pendingTasks.incrementAndGet();
+            executor.submit(() -> {
+                long started = System.nanoTime();
+                taskQueueTimer.record(started - submitted, TimeUnit.NANOSECONDS);
+                try {
+                    runnable.run(graph);
+                } catch (Exception e) {
+                    LOG.error("Error while running graph writer {}:", runnable.getClass().getName(), e);
+                }
+                finally {
+                    taskRunTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+                    pendingTasks.decrementAndGet();
+                }
+            });
+        }
+    }
 }
@@ -0,0 +1,39 @@
+package org.opentripplanner.updater;
+
+/**
+ * The graph writer runnables are partitioned into lanes by the data structure they modify. The
+ * runnables in a lane are run one at a time in the order they are submitted, while runnables in
+ * different lanes run concurrently. Hence, a slow update of one data structure does not delay the
+ * updates of the others.
+ * <p>
+ * Two runnables modifying the same data structure must use the same lane.
+ *
+ * @see GraphUpdaterManager#execute(GraphWriterLane, GraphWriterRunnable)
+ */
+public enum GraphWriterLane {
+
+    /**
+     * Changes to the street graph and any other shared graph state not covered by the other lanes.
+     * Vehicle rental stations and bike parks are linked into the street graph, so they use this
+     * lane.
+     */
+    GRAPH,
+
+    /**
+     * Realtime trip updates. All feeds write to the same timetable snapshot buffer. SIRI ET
+     * updates also add routes and trips to the graph index, so the SIRI SX alerts, which read the
+     * index to match the alerts, use this lane too.
+     */
+    TIMETABLE,
+
+    /** GTFS-RT service alerts. */
+    ALERTS,
+
+    /** Street notes. */
+    STREET_NOTES;
+
+    /** The lane name in lower case, used for thread names and metric tags. */
+    public String laneName() {
+        return name().toLowerCase().replace('_', '-');
+    }
+}
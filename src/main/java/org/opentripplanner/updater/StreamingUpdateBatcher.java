@@ -0,0 +1,218 @@
+package org.opentripplanner.updater;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Tags;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Collects the updates received by a streaming updater, like an MQTT, websocket or Pub/Sub
+ * subscription, and applies them to the graph in batches instead of one graph writer runnable per
+ * message. A batch is submitted when the first update in it is {@code batchWindowMs} old, or when
+ * it contains {@code maxBatchSize} updates. Only one batch is submitted to the graph writer at a
+ * time, the updates received meanwhile are collected in the next batch.
+ * <p>
+ * Each update has a key, like the trip and service date it updates. A later update with the same
+ * key replaces the buffered one, so during bursts a trip is only updated once per batch. Updates
+ * without a key are all kept.
+ * <p>
+ * When the buffer is full and a batch is running, {@link #add(List, boolean)} blocks until the
+ * batch is applied. This pushes back on the subscription instead of queueing an unbounded number
+ * of messages.
+ * <p>
+ * This class is THREAD SAFE.
+ *
+ * @param <T> the type of the updates
+ */
+public class StreamingUpdateBatcher<T> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(StreamingUpdateBatcher.class);
+
+    /** Submits the batches when their time window is over. */
+    private static final ScheduledExecutorService TIMER = Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder().setNameFormat("StreamingUpdateBatcher").setDaemon(true).build()
+    );
+
+    /** Creates the graph writer runnable applying a batch. */
+    public interface BatchWriter<T> {
+
+        /**
+         * @param updates     the updates of the batch, in the order they were received
+         * @param fullDataset true if the updates replace all previous updates of the feed
+         */
+        GraphWriterRunnable createWriter(List<T> updates, boolean fullDataset);
+    }
+
+    private final GraphUpdaterManager updaterManager;
+
+    private final GraphWriterLane lane;
+
+    private final long batchWindowNanos;
+
+    private final int maxBatchSize;
+
+    private final Function<T, Object> keyFunction;
+
+    private final BatchWriter<T> batchWriter;
+
+    private final DistributionSummary batchSize;
+
+    private final Counter replacedUpdates;
+
+    /** The updates of the next batch by key. Guarded by this. */
+    private LinkedHashMap<Object, T> buffer = new LinkedHashMap<>();
+
+    /** True if the next batch contains a full dataset. Guarded by this. */
+    private boolean fullDataset = false;
+
+    /** Completed when the next batch is applied, one for each message. Guarded by this. */
+    private List<CompletableFuture<Void>> pending = new ArrayList<>();
+
+    /** The time the next batch should be submitted. Guarded by this. */
+    private long deadline;
+
+    /** True while a batch is submitted to the graph writer, but not yet applied. Guarded by this. */
+    private boolean batchRunning = false;
+
+    /**
+     * @param name           the name of the updater, used to tag the metrics
+     * @param batchWindowMs  the maximum time an update is buffered before it is submitted
+     * @param maxBatchSize   the number of updates which are submitted at once without waiting
+     * @param keyFunction    the key of an update, a later update with the same key replaces it.
+     *                       If {@code null} is returned the update is never replaced.
+     */
+    public StreamingUpdateBatcher(
+            String name,
+            GraphUpdaterManager updaterManager,
+            GraphWriterLane lane,
+            int batchWindowMs,
+            int maxBatchSize,
+            Function<T, Object> keyFunction,
+            BatchWriter<T> batchWriter
+    ) {
+        this.updaterManager = updaterManager;
+        this.lane = lane;
+        this.batchWindowNanos = TimeUnit.MILLISECONDS.toNanos(batchWindowMs);
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.keyFunction = keyFunction;
+        this.batchWriter = batchWriter;
+
+        Tags tags = Tags.of("updater", name == null ? "" : name);
+        this.batchSize = DistributionSummary.builder("graph.updater.batch.size")
+                .tags(tags)
+                .register(Metrics.globalRegistry);
+        this.replacedUpdates = Counter.builder("graph.updater.batch.replaced")
+                .tags(tags)
+                .register(Metrics.globalRegistry);
+    }
+
+    /**
+     * Add the updates of a message to the next batch.
+     *
+     * @param updates     the updates of the message
+     * @param fullDataset true if the updates replace all previous updates of the feed. The buffered
+     *                    updates are dropped, and the next batch is applied as a full dataset.
+     * @return a future which is completed when the batch with the updates is applied, or completed
+     *         exceptionally if it failed
+     * @throws InterruptedException if interrupted while waiting for a full batch to be applied
+     */
+    public CompletableFuture<Void> add(List<T> updates, boolean fullDataset)
+            throws InterruptedException {
+        CompletableFuture<Void> applied = new CompletableFuture<>();
+        synchronized (this) {
+            while (batchRunning && buffer.size() >= maxBatchSize) {
+                wait();
+            }
+
+            if (pending.isEmpty()) {
+                deadline = System.nanoTime() + batchWindowNanos;
+                TIMER.schedule(this::submitIfDue, batchWindowNanos, TimeUnit.NANOSECONDS);
+            }
+            if (fullDataset) {
+                replacedUpdates.increment(buffer.size());
+                buffer.clear();
+                this.fullDataset = true;
+            }
+            for (T update : updates) {
+                Object key = keyFunction.apply(update);
+                if (key == null) {
+                    key = new Object();
+                }
+                if (buffer.remove(key) != null) {
+                    replacedUpdates.increment();
+                }
+                buffer.put(key, update);
+            }
+            pending.add(applied);
+
+            if (buffer.size() >= maxBatchSize) {
+                submit();
+            }
+        }
+        return applied;
+    }
+
+    private synchronized void submitIfDue() {
+        if (System.nanoTime() - deadline >= 0) {
+            submit();
+        }
+    }
+
+    /** Submit the buffered updates, unless a batch is already running. */
+    private synchronized void submit() {
+        if (batchRunning || pending.isEmpty()) {
+            return;
+        }
+
+        final List<T> updates = new ArrayList<>(buffer.values());
+        final List<CompletableFuture<Void>> applied = pending;
+        final GraphWriterRunnable writer = batchWriter.createWriter(updates, fullDataset);
+        buffer = new LinkedHashMap<>();
+        fullDataset = false;
+        pending = new ArrayList<>();
+        batchRunning = true;
+        batchSize.record(updates.size());
+        notifyAll();
+
+        try {
+            updaterManager.execute(lane, graph -> {
+                try {
+                    writer.run(graph);
+                    applied.forEach(it -> it.complete(null));
+                } catch (RuntimeException e) {
+                    applied.forEach(it -> it.completeExceptionally(e));
+                    throw e;
+                } finally {
+                    batchApplied();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            LOG.warn("Could not submit {} updates, the graph writer is shut down.", updates.size());
+            applied.forEach(it -> it.completeExceptionally(e));
+            batchRunning = false;
+            notifyAll();
+        }
+    }
+
+    private synchronized void batchApplied() {
+        batchRunning = false;
+        notifyAll();
+        // The updates received while the batch was running
+        if (buffer.size() >= maxBatchSize || System.nanoTime() - deadline >= 0) {
+            submit();
+        }
+    }
+}
@@ -14,6 +14,7 @@ import org.opentripplanner.routing.graph.Graph;
 import org.opentripplanner.updater.GraphUpdater;
 import org.opentripplanner.updater.GraphUpdaterManager;
 import org.opentripplanner.updater.GtfsRealtimeFuzzyTripMatcher;
+import org.opentripplanner.updater.StreamingUpdateBatcher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -23,8 +24,8 @@ import java.util.List;
 
 /**
  * This class starts an Paho MQTT client which opens a connection to a GTFS-RT data source.
- * A callback is registered which handles incoming GTFS-RT messages as they stream in by placing a
- * GTFS-RT decoder Runnable task in the single-threaded executor for handling.
+ * A callback is registered which handles incoming GTFS-RT messages as they stream in by adding
+ * their trip updates to a {@link StreamingUpdateBatcher}, which applies them in batches.
  *
  * Usage example in the file 'router-config.json', inside the 'updaters' array:
  *
@@ -35,7 +36,9 @@ import java.util.List;
  *   "url": "tcp://mqtt.cinfra.fi",
  *   "topic": "gtfsrt/v2/fi/hsl/tu",
  *   "feedId": "HSL",
- *   "fuzzyTripMatching": true
+ *   "fuzzyTripMatching": true,
+ *   "batchWindowMs": 1000,
+ *   "maxBatchSize": 1000
  * }
  * </pre>
  *
@@ -55,6 +58,12 @@ public class MqttGtfsRealtimeUpdater implements GraphUpdater {
 
     private final boolean fuzzyTripMatching;
 
+    private final int batchWindowMs;
+
+    private final int maxBatchSize;
+
+    private StreamingUpdateBatcher<GtfsRealtime.TripUpdate> batcher;
+
     private final String clientId = "OpenTripPlanner-" + MqttClient.generateClientId();
 
     private final String configRef;
@@ -70,11 +79,16 @@ public class MqttGtfsRealtimeUpdater implements GraphUpdater {
         this.feedId = parameters.getFeedId();
         this.qos = parameters.getQos();
         this.fuzzyTripMatching = parameters.getFuzzyTripMatching();
+        this.batchWindowMs = parameters.getBatchWindowMs();
+        this.maxBatchSize = parameters.getMaxBatchSize();
     }
 
     @Override
     public void setGraphUpdaterManager(GraphUpdaterManager updaterManager) {
         this.updaterManager = updaterManager;
+        this.batcher = TripUpdateGraphWriterRunnable.createBatcher(
+            configRef, updaterManager, batchWindowMs, maxBatchSize, feedId
+        );
     }
 
     @Override
@@ -166,12 +180,13 @@ public class MqttGtfsRealtimeUpdater implements GraphUpdater {
             }
 
             if (updates != null) {
-                // Handle trip updates via graph writer runnable
-                updaterManager.execute(new TripUpdateGraphWriterRunnable(
-                    fullDataset,
-                    updates,
-                    feedId
-                ));
+                // Handle trip updates in batches of graph writer runnables
+                try {
+                    batcher.add(updates, fullDataset);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    LOG.warn("Interrupted while waiting to apply gtfs-rt message.");
+                }
             }
         }
 
@@ -7,10 +7,18 @@ public class MqttGtfsRealtimeUpdaterParameters {
   private final String topic;
   private final int qos;
   private final boolean fuzzyTripMatching;
-
+  private final int batchWindowMs;
+  private final int maxBatchSize;
 
   public MqttGtfsRealtimeUpdaterParameters(
-      String configRef, String feedId, String url, String topic, int qos, boolean fuzzyTripMatching
+      String configRef,
+      String feedId,
+      String url,
+      String topic,
+      int qos,
+      boolean fuzzyTripMatching,
+      int batchWindowMs,
+      int maxBatchSize
   ) {
     this.configRef = configRef;
     this.feedId = feedId;
@@ -18,6 +26,8 @@ public class MqttGtfsRealtimeUpdaterParameters {
     this.topic = topic;
     this.qos = qos;
     this.fuzzyTripMatching = fuzzyTripMatching;
+    this.batchWindowMs = batchWindowMs;
+    this.maxBatchSize = maxBatchSize;
   }
 
   String getUrl() {
@@ -40,6 +50,14 @@ public class MqttGtfsRealtimeUpdaterParameters {
     return fuzzyTripMatching;
   }
 
+  int getBatchWindowMs() {
+    return batchWindowMs;
+  }
+
+  int getMaxBatchSize() {
+    return maxBatchSize;
+  }
+
   /** The config name/type for the updater. Used to reference the configuration element. */
   String getConfigRef() {
     return configRef;
@@ -4,6 +4,7 @@ import com.google.common.base.Preconditions;
 import com.google.transit.realtime.GtfsRealtime.TripDescriptor;
 import com.google.transit.realtime.GtfsRealtime.TripUpdate;
 import com.google.transit.realtime.GtfsRealtime.TripUpdate.StopTimeUpdate;
+import io.micrometer.core.instrument.Metrics;
 import org.opentripplanner.model.Agency;
 import org.opentripplanner.model.FeedScopedId;
 import org.opentripplanner.model.Route;
@@ -31,7 +32,12 @@ import java.text.ParseException;
 import java.util.ArrayList;
 import java.util.BitSet;
 import java.util.Calendar;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.TimeZone;
 import java.util.concurrent.locks.ReentrantLock;
@@ -57,6 +63,8 @@ public class TimetableSnapshotSource implements TimetableSnapshotProvider {
      */
     private static final long MAX_ARRIVAL_DEPARTURE_TIME = 48 * 60 * 60;
 
+    private static final String TRIP_UPDATES_METRIC = "realtime.trip.updates";
+
     public int logFrequency = 2000;
 
     private int appliedBlockCount = 0;
@@ -91,6 +99,15 @@ public class TimetableSnapshotSource implements TimetableSnapshotProvider {
      */
     private final TripPatternCache tripPatternCache = new TripPatternCache();
 
+    /**
+     * The trip updates of the last full dataset of each feed, without timestamps, by trip and
+     * service date. The trips of the next full dataset which are the same are not applied again,
+     * so only the timetables of changed trips are copied and indexed when a snapshot is committed.
+     * The counts of applied, unchanged and reverted trip updates are registered as the
+     * {@value #TRIP_UPDATES_METRIC} metric.
+     */
+    private final Map<String, Map<TripIdAndServiceDate, List<TripUpdate>>> lastFullDatasets = new HashMap<>();
+
     /** Should expired realtime data be purged from the graph. */
     public boolean purgeExpiredData = true;
 
@@ -167,7 +184,8 @@ public class TimetableSnapshotSource implements TimetableSnapshotProvider {
      *
      * @param graph graph to update (needed for adding/changing stop patterns)
      * @param fullDataset true iff the list with updates represent all updates that are active right
-     *        now, i.e. all previous updates should be disregarded
+     *        now, i.e. all previous updates should be disregarded. Only the trips which
+     *        changed since the previous full dataset of the feed are applied.
      * @param updates GTFS-RT TripUpdate's that should be applied atomically
      * @param feedId
      */
@@ -181,13 +199,10 @@ public class TimetableSnapshotSource implements TimetableSnapshotProvider {
         bufferLock.lock();
 
         try {
-            if (fullDataset) {
-                // Remove all updates from the buffer
-                buffer.clear(feedId);
-            }
-
             LOG.debug("message contains {} trip updates", updates.size());
-            int uIndex = 0;
+
+            // Group the updates by trip and service date, keeping the order of the updates
+            final Map<TripIdAndServiceDate, List<TripUpdate>> updatesByTrip = new LinkedHashMap<>();
             for (TripUpdate tripUpdate : updates) {
                 if (fuzzyTripMatcher != null && tripUpdate.hasTrip()) {
                     final TripDescriptor trip = fuzzyTripMatcher.match(feedId, tripUpdate.getTrip());
@@ -214,46 +229,104 @@ public class TimetableSnapshotSource implements TimetableSnapshotProvider {
                     // starts for example at 40:00, yesterday would probably be a better guess.
                 }
 
-                uIndex += 1;
-                LOG.debug("trip update #{} ({} updates) :",
-                        uIndex, tripUpdate.getStopTimeUpdateCount());
-                LOG.trace("{}", tripUpdate);
-
-                // Determine what kind of trip update this is
-                boolean applied = false;
-                final TripDescriptor.ScheduleRelationship tripScheduleRelationship = determineTripScheduleRelationship(
-                        tripUpdate);
-                switch (tripScheduleRelationship) {
-                    case SCHEDULED:
-                        applied = handleScheduledTrip(tripUpdate, feedId, serviceDate);
-                        break;
-                    case ADDED:
-                        applied = validateAndHandleAddedTrip(graph, tripUpdate, feedId, serviceDate);
-                        break;
-                    case UNSCHEDULED:
-                        applied = handleUnscheduledTrip(tripUpdate, feedId, serviceDate);
-                        break;
-                    case CANCELED:
-                        applied = handleCanceledTrip(tripUpdate, feedId, serviceDate);
-                        break;
-                    case MODIFIED:
-                        applied = validateAndHandleModifiedTrip(graph, tripUpdate, feedId, serviceDate);
-                        break;
-                }
+                final TripIdAndServiceDate trip = new TripIdAndServiceDate(
+                        new FeedScopedId(feedId, tripDescriptor.getTripId()), serviceDate);
+                updatesByTrip.computeIfAbsent(trip, t -> new ArrayList<>()).add(tripUpdate);
+            }
+
+            final Map<TripIdAndServiceDate, List<TripUpdate>> fingerprints = new HashMap<>();
+            updatesByTrip.forEach((trip, tripUpdates) -> fingerprints.put(trip, fingerprint(tripUpdates)));
 
-                if (applied) {
-                    appliedBlockCount++;
+            if (fullDataset) {
+                final Map<TripIdAndServiceDate, List<TripUpdate>> previous = lastFullDatasets.get(feedId);
+                if (previous == null) {
+                    // Remove all updates from the buffer
+                    buffer.clear(feedId);
                 } else {
-                    LOG.warn("Failed to apply TripUpdate.");
-                    LOG.trace(" Contents: {}", tripUpdate);
+                    // Only apply the trips which changed since the previous full dataset
+                    int revertedCount = 0;
+                    for (Map.Entry<TripIdAndServiceDate, List<TripUpdate>> it : previous.entrySet()) {
+                        if (!it.getValue().equals(fingerprints.get(it.getKey()))) {
+                            revertTrip(it.getKey());
+                            revertedCount++;
+                        }
+                    }
+                    int unchangedCount = 0;
+                    final Iterator<TripIdAndServiceDate> it = updatesByTrip.keySet().iterator();
+                    while (it.hasNext()) {
+                        final TripIdAndServiceDate trip = it.next();
+                        if (fingerprints.get(trip).equals(previous.get(trip))) {
+                            unchangedCount += updatesByTrip.get(trip).size();
+                            it.remove();
+                        }
+                    }
+                    LOG.debug("Full dataset has {} unchanged trip updates, {} trips reverted.",
+                            unchangedCount, revertedCount);
+                    countTripUpdates(feedId, "unchanged", unchangedCount);
+                    countTripUpdates(feedId, "reverted", revertedCount);
                 }
+            } else {
+                // The next full dataset can not be compared with the previous one, it must be
+                // applied to the buffer from scratch
+                lastFullDatasets.remove(feedId);
+            }
 
-                if (appliedBlockCount % logFrequency == 0) {
-                    LOG.info("Applied {} trip updates.", appliedBlockCount);
+            int uIndex = 0;
+            int appliedCount = 0;
+            int failedCount = 0;
+            for (Map.Entry<TripIdAndServiceDate, List<TripUpdate>> it : updatesByTrip.entrySet()) {
+                final ServiceDate serviceDate = it.getKey().serviceDate;
+                for (TripUpdate tripUpdate : it.getValue()) {
+                    uIndex += 1;
+                    LOG.debug("trip update #{} ({} updates) :",
+                            uIndex, tripUpdate.getStopTimeUpdateCount());
+                    LOG.trace("{}", tripUpdate);
+
+                    // Determine what kind of trip update this is
+                    boolean applied = false;
+                    final TripDescriptor.ScheduleRelationship tripScheduleRelationship = determineTripScheduleRelationship(
+                            tripUpdate);
+                    switch (tripScheduleRelationship) {
+                        case SCHEDULED:
+                            applied = handleScheduledTrip(tripUpdate, feedId, serviceDate);
+                            break;
+                        case ADDED:
+                            applied = validateAndHandleAddedTrip(graph, tripUpdate, feedId, serviceDate);
+                            break;
+                        case UNSCHEDULED:
+                            applied = handleUnscheduledTrip(tripUpdate, feedId, serviceDate);
+                            break;
+                        case CANCELED:
+                            applied = handleCanceledTrip(tripUpdate, feedId, serviceDate);
+                            break;
+                        case MODIFIED:
+                            applied = validateAndHandleModifiedTrip(graph, tripUpdate, feedId, serviceDate);
+                            break;
+                    }
+
+                    if (applied) {
+                        appliedBlockCount++;
+                        appliedCount++;
+                    } else {
+                        failedCount++;
+                        LOG.warn("Failed to apply TripUpdate.");
+                        LOG.trace(" Contents: {}", tripUpdate);
+                    }
+
+                    if (appliedBlockCount % logFrequency == 0) {
+                        LOG.info("Applied {} trip updates.", appliedBlockCount);
+                    }
                 }
             }
+            countTripUpdates(feedId, "applied", appliedCount);
+            countTripUpdates(feedId, "failed", failedCount);
             LOG.debug("end of update message");
 
+            // Only compare the next full dataset with this one when all of it is in the buffer
+            if (fullDataset) {
+                lastFullDatasets.put(feedId, fingerprints);
+            }
+
             // Make a snapshot after each message in anticipation of incoming requests
             // Purge data if necessary (and force new snapshot if anything was purged)
             // Make sure that the public (locking) getTimetableSnapshot function is not called.
@@ -263,12 +336,46 @@ public class TimetableSnapshotSource implements TimetableSnapshotProvider {
             } else {
                 getTimetableSnapshot(false);
             }
+        } catch (RuntimeException e) {
+            // The buffer may contain a part of the updates, the next full dataset must be applied
+            // from scratch
+            lastFullDatasets.remove(feedId);
+            throw e;
         } finally {
             // Always release lock
             bufferLock.unlock();
         }
     }
 
+    /**
+     * Revert the updates of a trip in the previous full dataset, which are not in the current one
+     * or have changed.
+     */
+    private void revertTrip(final TripIdAndServiceDate trip) {
+        final TripPattern pattern = getPatternForTripId(trip.tripId.getFeedId(), trip.tripId.getId());
+        buffer.revertTrip(trip.tripId, trip.serviceDate, pattern);
+    }
+
+    /**
+     * The trip updates without the timestamps, which change in every message even when the
+     * contents of the updates are the same.
+     */
+    private static List<TripUpdate> fingerprint(final List<TripUpdate> tripUpdates) {
+        final List<TripUpdate> fingerprint = new ArrayList<>(tripUpdates.size());
+        for (TripUpdate tripUpdate : tripUpdates) {
+            fingerprint.add(tripUpdate.hasTimestamp()
+                    ? tripUpdate.toBuilder().clearTimestamp().build()
+                    : tripUpdate);
+        }
+        return fingerprint;
+    }
+
+    private static void countTripUpdates(final String feedId, final String result, final int count) {
+        if (count > 0) {
+            Metrics.counter(TRIP_UPDATES_METRIC, "feed", feedId, "result", result).increment(count);
+        }
+    }
+
     /**
      * Determine how the trip update should be handled.
      *
@@ -983,4 +1090,30 @@ public class TimetableSnapshotSource implements TimetableSnapshotProvider {
     private Stop getStopForStopId(String feedId, String stopId) {
         return routingService.getStopForId(new FeedScopedId(feedId, stopId));
     }
+
+    /**
+     * Key of the trip updates of a full dataset, the trip id and service date they are applied to.
+     */
+    private static final class TripIdAndServiceDate {
+        private final FeedScopedId tripId;
+        private final ServiceDate serviceDate;
+
+        private TripIdAndServiceDate(final FeedScopedId tripId, final ServiceDate serviceDate) {
+            this.tripId = tripId;
+            this.serviceDate = serviceDate;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(tripId, serviceDate);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) { return true; }
+            if (obj == null || getClass() != obj.getClass()) { return false; }
+            TripIdAndServiceDate other = (TripIdAndServiceDate) obj;
+            return tripId.equals(other.tripId) && serviceDate.equals(other.serviceDate);
+        }
+    }
 }
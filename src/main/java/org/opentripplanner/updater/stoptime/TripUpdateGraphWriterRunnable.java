@@ -3,7 +3,10 @@ package org.opentripplanner.updater.stoptime;
 import com.google.common.base.Preconditions;
 import com.google.transit.realtime.GtfsRealtime.TripUpdate;
 import org.opentripplanner.routing.graph.Graph;
+import org.opentripplanner.updater.GraphUpdaterManager;
+import org.opentripplanner.updater.GraphWriterLane;
 import org.opentripplanner.updater.GraphWriterRunnable;
+import org.opentripplanner.updater.StreamingUpdateBatcher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -36,6 +39,36 @@ class TripUpdateGraphWriterRunnable implements GraphWriterRunnable {
         this.feedId = feedId;
     }
 
+    /**
+     * Create a batcher for a streaming updater, which applies the trip updates of a feed in
+     * batches. Only the last update of each trip and start date in a batch is applied.
+     */
+    static StreamingUpdateBatcher<TripUpdate> createBatcher(
+            final String configRef,
+            final GraphUpdaterManager updaterManager,
+            final int batchWindowMs,
+            final int maxBatchSize,
+            final String feedId
+    ) {
+        return new StreamingUpdateBatcher<>(
+                configRef,
+                updaterManager,
+                GraphWriterLane.TIMETABLE,
+                batchWindowMs,
+                maxBatchSize,
+                TripUpdateGraphWriterRunnable::tripKey,
+                (updates, fullDataset) -> new TripUpdateGraphWriterRunnable(fullDataset, updates, feedId)
+        );
+    }
+
+    /** The trip id and start date of the update, or null if it has no trip id. */
+    private static Object tripKey(final TripUpdate tripUpdate) {
+        if (!tripUpdate.hasTrip() || !tripUpdate.getTrip().hasTripId()) {
+            return null;
+        }
+        return List.of(tripUpdate.getTrip().getTripId(), tripUpdate.getTrip().getStartDate());
+    }
+
     @Override
     public void run(Graph graph) {
         // Apply updates to graph using realtime snapshot source. The source is retrieved from the graph using the
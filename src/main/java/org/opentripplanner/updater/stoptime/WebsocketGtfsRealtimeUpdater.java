@@ -13,6 +13,7 @@ import com.ning.http.client.websocket.WebSocketUpgradeHandler;
 import org.opentripplanner.routing.graph.Graph;
 import org.opentripplanner.updater.GraphUpdater;
 import org.opentripplanner.updater.GraphUpdaterManager;
+import org.opentripplanner.updater.StreamingUpdateBatcher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -22,8 +23,8 @@ import java.util.concurrent.ExecutionException;
 
 /**
  * This class starts an HTTP client which opens a websocket connection to a GTFS-RT data source. A
- * callback is registered which handles incoming GTFS-RT messages as they stream in by placing a
- * GTFS-RT decoder Runnable task in the single-threaded executor for handling.
+ * callback is registered which handles incoming GTFS-RT messages as they stream in by adding their
+ * trip updates to a {@link StreamingUpdateBatcher}, which applies them in batches.
  *
  * <pre>
  * websocket.type = websocket-gtfs-rt-updater
@@ -60,6 +61,21 @@ public class WebsocketGtfsRealtimeUpdater implements GraphUpdater {
      */
     private final int reconnectPeriodSec;
 
+    /**
+     * The maximum number of milliseconds a trip update is buffered before it is applied.
+     */
+    private final int batchWindowMs;
+
+    /**
+     * The number of buffered trip updates which are applied without waiting.
+     */
+    private final int maxBatchSize;
+
+    /**
+     * Applies the trip updates in batches.
+     */
+    private StreamingUpdateBatcher<TripUpdate> batcher;
+
     private final String configRef;
 
     public WebsocketGtfsRealtimeUpdater(WebsocketGtfsRealtimeUpdaterParameters parameters) {
@@ -67,11 +83,16 @@ public class WebsocketGtfsRealtimeUpdater implements GraphUpdater {
         this.url = parameters.getUrl();
         this.feedId = parameters.getFeedId();
         this.reconnectPeriodSec = parameters.getReconnectPeriodSec();
+        this.batchWindowMs = parameters.getBatchWindowMs();
+        this.maxBatchSize = parameters.getMaxBatchSize();
     }
 
     @Override
     public void setGraphUpdaterManager(GraphUpdaterManager updaterManager) {
         this.updaterManager = updaterManager;
+        this.batcher = TripUpdateGraphWriterRunnable.createBatcher(
+                configRef, updaterManager, batchWindowMs, maxBatchSize, feedId
+        );
     }
 
     @Override
@@ -170,11 +191,13 @@ public class WebsocketGtfsRealtimeUpdater implements GraphUpdater {
             }
 
             if (updates != null) {
-                // Handle trip updates via graph writer runnable
-                TripUpdateGraphWriterRunnable runnable = new TripUpdateGraphWriterRunnable(
-                        fullDataset, updates, feedId
-                );
-                updaterManager.execute(runnable);
+                // Handle trip updates in batches of graph writer runnables
+                try {
+                    batcher.add(updates, fullDataset);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    LOG.warn("Interrupted while waiting to apply gtfs-rt message.");
+                }
             }
         }
     }
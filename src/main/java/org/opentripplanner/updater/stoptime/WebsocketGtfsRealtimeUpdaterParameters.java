@@ -5,14 +5,23 @@ public class WebsocketGtfsRealtimeUpdaterParameters {
   private final String feedId;
   private final String url;
   private final int reconnectPeriodSec;
+  private final int batchWindowMs;
+  private final int maxBatchSize;
 
   public WebsocketGtfsRealtimeUpdaterParameters(
-      String configRef, String feedId, String url, int reconnectPeriodSec
+      String configRef,
+      String feedId,
+      String url,
+      int reconnectPeriodSec,
+      int batchWindowMs,
+      int maxBatchSize
   ) {
     this.configRef = configRef;
     this.feedId = feedId;
     this.url = url;
     this.reconnectPeriodSec = reconnectPeriodSec;
+    this.batchWindowMs = batchWindowMs;
+    this.maxBatchSize = maxBatchSize;
   }
 
   String getUrl() {
@@ -27,6 +36,14 @@ public class WebsocketGtfsRealtimeUpdaterParameters {
     return reconnectPeriodSec;
   }
 
+  int getBatchWindowMs() {
+    return batchWindowMs;
+  }
+
+  int getMaxBatchSize() {
+    return maxBatchSize;
+  }
+
   /** The config name/type for the updater. Used to reference the configuration element. */
   String getConfigRef() {
     return configRef;
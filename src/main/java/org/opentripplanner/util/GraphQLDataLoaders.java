@@ -0,0 +1,202 @@
+package org.opentripplanner.util;
+
+import graphql.schema.DataFetchingEnvironment;
+import org.dataloader.DataLoader;
+import org.dataloader.DataLoaderFactory;
+import org.dataloader.DataLoaderRegistry;
+import org.opentripplanner.model.Stop;
+import org.opentripplanner.model.StopTimesInPattern;
+import org.opentripplanner.model.TripPattern;
+import org.opentripplanner.routing.RoutingService;
+import org.opentripplanner.routing.alertpatch.EntitySelector;
+import org.opentripplanner.routing.alertpatch.TransitAlert;
+import org.opentripplanner.routing.stoptimes.ArrivalDeparture;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
+
+/**
+ * Request scoped data loaders for the GraphQL APIs. The stop times, patterns and alerts requested
+ * by all the sibling objects of a query, like all the stops in a radius, are collected and looked
+ * up in one call to the {@link RoutingService}, instead of one call per object. The lookups run on
+ * the executor of the API, so several lookups of a query can run at the same time.
+ * <p>
+ * A new registry must be created for each request, the loaders cache the values they have loaded
+ * for the rest of the request.
+ */
+public class GraphQLDataLoaders {
+
+    private static final String STOP_TIMES = "stopTimesForStops";
+
+    private static final String PATTERNS = "patternsForStops";
+
+    private static final String ALERTS = "alerts";
+
+    /** Create the data loaders of one request. */
+    public static DataLoaderRegistry createRegistry(RoutingService routingService, Executor executor) {
+        DataLoader<StopTimesKey, List<StopTimesInPattern>> stopTimes = DataLoaderFactory.newMappedDataLoader(
+                keys -> CompletableFuture.supplyAsync(() -> stopTimes(routingService, keys), executor)
+        );
+        DataLoader<Stop, Collection<TripPattern>> patterns = DataLoaderFactory.newMappedDataLoader(
+                stops -> CompletableFuture.supplyAsync(
+                        () -> routingService.getPatternsForStops(stops, true), executor
+                )
+        );
+        DataLoader<EntitySelector, Collection<TransitAlert>> alerts = DataLoaderFactory.newMappedDataLoader(
+                entities -> CompletableFuture.supplyAsync(
+                        () -> routingService.getTransitAlertService().getAlerts(entities), executor
+                )
+        );
+        return new DataLoaderRegistry()
+                .register(STOP_TIMES, stopTimes)
+                .register(PATTERNS, patterns)
+                .register(ALERTS, alerts);
+    }
+
+    /**
+     * The upcoming departures from the given stops, in the order of the stops. This is the same as
+     * {@link RoutingService#stopTimesForStop} for each stop.
+     */
+    public static CompletableFuture<List<StopTimesInPattern>> stopTimesForStops(
+            DataFetchingEnvironment environment,
+            Collection<Stop> stops,
+            long startTime,
+            int timeRange,
+            int numberOfDepartures,
+            ArrivalDeparture arrivalDeparture,
+            boolean includeCancelledTrips
+    ) {
+        StopTimesQuery query = new StopTimesQuery(
+                startTime, timeRange, numberOfDepartures, arrivalDeparture, includeCancelledTrips
+        );
+        List<StopTimesKey> keys = stops.stream()
+                .map(stop -> new StopTimesKey(stop, query))
+                .collect(Collectors.toList());
+
+        DataLoader<StopTimesKey, List<StopTimesInPattern>> loader = environment.getDataLoader(STOP_TIMES);
+        return loader.loadMany(keys).thenApply(stopTimes -> stopTimes.stream()
+                .flatMap(Collection::stream)
+                .collect(Collectors.toList()));
+    }
+
+    /** All the patterns visiting the stop, including the patterns added by realtime updates. */
+    public static CompletableFuture<Collection<TripPattern>> patternsForStop(
+            DataFetchingEnvironment environment,
+            Stop stop
+    ) {
+        DataLoader<Stop, Collection<TripPattern>> loader = environment.getDataLoader(PATTERNS);
+        return loader.load(stop);
+    }
+
+    /** The alerts of the given entity, like a stop, route or agency. */
+    public static CompletableFuture<Collection<TransitAlert>> alerts(
+            DataFetchingEnvironment environment,
+            EntitySelector entity
+    ) {
+        DataLoader<EntitySelector, Collection<TransitAlert>> loader = environment.getDataLoader(ALERTS);
+        return loader.load(entity);
+    }
+
+    /** Look up the stop times of all keys, with one call for each set of query parameters. */
+    private static Map<StopTimesKey, List<StopTimesInPattern>> stopTimes(
+            RoutingService routingService,
+            Collection<StopTimesKey> keys
+    ) {
+        Map<StopTimesQuery, List<Stop>> stopsByQuery = new HashMap<>();
+        for (StopTimesKey key : keys) {
+            stopsByQuery.computeIfAbsent(key.query, q -> new ArrayList<>()).add(key.stop);
+        }
+
+        Map<StopTimesKey, List<StopTimesInPattern>> result = new HashMap<>();
+        for (Map.Entry<StopTimesQuery, List<Stop>> it : stopsByQuery.entrySet()) {
+            StopTimesQuery query = it.getKey();
+            routingService.stopTimesForStops(
+                    it.getValue(),
+                    query.startTime,
+                    query.timeRange,
+                    query.numberOfDepartures,
+                    query.arrivalDeparture,
+                    query.includeCancelledTrips
+            ).forEach((stop, stopTimes) -> result.put(new StopTimesKey(stop, query), stopTimes));
+        }
+        return result;
+    }
+
+    private static class StopTimesQuery {
+
+        private final long startTime;
+
+        private final int timeRange;
+
+        private final int numberOfDepartures;
+
+        private final ArrivalDeparture arrivalDeparture;
+
+        private final boolean includeCancelledTrips;
+
+        private StopTimesQuery(
+                long startTime,
+                int timeRange,
+                int numberOfDepartures,
+                ArrivalDeparture arrivalDeparture,
+                boolean includeCancelledTrips
+        ) {
+            this.startTime = startTime;
+            this.timeRange = timeRange;
+            this.numberOfDepartures = numberOfDepartures;
+            this.arrivalDeparture = arrivalDeparture;
+            this.includeCancelledTrips = includeCancelledTrips;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) { return true; }
+            if (o == null || getClass() != o.getClass()) { return false; }
+            StopTimesQuery that = (StopTimesQuery) o;
+            return startTime == that.startTime
+                    && timeRange == that.timeRange
+                    && numberOfDepartures == that.numberOfDepartures
+                    && includeCancelledTrips == that.includeCancelledTrips
+                    && arrivalDeparture == that.arrivalDeparture;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(
+                    startTime, timeRange, numberOfDepartures, arrivalDeparture, includeCancelledTrips
+            );
+        }
+    }
+
+    private static class StopTimesKey {
+
+        private final Stop stop;
+
+        private final StopTimesQuery query;
+
+        private StopTimesKey(Stop stop, StopTimesQuery query) {
+            this.stop = stop;
+            this.query = query;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) { return true; }
+            if (o == null || getClass() != o.getClass()) { return false; }
+            StopTimesKey that = (StopTimesKey) o;
+            return stop.equals(that.stop) && query.equals(that.query);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(stop, query);
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package org.opentripplanner.util;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import graphql.ExecutionInput;
+import graphql.execution.AbortExecutionException;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.execution.preparsed.PreparsedDocumentProvider;
+import graphql.execution.preparsed.persisted.ApolloPersistedQuerySupport;
+import graphql.execution.preparsed.persisted.PersistedQueryCache;
+import graphql.execution.preparsed.persisted.PersistedQueryCacheMiss;
+import graphql.execution.preparsed.persisted.PersistedQueryNotFound;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Cache the parsed and validated GraphQL documents, so the same query is not parsed and validated
+ * again for every request. Most requests are a small number of queries sent by the apps using the
+ * API, with different variables. The documents are cached by query text and operation name, and
+ * the least recently used documents are removed when the cache is full.
+ * <p>
+ * Clients may also send the SHA-256 hash of a query instead of the query text, using the
+ * <a href="https://github.com/apollographql/apollo-link-persisted-queries#protocol">Apollo
+ * automatic persisted queries</a> protocol: the hash is sent in the {@code persistedQuery}
+ * request extension. If the query is not known, a {@code PersistedQueryNotFound} error is
+ * returned, and the client sends the query again together with the hash.
+ * <p>
+ * The validation includes the query complexity check of the {@code MaxQueryComplexityInstrumentation},
+ * so a document validated with one maximum number of resolves can not be used for another. Each
+ * GraphQL instance must use the provider for its maximum number of resolves, see
+ * {@link #forMaxResolves(int)}. The documents are cached by maximum number of resolves too, while
+ * the persisted queries are shared.
+ * <p>
+ * The hits and misses of both caches are registered as metrics, tagged with the name of the API.
+ * Each API must have its own instance, since the validation depends on the schema.
+ * <p>
+ * This class is THREAD SAFE.
+ */
+public class GraphQLDocumentCache {
+
+    private final Cache<DocumentKey, PreparsedDocumentEntry> documents;
+
+    private final PersistedQueries persistedQueries;
+
+    /**
+     * @param apiName     the name of the API, used to tag the metrics
+     * @param maximumSize the maximum number of documents and of persisted queries to keep
+     */
+    public GraphQLDocumentCache(String apiName, int maximumSize) {
+        this.documents = CacheBuilder.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+        this.persistedQueries = new PersistedQueries(apiName, maximumSize);
+        GuavaCacheMetrics.monitor(
+                Metrics.globalRegistry, documents, "graphql.documents", "api", apiName
+        );
+    }
+
+    /**
+     * The document provider for a GraphQL instance with the given maximum number of resolves.
+     */
+    public PreparsedDocumentProvider forMaxResolves(int maxResolves) {
+        return new DocumentProvider(maxResolves);
+    }
+
+    /**
+     * The query to execute for a request. If the client only sends the hash of a persisted query,
+     * a marker is used instead of the missing query text.
+     */
+    public static String queryOrPersistedQueryMarker(String query) {
+        return query == null ? ApolloPersistedQuerySupport.PERSISTED_QUERY_MARKER : query;
+    }
+
+    /** Return {@code true} if the request extensions contain the hash of a persisted query. */
+    public static boolean hasPersistedQuery(Map<String, Object> extensions) {
+        return extensions != null && extensions.get("persistedQuery") instanceof Map;
+    }
+
+    /**
+     * Find the cached document of a query, or parse and validate it. The document is not loaded
+     * inside the cache, since the validation aborts by throwing an {@link AbortExecutionException}
+     * if the query is too complex. The exception must reach the GraphQL instance unwrapped, so it
+     * is returned as an error and not as a failed request.
+     */
+    private PreparsedDocumentEntry getDocument(
+            DocumentKey key,
+            ExecutionInput input,
+            Function<ExecutionInput, PreparsedDocumentEntry> parseAndValidateFunction
+    ) {
+        PreparsedDocumentEntry entry = documents.getIfPresent(key);
+        if (entry == null) {
+            entry = parseAndValidateFunction.apply(input);
+            documents.put(key, entry);
+        }
+        return entry;
+    }
+
+    private class DocumentProvider extends ApolloPersistedQuerySupport {
+
+        private final int maxResolves;
+
+        private DocumentProvider(int maxResolves) {
+            super(persistedQueries);
+            this.maxResolves = maxResolves;
+        }
+
+        @Override
+        public PreparsedDocumentEntry getDocument(
+                ExecutionInput executionInput,
+                Function<ExecutionInput, PreparsedDocumentEntry> parseAndValidateFunction
+        ) {
+            return super.getDocument(executionInput, input -> GraphQLDocumentCache.this.getDocument(
+                    new DocumentKey(input.getQuery(), input.getOperationName(), maxResolves),
+                    input,
+                    parseAndValidateFunction
+            ));
+        }
+    }
+
+    /**
+     * The query text of persisted queries by hash. A query is only added after the hash is
+     * checked, by the {@link PersistedQueryCacheMiss} function.
+     */
+    private static class PersistedQueries implements PersistedQueryCache {
+
+        private final Cache<Object, String> queries;
+
+        private PersistedQueries(String apiName, int maximumSize) {
+            this.queries = CacheBuilder.newBuilder()
+                    .maximumSize(maximumSize)
+                    .recordStats()
+                    .build();
+            GuavaCacheMetrics.monitor(
+                    Metrics.globalRegistry, queries, "graphql.persisted.queries", "api", apiName
+            );
+        }
+
+        @Override
+        public PreparsedDocumentEntry getPersistedQueryDocument(
+                Object persistedQueryId,
+                ExecutionInput executionInput,
+                PersistedQueryCacheMiss onCacheMiss
+        ) throws PersistedQueryNotFound {
+            String query = executionInput.getQuery();
+            if (
+                    query == null
+                    || query.isBlank()
+                    || query.equals(ApolloPersistedQuerySupport.PERSISTED_QUERY_MARKER)
+            ) {
+                query = queries.getIfPresent(persistedQueryId);
+            }
+            // Throws PersistedQueryNotFound if there is no query, or an error if the hash is wrong
+            PreparsedDocumentEntry entry = onCacheMiss.apply(query);
+            queries.put(persistedQueryId, query);
+            return entry;
+        }
+    }
+
+    private static class DocumentKey {
+
+        private final String query;
+
+        private final String operationName;
+
+        private final int maxResolves;
+
+        private DocumentKey(String query, String operationName, int maxResolves) {
+            this.query = query;
+            this.operationName = operationName;
+            this.maxResolves = maxResolves;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) { return true; }
+            if (o == null || getClass() != o.getClass()) { return false; }
+            DocumentKey that = (DocumentKey) o;
+            return maxResolves == that.maxResolves
+                    && query.equals(that.query)
+                    && Objects.equals(operationName, that.operationName);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(query, operationName, maxResolves);
+        }
+    }
+}
@@ -3,6 +3,7 @@ package org.opentripplanner.common.geometry;
 import junit.framework.TestCase;
 import org.junit.Test;
 import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.CoordinateSequence;
 import org.locationtech.jts.geom.GeometryFactory;
 import org.locationtech.jts.geom.LineString;
 
@@ -71,6 +72,37 @@ public class CompactLineStringTest extends TestCase {
         assertTrue(lsi.equalsExact(ls2, 0.00000015));
     }
 
+    @Test
+    public final void testUncompactCoordinates() {
+        GeometryFactory gf = new GeometryFactory();
+        double x0 = 1.111111111;
+        double y0 = 0.123456789;
+        double x1 = 2.0;
+        double y1 = 0.0;
+        LineString ls = gf.createLineString(new Coordinate[] {
+            new Coordinate(x0, y0), new Coordinate(1.5, 1.12345), new Coordinate(x1, y1)
+        });
+
+        for (boolean reverse : new boolean[] { false, true }) {
+            byte[] coords = reverse
+                ? CompactLineString.compactLineString(x0, y0, x1, y1, (LineString) ls.reverse(), true)
+                : CompactLineString.compactLineString(x0, y0, x1, y1, ls, false);
+            LineString expected = CompactLineString.uncompactLineString(x0, y0, x1, y1, coords, reverse);
+            CoordinateSequence actual = CompactLineString.uncompactCoordinates(x0, y0, x1, y1, coords, reverse);
+            assertEquals(expected.getNumPoints(), actual.size());
+            for (int i = 0; i < actual.size(); i++) {
+                assertEquals(expected.getCoordinateN(i), actual.getCoordinate(i));
+            }
+            assertEquals(ls.getCoordinateN(1).y, actual.getY(1), 0.000001);
+        }
+
+        CoordinateSequence straight = CompactLineString.uncompactCoordinates(
+            x0, y0, x1, y1, CompactLineString.STRAIGHT_LINE_PACKED, false
+        );
+        assertEquals(2, straight.size());
+        assertEquals(new Coordinate(x1, y1), straight.getCoordinate(1));
+    }
+
     @Test
     public final void testDlugoszVarLenIntPacker() {
 
@@ -0,0 +1,90 @@
+package org.opentripplanner.common.geometry;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.LineString;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measure the first and last angle computation done for every street edge when building walk
+ * steps. The same computation is run on one thread and on all available threads, the average
+ * time should stay about the same when the threads do not contend. The street edge geometries are
+ * stored in compact form, so the angles are also measured including decoding the geometry, either
+ * to a LineString or to a coordinate sequence.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DirectionUtilsBenchmark {
+
+  @Param({"2", "10"})
+  public int numberOfPoints;
+
+  private LineString lineString;
+  private double x0, y0, x1, y1;
+  private byte[] packedGeometry;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    Random random = new Random(42);
+    Coordinate[] geometry = new Coordinate[numberOfPoints];
+    for (int i = 0; i < numberOfPoints; ++i) {
+      geometry[i] = new Coordinate(10.0 + i * 1e-4, 60.0 + random.nextDouble() * 1e-4);
+    }
+    lineString = new GeometryFactory().createLineString(geometry);
+    x0 = geometry[0].x;
+    y0 = geometry[0].y;
+    x1 = geometry[numberOfPoints - 1].x;
+    y1 = geometry[numberOfPoints - 1].y;
+    packedGeometry = CompactLineString.compactLineString(x0, y0, x1, y1, lineString, false);
+  }
+
+  @Benchmark
+  @Threads(1)
+  public double anglesOneThread() {
+    return angles();
+  }
+
+  @Benchmark
+  @Threads(Threads.MAX)
+  public double anglesAllThreads() {
+    return angles();
+  }
+
+  @Benchmark
+  @Threads(Threads.MAX)
+  public double anglesFromUncompactedLineStringAllThreads() {
+    var line = CompactLineString.uncompactLineString(x0, y0, x1, y1, packedGeometry, false);
+    return DirectionUtils.getFirstAngle(line) + DirectionUtils.getLastAngle(line);
+  }
+
+  @Benchmark
+  @Threads(Threads.MAX)
+  public double anglesFromCompactGeometryAllThreads() {
+    var coordinates = CompactLineString.uncompactCoordinates(
+        x0, y0, x1, y1, packedGeometry, false
+    );
+    return DirectionUtils.getFirstAngle(coordinates) + DirectionUtils.getLastAngle(coordinates);
+  }
+
+  private double angles() {
+    return DirectionUtils.getFirstAngle(lineString) + DirectionUtils.getLastAngle(lineString);
+  }
+}
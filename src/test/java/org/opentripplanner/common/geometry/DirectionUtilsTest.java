@@ -10,6 +10,10 @@ import org.geotools.referencing.GeodeticCalculator;
 import org.junit.Test;
 
 import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.CoordinateSequence;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.LineString;
+import org.locationtech.jts.geom.impl.PackedCoordinateSequence;
 
 public class DirectionUtilsTest extends TestCase {
 
@@ -86,4 +90,25 @@ public class DirectionUtilsTest extends TestCase {
         System.out.println("Max error in azimuth: " + maxError + " degrees.");
         assertTrue(maxError < 0.15);
     }
+
+    @Test
+    public final void testFirstAndLastAngle() {
+        GeometryFactory gf = new GeometryFactory();
+        // A short first segment (< 10 meters) going north, then east, then a short last
+        // segment going south
+        LineString line = gf.createLineString(new Coordinate[] {
+            new Coordinate(10.0, 60.0),
+            new Coordinate(10.0, 60.00001),
+            new Coordinate(10.01, 60.00001),
+            new Coordinate(10.01, 60.0)
+        });
+
+        // The short segments are extended with the next/previous point
+        assertEquals(1.5, DirectionUtils.getFirstAngle(line), 0.1);
+        assertEquals(1.5, DirectionUtils.getLastAngle(line), 0.1);
+
+        CoordinateSequence packed = new PackedCoordinateSequence.Double(line.getCoordinates(), 2);
+        assertEquals(DirectionUtils.getFirstAngle(line), DirectionUtils.getFirstAngle(packed));
+        assertEquals(DirectionUtils.getLastAngle(line), DirectionUtils.getLastAngle(packed));
+    }
 }
@@ -0,0 +1,87 @@
+package org.opentripplanner.common.geometry;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.CoordinateSequence;
+import org.locationtech.jts.geom.LineString;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measure decoding of the compact street edge geometries and elevation profiles into
+ * {@link PackedCoordinateSequence}s, and reading the coordinates back. This is done for every
+ * street edge in an itinerary and for every edge traversed with elevation data.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PackedCoordinateSequenceBenchmark {
+
+  @Param({"10", "100"})
+  public int numberOfPoints;
+
+  private byte[] packedElevation;
+  private double lengthM;
+  private byte[] packedGeometry;
+  private PackedCoordinateSequence.Float floatSequence;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    Random random = new Random(42);
+    Coordinate[] elevation = new Coordinate[numberOfPoints];
+    Coordinate[] geometry = new Coordinate[numberOfPoints];
+    double z = 50;
+    for (int i = 0; i < numberOfPoints; ++i) {
+      z += random.nextDouble() - 0.5;
+      elevation[i] = new Coordinate(i * CompactElevationProfile.DEFAULT_DISTANCE_BETWEEN_SAMPLES_METERS, z);
+      geometry[i] = new Coordinate(10.0 + i * 1e-4, 60.0 + random.nextDouble() * 1e-4);
+    }
+    lengthM = (numberOfPoints - 1) * CompactElevationProfile.DEFAULT_DISTANCE_BETWEEN_SAMPLES_METERS;
+    packedElevation = CompactElevationProfile.compactElevationProfileWithRegularSamples(
+        new PackedCoordinateSequence.Double(elevation, 2)
+    );
+    LineString lineString = GeometryUtils.getGeometryFactory().createLineString(geometry);
+    packedGeometry = CompactLineString.compactLineString(lineString, false);
+    floatSequence = new PackedCoordinateSequence.Float(elevation, 2);
+  }
+
+  @Benchmark
+  public double decodeElevationProfile() {
+    PackedCoordinateSequence profile = CompactElevationProfile
+        .uncompactElevationProfileWithRegularSamples(packedElevation, lengthM);
+    return sumOrdinates(profile);
+  }
+
+  @Benchmark
+  public double decodeGeometry() {
+    LineString lineString = CompactLineString.uncompactLineString(packedGeometry, false);
+    return sumOrdinates(lineString.getCoordinateSequence());
+  }
+
+  @Benchmark
+  public double readFloatSequence() {
+    return sumOrdinates(floatSequence);
+  }
+
+  private static double sumOrdinates(CoordinateSequence sequence) {
+    double sum = 0;
+    for (int i = 0; i < sequence.size(); ++i) {
+      sum += sequence.getX(i) + sequence.getY(i);
+    }
+    return sum;
+  }
+}
@@ -0,0 +1,77 @@
+package org.opentripplanner.common.pqueue;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measure the priority queue used by the street search.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BinHeapBenchmark {
+
+  @Param({"1000", "100000"})
+  public int size;
+
+  private Integer[] elements;
+  private double[] keys;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    Random random = new Random(42);
+    elements = new Integer[size];
+    keys = new double[size];
+    for (int i = 0; i < size; ++i) {
+      elements[i] = i;
+      keys[i] = random.nextDouble() * 10_000;
+    }
+  }
+
+  /** Insert all elements, then extract them in order. */
+  @Benchmark
+  public int insertThenExtractAll() {
+    BinHeap<Integer> heap = new BinHeap<>(size);
+    for (int i = 0; i < size; ++i) {
+      heap.insert(elements[i], keys[i]);
+    }
+    int sum = 0;
+    while (!heap.empty()) {
+      sum += heap.extract_min();
+    }
+    return sum;
+  }
+
+  /**
+   * Extract one element for every two inserted, like a search where each state has two
+   * successors. The keys grow, as the weight of the states in a search does.
+   */
+  @Benchmark
+  public int interleaved() {
+    BinHeap<Integer> heap = new BinHeap<>();
+    double weight = 0;
+    int sum = 0;
+    for (int i = 0; i + 1 < size; i += 2) {
+      heap.insert(elements[i], weight + keys[i]);
+      heap.insert(elements[i + 1], weight + keys[i + 1]);
+      weight = heap.peek_min_key();
+      sum += heap.extract_min();
+    }
+    return sum;
+  }
+}
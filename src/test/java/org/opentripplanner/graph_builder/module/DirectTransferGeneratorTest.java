@@ -0,0 +1,83 @@
+package org.opentripplanner.graph_builder.module;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.junit.Test;
+import org.opentripplanner.graph_builder.DataImportIssueStore;
+import org.opentripplanner.model.FeedScopedId;
+import org.opentripplanner.model.Route;
+import org.opentripplanner.model.SimpleTransfer;
+import org.opentripplanner.model.Stop;
+import org.opentripplanner.model.StopLocation;
+import org.opentripplanner.model.StopPattern;
+import org.opentripplanner.model.StopTime;
+import org.opentripplanner.model.Trip;
+import org.opentripplanner.model.TripPattern;
+import org.opentripplanner.routing.graph.Graph;
+import org.opentripplanner.routing.vertextype.TransitStopVertex;
+
+public class DirectTransferGeneratorTest {
+
+  /** About 100 meters between two neighbour stops. */
+  private static final double STOP_SPACING_DEGREES = 0.0009;
+
+  private static final int N_STOPS = 500;
+
+  /**
+   * The stops are linked in parallel. Each stop is on its own pattern, and the search radius
+   * (120 s walking) only reaches the neighbour stops, so every stop must be linked to exactly its
+   * neighbours, whichever worker thread and nearby stop finder handled it.
+   */
+  @Test
+  public void linkEachStopToItsNeighboursWhenLinkingInParallel() {
+    var graph = new Graph();
+    var route = new Route(new FeedScopedId("F", "R"));
+    List<Stop> stops = new ArrayList<>();
+    for (int i = 0; i < N_STOPS; ++i) {
+      var stop = Stop.stopForTest("S" + i, 60.0 + i * STOP_SPACING_DEGREES, 10.0);
+      new TransitStopVertex(graph, stop, null);
+      addPattern(graph, route, stop, i);
+      stops.add(stop);
+    }
+
+    new DirectTransferGenerator(120).buildGraph(
+        graph,
+        new HashMap<>(),
+        new DataImportIssueStore(false)
+    );
+
+    assertTrue(graph.hasDirectTransfers);
+    for (int i = 0; i < N_STOPS; ++i) {
+      Set<StopLocation> expected = new HashSet<>();
+      if (i > 0) { expected.add(stops.get(i - 1)); }
+      if (i < N_STOPS - 1) { expected.add(stops.get(i + 1)); }
+
+      Set<StopLocation> linked = new HashSet<>();
+      for (SimpleTransfer transfer : graph.transfersByStop.get(stops.get(i))) {
+        linked.add(transfer.to);
+      }
+      assertEquals("Transfers from stop " + i, expected, linked);
+    }
+    assertEquals(2 * (N_STOPS - 1), graph.transfersByStop.size());
+  }
+
+  private static void addPattern(Graph graph, Route route, Stop stop, int i) {
+    var trip = new Trip(new FeedScopedId("F", "T" + i));
+    trip.setRoute(route);
+    var stopTime = new StopTime();
+    stopTime.setStop(stop);
+    stopTime.setTrip(trip);
+    var pattern = new TripPattern(
+        new FeedScopedId("F", "P" + i),
+        route,
+        new StopPattern(List.of(stopTime))
+    );
+    graph.tripPatternForId.put(pattern.getId(), pattern);
+  }
+}
@@ -47,4 +47,19 @@ public class OpenStreetMapParserTest {
         assertEquals("Potlatch 0.9a", wayA.getTag("created_by"));
         assertEquals("secondary", wayA.getTag("highway"));
     }
+
+    @Test
+    public void testBinaryParserReadingFromFile() throws Exception {
+        File osmFile = new File(URLDecoder.decode(
+                getClass().getResource("map.osm.pbf").getPath(),
+                "UTF-8"
+        ));
+        BinaryOpenStreetMapProvider pr = new BinaryOpenStreetMapProvider(osmFile, false);
+        OSMDatabase osmdb = new OSMDatabase(new DataImportIssueStore(false));
+
+        pr.readOSM(osmdb);
+
+        assertEquals(2297, osmdb.nodeCount());
+        assertEquals(545, osmdb.wayCount());
+    }
 }
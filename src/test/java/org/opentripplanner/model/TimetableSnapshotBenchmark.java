@@ -0,0 +1,86 @@
+package org.opentripplanner.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.opentripplanner.model.calendar.ServiceDate;
+import org.opentripplanner.routing.trippattern.Deduplicator;
+import org.opentripplanner.routing.trippattern.TripTimes;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measure the cost of committing a timetable snapshot with a few changes, as a function of the
+ * number of realtime updated trip patterns already in the snapshot. With a persistent map the cost
+ * should not depend on the snapshot size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TimetableSnapshotBenchmark {
+
+  private static final int UPDATES_PER_COMMIT = 10;
+  private static final ServiceDate SERVICE_DATE = new ServiceDate(2021, 9, 1);
+  private static final Stop STOP = Stop.stopForTest("BM:STOP", 60.0, 10.0);
+
+  @Param({"1000", "10000", "100000"})
+  public int snapshotSize;
+
+  private final Random random = new Random(42);
+  private final Deduplicator deduplicator = new Deduplicator();
+  private final List<TripPattern> patterns = new ArrayList<>();
+  private final List<TripTimes> tripTimes = new ArrayList<>();
+
+  private TimetableSnapshot buffer;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    Route route = new Route(new FeedScopedId("BM", "R"));
+    buffer = new TimetableSnapshot();
+
+    for (int i = 0; i < snapshotSize; ++i) {
+      Trip trip = new Trip(new FeedScopedId("BM", "T" + i));
+      trip.setRoute(route);
+      StopTime stopTime = new StopTime();
+      stopTime.setStop(STOP);
+      stopTime.setTrip(trip);
+      stopTime.setArrivalTime(i % 86400);
+      stopTime.setDepartureTime(i % 86400);
+
+      TripPattern pattern = new TripPattern(
+          new FeedScopedId("BM", "P" + i),
+          route,
+          new StopPattern(List.of(stopTime))
+      );
+      TripTimes times = new TripTimes(trip, List.of(stopTime), deduplicator);
+      pattern.add(times);
+      patterns.add(pattern);
+      tripTimes.add(times);
+      buffer.update(pattern, new TripTimes(times), SERVICE_DATE);
+    }
+    buffer.commit();
+  }
+
+  @Benchmark
+  public TimetableSnapshot updateAndCommit() {
+    for (int i = 0; i < UPDATES_PER_COMMIT; ++i) {
+      int index = random.nextInt(snapshotSize);
+      buffer.update(patterns.get(index), new TripTimes(tripTimes.get(index)), SERVICE_DATE);
+    }
+    return buffer.commit();
+  }
+}
@@ -17,6 +17,7 @@ import org.opentripplanner.routing.trippattern.TripTimes;
 import java.util.ConcurrentModificationException;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 import java.util.TimeZone;
 
 import static org.junit.Assert.assertEquals;
@@ -24,6 +25,7 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 public class TimetableSnapshotTest {
@@ -226,4 +228,108 @@ public class TimetableSnapshotTest {
         assertNull(resolver.commit());
         assertFalse(resolver.isDirty());
     }
+
+    @Test
+    public void testRevertTrip() {
+        ServiceDate today = new ServiceDate();
+        FeedScopedId tripId = new FeedScopedId("agency", "1.1");
+        TripPattern pattern = patternIndex.get(tripId);
+        Timetable scheduled = pattern.getScheduledTimetable();
+        int tripIndex = scheduled.getTripIndex(tripId);
+
+        TripDescriptor.Builder tripDescriptorBuilder = TripDescriptor.newBuilder();
+
+        tripDescriptorBuilder.setTripId("1.1");
+        tripDescriptorBuilder.setScheduleRelationship(ScheduleRelationship.CANCELED);
+
+        TripUpdate.Builder tripUpdateBuilder = TripUpdate.newBuilder();
+
+        tripUpdateBuilder.setTrip(tripDescriptorBuilder);
+
+        TripUpdate tripUpdate = tripUpdateBuilder.build();
+
+        TimetableSnapshot resolver = new TimetableSnapshot();
+        updateResolver(resolver, pattern, tripUpdate, "agency", today);
+        TimetableSnapshot snapshot = resolver.commit();
+        assertNotSame(scheduled.getTripTimes(tripIndex), resolver.resolve(pattern, today).getTripTimes(tripIndex));
+
+        // the scheduled trip times are restored in a new timetable, the snapshot is unchanged
+        assertTrue(resolver.revertTrip(tripId, today, pattern));
+        assertTrue(resolver.isDirty());
+        assertSame(scheduled.getTripTimes(tripIndex), resolver.resolve(pattern, today).getTripTimes(tripIndex));
+        assertNotSame(scheduled.getTripTimes(tripIndex), snapshot.resolve(pattern, today).getTripTimes(tripIndex));
+
+        assertNotNull(resolver.commit());
+        assertFalse(resolver.revertTrip(tripId, today, pattern));
+        assertFalse(resolver.isDirty());
+
+        // a trip added to another pattern is removed from it
+        TripPattern otherPattern = patternIndex.get(new FeedScopedId("agency", "2.1"));
+        assertTrue(resolver.update(otherPattern, scheduled.getTripTimes(tripIndex), today));
+        assertEquals(otherPattern, resolver.getLastAddedTripPattern(tripId, today));
+
+        assertTrue(resolver.revertTrip(tripId, today, pattern));
+        assertNull(resolver.getLastAddedTripPattern(tripId, today));
+        assertEquals(-1, resolver.resolve(otherPattern, today).getTripIndex(tripId));
+    }
+
+    @Test
+    public void testCommittedSnapshotsKeepTheirVersion() {
+        ServiceDate today = new ServiceDate();
+        FeedScopedId tripId = new FeedScopedId("agency", "1.1");
+        TripPattern pattern = patternIndex.get(tripId);
+        TripTimes scheduledTripTimes = pattern.getScheduledTimetable().getTripTimes(
+                pattern.getScheduledTimetable().getTripIndex(tripId));
+
+        TripPattern addedPattern = new TripPattern(
+                new FeedScopedId("agency", "added"),
+                pattern.getRoute(),
+                pattern.getStopPattern()
+        );
+        addedPattern.setCreatedByRealtimeUpdater();
+        Stop stop = addedPattern.getStops().get(0);
+
+        TripDescriptor.Builder tripDescriptorBuilder = TripDescriptor.newBuilder();
+
+        tripDescriptorBuilder.setTripId("1.1");
+        tripDescriptorBuilder.setScheduleRelationship(ScheduleRelationship.CANCELED);
+
+        TripUpdate.Builder tripUpdateBuilder = TripUpdate.newBuilder();
+
+        tripUpdateBuilder.setTrip(tripDescriptorBuilder);
+
+        TripUpdate tripUpdate = tripUpdateBuilder.build();
+
+        TimetableSnapshot resolver = new TimetableSnapshot();
+        updateResolver(resolver, pattern, tripUpdate, "agency", today);
+        TimetableSnapshot first = resolver.commit();
+
+        // the maps are shared on commit, later updates of the buffer create new versions of them
+        assertTrue(resolver.update(addedPattern, new TripTimes(scheduledTripTimes), today));
+        TimetableSnapshot second = resolver.commit();
+
+        assertEquals(Set.of(pattern), Set.copyOf(first.getAllRealtimeTripPatterns()));
+        assertNull(first.getLastAddedTripPattern(tripId, today));
+        assertTrue(first.getPatternsForStop(stop).isEmpty());
+        assertSame(addedPattern.getScheduledTimetable(), first.resolve(addedPattern, today));
+
+        assertEquals(Set.of(pattern, addedPattern), Set.copyOf(second.getAllRealtimeTripPatterns()));
+        assertEquals(addedPattern, second.getLastAddedTripPattern(tripId, today));
+        assertEquals(Set.of(addedPattern), Set.copyOf(second.getPatternsForStop(stop)));
+
+        // clearing and purging the buffer leaves the committed snapshots unchanged
+        resolver.clear("agency");
+        TimetableSnapshot third = resolver.commit();
+        assertTrue(third.getAllRealtimeTripPatterns().isEmpty());
+        assertNull(third.getLastAddedTripPattern(tripId, today));
+        assertEquals(2, second.getAllRealtimeTripPatterns().size());
+        assertEquals(addedPattern, second.getLastAddedTripPattern(tripId, today));
+
+        updateResolver(resolver, pattern, tripUpdate, "agency", today);
+        assertNotNull(resolver.commit());
+        assertTrue(resolver.purgeExpiredData(today));
+        assertNotNull(resolver.commit(null, true));
+        assertEquals(1, first.getAllRealtimeTripPatterns().size());
+        assertNotSame(pattern.getScheduledTimetable(), first.resolve(pattern, today));
+    }
 }
@@ -0,0 +1,111 @@
+package org.opentripplanner.model;
+
+import org.junit.Test;
+import org.opentripplanner.model.TimetableStopTimesIndex.SortedStopTimes;
+import org.opentripplanner.model.calendar.ServiceDate;
+import org.opentripplanner.routing.trippattern.Deduplicator;
+import org.opentripplanner.routing.trippattern.TripTimes;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class TimetableStopTimesIndexTest {
+
+  private static final Route ROUTE = new Route(new FeedScopedId("F", "R"));
+  private static final Stop STOP_A = Stop.stopForTest("A", 60.0, 10.0);
+  private static final Stop STOP_B = Stop.stopForTest("B", 60.1, 10.0);
+
+  private final Deduplicator deduplicator = new Deduplicator();
+
+  // The trips are added out of order, and trip T3 has a long dwell time at stop B
+  private final TripTimes t1 = tripTimes("T1", 300, 400, 410);
+  private final TripTimes t2 = tripTimes("T2", 100, 200, 210);
+  private final TripTimes t3 = tripTimes("T3", 200, 300, 600);
+
+  private final TripPattern pattern = new TripPattern(
+      new FeedScopedId("F", "P"),
+      ROUTE,
+      new StopPattern(stopTimes(t1.getTrip(), 0, 0, 0))
+  );
+
+  {
+    pattern.add(t1);
+    pattern.add(t2);
+    pattern.add(t3);
+  }
+
+  @Test
+  public void tripTimesAreSortedByTimeAtEachStop() {
+    TimetableStopTimesIndex index = pattern.getScheduledTimetable().getStopTimesIndex();
+
+    assertEquals(List.of(t2, t3, t1), toList(index.departures(0)));
+    assertEquals(List.of(t2, t3, t1), toList(index.arrivals(1)));
+    assertEquals(List.of(t2, t1, t3), toList(index.departures(1)));
+    assertFalse(index.departures(1).hasCancelledStop());
+  }
+
+  @Test
+  public void findFirstTripAtOrAfterTime() {
+    SortedStopTimes departures = pattern.getScheduledTimetable()
+        .getStopTimesIndex()
+        .departures(1);
+
+    assertEquals(0, departures.indexOfFirstAtOrAfter(0));
+    assertEquals(0, departures.indexOfFirstAtOrAfter(210));
+    assertEquals(1, departures.indexOfFirstAtOrAfter(211));
+    assertEquals(2, departures.indexOfFirstAtOrAfter(411));
+    assertEquals(3, departures.indexOfFirstAtOrAfter(601));
+    assertEquals(600, departures.time(2));
+  }
+
+  @Test
+  public void indexIsCreatedAgainWhenTimetableIsModified() {
+    Timetable timetable = new Timetable(pattern.getScheduledTimetable(), new ServiceDate());
+    TimetableStopTimesIndex index = timetable.getStopTimesIndex();
+    assertSame(index, timetable.getStopTimesIndex());
+
+    TripTimes delayed = new TripTimes(t2);
+    delayed.updateDepartureDelay(1, 1000);
+    timetable.setTripTimes(timetable.getTripIndex(t2.getTrip().getId()), delayed);
+    timetable.finish();
+
+    assertNotSame(index, timetable.getStopTimesIndex());
+    assertEquals(List.of(t1, t3, delayed), toList(timetable.getStopTimesIndex().departures(1)));
+  }
+
+  private TripTimes tripTimes(String id, int departureA, int arrivalB, int departureB) {
+    Trip trip = new Trip(new FeedScopedId("F", id));
+    trip.setRoute(ROUTE);
+    return new TripTimes(trip, stopTimes(trip, departureA, arrivalB, departureB), deduplicator);
+  }
+
+  private static List<StopTime> stopTimes(
+      Trip trip, int departureA, int arrivalB, int departureB
+  ) {
+    return List.of(stopTime(trip, STOP_A, 0, departureA, departureA),
+        stopTime(trip, STOP_B, 1, arrivalB, departureB));
+  }
+
+  private static StopTime stopTime(Trip trip, Stop stop, int seq, int arrival, int departure) {
+    StopTime stopTime = new StopTime();
+    stopTime.setTrip(trip);
+    stopTime.setStop(stop);
+    stopTime.setStopSequence(seq);
+    stopTime.setArrivalTime(arrival);
+    stopTime.setDepartureTime(departure);
+    return stopTime;
+  }
+
+  private static List<TripTimes> toList(SortedStopTimes times) {
+    List<TripTimes> list = new ArrayList<>();
+    for (int i = 0; i < times.size(); ++i) {
+      list.add(times.tripTimes(i));
+    }
+    return list;
+  }
+}
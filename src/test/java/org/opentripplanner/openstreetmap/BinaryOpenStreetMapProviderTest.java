@@ -0,0 +1,238 @@
+package org.opentripplanner.openstreetmap;
+
+import com.google.protobuf.ByteString;
+import org.junit.Test;
+import org.openstreetmap.osmosis.osmbinary.Fileformat;
+import org.openstreetmap.osmosis.osmbinary.Osmformat;
+import org.opentripplanner.datastore.DataSource;
+import org.opentripplanner.datastore.FileType;
+import org.opentripplanner.graph_builder.DataImportIssueStore;
+import org.opentripplanner.graph_builder.module.osm.OSMDatabase;
+import org.opentripplanner.openstreetmap.model.OSMNode;
+import org.opentripplanner.openstreetmap.model.OSMRelation;
+import org.opentripplanner.openstreetmap.model.OSMWay;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.Deflater;
+
+import static org.junit.Assert.assertEquals;
+
+public class BinaryOpenStreetMapProviderTest {
+
+    /** Many more blocks than the decoder threads keep in progress */
+    private static final int NUMBER_OF_BLOCKS = 300;
+
+    private final List<Long> expectedRelationIds = new ArrayList<>();
+    private final List<Long> expectedWayIds = new ArrayList<>();
+    private final List<Long> expectedNodeIds = new ArrayList<>();
+
+    /** The number of bytes of the blobs with entities for each phase */
+    private final Map<OsmParserPhase, Long> blobBytesByPhase = new EnumMap<>(OsmParserPhase.class);
+
+    /** The number of bytes of the blob headers, read in every phase */
+    private long headerBytes = 0;
+
+    private int numberOfBlobs = 0;
+
+    private final List<Long> bytesReadByPass = new ArrayList<>();
+
+    @Test
+    public void blocksAreAddedInFileOrderAndBlocksWithoutEntitiesOfThePhaseAreSkipped()
+            throws IOException {
+        byte[] pbf = createMultiBlockPbf();
+        RecordingOSMDatabase osmdb = new RecordingOSMDatabase();
+
+        new BinaryOpenStreetMapProvider(countingDataSource(pbf), false).readOSM(osmdb);
+
+        assertEquals(expectedRelationIds, osmdb.relationIds);
+        assertEquals(expectedWayIds, osmdb.wayIds);
+        assertEquals(expectedNodeIds, osmdb.nodeIds);
+
+        // The first pass reads every blob, the later passes only the blobs of their phase
+        assertEquals(
+                List.of(
+                        (long) pbf.length,
+                        headerBytes + blobBytesByPhase.get(OsmParserPhase.Ways),
+                        headerBytes + blobBytesByPhase.get(OsmParserPhase.Nodes)
+                ),
+                bytesReadByPass
+        );
+    }
+
+    /**
+     * Create a file with a header block followed by blocks with only relations, ways or nodes.
+     * The ids increase in file order, so any block added out of order changes the order of the
+     * ids added to the database.
+     */
+    private byte[] createMultiBlockPbf() throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(buffer);
+
+        writeBlob(out, "OSMHeader", null, Osmformat.HeaderBlock
+                .newBuilder()
+                .addRequiredFeatures("OsmSchema-V0.6")
+                .build()
+                .toByteString());
+
+        for (long i = 1; i <= NUMBER_OF_BLOCKS; ++i) {
+            Osmformat.PrimitiveGroup.Builder group = Osmformat.PrimitiveGroup.newBuilder();
+            OsmParserPhase phase;
+            if (i % 10 == 0) {
+                phase = OsmParserPhase.Relations;
+                group.addRelations(Osmformat.Relation
+                        .newBuilder()
+                        .setId(i)
+                        .addKeys(1).addVals(2)
+                        .addRolesSid(0).addMemids(i - 1).addTypes(Osmformat.Relation.MemberType.WAY));
+                expectedRelationIds.add(i);
+            }
+            else if (i % 2 == 0) {
+                phase = OsmParserPhase.Ways;
+                group.addWays(Osmformat.Way
+                        .newBuilder()
+                        .setId(i)
+                        .addKeys(3).addVals(4)
+                        .addRefs(2 * i).addRefs(1));
+                expectedWayIds.add(i);
+            }
+            else {
+                phase = OsmParserPhase.Nodes;
+                group.addNodes(Osmformat.Node.newBuilder().setId(2 * i).setLat(i).setLon(i));
+                group.addNodes(Osmformat.Node.newBuilder().setId(2 * i + 1).setLat(i).setLon(i));
+                expectedNodeIds.add(2 * i);
+                expectedNodeIds.add(2 * i + 1);
+            }
+            writeBlob(out, "OSMData", phase, Osmformat.PrimitiveBlock
+                    .newBuilder()
+                    .setStringtable(Osmformat.StringTable
+                            .newBuilder()
+                            .addS(ByteString.EMPTY)
+                            .addS(ByteString.copyFromUtf8("type"))
+                            .addS(ByteString.copyFromUtf8("route"))
+                            .addS(ByteString.copyFromUtf8("highway"))
+                            .addS(ByteString.copyFromUtf8("residential")))
+                    .addPrimitivegroup(group)
+                    .build()
+                    .toByteString());
+        }
+        out.flush();
+        return buffer.toByteArray();
+    }
+
+    /** Write a blob preceded by its header, every other blob is zlib compressed. */
+    private void writeBlob(DataOutputStream out, String type, OsmParserPhase phase, ByteString data)
+            throws IOException {
+        Fileformat.Blob.Builder blob = Fileformat.Blob.newBuilder();
+        if (numberOfBlobs++ % 2 == 0) {
+            blob.setRawSize(data.size()).setZlibData(ByteString.copyFrom(compress(data.toByteArray())));
+        }
+        else {
+            blob.setRaw(data);
+        }
+        byte[] blobBytes = blob.build().toByteArray();
+        byte[] header = Fileformat.BlobHeader
+                .newBuilder()
+                .setType(type)
+                .setDatasize(blobBytes.length)
+                .build()
+                .toByteArray();
+
+        out.writeInt(header.length);
+        out.write(header);
+        out.write(blobBytes);
+
+        headerBytes += Integer.BYTES + header.length;
+        // The header block has no entities, so it is only read in the first pass
+        if (phase != null) {
+            blobBytesByPhase.merge(phase, (long) blobBytes.length, Long::sum);
+        }
+    }
+
+    private static byte[] compress(byte[] data) {
+        Deflater deflater = new Deflater();
+        deflater.setInput(data);
+        deflater.finish();
+        byte[] buffer = new byte[data.length + 64];
+        int size = deflater.deflate(buffer);
+        deflater.end();
+        byte[] compressed = new byte[size];
+        System.arraycopy(buffer, 0, compressed, 0, size);
+        return compressed;
+    }
+
+    /**
+     * A data source which counts the bytes read from each input stream, skipped bytes are not
+     * counted.
+     */
+    private DataSource countingDataSource(byte[] pbf) {
+        return new DataSource() {
+            @Override public String name() { return "multi-block.osm.pbf"; }
+            @Override public String path() { return name(); }
+            @Override public FileType type() { return FileType.OSM; }
+            @Override public long size() { return pbf.length; }
+
+            @Override
+            public InputStream asInputStream() {
+                int pass = bytesReadByPass.size();
+                bytesReadByPass.add(0L);
+                return new FilterInputStream(new ByteArrayInputStream(pbf)) {
+                    @Override
+                    public int read() throws IOException {
+                        int b = super.read();
+                        count(b < 0 ? 0 : 1);
+                        return b;
+                    }
+
+                    @Override
+                    public int read(byte[] b, int off, int len) throws IOException {
+                        int size = super.read(b, off, len);
+                        count(Math.max(size, 0));
+                        return size;
+                    }
+
+                    private void count(int size) {
+                        bytesReadByPass.set(pass, bytesReadByPass.get(pass) + size);
+                    }
+                };
+            }
+        };
+    }
+
+    /** Records the ids in the order the entities are added to the database. */
+    private static class RecordingOSMDatabase extends OSMDatabase {
+        private final List<Long> relationIds = new ArrayList<>();
+        private final List<Long> wayIds = new ArrayList<>();
+        private final List<Long> nodeIds = new ArrayList<>();
+
+        RecordingOSMDatabase() {
+            super(new DataImportIssueStore(false));
+        }
+
+        @Override
+        public void addRelation(OSMRelation relation) {
+            relationIds.add(relation.getId());
+            super.addRelation(relation);
+        }
+
+        @Override
+        public void addWay(OSMWay way) {
+            wayIds.add(way.getId());
+            super.addWay(way);
+        }
+
+        @Override
+        public void addNode(OSMNode node) {
+            nodeIds.add(node.getId());
+            super.addNode(node);
+        }
+    }
+}
@@ -2,6 +2,7 @@ package org.opentripplanner.openstreetmap.model;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.Map;
 import org.junit.jupiter.api.Test;
 import org.opentripplanner.graph_builder.module.osm.DefaultWayPropertySetSource;
 import org.opentripplanner.graph_builder.module.osm.WayPropertySet;
@@ -30,7 +31,21 @@ public class OSMWithTagsTest {
         assertEquals("bar", o.getTag("foo"));
         assertEquals("bar", o.getTag("FOO"));
     }
-    
+
+    @Test
+    public void testAddTagReplacesValue() {
+        OSMWithTags o = new OSMWithTags();
+        assertNull(o.getTags());
+
+        o.addTag("foo", "bar");
+        o.addTag("baz", "qux");
+        o.addTag("FOO", "quux");
+
+        assertEquals("quux", o.getTag("foo"));
+        assertEquals("qux", o.getTag("baz"));
+        assertEquals(Map.of("foo", "quux", "baz", "qux"), o.getTags());
+    }
+
     @Test
     public void testIsFalse() {
         assertTrue(OSMWithTags.isFalse("no"));
@@ -23,6 +23,7 @@ import java.util.Set;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 public class AStarTest {
@@ -102,6 +103,26 @@ public class AStarTest {
         assertEquals("leary_20th", states.get(6).getVertex().getLabel());
     }
 
+    @Test
+    public void anInterruptedSearchIsAborted() {
+        RoutingRequest options = new RoutingRequest();
+        options.walkSpeed = 1.0;
+        options.setRoutingContext(graph, graph.getVertex("56th_24th"), graph.getVertex("leary_20th"));
+
+        Thread.currentThread().interrupt();
+        ShortestPathTree tree;
+        try {
+            tree = new AStar().getShortestPathTree(options);
+        }
+        finally {
+            // Clear the interrupt flag
+            assertTrue(Thread.interrupted());
+        }
+
+        assertTrue(options.rctx.aborted);
+        assertNull(tree.getPath(graph.getVertex("leary_20th"), false));
+    }
+
     @Test
     public void testBack() {
 
@@ -0,0 +1,123 @@
+package org.opentripplanner.routing.algorithm;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.LineString;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+import org.opentripplanner.common.geometry.GeometryUtils;
+import org.opentripplanner.common.geometry.SphericalDistanceLibrary;
+import org.opentripplanner.routing.algorithm.astar.AStar;
+import org.opentripplanner.routing.api.request.RoutingRequest;
+import org.opentripplanner.routing.core.State;
+import org.opentripplanner.routing.core.TraverseMode;
+import org.opentripplanner.routing.edgetype.StreetEdge;
+import org.opentripplanner.routing.edgetype.StreetTraversalPermission;
+import org.opentripplanner.routing.graph.Graph;
+import org.opentripplanner.routing.spt.ShortestPathTree;
+import org.opentripplanner.routing.vertextype.IntersectionVertex;
+
+/**
+ * Measure the street search on a generated grid graph. Each intersection is connected to its
+ * neighbours by streets of about 100 meters in both directions.
+ */
+@org.openjdk.jmh.annotations.State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StreetSearchBenchmark {
+
+  private static final double LAT_STEP = 0.0009;
+  private static final double LON_STEP = 0.0018;
+
+  @Param({"50", "100"})
+  public int gridSize;
+
+  @Param({"WALK", "BICYCLE"})
+  public TraverseMode mode;
+
+  private Graph graph;
+  private IntersectionVertex[][] vertices;
+
+  /** The streets along the first row of the grid, from west to east. */
+  private final List<StreetEdge> firstRow = new ArrayList<>();
+
+  @Setup(Level.Trial)
+  public void setup() {
+    graph = new Graph();
+    vertices = new IntersectionVertex[gridSize][gridSize];
+    for (int r = 0; r < gridSize; ++r) {
+      for (int c = 0; c < gridSize; ++c) {
+        vertices[r][c] = new IntersectionVertex(
+            graph,
+            "V" + r + "_" + c,
+            10.0 + c * LON_STEP,
+            60.0 + r * LAT_STEP
+        );
+      }
+    }
+    for (int r = 0; r < gridSize; ++r) {
+      for (int c = 0; c < gridSize; ++c) {
+        if (c + 1 < gridSize) {
+          StreetEdge east = street(vertices[r][c], vertices[r][c + 1], false);
+          street(vertices[r][c + 1], vertices[r][c], true);
+          if (r == 0) {
+            firstRow.add(east);
+          }
+        }
+        if (r + 1 < gridSize) {
+          street(vertices[r][c], vertices[r + 1][c], false);
+          street(vertices[r + 1][c], vertices[r][c], true);
+        }
+      }
+    }
+  }
+
+  /** Search from one corner of the grid to the opposite corner. */
+  @Benchmark
+  public ShortestPathTree aStar() {
+    RoutingRequest request = new RoutingRequest(mode);
+    request.setRoutingContext(graph, vertices[0][0], vertices[gridSize - 1][gridSize - 1]);
+    return new AStar().getShortestPathTree(request);
+  }
+
+  /** Traverse the streets along the first row of the grid. */
+  @Benchmark
+  public State streetEdgeTraverse() {
+    RoutingRequest request = new RoutingRequest(mode);
+    request.setRoutingContext(graph, vertices[0][0], vertices[0][gridSize - 1]);
+    State state = new State(request);
+    for (StreetEdge edge : firstRow) {
+      state = edge.traverse(state);
+    }
+    return state;
+  }
+
+  private static StreetEdge street(IntersectionVertex from, IntersectionVertex to, boolean back) {
+    Coordinate[] coordinates = { from.getCoordinate(), to.getCoordinate() };
+    LineString geometry = GeometryUtils.getGeometryFactory().createLineString(coordinates);
+    double length = SphericalDistanceLibrary.distance(from.getCoordinate(), to.getCoordinate());
+    return new StreetEdge(
+        from,
+        to,
+        geometry,
+        from.getLabel() + "-" + to.getLabel(),
+        length,
+        StreetTraversalPermission.ALL,
+        back
+    );
+  }
+}
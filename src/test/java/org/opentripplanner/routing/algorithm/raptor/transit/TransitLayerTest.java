@@ -0,0 +1,105 @@
+package org.opentripplanner.routing.algorithm.raptor.transit;
+
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class TransitLayerTest {
+
+  private static final ZoneId ZONE_ID = ZoneId.of("UTC");
+
+  private final LocalDate today = LocalDate.now(ZONE_ID);
+  private final List<TripPatternForDate> todayPatterns = new ArrayList<>();
+  private final List<LocalDate> mappedDates = new ArrayList<>();
+
+  // A window of two days, today and tomorrow, where only today has trips running
+  private final TransitLayer subject = new TransitLayer(
+      Map.of(today, todayPatterns),
+      new TripPatternsRunningOnDateCache(1, this::map),
+      today,
+      2,
+      null,
+      null,
+      null,
+      ZONE_ID,
+      null,
+      null
+  );
+
+  @Test
+  public void datesInWindowAreNotMappedAgain() {
+    assertSame(todayPatterns, subject.getTripPatternsForDate(today));
+    assertEquals(List.of(), mappedDates);
+  }
+
+  @Test
+  public void datesOutsideWindowAreMappedAndCached() {
+    LocalDate nextWeek = today.plusDays(7);
+
+    var patterns = subject.getTripPatternsForDate(nextWeek);
+    assertSame(patterns, subject.getTripPatternsForDate(nextWeek));
+    assertEquals(List.of(nextWeek), mappedDates);
+
+    // The cache is shared with copies, but the least recently used date is removed when full
+    var copy = new TransitLayer(subject);
+    assertSame(patterns, copy.getTripPatternsForDate(nextWeek));
+    copy.getTripPatternsForDate(nextWeek.plusDays(1));
+    assertNotSame(patterns, copy.getTripPatternsForDate(nextWeek));
+    assertEquals(List.of(nextWeek, nextWeek.plusDays(1), nextWeek), mappedDates);
+  }
+
+  @Test
+  public void windowMovesAndPastDatesAreRemoved() {
+    LocalDate tomorrow = today.plusDays(1);
+    LocalDate dayAfterTomorrow = today.plusDays(2);
+
+    subject.moveWindow(tomorrow);
+
+    // The new date in the window is kept, even if the cache is full
+    var patterns = subject.getTripPatternsForDate(dayAfterTomorrow);
+    subject.getTripPatternsForDate(today);
+    assertSame(patterns, subject.getTripPatternsForDate(dayAfterTomorrow));
+
+    // The past date is removed from the window, and mapped again when requested
+    assertNotSame(todayPatterns, subject.getTripPatternsForDate(today));
+    assertEquals(List.of(dayAfterTomorrow, today), mappedDates);
+  }
+
+  @Test
+  public void realtimeUpdatesOutsideWindowAreKept() {
+    LocalDate nextWeek = today.plusDays(7);
+    List<TripPatternForDate> updated = new ArrayList<>();
+
+    subject.replaceTripPatternsForDate(nextWeek, updated);
+
+    assertSame(updated, subject.getTripPatternsForDate(nextWeek));
+    assertEquals(List.of(), mappedDates);
+  }
+
+  @Test
+  public void realtimeUpdatesForPastDatesAreNotKept() {
+    LocalDate tomorrow = today.plusDays(1);
+    List<TripPatternForDate> updated = new ArrayList<>();
+
+    subject.moveWindow(tomorrow);
+    subject.replaceTripPatternsForDate(today, updated);
+
+    // The past date is not carried forward to the copies
+    var copy = new TransitLayer(subject);
+    assertNotSame(updated, copy.getTripPatternsForDate(today));
+    assertEquals(List.of(today), mappedDates);
+  }
+
+  private List<TripPatternForDate> map(LocalDate date) {
+    mappedDates.add(date);
+    return new ArrayList<>();
+  }
+}
@@ -0,0 +1,55 @@
+package org.opentripplanner.routing.algorithm.raptor.transit.request;
+
+import org.junit.Test;
+import org.opentripplanner.model.FeedScopedId;
+import org.opentripplanner.model.Route;
+import org.opentripplanner.model.StopPattern;
+import org.opentripplanner.model.TripPattern;
+
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class ActiveTripPatternsTest {
+
+  private static final TripPattern TP = new TripPattern(
+      new FeedScopedId("F", "P1"),
+      new Route(new FeedScopedId("F", "L1")),
+      new StopPattern(List.of())
+  );
+
+  private static final TripPatternForDates A = pattern("A", 0, 1, 2);
+  private static final TripPatternForDates B = pattern("B", 2, 3, 2);
+  private static final TripPatternForDates C = pattern("C", 3, 0);
+
+  @Test
+  public void routesAreOrderedByPatternId() {
+    var subject = new ActiveTripPatterns(List.of(C, A, B), 5);
+
+    assertEquals(3, subject.numberOfRoutes());
+    assertEquals(A, subject.route(0));
+    assertEquals(B, subject.route(1));
+    assertEquals(C, subject.route(2));
+  }
+
+  @Test
+  public void routeIndexesForStop() {
+    var subject = new ActiveTripPatterns(List.of(C, B, A), 5);
+
+    assertArrayEquals(new int[] { 0, 2 }, subject.routeIndexesForStop(0));
+    assertArrayEquals(new int[] { 0 }, subject.routeIndexesForStop(1));
+    // Pattern B visit stop 2 twice, but is only listed once
+    assertArrayEquals(new int[] { 0, 1 }, subject.routeIndexesForStop(2));
+    assertArrayEquals(new int[] { 1, 2 }, subject.routeIndexesForStop(3));
+    assertArrayEquals(new int[] {}, subject.routeIndexesForStop(4));
+  }
+
+  private static TripPatternForDates pattern(String id, int ... stopIndexes) {
+    return new TripPatternForDates(
+        new TripPatternWithId(new FeedScopedId("F", id), stopIndexes, TP),
+        List.of(),
+        List.of()
+    );
+  }
+}
@@ -0,0 +1,75 @@
+package org.opentripplanner.routing.algorithm.raptor.transit.request;
+
+import org.junit.Test;
+import org.opentripplanner.routing.algorithm.raptor.transit.TransfersByStop;
+import org.opentripplanner.routing.api.request.RoutingRequest;
+import org.opentripplanner.transit.raptor.api.transit.RaptorTransfer;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class RaptorTransferIndexTest {
+
+  private static final TransfersByStop TRANSFERS = TransfersByStop.builder(4)
+      .add(0, 1, 100, null)
+      .add(0, 2, 300, null)
+      // A shorter transfer to the same stop replaces the first one
+      .add(0, 2, 200, null)
+      // No transfers from stop 1 and 2
+      .add(3, 0, 100, null)
+      .build();
+
+  @Test
+  public void transfersByStop() {
+    assertEquals(4, TRANSFERS.numberOfStops());
+    assertEquals(4, TRANSFERS.size());
+    assertEquals(0, TRANSFERS.offset(0));
+    assertEquals(3, TRANSFERS.offset(1));
+    assertEquals(3, TRANSFERS.offset(2));
+    assertEquals(3, TRANSFERS.offset(3));
+    assertEquals(4, TRANSFERS.offset(4));
+    assertEquals(200, TRANSFERS.transfer(2).getDistanceMeters());
+    assertEquals(2, TRANSFERS.transfer(2).getToStop());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void transfersMustBeAddedInFromStopOrder() {
+    TransfersByStop.builder(2).add(1, 0, 100, null).add(0, 1, 100, null);
+  }
+
+  @Test
+  public void createIndexWithTheLowestCostTransferToEachStop() {
+    RoutingRequest request = new RoutingRequest();
+    request.walkSpeed = 1.0;
+    request.walkReluctance = 2.0;
+
+    RaptorTransferIndex subject = RaptorTransferIndex.create(TRANSFERS, request);
+
+    List<RaptorTransfer> fromStop0 = toList(subject.getTransfers(0));
+    assertEquals(2, fromStop0.size());
+    assertEquals(1, fromStop0.get(0).stop());
+    assertEquals(100, fromStop0.get(0).durationInSeconds());
+    assertEquals(2, fromStop0.get(1).stop());
+    assertEquals(200, fromStop0.get(1).durationInSeconds());
+    assertEquals(
+        200, ((TransferWithDuration) fromStop0.get(1)).transfer().getDistanceMeters()
+    );
+
+    assertFalse(subject.getTransfers(1).hasNext());
+    assertFalse(subject.getTransfers(2).hasNext());
+
+    List<RaptorTransfer> fromStop3 = toList(subject.getTransfers(3));
+    assertEquals(1, fromStop3.size());
+    assertEquals(0, fromStop3.get(0).stop());
+  }
+
+  private static List<RaptorTransfer> toList(Iterator<RaptorTransfer> it) {
+    List<RaptorTransfer> list = new ArrayList<>();
+    it.forEachRemaining(list::add);
+    return list;
+  }
+}
@@ -9,11 +9,13 @@ import org.opentripplanner.routing.trippattern.Deduplicator;
 import org.opentripplanner.routing.trippattern.TripTimes;
 
 import java.time.LocalDate;
+import java.util.BitSet;
 import java.util.List;
 import java.util.Set;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertTrue;
 
 public class RoutingRequestTransitDataProviderFilterTest {
@@ -219,4 +221,70 @@ public class RoutingRequestTransitDataProviderFilterTest {
     route.setBikesAllowed(BikeAccess.NOT_ALLOWED);
     assertEquals(BikeAccess.NOT_ALLOWED, RoutingRequestTransitDataProviderFilter.bikeAccessForTrip(trip));
   }
+
+  @Test
+  public void filtersWithSameParametersAreEqual() {
+    var filter = new RoutingRequestTransitDataProviderFilter(
+        false, true, false, Set.of(TransitMode.BUS), Set.of(TEST_ROUTE_ID)
+    );
+    var same = new RoutingRequestTransitDataProviderFilter(
+        false, true, false, Set.of(TransitMode.BUS), Set.of(TEST_ROUTE_ID)
+    );
+    var other = new RoutingRequestTransitDataProviderFilter(
+        false, true, false, Set.of(TransitMode.BUS), Set.of()
+    );
+
+    // The filter is part of the trip pattern cache key
+    assertEquals(filter, same);
+    assertEquals(filter.hashCode(), same.hashCode());
+    assertNotEquals(filter, other);
+  }
+
+  @Test
+  public void filterAvailableTripsTest() {
+    TripTimes bikesNotAllowed = createTestTripTimes();
+    TripTimes bikesAllowed = createTestTripTimes();
+    bikesAllowed.getTrip().setBikesAllowed(BikeAccess.ALLOWED);
+    TripTimes bikesAllowedAndCanceled = createTestTripTimes();
+    bikesAllowedAndCanceled.getTrip().setBikesAllowed(BikeAccess.ALLOWED);
+    bikesAllowedAndCanceled.getTrip().setAlteration(TripAlteration.CANCELLATION);
+
+    Route route = new Route(TEST_ROUTE_ID);
+    route.setMode(TransitMode.BUS);
+    var stopTime = new StopTime();
+    stopTime.setStop(STOP_FOR_TEST);
+    TripPattern pattern = new TripPattern(null, route, new StopPattern(List.of(stopTime)));
+    var tripPatternForDate = new TripPatternForDate(
+        new TripPatternWithRaptorStopIndexes(new int[0], pattern),
+        List.of(bikesNotAllowed, bikesAllowed, bikesAllowedAndCanceled),
+        LocalDate.now()
+    );
+
+    var noFilter = new RoutingRequestTransitDataProviderFilter(
+        false, false, true, Set.of(), Set.of()
+    );
+    BitSet all = noFilter.filterAvailableTrips(tripPatternForDate);
+    assertEquals("{0, 1, 2}", all.toString());
+    // Nothing is filtered, the trip pattern is not copied
+    assertTrue(tripPatternForDate == tripPatternForDate.newWithFilteredTripTimes(all));
+
+    var bikeFilter = new RoutingRequestTransitDataProviderFilter(
+        true, false, false, Set.of(), Set.of()
+    );
+    BitSet bikes = bikeFilter.filterAvailableTrips(tripPatternForDate);
+    // Only the first required property is checked, the canceled trip is not removed
+    assertEquals("{1, 2}", bikes.toString());
+    assertEquals(
+        List.of(bikesAllowed, bikesAllowedAndCanceled),
+        tripPatternForDate.newWithFilteredTripTimes(bikes).tripTimes()
+    );
+
+    // The precomputed bit sets give the same result as the trip times predicate
+    for (int i = 0; i < tripPatternForDate.numberOfTripSchedules(); ++i) {
+      assertEquals(
+          bikeFilter.tripTimesPredicate(tripPatternForDate.getTripTimes(i)),
+          bikes.get(i)
+      );
+    }
+  }
 }
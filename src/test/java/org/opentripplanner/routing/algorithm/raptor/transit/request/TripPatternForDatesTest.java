@@ -0,0 +1,81 @@
+package org.opentripplanner.routing.algorithm.raptor.transit.request;
+
+import static org.junit.Assert.assertEquals;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+import org.opentripplanner.model.FeedScopedId;
+import org.opentripplanner.model.Route;
+import org.opentripplanner.model.StopPattern;
+import org.opentripplanner.model.StopTime;
+import org.opentripplanner.model.TransitMode;
+import org.opentripplanner.model.Trip;
+import org.opentripplanner.model.TripPattern;
+import org.opentripplanner.routing.algorithm.raptor.transit.TripPatternForDate;
+import org.opentripplanner.routing.algorithm.raptor.transit.TripPatternWithRaptorStopIndexes;
+import org.opentripplanner.routing.trippattern.Deduplicator;
+import org.opentripplanner.routing.trippattern.TripTimes;
+
+public class TripPatternForDatesTest {
+
+  private static final LocalDate DAY_1 = LocalDate.of(2021, 3, 1);
+  private static final LocalDate DAY_2 = LocalDate.of(2021, 3, 2);
+  private static final int ONE_DAY = 24 * 3600;
+
+  @Test
+  public void arrivalAndDepartureTimesMatchTripSchedules() {
+    var route = new Route(new FeedScopedId("F", "R1"));
+    route.setMode(TransitMode.BUS);
+    var pattern = new TripPattern(
+        new FeedScopedId("F", "P1"), route, new StopPattern(List.of())
+    );
+    TripPatternWithRaptorStopIndexes tripPattern = new TripPatternWithId(
+        new FeedScopedId("F", "P1"), new int[] { 3, 7, 9 }, pattern
+    );
+
+    var day1 = new TripPatternForDate(
+        tripPattern,
+        List.of(tripTimes("T1", 100, 200, 300), tripTimes("T2", 400, 500, 600)),
+        DAY_1
+    );
+    var day2 = new TripPatternForDate(
+        tripPattern,
+        List.of(tripTimes("T1", 100, 200, 300)),
+        DAY_2
+    );
+
+    var subject = new TripPatternForDates(
+        tripPattern, List.of(day1, day2), List.of(0, ONE_DAY)
+    );
+
+    assertEquals(3, subject.numberOfTripSchedules());
+
+    for (int i = 0; i < subject.numberOfTripSchedules(); ++i) {
+      var trip = subject.getTripSchedule(i);
+      for (int stopPos = 0; stopPos < subject.numberOfStopsInPattern(); ++stopPos) {
+        assertEquals(trip.arrival(stopPos), subject.arrivalTime(i, stopPos));
+        assertEquals(trip.departure(stopPos), subject.departureTime(i, stopPos));
+      }
+    }
+
+    // The offset should be applied to the trips on the second day
+    assertEquals(ONE_DAY + 160, subject.departureTime(2, 0));
+    assertEquals(ONE_DAY + 300, subject.arrivalTime(2, 2));
+  }
+
+  private static TripTimes tripTimes(String tripId, int ... arrivalTimes) {
+    StopTime[] stopTimes = new StopTime[arrivalTimes.length];
+    for (int i = 0; i < arrivalTimes.length; i++) {
+      stopTimes[i] = new StopTime();
+      stopTimes[i].setStopSequence(i);
+      stopTimes[i].setArrivalTime(arrivalTimes[i]);
+      // Dwell 60 seconds at each stop
+      stopTimes[i].setDepartureTime(arrivalTimes[i] + 60);
+    }
+    return new TripTimes(
+        new Trip(new FeedScopedId("F", tripId)), Arrays.asList(stopTimes), new Deduplicator()
+    );
+  }
+}
@@ -0,0 +1,109 @@
+package org.opentripplanner.routing.core;
+
+import org.junit.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.opentripplanner.routing.algorithm.astar.AStar;
+import org.opentripplanner.routing.api.request.RoutingRequest;
+import org.opentripplanner.common.geometry.GeometryUtils;
+import org.opentripplanner.routing.edgetype.FreeEdge;
+import org.opentripplanner.routing.edgetype.StreetEdge;
+import org.opentripplanner.routing.edgetype.StreetTraversalPermission;
+import org.opentripplanner.routing.edgetype.TemporaryFreeEdge;
+import org.opentripplanner.routing.graph.Edge;
+import org.opentripplanner.routing.graph.Graph;
+import org.opentripplanner.routing.graph.Vertex;
+import org.opentripplanner.routing.location.TemporaryStreetLocation;
+import org.opentripplanner.routing.spt.GraphPath;
+import org.opentripplanner.routing.spt.ShortestPathTree;
+import org.opentripplanner.routing.vertextype.IntersectionVertex;
+import org.opentripplanner.routing.vertextype.TemporarySplitterVertex;
+import org.opentripplanner.util.NonLocalizedString;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class RoutingContextTemporaryEdgesTest {
+
+  private final Graph graph = new Graph();
+
+  // Given a very simple graph: A -> B
+  private final IntersectionVertex a = new IntersectionVertex(graph, "A", 0.0, 0.0);
+  private final IntersectionVertex b = new IntersectionVertex(graph, "B", 0.001, 0.0);
+  {
+    new FreeEdge(a, b);
+  }
+
+  // And an origin linked to A and a destination linked from B
+  private final TemporaryStreetLocation origin = location("origin", -0.001, false);
+  private final TemporaryStreetLocation destination = location("destination", 0.002, true);
+  private final Edge originToA = new TemporaryFreeEdge(origin, a);
+  private final Edge bToDestination = new TemporaryFreeEdge(b, destination);
+
+  @Test
+  public void temporaryEdgesAreNotAddedToPermanentVertices() {
+    assertEquals(0, a.getIncoming().size());
+    assertEquals(0, b.getOutgoing().size());
+
+    assertEquals(List.of(originToA), origin.getOutgoing());
+    assertEquals(List.of(bToDestination), destination.getIncoming());
+  }
+
+  @Test
+  public void temporaryEdgesAreVisibleInTheRoutingContext() {
+    RoutingRequest request = new RoutingRequest();
+    RoutingContext subject = new RoutingContext(request, graph, origin, destination);
+
+    assertTrue(subject.getIncoming(a).contains(originToA));
+    assertTrue(subject.getOutgoing(b).contains(bToDestination));
+    assertEquals(1, subject.getOutgoing(a).size());
+
+    // A context for another request does not see the temporary edges
+    RoutingContext other = new RoutingContext(request, graph, a, b);
+    assertFalse(other.getIncoming(a).contains(originToA));
+    assertFalse(other.getOutgoing(b).contains(bToDestination));
+  }
+
+  @Test
+  public void requestEdgesAreNotAddedToRealtimeTemporaryVertices() {
+    // A vertex splitting a street when linking realtime data, like a rental station
+    IntersectionVertex c = new IntersectionVertex(graph, "C", 0.0, 0.001);
+    IntersectionVertex d = new IntersectionVertex(graph, "D", 0.001, 0.001);
+    StreetEdge street = new StreetEdge(
+        c, d, GeometryUtils.makeLineString(0.0, 0.001, 0.001, 0.001), "street", 100,
+        StreetTraversalPermission.ALL, false
+    );
+    TemporarySplitterVertex realtimeVertex = new TemporarySplitterVertex(
+        "split", 0.0005, 0.001, street, false
+    );
+    realtimeVertex.setRealtime(true);
+
+    Edge originToRealtimeVertex = new TemporaryFreeEdge(origin, (Vertex) realtimeVertex);
+
+    assertFalse(realtimeVertex.getIncoming().contains(originToRealtimeVertex));
+    RoutingContext subject = new RoutingContext(new RoutingRequest(), graph, origin, destination);
+    assertTrue(subject.getIncoming(realtimeVertex).contains(originToRealtimeVertex));
+  }
+
+  @Test
+  public void routeBetweenTemporaryVertices() {
+    RoutingRequest request = new RoutingRequest();
+    request.setRoutingContext(graph, origin, destination);
+
+    ShortestPathTree spt = new AStar().getShortestPathTree(request);
+    GraphPath path = spt.getPath(destination, false);
+    request.cleanup();
+
+    assertNotNull(path);
+    assertEquals(4, path.states.size());
+  }
+
+  private static TemporaryStreetLocation location(String name, double lat, boolean endVertex) {
+    return new TemporaryStreetLocation(
+        name, new Coordinate(0.0, lat), new NonLocalizedString(name), endVertex
+    );
+  }
+}
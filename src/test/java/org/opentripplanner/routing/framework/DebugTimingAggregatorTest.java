@@ -0,0 +1,56 @@
+package org.opentripplanner.routing.framework;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.transit.raptor.api.response.RaptorSearchStatistics;
+
+public class DebugTimingAggregatorTest {
+
+  @Test
+  public void recordMetricsForEachPhase() {
+    var registry = new SimpleMeterRegistry();
+    var subject = new DebugTimingAggregator(registry);
+
+    subject.startedCalculating();
+    subject.finishedPrecalculating();
+    subject.finishedDirectStreetRouter();
+    subject.finishedPatternFiltering();
+    subject.finishedAccessEgress();
+    subject.finishedRaptorSearch(new RaptorSearchStatistics(60, 300, 12_000, 7));
+    subject.finishedItineraryCreation();
+    subject.finishedTransitRouter();
+    subject.finishedFiltering();
+    subject.finishedRendering();
+
+    assertEquals(1, registry.get("routing.direct.street").timer().count());
+    assertEquals(1, registry.get("routing.transit.raptor").timer().count());
+    assertEquals(1, registry.get("routing.total").timer().count());
+    assertEquals(300, registry.get("routing.raptor.rounds").summary().totalAmount());
+    assertEquals(12_000, registry.get("routing.raptor.stop.arrivals").summary().totalAmount());
+    assertEquals(7, registry.get("routing.raptor.pareto.set.size.max").summary().max());
+
+    // A request without transit only records the street and total timers
+    var noTransit = new DebugTimingAggregator(registry);
+    noTransit.startedCalculating();
+    noTransit.finishedPrecalculating();
+    noTransit.finishedDirectStreetRouter();
+    noTransit.finishedTransitRouter();
+    noTransit.finishedFiltering();
+    noTransit.finishedRendering();
+
+    assertEquals(2, registry.get("routing.direct.street").timer().count());
+    assertEquals(1, registry.get("routing.transit.raptor").timer().count());
+    assertEquals(2, registry.get("routing.total").timer().count());
+
+    // The pareto set size is not recorded if the worker does not collect it
+    var standardSearch = new DebugTimingAggregator(registry);
+    standardSearch.finishedRaptorSearch(
+        new RaptorSearchStatistics(60, 300, 12_000, RaptorSearchStatistics.NOT_SET)
+    );
+
+    assertEquals(2, registry.get("routing.raptor.rounds").summary().count());
+    assertEquals(1, registry.get("routing.raptor.pareto.set.size.max").summary().count());
+  }
+}
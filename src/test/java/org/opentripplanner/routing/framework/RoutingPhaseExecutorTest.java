@@ -0,0 +1,183 @@
+package org.opentripplanner.routing.framework;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.Test;
+
+public class RoutingPhaseExecutorTest {
+
+  @Test
+  public void sequentialExecutorRunPhasesInTheOrderTheResultIsRetrieved() {
+    var subject = RoutingPhaseExecutor.SEQUENTIAL;
+    List<String> events = new ArrayList<>();
+
+    var a = subject.submit("A", () -> events.add("A"));
+    var b = subject.submit("B", () -> events.add("B"));
+
+    assertFalse(subject.isMultiThreaded());
+    assertTrue(events.isEmpty());
+    assertTrue(b.get());
+    assertTrue(a.get());
+    // Retrieving the result twice does not run the phase again
+    assertTrue(b.get());
+    assertEquals(List.of("B", "A"), events);
+  }
+
+  @Test
+  public void multiThreadedExecutorRunPhasesInParallel() throws InterruptedException {
+    var subject = new RoutingPhaseExecutor(2, 30);
+    try {
+      var latch = new CountDownLatch(2);
+
+      // Each phase waits for the other to start, this only completes if they run in parallel
+      var a = subject.submit("A", () -> countDownAndAwait(latch, "A"));
+      var b = subject.submit("B", () -> countDownAndAwait(latch, "B"));
+
+      assertTrue(subject.isMultiThreaded());
+      assertEquals("A", a.get());
+      assertEquals("B", b.get());
+    }
+    finally {
+      subject.shutdown();
+    }
+  }
+
+  @Test
+  public void timeoutValueIsReturnedIfPhaseTimesOut() {
+    var subject = new RoutingPhaseExecutor(1, 0.05);
+    try {
+      // The latch never reach 0, the phase runs until it is cancelled
+      var latch = new CountDownLatch(2);
+      var phase = subject.submit("Slow", () -> countDownAndAwait(latch, "Done"), "Timeout");
+      assertEquals("Timeout", phase.get());
+      assertTrue(phase.isTimedOut());
+    }
+    finally {
+      subject.shutdown();
+    }
+  }
+
+  @Test
+  public void timeoutIsMeasuredFromThePhaseStart() {
+    var subject = new RoutingPhaseExecutor(1, 0.3);
+    try {
+      // Occupy the only thread for less than the timeout
+      var first = subject.submit("First", () -> sleep(200));
+      var second = subject.submit("Second", () -> sleep(200) ? "Second" : null, "Timeout");
+
+      // The second phase completes after more than the timeout, but within it from its start
+      assertEquals("Second", second.get());
+      assertFalse(second.isTimedOut());
+      assertTrue(first.get());
+    }
+    finally {
+      subject.shutdown();
+    }
+  }
+
+  @Test
+  public void aPhaseNotStartedWithinTheTimeoutIsCancelled() {
+    var subject = new RoutingPhaseExecutor(1, 0.1);
+    try {
+      var secondRun = new AtomicBoolean(false);
+      // Occupy the only thread for longer than the timeout
+      var first = subject.submit("First", () -> sleep(400));
+      var second = subject.submit("Second", () -> secondRun.getAndSet(true), false);
+
+      assertFalse(second.get());
+      assertTrue(second.isTimedOut());
+      assertTrue(first.get());
+      // The thread takes the phases in order, when the third phase runs the second one is skipped
+      var third = subject.submit("Third", () -> true, false);
+      assertTrue(third.get());
+      assertFalse(secondRun.get());
+    }
+    finally {
+      subject.shutdown();
+    }
+  }
+
+  @Test
+  public void aPhaseWithoutTimeoutNotStartedIsRunInTheCallerThread() {
+    var subject = new RoutingPhaseExecutor(1, 30);
+    try {
+      // Occupy the only thread
+      var first = subject.submit("First", () -> sleep(400));
+      var second = subject.submit("Second", () -> Thread.currentThread().getName());
+
+      // The caller does not wait for the first phase to free the thread
+      assertEquals(Thread.currentThread().getName(), second.get());
+      assertTrue(first.get());
+    }
+    finally {
+      subject.shutdown();
+    }
+  }
+
+  @Test
+  public void aTimedOutPhaseIsInterrupted() throws InterruptedException {
+    var subject = new RoutingPhaseExecutor(1, 0.05);
+    try {
+      var interrupted = new CountDownLatch(1);
+      var phase = subject.submit("Slow", () -> {
+        try {
+          new CountDownLatch(1).await();
+        }
+        catch (InterruptedException e) {
+          interrupted.countDown();
+        }
+        return "Done";
+      }, "Timeout");
+
+      assertEquals("Timeout", phase.get());
+      assertTrue(interrupted.await(10, TimeUnit.SECONDS));
+    }
+    finally {
+      subject.shutdown();
+    }
+  }
+
+  @Test
+  public void runtimeExceptionsArePropagatedToTheCaller() {
+    var subject = new RoutingPhaseExecutor(1, 30);
+    try {
+      var phase = subject.submit("Failing", () -> {
+        throw new IllegalArgumentException("Expected");
+      });
+      var ex = assertThrows(IllegalArgumentException.class, phase::get);
+      assertEquals("Expected", ex.getMessage());
+    }
+    finally {
+      subject.shutdown();
+    }
+  }
+
+  private static boolean sleep(long millis) {
+    try {
+      Thread.sleep(millis);
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    return true;
+  }
+
+  private static String countDownAndAwait(CountDownLatch latch, String result) {
+    latch.countDown();
+    try {
+      latch.await();
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    return result;
+  }
+}
@@ -0,0 +1,127 @@
+package org.opentripplanner.routing.impl;
+
+import org.junit.Test;
+import org.opentripplanner.model.FareAttribute;
+import org.opentripplanner.model.FeedScopedId;
+import org.opentripplanner.model.Stop;
+import org.opentripplanner.routing.core.Fare;
+import org.opentripplanner.routing.core.Fare.FareType;
+import org.opentripplanner.routing.core.FareRuleSet;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class DefaultFareServiceImplTest {
+
+  private static final FeedScopedId ROUTE_1 = new FeedScopedId("F", "R1");
+  private static final FeedScopedId ROUTE_2 = new FeedScopedId("F", "R2");
+  private static final Stop STOP_A = Stop.stopForTest("A", 60.0, 10.0);
+  private static final Stop STOP_B = Stop.stopForTest("B", 60.1, 10.0);
+  private static final float DELTA = 0.001f;
+
+  private final List<FareRuleSet> rules = new ArrayList<>();
+  private final DefaultFareServiceImpl subject = new DefaultFareServiceImpl();
+
+  // A ride in zone 1 on route 1, and a ride from zone 1 to zone 2 on route 2
+  private final Ride ride1 = ride(ROUTE_1, "1", "1", 0);
+  private final Ride ride2 = ride(ROUTE_2, "1", "2", 600);
+
+  @Test
+  public void onlyMatchingRulesAreUsed() {
+    rule("route1", 2f).addRoute(ROUTE_1);
+    rule("zone1to2", 3f).addOriginDestination("1", "2");
+    rule("anyRide", 5f);
+    FareRuleSet containsZones = rule("containsZones", 1.5f);
+    containsZones.addContains("1");
+    containsZones.addContains("2");
+    subject.addFareRules(FareType.regular, rules);
+
+    assertEquals(2f, calculateCost(List.of(ride1)), DELTA);
+    assertEquals(1.5f, calculateCost(List.of(ride2)), DELTA);
+    assertEquals(1.5f, calculateCost(List.of(ride1, ride2)), DELTA);
+  }
+
+  @Test
+  public void firstRuleIsUsedWhenFaresAreEqual() {
+    rule("anyRide", 2f);
+    rule("route1", 2f).addRoute(ROUTE_1);
+    rule("zone1", 2f).addOriginDestination(null, "1");
+    subject.addFareRules(FareType.regular, rules);
+
+    assertEquals("anyRide", fareId(List.of(ride1)));
+
+    rules.remove(0);
+    subject.addFareRules(FareType.regular, rules);
+
+    assertEquals("route1", fareId(List.of(ride1)));
+  }
+
+  @Test
+  public void equalRidesInOtherItinerariesGetTheSameFare() {
+    rule("route2", 3f).addRoute(ROUTE_2);
+    subject.addFareRules(FareType.regular, rules);
+
+    assertEquals(3f, calculateCost(List.of(ride2)), DELTA);
+
+    Ride sameRide = ride(ROUTE_2, "1", "2", 600);
+    assertEquals(ride2, sameRide);
+    assertEquals(3f, calculateCost(List.of(sameRide)), DELTA);
+
+    Ride laterRide = ride(ROUTE_2, "1", "2", 1200);
+    assertEquals(3f, calculateCost(List.of(laterRide, laterRide)), DELTA);
+    assertEquals(Float.POSITIVE_INFINITY, calculateCost(List.of(ride1, ride2)), DELTA);
+  }
+
+  @Test
+  public void rulesNotAddedToTheServiceAreAllChecked() {
+    subject.addFareRules(FareType.regular, rules);
+    rule("route1", 2f).addRoute(ROUTE_1);
+
+    assertEquals(2f, subject.calculateCost(FareType.regular, List.of(ride1), rules), DELTA);
+  }
+
+  private float calculateCost(List<Ride> rides) {
+    return subject.calculateCost(
+        FareType.regular,
+        rides,
+        subject.fareRulesPerType.get(FareType.regular)
+    );
+  }
+
+  private String fareId(List<Ride> rides) {
+    Fare fare = new Fare();
+    subject.populateFare(
+        fare,
+        null,
+        FareType.regular,
+        rides,
+        subject.fareRulesPerType.get(FareType.regular)
+    );
+    return fare.getDetails(FareType.regular).get(0).fareId.getId();
+  }
+
+  private FareRuleSet rule(String id, float price) {
+    FareAttribute attribute = new FareAttribute(new FeedScopedId("F", id));
+    attribute.setPrice(price);
+    FareRuleSet rule = new FareRuleSet(attribute);
+    rules.add(rule);
+    return rule;
+  }
+
+  private static Ride ride(FeedScopedId route, String startZone, String endZone, long startTime) {
+    Ride ride = new Ride();
+    ride.route = route;
+    ride.trip = new FeedScopedId("F", route.getId() + ":" + startTime);
+    ride.firstStop = STOP_A;
+    ride.lastStop = STOP_B;
+    ride.startZone = startZone;
+    ride.endZone = endZone;
+    ride.zones.add(startZone);
+    ride.zones.add(endZone);
+    ride.startTime = startTime;
+    ride.endTime = startTime + 300;
+    return ride;
+  }
+}
@@ -0,0 +1,179 @@
+package org.opentripplanner.routing.impl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Currency;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.opentripplanner.model.FareAttribute;
+import org.opentripplanner.model.FeedScopedId;
+import org.opentripplanner.model.Stop;
+import org.opentripplanner.routing.core.Fare;
+import org.opentripplanner.routing.core.Fare.FareType;
+import org.opentripplanner.routing.core.FareRuleSet;
+import org.opentripplanner.routing.core.TraverseMode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measure the cost of calculating the fares of all itineraries in a response with the fare
+ * services based on GTFS fare rules. The itineraries share most of their rides, like the
+ * itineraries of a real search. Each response is at a new time of day, so fares calculated for
+ * earlier responses can not be reused.
+ * <p>
+ * The NYC fare service does not use fare rules, and needs Raptor paths to calculate fares, so it
+ * is not part of this benchmark.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FareServiceBenchmark {
+
+  private static final String FEED_ID = "F";
+  private static final int NUMBER_OF_ROUTES = 200;
+  private static final int NUMBER_OF_ZONES = 20;
+  private static final int ITINERARIES_PER_RESPONSE = 20;
+  private static final int RIDES_PER_ITINERARY = 4;
+  private static final int SHARED_RIDES = 10;
+  private static final Currency CURRENCY = Currency.getInstance("USD");
+
+  @Param({"default", "seattle", "sfbay"})
+  public String fareService;
+
+  @Param({"100", "1000"})
+  public int numberOfRules;
+
+  private final Random random = new Random(42);
+  private final List<Stop> stops = new ArrayList<>();
+
+  private DefaultFareServiceImpl service;
+  private long startOfDay = 0;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    for (int i = 0; i < NUMBER_OF_ZONES; ++i) {
+      stops.add(Stop.stopForTest("S" + i, 60.0, 10.0 + i / 100.0));
+    }
+    List<FareRuleSet> rules = createRules();
+    switch (fareService) {
+      case "seattle":
+        service = new SeattleFareServiceImpl();
+        service.addFareRules(FareType.regular, rules);
+        service.addFareRules(FareType.youth, rules);
+        service.addFareRules(FareType.senior, rules);
+        break;
+      case "sfbay":
+        service = new SFBayFareServiceImpl(rules);
+        break;
+      default:
+        service = new DefaultFareServiceImpl();
+        service.addFareRules(FareType.regular, rules);
+    }
+  }
+
+  @Benchmark
+  public List<Fare> faresForResponse() {
+    startOfDay += 24 * 3600;
+    List<Ride> shared = new ArrayList<>();
+    for (int i = 0; i < SHARED_RIDES; ++i) {
+      shared.add(ride(startOfDay + 300L * i));
+    }
+
+    List<Fare> fares = new ArrayList<>();
+    for (int i = 0; i < ITINERARIES_PER_RESPONSE; ++i) {
+      List<Ride> rides = new ArrayList<>();
+      for (int j = 0; j < RIDES_PER_ITINERARY; ++j) {
+        rides.add(shared.get((i + j) % SHARED_RIDES));
+      }
+      fares.add(fare(rides));
+    }
+    return fares;
+  }
+
+  /** Calculate the fare of the rides the same way as {@link DefaultFareServiceImpl#getCost}. */
+  private Fare fare(List<Ride> rides) {
+    Fare fare = new Fare();
+    for (Map.Entry<FareType, Collection<FareRuleSet>> it : service.fareRulesPerType.entrySet()) {
+      service.populateFare(fare, CURRENCY, it.getKey(), rides, it.getValue());
+    }
+    return fare;
+  }
+
+  /**
+   * Create rules limited to routes, rules from one zone to another and rules for the zones
+   * passed through, like the fares of feeds with several operators.
+   */
+  private List<FareRuleSet> createRules() {
+    List<FareRuleSet> rules = new ArrayList<>();
+    for (int i = 0; i < numberOfRules; ++i) {
+      FareAttribute attribute = new FareAttribute(new FeedScopedId(FEED_ID, "FARE" + i));
+      attribute.setPrice(1f + random.nextInt(20) / 4f);
+      attribute.setCurrencyType(CURRENCY.getCurrencyCode());
+      FareRuleSet rule = new FareRuleSet(attribute);
+      switch (i % 3) {
+        case 0:
+          for (int j = 0; j < 5; ++j) {
+            rule.addRoute(route(random.nextInt(NUMBER_OF_ROUTES)));
+          }
+          break;
+        case 1:
+          rule.addOriginDestination(
+              zone(random.nextInt(NUMBER_OF_ZONES)),
+              zone(random.nextInt(NUMBER_OF_ZONES))
+          );
+          break;
+        default:
+          rule.addContains(zone(random.nextInt(NUMBER_OF_ZONES)));
+          rule.addContains(zone(random.nextInt(NUMBER_OF_ZONES)));
+      }
+      rules.add(rule);
+    }
+    return rules;
+  }
+
+  private Ride ride(long startTime) {
+    FeedScopedId route = route(random.nextInt(NUMBER_OF_ROUTES));
+    int from = random.nextInt(NUMBER_OF_ZONES);
+    int to = random.nextInt(NUMBER_OF_ZONES);
+
+    Ride ride = new Ride();
+    ride.agency = new FeedScopedId(FEED_ID, "A");
+    ride.route = route;
+    ride.trip = new FeedScopedId(FEED_ID, route.getId() + ":" + startTime);
+    ride.firstStop = stops.get(from);
+    ride.lastStop = stops.get(to);
+    ride.startZone = zone(from);
+    ride.endZone = zone(to);
+    for (int z = Math.min(from, to); z <= Math.max(from, to); ++z) {
+      ride.zones.add(zone(z));
+    }
+    ride.startTime = startTime;
+    ride.endTime = startTime + 600;
+    ride.classifier = TraverseMode.BUS;
+    return ride;
+  }
+
+  /** SFBay only uses the fare rules for BART, so all routes are in the BART feed. */
+  private static FeedScopedId route(int i) {
+    return new FeedScopedId("BART", "R" + i);
+  }
+
+  private static String zone(int i) {
+    return "Z" + i;
+  }
+}
@@ -0,0 +1,133 @@
+package org.opentripplanner.routing.spt;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import org.junit.Test;
+import org.opentripplanner.routing.api.request.RoutingRequest;
+import org.opentripplanner.routing.core.State;
+import org.opentripplanner.routing.graph.Graph;
+import org.opentripplanner.routing.graph.SimpleConcreteVertex;
+import org.opentripplanner.routing.graph.Vertex;
+
+public class IndexedShortestPathTreeTest {
+
+  /** States are co-dominant if one is better on weight and the other on time. */
+  private static final DominanceFunction WEIGHT_AND_TIME = new DominanceFunction() {
+    @Override
+    protected boolean betterOrEqual(State a, State b) {
+      return a.weight <= b.weight && a.getTimeSeconds() <= b.getTimeSeconds();
+    }
+  };
+
+  private final RoutingRequest request = new RoutingRequest();
+
+  @Test
+  public void keepNonDominatedStates() {
+    var graph = new Graph();
+    var vertex = new SimpleConcreteVertex(graph, "A", 0, 0);
+    var subject = newTree(graph);
+
+    var s1 = state(vertex, 2, 10);
+    assertTrue(subject.add(s1));
+    assertFalse(subject.add(state(vertex, 3, 11)));
+    assertEquals(List.of(s1), subject.getStates(vertex));
+
+    var s2 = state(vertex, 1, 10);
+    assertTrue(subject.add(s2));
+    assertFalse(subject.visit(s1));
+    assertTrue(subject.visit(s2));
+
+    // Co-dominant states are kept
+    var s3 = state(vertex, 2, 5);
+    assertTrue(subject.add(s3));
+    assertEquals(List.of(s2, s3), subject.getStates(vertex));
+    assertTrue(subject.visit(s2));
+    assertTrue(subject.visit(s3));
+    assertSame(s2, subject.getState(vertex));
+
+    // A state dominating both replace them
+    var s4 = state(vertex, 0, 0);
+    assertTrue(subject.add(s4));
+    assertEquals(List.of(s4), subject.getStates(vertex));
+    assertFalse(subject.visit(s3));
+    assertEquals(1, subject.getVertexCount());
+  }
+
+  @Test
+  public void aVertexAddedAgainKeepsItsIndex() {
+    var graph = new Graph();
+    var vertex = new SimpleConcreteVertex(graph, "A", 0, 0);
+    int index = vertex.getIndex();
+
+    graph.addVertex(vertex);
+
+    assertEquals(index, vertex.getIndex());
+    assertEquals(index + 1, graph.getVertexIndexSize());
+  }
+
+  @Test
+  public void verticesWithoutIndexAreSupported() {
+    var graph = new Graph();
+    var vertex = new SimpleConcreteVertex(graph, "A", 0, 0);
+    var temporaryVertex = new SimpleConcreteVertex(null, "T", 0, 0);
+    var subject = newTree(graph);
+    // Added after the tree is created
+    var newVertex = new SimpleConcreteVertex(graph, "B", 0, 0);
+
+    assertEquals(-1, temporaryVertex.getIndex());
+    assertNull(subject.getStates(temporaryVertex));
+
+    var s1 = state(vertex, 1, 1);
+    var s2 = state(temporaryVertex, 1, 1);
+    var s3 = state(newVertex, 1, 1);
+    assertTrue(subject.add(s1));
+    assertTrue(subject.add(s2));
+    assertTrue(subject.add(s3));
+    assertFalse(subject.add(state(temporaryVertex, 2, 2)));
+
+    assertSame(s2, subject.getState(temporaryVertex));
+    assertTrue(subject.visit(s2));
+    assertEquals(3, subject.getVertexCount());
+    assertEquals(Set.of(vertex, temporaryVertex, newVertex), subject.getVertices());
+    assertEquals(3, subject.getAllStates().size());
+  }
+
+  @Test
+  public void manyVerticesWithMultipleStates() {
+    var graph = new Graph();
+    List<Vertex> vertices = new ArrayList<>();
+    for (int i = 0; i < 3000; ++i) {
+      vertices.add(new SimpleConcreteVertex(graph, "V" + i, 0, 0));
+    }
+    var subject = newTree(graph);
+
+    for (Vertex v : vertices) {
+      assertTrue(subject.add(state(v, 1, 2)));
+      if (v.getIndex() % 3 == 0) {
+        assertTrue(subject.add(state(v, 2, 1)));
+      }
+    }
+    assertEquals(3000, subject.getVertexCount());
+    assertEquals(4000, subject.getAllStates().size());
+    for (Vertex v : vertices) {
+      assertEquals(v.getIndex() % 3 == 0 ? 2 : 1, subject.getStates(v).size());
+    }
+  }
+
+  private IndexedShortestPathTree newTree(Graph graph) {
+    return new IndexedShortestPathTree(request, WEIGHT_AND_TIME, graph.getVertexIndexSize());
+  }
+
+  private State state(Vertex vertex, double weight, long time) {
+    var state = new State(vertex, null, time, request);
+    state.weight = weight;
+    return state;
+  }
+}
@@ -0,0 +1,38 @@
+package org.opentripplanner.standalone.config;
+
+import static org.junit.Assert.assertEquals;
+import static org.opentripplanner.standalone.config.JsonSupport.newNodeAdapterForTest;
+
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.opentripplanner.routing.algorithm.raptor.transit.TransitTuningParameters;
+import org.slf4j.Logger;
+
+public class TransitRoutingConfigTest {
+
+    @Test
+    public void transferCacheMaxMemoryHasTheSameDefaultAsTheTuningParameters() {
+        TransitRoutingConfig subject = new TransitRoutingConfig(newNodeAdapterForTest("{}"));
+
+        assertEquals(
+            TransitTuningParameters.FOR_TEST.transferCacheMaxMemoryMegabytes(),
+            subject.transferCacheMaxMemoryMegabytes()
+        );
+    }
+
+    @Test
+    public void deprecatedTransferCacheMaxSizeIsIgnored() {
+        NodeAdapter c = newNodeAdapterForTest("{ transferCacheMaxSize : 25 }");
+
+        TransitRoutingConfig subject = new TransitRoutingConfig(c);
+
+        assertEquals(
+            TransitTuningParameters.DEFAULT_TRANSFER_CACHE_MAX_MEMORY_MEGABYTES,
+            subject.transferCacheMaxMemoryMegabytes()
+        );
+        // The deprecated parameter is not reported as unknown
+        Logger log = Mockito.mock(Logger.class);
+        c.logAllUnusedParameters(log);
+        Mockito.verifyZeroInteractions(log);
+    }
+}
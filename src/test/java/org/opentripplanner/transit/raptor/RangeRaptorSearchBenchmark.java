@@ -0,0 +1,136 @@
+package org.opentripplanner.transit.raptor;
+
+import static org.opentripplanner.transit.raptor._data.transit.TestTransfer.walk;
+import static org.opentripplanner.transit.raptor._data.transit.TestTripSchedule.schedule;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.opentripplanner.transit.raptor._data.transit.TestRoute;
+import org.opentripplanner.transit.raptor._data.transit.TestTransitData;
+import org.opentripplanner.transit.raptor._data.transit.TestTripPattern;
+import org.opentripplanner.transit.raptor._data.transit.TestTripSchedule;
+import org.opentripplanner.transit.raptor.api.request.RaptorProfile;
+import org.opentripplanner.transit.raptor.api.request.RaptorRequest;
+import org.opentripplanner.transit.raptor.api.request.RaptorRequestBuilder;
+import org.opentripplanner.transit.raptor.api.response.RaptorResponse;
+import org.opentripplanner.transit.raptor.rangeraptor.configure.RaptorConfig;
+
+/**
+ * Measure a Range Raptor search on a generated grid network. The stops are laid out in a square
+ * grid, with a route in both directions along each row and each column, and walking transfers to
+ * the diagonal neighbours. The search goes from one corner to the opposite corner, and every
+ * shortest path needs at least one transfer.
+ * <p>
+ * The multi-criteria profile measures the transit and transfer relaxation of the
+ * {@code McRangeRaptorWorkerState}, the standard profile is included as a reference.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RangeRaptorSearchBenchmark {
+
+  private static final int FIRST_DEPARTURE = 6 * 3600;
+  private static final int LAST_DEPARTURE = 9 * 3600;
+  private static final int HEADWAY = 600;
+  private static final int TRAVEL_TIME = 120;
+  private static final int TRANSFER_TIME = 180;
+
+  @Param({"10", "20"})
+  public int gridSize;
+
+  @Param({"STANDARD", "MULTI_CRITERIA"})
+  public RaptorProfile profile;
+
+  private final RaptorService<TestTripSchedule> service = new RaptorService<>(
+      RaptorConfig.defaultConfigForTest()
+  );
+
+  private TestTransitData data;
+  private RaptorRequest<TestTripSchedule> request;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    data = new TestTransitData();
+    for (int i = 0; i < gridSize; ++i) {
+      int[] row = new int[gridSize];
+      int[] column = new int[gridSize];
+      for (int j = 0; j < gridSize; ++j) {
+        row[j] = stop(i, j);
+        column[j] = stop(j, i);
+      }
+      data.withRoute(route("R" + i + "E", row));
+      data.withRoute(route("R" + i + "W", reverse(row)));
+      data.withRoute(route("C" + i + "N", column));
+      data.withRoute(route("C" + i + "S", reverse(column)));
+    }
+    for (int r = 0; r < gridSize; ++r) {
+      for (int c = 0; c < gridSize; ++c) {
+        for (int dr = -1; dr <= 1; dr += 2) {
+          for (int dc = -1; dc <= 1; dc += 2) {
+            if (inGrid(r + dr) && inGrid(c + dc)) {
+              data.withTransfer(stop(r, c), walk(stop(r + dr, c + dc), TRANSFER_TIME));
+            }
+          }
+        }
+      }
+    }
+
+    var builder = new RaptorRequestBuilder<TestTripSchedule>();
+    builder.profile(profile)
+        .searchParams()
+        .addAccessPaths(walk(stop(0, 0), 60))
+        .addEgressPaths(walk(stop(gridSize - 1, gridSize - 1), 60))
+        .earliestDepartureTime(7 * 3600)
+        .latestArrivalTime(LAST_DEPARTURE + 2 * gridSize * TRAVEL_TIME)
+        .searchWindow(Duration.ofHours(1));
+    request = builder.build();
+  }
+
+  @Benchmark
+  public RaptorResponse<TestTripSchedule> route() {
+    return service.route(request, data);
+  }
+
+  private int stop(int row, int column) {
+    return row * gridSize + column;
+  }
+
+  private boolean inGrid(int index) {
+    return index >= 0 && index < gridSize;
+  }
+
+  private static TestRoute route(String name, int[] stops) {
+    TestRoute route = TestRoute.route(TestTripPattern.pattern(name, stops));
+    for (int t = FIRST_DEPARTURE; t <= LAST_DEPARTURE; t += HEADWAY) {
+      int[] times = new int[stops.length];
+      for (int s = 0; s < stops.length; ++s) {
+        times[s] = t + s * TRAVEL_TIME;
+      }
+      route.withTimetable(schedule().departures(times));
+    }
+    return route;
+  }
+
+  private static int[] reverse(int[] stops) {
+    int[] reversed = new int[stops.length];
+    for (int i = 0; i < stops.length; ++i) {
+      reversed[i] = stops[stops.length - 1 - i];
+    }
+    return reversed;
+  }
+}
@@ -0,0 +1,93 @@
+package org.opentripplanner.transit.raptor.rangeraptor.transit;
+
+import static org.opentripplanner.transit.raptor._data.transit.TestTripSchedule.schedule;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.opentripplanner.transit.raptor._data.transit.TestRoute;
+import org.opentripplanner.transit.raptor._data.transit.TestTripPattern;
+import org.opentripplanner.transit.raptor._data.transit.TestTripSchedule;
+import org.opentripplanner.transit.raptor.api.transit.RaptorTripScheduleBoardOrAlightEvent;
+
+/**
+ * Measure the trip search used when boarding a pattern. Patterns with fewer trips than the
+ * binary search threshold are searched linearly, larger patterns use a binary search.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TripScheduleBoardSearchBenchmark {
+
+  private static final int N_STOPS = 10;
+  private static final int N_SEARCHES = 1024;
+  private static final int BINARY_SEARCH_THRESHOLD = 50;
+  private static final int FIRST_DEPARTURE = 5 * 3600;
+  private static final int HEADWAY = 120;
+  private static final int TRAVEL_TIME = 90;
+
+  @Param({"10", "100", "1000"})
+  public int tripsPerPattern;
+
+  private final int[] earliestBoardTimes = new int[N_SEARCHES];
+  private final int[] stopPositions = new int[N_SEARCHES];
+
+  private TripScheduleBoardSearch<TestTripSchedule> subject;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    int[] stops = new int[N_STOPS];
+    for (int i = 0; i < N_STOPS; ++i) {
+      stops[i] = i + 1;
+    }
+    TestRoute route = TestRoute.route(TestTripPattern.pattern("R1", stops));
+
+    for (int t = 0; t < tripsPerPattern; ++t) {
+      int[] departures = new int[N_STOPS];
+      for (int s = 0; s < N_STOPS; ++s) {
+        departures[s] = FIRST_DEPARTURE + t * HEADWAY + s * TRAVEL_TIME;
+      }
+      route.withTimetable(schedule().departures(departures));
+    }
+    subject = new TripScheduleBoardSearch<>(BINARY_SEARCH_THRESHOLD, route.timetable());
+
+    Random random = new Random(42);
+    int serviceDuration = tripsPerPattern * HEADWAY;
+    for (int i = 0; i < N_SEARCHES; ++i) {
+      stopPositions[i] = random.nextInt(N_STOPS);
+      earliestBoardTimes[i] = FIRST_DEPARTURE + random.nextInt(serviceDuration);
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(N_SEARCHES)
+  public int search() {
+    int sum = 0;
+    for (int i = 0; i < N_SEARCHES; ++i) {
+      RaptorTripScheduleBoardOrAlightEvent<TestTripSchedule> result = subject.search(
+          earliestBoardTimes[i],
+          stopPositions[i],
+          TripScheduleSearch.UNBOUNDED_TRIP_INDEX
+      );
+      if (result != null) {
+        sum += result.getTripIndex();
+      }
+    }
+    return sum;
+  }
+}
@@ -0,0 +1,59 @@
+package org.opentripplanner.transit.raptor.util.paretoset;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measure {@link ParetoSet#add(Object)} with three criteria, like the arrival time, number of
+ * transfers and generalized cost used by the multi-criteria Range Raptor.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParetoSetBenchmark {
+
+  private static final ParetoComparator<Vector> COMPARATOR =
+      (l, r) -> l.v1 < r.v1 || l.v2 < r.v2 || l.v3 < r.v3;
+
+  @Param({"100", "1000"})
+  public int numberOfElements;
+
+  private Vector[] elements;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    Random random = new Random(42);
+    elements = new Vector[numberOfElements];
+    for (int i = 0; i < numberOfElements; ++i) {
+      int arrivalTime = random.nextInt(3600);
+      int transfers = random.nextInt(5);
+      // The cost is correlated with the travel time, as it is in a real search
+      int cost = 2 * (3600 - arrivalTime) + random.nextInt(1200);
+      elements[i] = new Vector("V" + i, arrivalTime, transfers, cost);
+    }
+  }
+
+  @Benchmark
+  public ParetoSet<Vector> add() {
+    ParetoSet<Vector> set = new ParetoSet<>(COMPARATOR);
+    for (Vector v : elements) {
+      set.add(v);
+    }
+    return set;
+  }
+}
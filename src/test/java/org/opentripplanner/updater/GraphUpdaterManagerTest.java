@@ -0,0 +1,66 @@
+package org.opentripplanner.updater;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.routing.graph.Graph;
+
+public class GraphUpdaterManagerTest {
+
+  @Test
+  public void runnablesInALaneRunInOrder() throws InterruptedException {
+    var subject = new GraphUpdaterManager(new Graph());
+    try {
+      List<Integer> events = new CopyOnWriteArrayList<>();
+      var done = new CountDownLatch(1);
+
+      for (int i = 0; i < 100; ++i) {
+        int n = i;
+        subject.execute(GraphWriterLane.TIMETABLE, graph -> events.add(n));
+      }
+      subject.execute(GraphWriterLane.TIMETABLE, graph -> done.countDown());
+
+      assertTrue(done.await(10, TimeUnit.SECONDS));
+      assertEquals(100, events.size());
+      for (int i = 0; i < 100; ++i) {
+        assertEquals(i, events.get(i));
+      }
+    }
+    finally {
+      subject.stop();
+    }
+  }
+
+  @Test
+  public void aBlockedLaneDoesNotDelayOtherLanes() throws InterruptedException {
+    var subject = new GraphUpdaterManager(new Graph());
+    var release = new CountDownLatch(1);
+    try {
+      var timetableUpdated = new CountDownLatch(1);
+
+      // Block the default lane until the timetable lane has run
+      subject.execute(graph -> await(release));
+      subject.execute(GraphWriterLane.TIMETABLE, graph -> timetableUpdated.countDown());
+
+      assertTrue(timetableUpdated.await(10, TimeUnit.SECONDS));
+    }
+    finally {
+      release.countDown();
+      subject.stop();
+    }
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await();
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
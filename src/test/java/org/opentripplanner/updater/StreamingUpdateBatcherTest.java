@@ -0,0 +1,133 @@
+package org.opentripplanner.updater;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.routing.graph.Graph;
+
+public class StreamingUpdateBatcherTest {
+
+  private final GraphUpdaterManager updaterManager = new GraphUpdaterManager(new Graph());
+
+  private final List<List<String>> batches = new CopyOnWriteArrayList<>();
+
+  private final List<Boolean> fullDatasets = new CopyOnWriteArrayList<>();
+
+  @AfterEach
+  public void tearDown() {
+    updaterManager.stop();
+  }
+
+  @Test
+  public void aFullBatchIsAppliedWithTheLastUpdateOfEachKey() throws Exception {
+    var subject = createBatcher(60_000, 3, new CountDownLatch(0));
+
+    var first = subject.add(List.of("a1", "b1"), false);
+    subject.add(List.of("a2"), false);
+    assertFalse(first.isDone());
+    var last = subject.add(List.of("c1"), false);
+
+    last.get(10, TimeUnit.SECONDS);
+    assertTrue(first.isDone());
+    assertEquals(List.of(List.of("b1", "a2", "c1")), batches);
+    assertEquals(List.of(false), fullDatasets);
+  }
+
+  @Test
+  public void aBatchIsAppliedWhenTheWindowIsOver() throws Exception {
+    var subject = createBatcher(500, 1000, new CountDownLatch(0));
+
+    subject.add(List.of("a1"), false);
+    subject.add(List.of("b1"), true).get(10, TimeUnit.SECONDS);
+
+    // The full dataset replaces the updates received before it
+    assertEquals(List.of(List.of("b1")), batches);
+    assertEquals(List.of(true), fullDatasets);
+  }
+
+  @Test
+  public void updatesReceivedWhileABatchIsRunningAreAppliedInTheNextBatch() throws Exception {
+    var release = new CountDownLatch(1);
+    try {
+      var subject = createBatcher(10, 1000, release);
+
+      var first = subject.add(List.of("a1"), false);
+      // Wait until the first batch is running
+      while (batches.isEmpty()) {
+        Thread.sleep(1);
+      }
+      var second = subject.add(List.of("a2", "b1"), false);
+      var third = subject.add(List.of("a3"), false);
+      Thread.sleep(50);
+      assertFalse(first.isDone());
+
+      release.countDown();
+      third.get(10, TimeUnit.SECONDS);
+      assertTrue(first.isDone());
+      assertTrue(second.isDone());
+      assertEquals(List.of(List.of("a1"), List.of("b1", "a3")), batches);
+    }
+    finally {
+      release.countDown();
+    }
+  }
+
+  @Test
+  public void theUpdatesFailIfTheBatchFails() throws InterruptedException {
+    var subject = new StreamingUpdateBatcher<String>(
+        "test",
+        updaterManager,
+        GraphWriterLane.TIMETABLE,
+        10,
+        1000,
+        update -> update,
+        (updates, fullDataset) -> graph -> { throw new IllegalStateException(); }
+    );
+
+    var applied = subject.add(List.of("a1"), false);
+
+    assertThrows(ExecutionException.class, () -> applied.get(10, TimeUnit.SECONDS));
+  }
+
+  /**
+   * Create a batcher keyed on the first letter of the updates, which records the batches. Each
+   * batch waits for the latch to be released.
+   */
+  private StreamingUpdateBatcher<String> createBatcher(
+      int batchWindowMs,
+      int maxBatchSize,
+      CountDownLatch latch
+  ) {
+    return new StreamingUpdateBatcher<>(
+        "test",
+        updaterManager,
+        GraphWriterLane.TIMETABLE,
+        batchWindowMs,
+        maxBatchSize,
+        update -> update.charAt(0),
+        (updates, fullDataset) -> graph -> {
+          batches.add(updates);
+          fullDatasets.add(fullDataset);
+          await(latch);
+        }
+    );
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await();
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,216 @@
+package org.opentripplanner.updater.stoptime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import com.google.transit.realtime.GtfsRealtime.TripDescriptor;
+import com.google.transit.realtime.GtfsRealtime.TripUpdate;
+import com.google.transit.realtime.GtfsRealtime.TripUpdate.StopTimeUpdate;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.model.FeedScopedId;
+import org.opentripplanner.model.Route;
+import org.opentripplanner.model.Stop;
+import org.opentripplanner.model.StopPattern;
+import org.opentripplanner.model.StopTime;
+import org.opentripplanner.model.TimetableSnapshot;
+import org.opentripplanner.model.Trip;
+import org.opentripplanner.model.TripPattern;
+import org.opentripplanner.model.calendar.CalendarServiceData;
+import org.opentripplanner.model.calendar.ServiceDate;
+import org.opentripplanner.routing.graph.Graph;
+import org.opentripplanner.routing.graph.GraphIndex;
+import org.opentripplanner.routing.trippattern.RealTimeState;
+import org.opentripplanner.routing.trippattern.TripTimes;
+import org.opentripplanner.routing.vertextype.TransitStopVertex;
+
+/**
+ * Apply full datasets in a row. Only the trips which changed since the previous full dataset of
+ * the feed should be applied, and the trips which are no longer in it should be reverted to the
+ * schedule.
+ */
+public class TimetableSnapshotSourceFullDatasetTest {
+
+  private static final String FEED_ID = "F";
+
+  private final ServiceDate serviceDate = new ServiceDate();
+
+  private final Graph graph = new Graph();
+
+  private final List<Stop> stops = new ArrayList<>();
+
+  private TripPattern pattern;
+
+  private TimetableSnapshotSource subject;
+
+  @BeforeEach
+  public void setUp() {
+    var serviceId = new FeedScopedId(FEED_ID, "S");
+    var calendarServiceData = new CalendarServiceData();
+    calendarServiceData.putServiceDatesForServiceId(serviceId, List.of(serviceDate));
+    graph.putService(CalendarServiceData.class, calendarServiceData);
+    graph.getServiceCodes().put(serviceId, 0);
+
+    for (String id : List.of("A", "B", "C")) {
+      var stop = Stop.stopForTest(id, 60.0 + 0.01 * stops.size(), 10.0);
+      new TransitStopVertex(graph, stop, null);
+      stops.add(stop);
+    }
+
+    var route = new Route(new FeedScopedId(FEED_ID, "R"));
+    List<TripTimes> tripTimes = new ArrayList<>();
+    for (String id : List.of("T1", "T2", "T3")) {
+      var trip = new Trip(new FeedScopedId(FEED_ID, id));
+      trip.setRoute(route);
+      trip.setServiceId(serviceId);
+      var stopTimes = new ArrayList<StopTime>();
+      for (int i = 0; i < stops.size(); ++i) {
+        var stopTime = new StopTime();
+        stopTime.setTrip(trip);
+        stopTime.setStop(stops.get(i));
+        stopTime.setStopSequence(i);
+        stopTime.setArrivalTime(3600 * (8 + tripTimes.size()) + 600 * i);
+        stopTime.setDepartureTime(3600 * (8 + tripTimes.size()) + 600 * i);
+        stopTimes.add(stopTime);
+      }
+      if (pattern == null) {
+        pattern = new TripPattern(
+            new FeedScopedId(FEED_ID, "P"),
+            route,
+            new StopPattern(stopTimes)
+        );
+      }
+      var times = new TripTimes(trip, stopTimes, graph.deduplicator);
+      times.setServiceCode(0);
+      pattern.add(times);
+      tripTimes.add(times);
+    }
+    pattern.setServiceCodes(graph.getServiceCodes());
+    graph.tripPatternForId.put(pattern.getId(), pattern);
+    graph.index = new GraphIndex(graph);
+
+    subject = new TimetableSnapshotSource(graph);
+    subject.maxSnapshotFrequency = -1;
+  }
+
+  @Test
+  public void onlyChangedTripsAreAppliedAgain() {
+    apply(delay("T1", 60), delay("T2", 60));
+    var first = subject.getTimetableSnapshot();
+    var t1 = tripTimes(first, "T1");
+    var t2 = tripTimes(first, "T2");
+    assertEquals(60, t1.getArrivalDelay(0));
+    assertEquals(60, t2.getArrivalDelay(0));
+
+    // The same update of T1 with a new timestamp, and a new delay for T2
+    apply(delay("T1", 60).toBuilder().setTimestamp(1000).build(), delay("T2", 120));
+    var second = subject.getTimetableSnapshot();
+
+    // The trip times of the unchanged trip are not created again
+    assertSame(t1, tripTimes(second, "T1"));
+    assertNotSame(t2, tripTimes(second, "T2"));
+    assertEquals(120, tripTimes(second, "T2").getArrivalDelay(0));
+    assertSame(scheduledTripTimes("T3"), tripTimes(second, "T3"));
+  }
+
+  @Test
+  public void tripsRemovedFromTheFullDatasetAreReverted() {
+    apply(delay("T1", 60), delay("T2", 60));
+    var t1 = tripTimes(subject.getTimetableSnapshot(), "T1");
+
+    apply(delay("T1", 60));
+    var snapshot = subject.getTimetableSnapshot();
+
+    assertSame(t1, tripTimes(snapshot, "T1"));
+    assertSame(scheduledTripTimes("T2"), tripTimes(snapshot, "T2"));
+  }
+
+  @Test
+  public void rePatternedTripsAreRemovedFromAllTheirPatterns() {
+    // T3 skips B, so it is added to a pattern A-C
+    apply(skip("T3", 1));
+    var firstPattern = subject.getTimetableSnapshot()
+        .getLastAddedTripPattern(tripId("T3"), serviceDate);
+    assertNotNull(firstPattern);
+
+    // A later update of the dataset skips C, so T3 is cancelled in A-C and added to A-B
+    apply(skip("T3", 1), skip("T3", 2));
+    var snapshot = subject.getTimetableSnapshot();
+    var secondPattern = snapshot.getLastAddedTripPattern(tripId("T3"), serviceDate);
+    assertNotEquals(firstPattern, secondPattern);
+    var cancelled = snapshot.resolve(firstPattern, serviceDate);
+    assertEquals(
+        RealTimeState.CANCELED,
+        cancelled.getTripTimes(cancelled.getTripIndex(tripId("T3"))).getRealTimeState()
+    );
+    assertEquals(RealTimeState.CANCELED, tripTimes(snapshot, "T3").getRealTimeState());
+
+    apply();
+    snapshot = subject.getTimetableSnapshot();
+
+    assertEquals(-1, snapshot.resolve(firstPattern, serviceDate).getTripIndex(tripId("T3")));
+    assertEquals(-1, snapshot.resolve(secondPattern, serviceDate).getTripIndex(tripId("T3")));
+    assertNull(snapshot.getLastAddedTripPattern(tripId("T3"), serviceDate));
+    assertSame(scheduledTripTimes("T3"), tripTimes(snapshot, "T3"));
+  }
+
+  private void apply(TripUpdate... updates) {
+    subject.applyTripUpdates(graph, true, List.of(updates), FEED_ID);
+  }
+
+  private TripUpdate delay(String tripId, int delay) {
+    var builder = TripUpdate.newBuilder();
+    builder.getTripBuilder()
+        .setTripId(tripId)
+        .setStartDate(serviceDate.asCompactString())
+        .setScheduleRelationship(TripDescriptor.ScheduleRelationship.SCHEDULED);
+    var stopTimeUpdate = builder.addStopTimeUpdateBuilder().setStopSequence(0);
+    stopTimeUpdate.getArrivalBuilder().setDelay(delay);
+    stopTimeUpdate.getDepartureBuilder().setDelay(delay);
+    return builder.build();
+  }
+
+  /** An update of the trip, which skips the stop at the given index. */
+  private TripUpdate skip(String tripId, int skippedStopIndex) {
+    var scheduled = scheduledTripTimes(tripId);
+    long midnight = serviceDate.getAsCalendar(graph.getTimeZone()).getTimeInMillis() / 1000;
+    var builder = TripUpdate.newBuilder();
+    builder.getTripBuilder()
+        .setTripId(tripId)
+        .setStartDate(serviceDate.asCompactString())
+        .setScheduleRelationship(TripDescriptor.ScheduleRelationship.SCHEDULED);
+    for (int i = 0; i < stops.size(); ++i) {
+      var stopTimeUpdate = builder.addStopTimeUpdateBuilder()
+          .setStopSequence(i)
+          .setStopId(stops.get(i).getId().getId());
+      if (i == skippedStopIndex) {
+        stopTimeUpdate.setScheduleRelationship(StopTimeUpdate.ScheduleRelationship.SKIPPED);
+      }
+      else {
+        stopTimeUpdate.getArrivalBuilder().setTime(midnight + scheduled.getScheduledArrivalTime(i));
+        stopTimeUpdate.getDepartureBuilder().setTime(midnight + scheduled.getScheduledDepartureTime(i));
+      }
+    }
+    return builder.build();
+  }
+
+  private TripTimes tripTimes(TimetableSnapshot snapshot, String tripId) {
+    var timetable = snapshot.resolve(pattern, serviceDate);
+    return timetable.getTripTimes(timetable.getTripIndex(tripId(tripId)));
+  }
+
+  private TripTimes scheduledTripTimes(String tripId) {
+    var timetable = pattern.getScheduledTimetable();
+    return timetable.getTripTimes(timetable.getTripIndex(tripId(tripId)));
+  }
+
+  private static FeedScopedId tripId(String id) {
+    return new FeedScopedId(FEED_ID, id);
+  }
+}
@@ -0,0 +1,110 @@
+package org.opentripplanner.util;
+
+import graphql.ExecutionInput;
+import graphql.ExecutionResult;
+import graphql.GraphQL;
+import graphql.schema.idl.RuntimeWiring;
+import graphql.schema.idl.SchemaGenerator;
+import graphql.schema.idl.SchemaParser;
+import org.junit.Test;
+import org.opentripplanner.model.Stop;
+import org.opentripplanner.routing.RoutingService;
+import org.opentripplanner.routing.alertpatch.EntitySelector;
+import org.opentripplanner.routing.alertpatch.TransitAlert;
+import org.opentripplanner.routing.graph.Graph;
+import org.opentripplanner.routing.impl.TransitAlertServiceImpl;
+import org.opentripplanner.routing.services.TransitAlertService;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+
+public class GraphQLDataLoadersTest {
+
+  private static final List<Stop> STOPS = List.of(
+      Stop.stopForTest("S1", 60.0, 10.0),
+      Stop.stopForTest("S2", 60.1, 10.0),
+      Stop.stopForTest("S3", 60.2, 10.0)
+  );
+
+  private final AtomicInteger alertLookups = new AtomicInteger();
+
+  private final Graph graph = new Graph() {
+    private final TransitAlertService transitAlertService = createTransitAlertService(this);
+
+    @Override
+    public TransitAlertService getTransitAlertService() {
+      return transitAlertService;
+    }
+  };
+
+  private final GraphQL graphQL = GraphQL
+      .newGraphQL(new SchemaGenerator().makeExecutableSchema(
+          new SchemaParser().parse(
+              "type Query { stops: [Stop] } type Stop { id: String alerts: [String] }"
+          ),
+          RuntimeWiring
+              .newRuntimeWiring()
+              .type("Query", type -> type.dataFetcher("stops", env -> STOPS))
+              .type("Stop", type -> type
+                  .dataFetcher("id", env -> env.<Stop>getSource().getId().getId())
+                  .dataFetcher("alerts", env -> GraphQLDataLoaders
+                      .alerts(env, new EntitySelector.Stop(env.<Stop>getSource().getId()))
+                      .thenApply(alerts -> alerts
+                          .stream()
+                          .map(TransitAlert::getId)
+                          .collect(Collectors.toList())))
+              )
+              .build()
+      ))
+      .build();
+
+  @Test
+  public void alertsOfAllStopsAreLoadedInOneCall() {
+    ExecutionResult result = graphQL.execute(ExecutionInput
+        .newExecutionInput()
+        .query("{ stops { id alerts } }")
+        .dataLoaderRegistry(GraphQLDataLoaders.createRegistry(
+            new RoutingService(graph),
+            ForkJoinPool.commonPool()
+        ))
+        .build());
+
+    assertEquals(List.of(), result.getErrors());
+    assertEquals(
+        Map.of("stops", List.of(
+            Map.of("id", "S1", "alerts", List.of("A1")),
+            Map.of("id", "S2", "alerts", List.of()),
+            Map.of("id", "S3", "alerts", List.of("A3"))
+        )),
+        result.getData()
+    );
+    assertEquals(1, alertLookups.get());
+  }
+
+  private TransitAlertService createTransitAlertService(Graph graph) {
+    TransitAlertServiceImpl service = new TransitAlertServiceImpl(graph) {
+      @Override
+      public Map<EntitySelector, Collection<TransitAlert>> getAlerts(
+          Collection<EntitySelector> entities
+      ) {
+        alertLookups.incrementAndGet();
+        return super.getAlerts(entities);
+      }
+    };
+    service.setAlerts(List.of(alert("A1", STOPS.get(0)), alert("A3", STOPS.get(2))));
+    return service;
+  }
+
+  private static TransitAlert alert(String id, Stop stop) {
+    TransitAlert alert = new TransitAlert();
+    alert.setId(id);
+    alert.addEntity(new EntitySelector.Stop(stop.getId()));
+    return alert;
+  }
+}
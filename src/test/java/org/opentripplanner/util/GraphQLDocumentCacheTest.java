@@ -0,0 +1,146 @@
+package org.opentripplanner.util;
+
+import com.google.common.hash.Hashing;
+import graphql.ExecutionInput;
+import graphql.ExecutionResult;
+import graphql.GraphQL;
+import graphql.analysis.MaxQueryComplexityInstrumentation;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.execution.preparsed.PreparsedDocumentProvider;
+import graphql.parser.Parser;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.idl.RuntimeWiring;
+import graphql.schema.idl.SchemaGenerator;
+import graphql.schema.idl.SchemaParser;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class GraphQLDocumentCacheTest {
+
+  private static final String QUERY = "query hello { hello }";
+
+  private static final String COMPLEX_QUERY = "{ hello again: hello }";
+
+  private static final GraphQLSchema SCHEMA = new SchemaGenerator().makeExecutableSchema(
+      new SchemaParser().parse("type Query { hello: String }"),
+      RuntimeWiring
+          .newRuntimeWiring()
+          .type("Query", type -> type.dataFetcher("hello", env -> "world"))
+          .build()
+  );
+
+  private final GraphQLDocumentCache subject = new GraphQLDocumentCache("test", 10);
+
+  private final GraphQL graphQL = graphQL(10);
+
+  @Test
+  public void documentIsParsedOncePerQueryAndOperationName() {
+    AtomicInteger parsed = new AtomicInteger();
+    Function<ExecutionInput, PreparsedDocumentEntry> parse = input -> {
+      parsed.incrementAndGet();
+      return new PreparsedDocumentEntry(Parser.parse(input.getQuery()));
+    };
+
+    PreparsedDocumentProvider provider = subject.forMaxResolves(10);
+
+    PreparsedDocumentEntry entry = provider.getDocument(input(QUERY, "hello", null), parse);
+    assertSame(entry, provider.getDocument(input(QUERY, "hello", null), parse));
+    assertEquals(1, parsed.get());
+
+    provider.getDocument(input(QUERY, null, null), parse);
+    assertEquals(2, parsed.get());
+
+    subject.forMaxResolves(1).getDocument(input(QUERY, "hello", null), parse);
+    assertEquals(3, parsed.get());
+  }
+
+  @Test
+  public void queryAboveTheMaxResolvesIsReturnedAsAnError() {
+    ExecutionResult result = graphQL(1).execute(input(COMPLEX_QUERY, null, null));
+
+    assertNull(result.getData());
+    assertEquals(
+        "maximum query complexity exceeded 2 > 1",
+        result.getErrors().get(0).getMessage()
+    );
+  }
+
+  @Test
+  public void maxResolvesIsCheckedForQueriesCachedWithAHigherMaxResolves() {
+    ExecutionResult allowed = graphQL.execute(input(COMPLEX_QUERY, null, null));
+    assertEquals(Map.of("hello", "world", "again", "world"), allowed.getData());
+
+    ExecutionResult aborted = graphQL(1).execute(input(COMPLEX_QUERY, null, null));
+    assertNull(aborted.getData());
+    assertEquals(1, aborted.getErrors().size());
+  }
+
+  @Test
+  public void persistedQueryIsFoundByHash() {
+    Map<String, Object> extensions = persistedQuery(sha256(QUERY));
+
+    ExecutionResult notFound = graphQL.execute(input(null, null, extensions));
+    assertEquals(
+        "PersistedQueryNotFound",
+        notFound.getErrors().get(0).getErrorType().toString()
+    );
+
+    ExecutionResult withQuery = graphQL.execute(input(QUERY, null, extensions));
+    assertEquals(Map.of("hello", "world"), withQuery.getData());
+
+    ExecutionResult withHashOnly = graphQL.execute(input(null, null, extensions));
+    assertEquals(Map.of("hello", "world"), withHashOnly.getData());
+  }
+
+  @Test
+  public void persistedQueryWithWrongHashIsRejected() {
+    Map<String, Object> extensions = persistedQuery(sha256("query other { hello }"));
+
+    ExecutionResult result = graphQL.execute(input(QUERY, null, extensions));
+    assertTrue(result.getErrors().get(0).getMessage().contains("PersistedQueryIdInvalid"));
+
+    ExecutionResult withHashOnly = graphQL.execute(input(null, null, extensions));
+    assertEquals(
+        "PersistedQueryNotFound",
+        withHashOnly.getErrors().get(0).getErrorType().toString()
+    );
+  }
+
+  private GraphQL graphQL(int maxResolves) {
+    return GraphQL
+        .newGraphQL(SCHEMA)
+        .instrumentation(new MaxQueryComplexityInstrumentation(maxResolves))
+        .preparsedDocumentProvider(subject.forMaxResolves(maxResolves))
+        .build();
+  }
+
+  private static ExecutionInput input(
+      String query,
+      String operationName,
+      Map<String, Object> extensions
+  ) {
+    return ExecutionInput
+        .newExecutionInput()
+        .query(GraphQLDocumentCache.queryOrPersistedQueryMarker(query))
+        .operationName(operationName)
+        .extensions(extensions == null ? Map.of() : extensions)
+        .build();
+  }
+
+  private static Map<String, Object> persistedQuery(String hash) {
+    return Map.of("persistedQuery", Map.of("version", 1, "sha256Hash", hash));
+  }
+
+  private static String sha256(String query) {
+    return Hashing.sha256().hashString(query, StandardCharsets.UTF_8).toString();
+  }
+}